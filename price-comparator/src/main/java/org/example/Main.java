@@ -17,6 +17,8 @@ public class Main implements CommandLineRunner {
     private final DiscountController discountController;
     private final PriceAlertController priceAlertController;
     private final PriceAlertService priceAlertService;
+    private final IngestionService ingestionService;
+    private final ProductSearchService productSearchService;
 
     @Autowired
     public Main(PriceTrendController priceTrendController,
@@ -24,13 +26,17 @@ public class Main implements CommandLineRunner {
                 DiscountAnalysisController discountAnalysisController,
                 DiscountController discountController,
                 PriceAlertController priceAlertController,
-                PriceAlertService priceAlertService) {
+                PriceAlertService priceAlertService,
+                IngestionService ingestionService,
+                ProductSearchService productSearchService) {
         this.priceTrendController = priceTrendController;
         this.basketOptimizationController = basketOptimizationController;
         this.discountAnalysisController = discountAnalysisController;
         this.discountController = discountController;
         this.priceAlertController = priceAlertController;
         this.priceAlertService = priceAlertService;
+        this.ingestionService = ingestionService;
+        this.productSearchService = productSearchService;
     }
 
     public static void main(String[] args) {
@@ -45,7 +51,9 @@ public class Main implements CommandLineRunner {
                 discountAnalysisController,
                 discountController,
                 priceAlertController,
-                priceAlertService
+                priceAlertService,
+                ingestionService,
+                productSearchService
         );
 
         ui.run();
@@ -1,11 +1,22 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.example.dto.BasketCacheStatsDTO;
+import org.example.dto.BasketResultDTO;
 import org.example.dto.OptimizedBasketDTO;
 import org.example.model.BasketItem;
 import org.example.service.BasketOptimizationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 @RestController
@@ -13,10 +24,14 @@ import java.util.List;
 public class BasketOptimizationController {
 
     private final BasketOptimizationService basketOptimizationService;
+    private final ObjectReader batchReader;
 
     @Autowired
-    public BasketOptimizationController(BasketOptimizationService basketOptimizationService) {
+    public BasketOptimizationController(BasketOptimizationService basketOptimizationService,
+                                        ObjectMapper objectMapper) {
         this.basketOptimizationService = basketOptimizationService;
+        this.batchReader = objectMapper.readerFor(new TypeReference<List<List<BasketItem>>>() {})
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
     }
 
     @PostMapping("/optimize")
@@ -24,8 +39,45 @@ public class BasketOptimizationController {
         return basketOptimizationService.optimizeBasket(basket);
     }
 
+    @PostMapping("/optimize/batch")
+    public ResponseEntity<List<BasketResultDTO>> optimizeBaskets(
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+            InputStream body) {
+        if (contentLength != null && contentLength > BasketOptimizationService.MAX_BATCH_BYTES) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+        try {
+            byte[] bytes = body.readNBytes(BasketOptimizationService.MAX_BATCH_BYTES + 1);
+            if (bytes.length > BasketOptimizationService.MAX_BATCH_BYTES) {
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+            }
+            return ResponseEntity.ok(basketOptimizationService.optimizeBaskets(batchReader.readValue(bytes)));
+        } catch (IOException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public BasketCacheStatsDTO getCacheStats() {
+        return basketOptimizationService.getCacheStats();
+    }
+
     @PostMapping("/optimizeWithUnitPrice")
     public OptimizedBasketDTO optimizeBasketWithUnitPrice(@RequestBody List<BasketItem> basket) {
         return basketOptimizationService.optimizeBasketWithUnitPrice(basket);
     }
+
+    @PostMapping("/optimizeWithStoreLimit")
+    public ResponseEntity<OptimizedBasketDTO> optimizeBasketWithStoreLimit(
+            @RequestBody List<BasketItem> basket,
+            @RequestParam int maxStores,
+            @RequestParam(defaultValue = "0") double visitCost,
+            @RequestParam(defaultValue = "" + BasketOptimizationService.DEFAULT_TIME_BUDGET_MILLIS) long timeBudgetMs) {
+        try {
+            return ResponseEntity.ok(basketOptimizationService.optimizeBasketWithStoreLimit(
+                    basket, maxStores, visitCost, timeBudgetMs));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
\ No newline at end of file
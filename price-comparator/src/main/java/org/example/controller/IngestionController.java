@@ -0,0 +1,41 @@
+package org.example.controller;
+
+import org.example.dto.FileManifestDTO;
+import org.example.dto.UploadSummaryDTO;
+import org.example.service.IngestionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ingestion")
+public class IngestionController {
+
+    private final IngestionService ingestionService;
+
+    @Autowired
+    public IngestionController(IngestionService ingestionService) {
+        this.ingestionService = ingestionService;
+    }
+
+    @GetMapping("/manifest")
+    public List<FileManifestDTO> getManifest() {
+        return ingestionService.getManifest();
+    }
+
+    @PostMapping("/upload/{fileName:.+}")
+    public ResponseEntity<UploadSummaryDTO> upload(@PathVariable String fileName, InputStream body) {
+        try {
+            return ResponseEntity.ok(ingestionService.ingestUpload(fileName, body));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IOException e) {
+            System.err.println("Error reading upload " + fileName + ": " + e.getMessage());
+            return ResponseEntity.unprocessableEntity().build();
+        }
+    }
+}
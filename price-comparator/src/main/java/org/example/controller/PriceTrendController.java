@@ -1,18 +1,24 @@
 package org.example.controller;
 
 import org.example.dto.PriceEntryDTO;
+import org.example.dto.PriceTrendPageDTO;
+import org.example.repository.Granularity;
 import org.example.service.PriceTrendService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/price-trends")
 public class PriceTrendController {
+    private static final String RAW_GRANULARITY = "raw";
 
     private final PriceTrendService priceTrendService;
 
@@ -22,24 +28,57 @@ public class PriceTrendController {
     }
 
     @GetMapping("/product")
-    public List<PriceEntryDTO> getPriceTrendsForProduct(@RequestParam String productId) {
-        return priceTrendService.getPriceTrendsForProduct(productId);
+    public List<PriceEntryDTO> getPriceTrendsForProduct(
+            @RequestParam String productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return priceTrendService.getPriceTrendsForProduct(productId, from, to);
     }
 
     @GetMapping("/product-store")
     public List<PriceEntryDTO> getPriceTrendsForProductAndStore(
             @RequestParam String productId,
-            @RequestParam String storeName) {
-        return priceTrendService.getPriceTrendsForProductAndStore(productId, storeName);
+            @RequestParam String storeName,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return priceTrendService.getPriceTrendsForProductAndStore(productId, storeName, from, to);
     }
 
     @GetMapping("/category")
-    public List<PriceEntryDTO> getPriceTrendsByCategory(@RequestParam String category) {
-        return priceTrendService.getPriceTrendsByCategory(category);
+    public ResponseEntity<PriceTrendPageDTO> getPriceTrendsByCategory(
+            @RequestParam String category,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PriceTrendService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = RAW_GRANULARITY) String granularity) {
+        try {
+            if (!RAW_GRANULARITY.equalsIgnoreCase(granularity)) {
+                return ResponseEntity.ok(priceTrendService.getPriceRollupsPageByCategory(
+                        category, Granularity.parse(granularity), from, to, cursor, size));
+            }
+            return ResponseEntity.ok(priceTrendService.getPriceTrendsPageByCategory(category, from, to, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/brand")
-    public List<PriceEntryDTO> getPriceTrendsByBrand(@RequestParam String brand) {
-        return priceTrendService.getPriceTrendsByBrand(brand);
+    public ResponseEntity<PriceTrendPageDTO> getPriceTrendsByBrand(
+            @RequestParam String brand,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + PriceTrendService.DEFAULT_PAGE_SIZE) int size,
+            @RequestParam(defaultValue = RAW_GRANULARITY) String granularity) {
+        try {
+            if (!RAW_GRANULARITY.equalsIgnoreCase(granularity)) {
+                return ResponseEntity.ok(priceTrendService.getPriceRollupsPageByBrand(
+                        brand, Granularity.parse(granularity), from, to, cursor, size));
+            }
+            return ResponseEntity.ok(priceTrendService.getPriceTrendsPageByBrand(brand, from, to, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 }
\ No newline at end of file
@@ -2,25 +2,58 @@ package org.example.controller;
 
 import org.example.dto.PriceEntryDTO;
 import org.example.service.IProductService;
+import org.example.service.ProductFilterService;
+import org.example.service.ProductSearchService;
+import org.example.service.UnitPriceService;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final IProductService productService;
+    private final ProductSearchService productSearchService;
+    private final ProductFilterService productFilterService;
+    private final UnitPriceService unitPriceService;
 
-    public ProductController(IProductService productService) {
+    public ProductController(IProductService productService, ProductSearchService productSearchService,
+                             ProductFilterService productFilterService, UnitPriceService unitPriceService) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
+        this.productFilterService = productFilterService;
+        this.unitPriceService = unitPriceService;
     }
 
     @GetMapping("/load")
     public List<PriceEntryDTO> loadPriceEntries(@RequestParam String filePath) {
         return productService.loadPriceEntries(filePath);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/autocomplete")
+    public List<String> autocomplete(@RequestParam String query,
+                                     @RequestParam(defaultValue = "" + ProductSearchService.DEFAULT_LIMIT) int limit) {
+        return productSearchService.autocomplete(query, limit);
+    }
+
+    @GetMapping("/filter")
+    public Stream<PriceEntryDTO> filter(@RequestParam(required = false) List<String> category,
+                                        @RequestParam(required = false) List<String> brand,
+                                        @RequestParam(required = false) List<String> store,
+                                        @RequestParam(required = false) List<String> unit,
+                                        @RequestParam(defaultValue = "all") String match) {
+        return productFilterService.filter(category, brand, store, unit, !"any".equalsIgnoreCase(match));
+    }
+
+    @GetMapping("/cheapest-per-unit")
+    public List<PriceEntryDTO> cheapestPerUnit(@RequestParam String category,
+                                               @RequestParam(defaultValue = "kg") String unit,
+                                               @RequestParam(defaultValue = "" + UnitPriceService.DEFAULT_LIMIT) int limit) {
+        return unitPriceService.findCheapestPerUnit(category, unit, limit);
+    }
+}
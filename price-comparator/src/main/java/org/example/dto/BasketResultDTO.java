@@ -0,0 +1,47 @@
+package org.example.dto;
+
+public class BasketResultDTO {
+    private int index;
+    private OptimizedBasketDTO optimizedBasket;
+    private String error;
+
+    public BasketResultDTO() {}
+
+    public static BasketResultDTO success(int index, OptimizedBasketDTO optimizedBasket) {
+        BasketResultDTO result = new BasketResultDTO();
+        result.setIndex(index);
+        result.setOptimizedBasket(optimizedBasket);
+        return result;
+    }
+
+    public static BasketResultDTO failure(int index, String error) {
+        BasketResultDTO result = new BasketResultDTO();
+        result.setIndex(index);
+        result.setError(error);
+        return result;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public OptimizedBasketDTO getOptimizedBasket() {
+        return optimizedBasket;
+    }
+
+    public void setOptimizedBasket(OptimizedBasketDTO optimizedBasket) {
+        this.optimizedBasket = optimizedBasket;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -14,6 +14,7 @@ public class DiscountDTO {
     private LocalDate startingDate;
     private LocalDate endingDate;
     private double percentageOfDiscount;
+    private String storeName;
 
     public DiscountDTO() {};
 
@@ -101,8 +102,16 @@ public class DiscountDTO {
         this.percentageOfDiscount = percentageOfDiscount;
     }
 
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
     public static DiscountDTO convertToDTO(Discount discount) {
-        return new DiscountDTO(
+        DiscountDTO dto = new DiscountDTO(
                 discount.getProductId(),
                 discount.getProductName(),
                 discount.getBrand(),
@@ -113,5 +122,7 @@ public class DiscountDTO {
                 discount.getEndingDate(),
                 discount.getPercentageOfDiscount()
         );
+        dto.setStoreName(discount.getStoreName());
+        return dto;
     }
 }
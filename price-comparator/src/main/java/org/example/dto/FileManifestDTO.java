@@ -0,0 +1,85 @@
+package org.example.dto;
+
+import org.example.repository.FileManifest;
+
+import java.time.Instant;
+
+public class FileManifestDTO {
+    private String catalog;
+    private String filePath;
+    private long size;
+    private Instant lastModified;
+    private String contentHash;
+    private int entryCount;
+    private Instant ingestedAt;
+
+    public FileManifestDTO() {}
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public void setCatalog(String catalog) {
+        this.catalog = catalog;
+    }
+
+    public String getFilePath() {
+        return filePath;
+    }
+
+    public void setFilePath(String filePath) {
+        this.filePath = filePath;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public Instant getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(Instant lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public int getEntryCount() {
+        return entryCount;
+    }
+
+    public void setEntryCount(int entryCount) {
+        this.entryCount = entryCount;
+    }
+
+    public Instant getIngestedAt() {
+        return ingestedAt;
+    }
+
+    public void setIngestedAt(Instant ingestedAt) {
+        this.ingestedAt = ingestedAt;
+    }
+
+    public static FileManifestDTO from(String catalog, FileManifest.FileRecord record) {
+        FileManifestDTO dto = new FileManifestDTO();
+        dto.setCatalog(catalog);
+        dto.setFilePath(record.filePath());
+        dto.setSize(record.size());
+        dto.setLastModified(Instant.ofEpochMilli(record.lastModified()));
+        dto.setContentHash(record.contentHash());
+        dto.setEntryCount(record.entryCount());
+        dto.setIngestedAt(Instant.ofEpochMilli(record.ingestedAt()));
+        return dto;
+    }
+}
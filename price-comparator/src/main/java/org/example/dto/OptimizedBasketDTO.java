@@ -8,6 +8,8 @@ public class OptimizedBasketDTO {
     private double totalCost;
     private double totalSavings;
     private double originalCost;
+    private double visitCost;
+    private boolean optimal = true;
 
     public OptimizedBasketDTO() {
         this.shoppingLists = new ArrayList<>();
@@ -46,6 +48,22 @@ public class OptimizedBasketDTO {
         this.originalCost = originalCost;
     }
 
+    public double getVisitCost() {
+        return visitCost;
+    }
+
+    public void setVisitCost(double visitCost) {
+        this.visitCost = visitCost;
+    }
+
+    public boolean isOptimal() {
+        return optimal;
+    }
+
+    public void setOptimal(boolean optimal) {
+        this.optimal = optimal;
+    }
+
     public void addShoppingList(ShoppingListDTO shoppingList) {
         this.shoppingLists.add(shoppingList);
         recalculateTotals();
@@ -65,6 +65,12 @@ public class PriceEntryDTO {
     public void setUnitPrice(double unitPrice) {
         this.unitPrice = unitPrice;
     }
+    public String getUnitPriceLabel() {
+        return unitPriceLabel;
+    }
+    public void setUnitPriceLabel(String unitPriceLabel) {
+        this.unitPriceLabel = unitPriceLabel;
+    }
 
     public String getProductName() {
         return productName;
@@ -0,0 +1,65 @@
+package org.example.dto;
+
+import org.example.repository.PriceRollup;
+
+import java.time.LocalDate;
+
+public class PriceRollupDTO {
+    private String productId;
+    private String productName;
+    private String storeName;
+    private LocalDate periodStart;
+    private double minPrice;
+    private double maxPrice;
+    private double avgPrice;
+    private double firstPrice;
+    private double lastPrice;
+    private int entryCount;
+
+    public PriceRollupDTO() {}
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getProductName() { return productName; }
+    public void setProductName(String productName) { this.productName = productName; }
+
+    public String getStoreName() { return storeName; }
+    public void setStoreName(String storeName) { this.storeName = storeName; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public double getMinPrice() { return minPrice; }
+    public void setMinPrice(double minPrice) { this.minPrice = minPrice; }
+
+    public double getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(double maxPrice) { this.maxPrice = maxPrice; }
+
+    public double getAvgPrice() { return avgPrice; }
+    public void setAvgPrice(double avgPrice) { this.avgPrice = avgPrice; }
+
+    public double getFirstPrice() { return firstPrice; }
+    public void setFirstPrice(double firstPrice) { this.firstPrice = firstPrice; }
+
+    public double getLastPrice() { return lastPrice; }
+    public void setLastPrice(double lastPrice) { this.lastPrice = lastPrice; }
+
+    public int getEntryCount() { return entryCount; }
+    public void setEntryCount(int entryCount) { this.entryCount = entryCount; }
+
+    public static PriceRollupDTO from(PriceRollup rollup) {
+        PriceRollupDTO dto = new PriceRollupDTO();
+        dto.setProductId(rollup.productId());
+        dto.setProductName(rollup.productName());
+        dto.setStoreName(rollup.storeName());
+        dto.setPeriodStart(rollup.periodStart());
+        dto.setMinPrice(rollup.minPrice());
+        dto.setMaxPrice(rollup.maxPrice());
+        dto.setAvgPrice(rollup.avgPrice());
+        dto.setFirstPrice(rollup.firstPrice());
+        dto.setLastPrice(rollup.lastPrice());
+        dto.setEntryCount(rollup.entryCount());
+        return dto;
+    }
+}
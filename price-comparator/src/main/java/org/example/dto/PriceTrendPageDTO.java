@@ -0,0 +1,46 @@
+package org.example.dto;
+
+import java.util.List;
+
+public class PriceTrendPageDTO {
+    private List<PriceEntryDTO> entries;
+    private String nextCursor;
+    private List<PriceRollupDTO> rollups;
+
+    public PriceTrendPageDTO() {}
+
+    public PriceTrendPageDTO(List<PriceEntryDTO> entries, String nextCursor) {
+        this.entries = entries;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PriceEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<PriceEntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PriceRollupDTO> getRollups() {
+        return rollups;
+    }
+
+    public void setRollups(List<PriceRollupDTO> rollups) {
+        this.rollups = rollups;
+    }
+
+    public static PriceTrendPageDTO ofRollups(List<PriceRollupDTO> rollups, String nextCursor) {
+        PriceTrendPageDTO page = new PriceTrendPageDTO(List.of(), nextCursor);
+        page.setRollups(rollups);
+        return page;
+    }
+}
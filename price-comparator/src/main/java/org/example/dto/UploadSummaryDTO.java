@@ -0,0 +1,83 @@
+package org.example.dto;
+
+import org.example.repository.EntryCatalog;
+
+public class UploadSummaryDTO {
+    private String catalog;
+    private String fileName;
+    private int acceptedRows;
+    private int rejectedRows;
+    private double elapsedMillis;
+    private boolean changed;
+    private long catalogVersion;
+
+    public UploadSummaryDTO() {}
+
+    public String getCatalog() {
+        return catalog;
+    }
+
+    public void setCatalog(String catalog) {
+        this.catalog = catalog;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public int getAcceptedRows() {
+        return acceptedRows;
+    }
+
+    public void setAcceptedRows(int acceptedRows) {
+        this.acceptedRows = acceptedRows;
+    }
+
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(int rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public double getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(double elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public boolean isChanged() {
+        return changed;
+    }
+
+    public void setChanged(boolean changed) {
+        this.changed = changed;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public void setCatalogVersion(long catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    public static UploadSummaryDTO from(String catalog, String fileName, EntryCatalog.UploadResult<?> result) {
+        UploadSummaryDTO dto = new UploadSummaryDTO();
+        dto.setCatalog(catalog);
+        dto.setFileName(fileName);
+        dto.setAcceptedRows(result.acceptedRows());
+        dto.setRejectedRows(result.rejectedRows());
+        dto.setElapsedMillis(result.elapsedNanos() / 1e6);
+        dto.setChanged(!result.delta().getAddedEntries().isEmpty() || !result.delta().getRemovedEntries().isEmpty());
+        dto.setCatalogVersion(result.delta().getVersion());
+        return dto;
+    }
+}
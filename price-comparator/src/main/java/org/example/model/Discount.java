@@ -12,6 +12,7 @@ public class Discount {
     private LocalDate startingDate;
     private LocalDate endingDate;
     private double percentageOfDiscount;
+    private String storeName;
 
     public Discount(){};
     public Discount(String productId, String productName, String brand, double packageQuantity, String packageUnit, String productCategory, LocalDate startingDate, LocalDate endingDate, double percentageOfDiscount) {
@@ -26,6 +27,11 @@ public class Discount {
         this.percentageOfDiscount = percentageOfDiscount;
     }
 
+    public Discount(String productId, String productName, String brand, double packageQuantity, String packageUnit, String productCategory, LocalDate startingDate, LocalDate endingDate, double percentageOfDiscount, String storeName) {
+        this(productId, productName, brand, packageQuantity, packageUnit, productCategory, startingDate, endingDate, percentageOfDiscount);
+        this.storeName = storeName;
+    }
+
     public String getProductId() {
         return productId;
     }
@@ -98,6 +104,14 @@ public class Discount {
         this.percentageOfDiscount = percentageOfDiscount;
     }
 
+    public String getStoreName() {
+        return storeName;
+    }
+
+    public void setStoreName(String storeName) {
+        this.storeName = storeName;
+    }
+
     @Override
     public String toString() {
         return "Discount{" +
@@ -110,6 +124,7 @@ public class Discount {
                 ", startingDate=" + startingDate +
                 ", endingDate=" + endingDate +
                 ", percentageOfDiscount=" + percentageOfDiscount +
+                ", storeName='" + storeName + '\'' +
                 '}';
     }
 }
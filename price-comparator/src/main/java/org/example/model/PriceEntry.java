@@ -1,5 +1,7 @@
 package org.example.model;
 
+import org.example.utils.UnitUtil;
+
 import java.time.LocalDate;
 
 public class PriceEntry {
@@ -13,6 +15,8 @@ public class PriceEntry {
     private LocalDate date;
     private double price;
     private String currency;
+    private String canonicalUnit;
+    private double unitPrice;
 
     public PriceEntry(String productId, String productName, String productCategory,  String brand, double packageQuantity, String packageUnit, String storeName, LocalDate date, double price, String currency) {
         this.productId = productId;
@@ -25,6 +29,7 @@ public class PriceEntry {
         this.date = date;
         this.price = price;
         this.currency = currency;
+        updateUnitPrice();
     }
 
     public PriceEntry() {};
@@ -52,12 +57,27 @@ public class PriceEntry {
     }
     public void setPackageQuantity(double packageQuantity) {
         this.packageQuantity = packageQuantity;
+        updateUnitPrice();
     }
     public String getPackageUnit() {
         return packageUnit;
     }
     public void setPackageUnit(String packageUnit) {
         this.packageUnit = packageUnit;
+        updateUnitPrice();
+    }
+    /**
+     * Returns the unit the unit price is expressed in: kg, l or buc for known units.
+     */
+    public String getCanonicalUnit() {
+        return canonicalUnit;
+    }
+    /**
+     * Returns the price of one canonical unit, recomputed whenever the price, package quantity
+     * or package unit is set.
+     */
+    public double getUnitPrice() {
+        return unitPrice;
     }
     public String getProductName() {
         return productName;
@@ -95,6 +115,12 @@ public class PriceEntry {
 
     public void setPrice(double price) {
         this.price = price;
+        updateUnitPrice();
+    }
+
+    private void updateUnitPrice() {
+        canonicalUnit = UnitUtil.canonicalUnit(packageUnit);
+        unitPrice = UnitUtil.unitPrice(price, packageQuantity, packageUnit);
     }
 
     @Override
@@ -0,0 +1,94 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable set of the discounts active on one date, with the lookups requests need on it: the
+ * best discount of a (store, product) pair, all discounts by percentage, and the best discount
+ * of every product by percentage.
+ * <p>
+ * A new set is built once per day and whenever the discount catalog changes, and is swapped in
+ * as a whole, so readers never recompute validity intervals nor see a partially updated set.
+ */
+public class ActiveDiscounts {
+    private final LocalDate date;
+    private final Map<Key, Discount> byStoreAndProduct;
+    private final List<Discount> byPercentage;
+    private final List<Discount> maxPerProduct;
+
+    /**
+     * Constructs the set of the discounts active on a date.
+     *
+     * @param date          The date the discounts are valid on.
+     * @param byPercentage  The active discounts, highest percentage first.
+     * @param maxPerProduct The best active discount of every product, highest percentage first.
+     */
+    public ActiveDiscounts(LocalDate date, List<Discount> byPercentage, List<Discount> maxPerProduct) {
+        this.date = date;
+        this.byPercentage = List.copyOf(byPercentage);
+        this.maxPerProduct = List.copyOf(maxPerProduct);
+
+        Map<Key, Discount> best = new HashMap<>();
+        for (Discount discount : this.byPercentage) {
+            best.putIfAbsent(new Key(discount.getStoreName(), discount.getProductId()), discount);
+        }
+        this.byStoreAndProduct = best;
+    }
+
+    /**
+     * Returns the date the discounts are valid on.
+     *
+     * @return The date.
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Finds the best active discount of a product at a store.
+     *
+     * @param storeName The store name.
+     * @param productId The product id.
+     * @return The discount with the highest percentage, or null if there is none.
+     */
+    public Discount find(String storeName, String productId) {
+        return byStoreAndProduct.get(new Key(storeName, productId));
+    }
+
+    /**
+     * Returns the active discounts with the highest percentages.
+     *
+     * @param limit The maximum number of discounts returned.
+     * @return The discounts, highest percentage first.
+     */
+    public List<Discount> getHighest(int limit) {
+        return byPercentage.subList(0, Math.max(0, Math.min(limit, byPercentage.size())));
+    }
+
+    /**
+     * Returns the best active discount of the products with the highest percentages.
+     *
+     * @param limit The maximum number of products returned.
+     * @return One discount per product id, highest percentage first.
+     */
+    public List<Discount> getMaxPerProduct(int limit) {
+        return maxPerProduct.subList(0, Math.max(0, Math.min(limit, maxPerProduct.size())));
+    }
+
+    /**
+     * Returns the number of active discounts.
+     *
+     * @return The discount count.
+     */
+    public int size() {
+        return byPercentage.size();
+    }
+
+    private record Key(String storeName, String productId) {
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.repository;
+
+import java.util.List;
+
+/**
+ * A change applied to an {@link EntryCatalog} for a single source file.
+ * A modified file retires all of its previous entries and adds the newly parsed ones.
+ *
+ * @param <ItemType> The type of entry held by the catalog
+ */
+public class CatalogDelta<ItemType> {
+    private final String filePath;
+    private final long version;
+    private final List<ItemType> addedEntries;
+    private final List<ItemType> removedEntries;
+
+    /**
+     * Constructs a CatalogDelta object.
+     *
+     * @param filePath       The source file the delta was built from.
+     * @param version        The catalog version once the delta is applied.
+     * @param addedEntries   The entries added to the catalog.
+     * @param removedEntries The entries retired from the catalog.
+     */
+    public CatalogDelta(String filePath, long version, List<ItemType> addedEntries, List<ItemType> removedEntries) {
+        this.filePath = filePath;
+        this.version = version;
+        this.addedEntries = addedEntries;
+        this.removedEntries = removedEntries;
+    }
+
+    /**
+     * Returns the source file the delta was built from.
+     *
+     * @return The file path.
+     */
+    public String getFilePath() {
+        return filePath;
+    }
+
+    /**
+     * Returns the catalog version once the delta is applied.
+     *
+     * @return The catalog version.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the entries added to the catalog.
+     *
+     * @return The added entries.
+     */
+    public List<ItemType> getAddedEntries() {
+        return addedEntries;
+    }
+
+    /**
+     * Returns the entries retired from the catalog.
+     *
+     * @return The removed entries.
+     */
+    public List<ItemType> getRemovedEntries() {
+        return removedEntries;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogDelta{" +
+                "filePath='" + filePath + '\'' +
+                ", version=" + version +
+                ", added=" + addedEntries.size() +
+                ", removed=" + removedEntries.size() +
+                '}';
+    }
+}
@@ -0,0 +1,450 @@
+package org.example.repository;
+
+import org.example.utils.DateUtil;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary columnar snapshot of the entries of an {@link EntryCatalog}.
+ * <p>
+ * The file starts with a header (magic number, format version, entry kind, then the length,
+ * dictionary offset and CRC32C checksum of the body). The body holds one section per source file
+ * recording the file's size and modification time and its entries column by column: strings as
+ * dictionary ids, dates as epoch days and decimal numbers as fixed-point longs, or as doubles for
+ * the columns of a section holding a value with more decimals than the column keeps. The body ends
+ * with the dictionary holding every distinct string once.
+ * <p>
+ * All values are big-endian. Sections are streamed to the file as they are encoded, and the header
+ * is patched once the body is complete, so a snapshot is never held in memory as a whole. It is
+ * read through memory-mapped windows of at most {@value #SEGMENT_SIZE} bytes, so its size is not
+ * limited by the size of a single buffer.
+ */
+public final class CatalogSnapshot {
+    private static final int MAGIC = 0x50435331;
+    private static final int FORMAT_VERSION = 2;
+    private static final int DOUBLE_COLUMN = -1;
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final int TRAILER_FIELDS_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private CatalogSnapshot() {
+    }
+
+    /**
+     * Converts the entries of a catalog to and from columns.
+     *
+     * @param <ItemType> The type of entry held by the catalog
+     */
+    public interface Codec<ItemType> {
+        /**
+         * Returns the kind of entry encoded, stored in the header to reject foreign snapshots.
+         *
+         * @return The entry kind.
+         */
+        String getKind();
+
+        /**
+         * Writes the columns of a file section.
+         *
+         * @param entries The entries of the section.
+         * @param writer  The column writer.
+         * @throws IOException If a value cannot be encoded.
+         */
+        void writeColumns(List<ItemType> entries, ColumnWriter writer) throws IOException;
+
+        /**
+         * Reads the columns of a file section, in the order they were written, and rebuilds the entries.
+         *
+         * @param rowCount The number of entries in the section.
+         * @param reader   The column reader.
+         * @return The decoded entries.
+         */
+        List<ItemType> readColumns(int rowCount, ColumnReader reader);
+    }
+
+    /**
+     * The entries of a single source file, along with the stamp of the file they were parsed from.
+     *
+     * @param fileName     The file path, relative to the data directory.
+     * @param size         The size of the source file.
+     * @param lastModified The modification time of the source file.
+     * @param entries      The entries parsed from the file.
+     * @param <ItemType>   The type of entry
+     */
+    public record FileSection<ItemType>(String fileName, long size, long lastModified, List<ItemType> entries) {
+    }
+
+    /**
+     * Writes the columns of a snapshot, collecting distinct strings into the shared dictionary.
+     */
+    public static class ColumnWriter {
+        private final DataOutputStream out;
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> symbols = new ArrayList<>();
+
+        private ColumnWriter(DataOutputStream out) {
+            this.out = out;
+        }
+
+        /**
+         * Writes a string column as dictionary ids.
+         *
+         * @param entries The entries of the section.
+         * @param getter  Extracts the column value.
+         * @param <T>     The type of entry
+         * @throws IOException If the column cannot be written.
+         */
+        public <T> void writeStrings(List<T> entries, Function<T, String> getter) throws IOException {
+            for (T entry : entries) {
+                String value = getter.apply(entry);
+                out.writeInt(value == null ? -1 : dictionary.computeIfAbsent(value, key -> {
+                    symbols.add(key);
+                    return symbols.size() - 1;
+                }));
+            }
+        }
+
+        /**
+         * Writes a date column as epoch days.
+         *
+         * @param entries The entries of the section.
+         * @param getter  Extracts the column value.
+         * @param <T>     The type of entry
+         * @throws IOException If the column cannot be written.
+         */
+        public <T> void writeDates(List<T> entries, Function<T, LocalDate> getter) throws IOException {
+            for (T entry : entries) {
+                LocalDate value = getter.apply(entry);
+                out.writeInt(value == null ? Integer.MIN_VALUE : (int) value.toEpochDay());
+            }
+        }
+
+        /**
+         * Writes a decimal column as fixed-point longs with the given number of decimals. A column
+         * holding a value with more decimals, such as a package quantity of 0.3333, is written as
+         * doubles instead, so no value is altered.
+         *
+         * @param entries  The entries of the section.
+         * @param getter   Extracts the column value.
+         * @param decimals The number of decimals kept.
+         * @param <T>      The type of entry
+         * @throws IOException If the column cannot be written.
+         */
+        public <T> void writeFixedPoint(List<T> entries, ToDoubleFunction<T> getter, int decimals) throws IOException {
+            double scale = Math.pow(10, decimals);
+            long[] fixedPoints = new long[entries.size()];
+            boolean exact = true;
+            for (int i = 0; i < fixedPoints.length && exact; i++) {
+                double value = getter.applyAsDouble(entries.get(i));
+                fixedPoints[i] = Math.round(value * scale);
+                exact = fixedPoints[i] / scale == value;
+            }
+
+            if (exact) {
+                out.writeInt(decimals);
+                for (long fixedPoint : fixedPoints) {
+                    out.writeLong(fixedPoint);
+                }
+            } else {
+                out.writeInt(DOUBLE_COLUMN);
+                for (T entry : entries) {
+                    out.writeDouble(getter.applyAsDouble(entry));
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the columns of a snapshot from the mapped file.
+     */
+    public static class ColumnReader {
+        private final MappedInput buffer;
+        private final String[] symbols;
+
+        private ColumnReader(MappedInput buffer, String[] symbols) {
+            this.buffer = buffer;
+            this.symbols = symbols;
+        }
+
+        /**
+         * Reads a string column. Equal values share the same dictionary instance.
+         *
+         * @param rowCount The number of values.
+         * @return The column values.
+         */
+        public String[] readStrings(int rowCount) {
+            String[] values = new String[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                int id = buffer.getInt();
+                values[i] = id < 0 ? null : symbols[id];
+            }
+            return values;
+        }
+
+        /**
+         * Reads a date column. Recently used dates share the same instance.
+         *
+         * @param rowCount The number of values.
+         * @return The column values.
+         */
+        public LocalDate[] readDates(int rowCount) {
+            LocalDate[] values = new LocalDate[rowCount];
+            for (int i = 0; i < rowCount; i++) {
+                int epochDay = buffer.getInt();
+                values[i] = epochDay == Integer.MIN_VALUE ? null : DateUtil.toLocalDate(epochDay);
+            }
+            return values;
+        }
+
+        /**
+         * Reads a decimal column written as fixed-point longs or as doubles.
+         *
+         * @param rowCount The number of values.
+         * @return The column values.
+         */
+        public double[] readFixedPoint(int rowCount) {
+            int decimals = buffer.getInt();
+            double[] values = new double[rowCount];
+            if (decimals == DOUBLE_COLUMN) {
+                for (int i = 0; i < rowCount; i++) {
+                    values[i] = buffer.getDouble();
+                }
+                return values;
+            }
+            double scale = Math.pow(10, decimals);
+            for (int i = 0; i < rowCount; i++) {
+                values[i] = buffer.getLong() / scale;
+            }
+            return values;
+        }
+    }
+
+    /**
+     * Writes a snapshot file. The file is written next to its target and moved into place,
+     * so readers never observe a partially written snapshot.
+     *
+     * @param snapshotFile The snapshot file to write.
+     * @param codec        The codec of the entries.
+     * @param sections     The file sections to write.
+     * @param <ItemType>   The type of entry
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static <ItemType> void write(Path snapshotFile, Codec<ItemType> codec,
+                                        List<FileSection<ItemType>> sections) throws IOException {
+        Path parent = snapshotFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, snapshotFile.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+            DataOutputStream headerOut = new DataOutputStream(Channels.newOutputStream(channel));
+            headerOut.writeInt(MAGIC);
+            headerOut.writeInt(FORMAT_VERSION);
+            writeString(headerOut, codec.getKind());
+            long trailerPosition = channel.position();
+            headerOut.write(new byte[TRAILER_FIELDS_SIZE]);
+            long bodyStart = channel.position();
+
+            CRC32C checksum = new CRC32C();
+            DataOutputStream bodyOut = new DataOutputStream(new BufferedOutputStream(
+                    new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 1 << 16));
+            ColumnWriter writer = new ColumnWriter(bodyOut);
+            bodyOut.writeInt(sections.size());
+            for (FileSection<ItemType> section : sections) {
+                writeString(bodyOut, section.fileName());
+                bodyOut.writeLong(section.size());
+                bodyOut.writeLong(section.lastModified());
+                bodyOut.writeInt(section.entries().size());
+                codec.writeColumns(section.entries(), writer);
+            }
+            bodyOut.flush();
+
+            long dictionaryOffset = channel.position() - bodyStart;
+            bodyOut.writeInt(writer.symbols.size());
+            for (String symbol : writer.symbols) {
+                writeString(bodyOut, symbol);
+            }
+            bodyOut.flush();
+
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_FIELDS_SIZE)
+                    .putLong(channel.position() - bodyStart)
+                    .putLong(dictionaryOffset)
+                    .putInt((int) checksum.getValue())
+                    .flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer, trailerPosition + trailer.position());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a snapshot file.
+     *
+     * @param snapshotFile The snapshot file to read.
+     * @param codec        The codec of the entries.
+     * @param <ItemType>   The type of entry
+     * @return The file sections of the snapshot.
+     * @throws IOException If the file is missing, corrupted, or was written for another format version or entry kind.
+     */
+    public static <ItemType> List<FileSection<ItemType>> read(Path snapshotFile, Codec<ItemType> codec) throws IOException {
+        return read(snapshotFile, codec, SEGMENT_SIZE);
+    }
+
+    /**
+     * Reads a snapshot file through mapped windows of the given size.
+     */
+    static <ItemType> List<FileSection<ItemType>> read(Path snapshotFile, Codec<ItemType> codec, long segmentSize)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedInput buffer = new MappedInput(channel, segmentSize);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a catalog snapshot: " + snapshotFile);
+            }
+            int formatVersion = buffer.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported snapshot format version " + formatVersion + ": " + snapshotFile);
+            }
+            String kind = readString(buffer);
+            if (!kind.equals(codec.getKind())) {
+                throw new IOException("Snapshot holds " + kind + " entries, expected " + codec.getKind());
+            }
+
+            long bodyLength = buffer.getLong();
+            long dictionaryOffset = buffer.getLong();
+            int expectedChecksum = buffer.getInt();
+            long bodyStart = buffer.position();
+            if (bodyStart + bodyLength != channel.size() || dictionaryOffset > bodyLength) {
+                throw new IOException("Truncated snapshot: " + snapshotFile);
+            }
+            if (checksum(channel, bodyStart, segmentSize) != expectedChecksum) {
+                throw new IOException("Snapshot checksum mismatch: " + snapshotFile);
+            }
+
+            buffer.seek(bodyStart + dictionaryOffset);
+            String[] symbols = new String[buffer.getInt()];
+            for (int i = 0; i < symbols.length; i++) {
+                symbols[i] = readString(buffer);
+            }
+            buffer.seek(bodyStart);
+
+            ColumnReader reader = new ColumnReader(buffer, symbols);
+            int sectionCount = buffer.getInt();
+            List<FileSection<ItemType>> sections = new ArrayList<>(sectionCount);
+            for (int i = 0; i < sectionCount; i++) {
+                String fileName = readString(buffer);
+                long size = buffer.getLong();
+                long lastModified = buffer.getLong();
+                int rowCount = buffer.getInt();
+                sections.add(new FileSection<>(fileName, size, lastModified, codec.readColumns(rowCount, reader)));
+            }
+            return sections;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupted snapshot: " + snapshotFile, e);
+        }
+    }
+
+    private static int checksum(FileChannel channel, long start, long segmentSize) throws IOException {
+        CRC32C checksum = new CRC32C();
+        long size = channel.size();
+        for (long position = start; position < size; position += segmentSize) {
+            checksum.update(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position)));
+        }
+        return (int) checksum.getValue();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedInput buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Sequential reader over a file mapped one window at a time. A value straddling the end of the
+     * current window is read from a new window starting at that value.
+     */
+    private static final class MappedInput {
+        private final FileChannel channel;
+        private final long segmentSize;
+        private ByteBuffer window = ByteBuffer.allocate(0);
+        private long windowStart;
+
+        MappedInput(FileChannel channel, long segmentSize) {
+            this.channel = channel;
+            this.segmentSize = segmentSize;
+        }
+
+        long position() {
+            return windowStart + window.position();
+        }
+
+        void seek(long position) {
+            windowStart = position;
+            window = ByteBuffer.allocate(0);
+        }
+
+        int getInt() {
+            require(Integer.BYTES);
+            return window.getInt();
+        }
+
+        long getLong() {
+            require(Long.BYTES);
+            return window.getLong();
+        }
+
+        double getDouble() {
+            require(Double.BYTES);
+            return window.getDouble();
+        }
+
+        void get(byte[] bytes) {
+            require(bytes.length);
+            window.get(bytes);
+        }
+
+        private void require(int bytes) {
+            if (window.remaining() >= bytes) {
+                return;
+            }
+            try {
+                long position = position();
+                long length = Math.min(Math.max(segmentSize, bytes), channel.size() - position);
+                if (length < bytes) {
+                    throw new BufferUnderflowException();
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                windowStart = position;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package org.example.repository;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compressed set of non-negative ints, used for sets of row ids.
+ * <p>
+ * Ids are split by their upper 16 bits into chunks of 65536. A chunk holding at most 4096 ids
+ * is a sorted array of their lower 16 bits; a denser chunk is a bitset of 1024 words. Sparse
+ * sets thus cost 2 bytes per id and dense ones 1 bit per id, and intersections and unions
+ * work chunk by chunk, merging sorted arrays or combining whole words.
+ * <p>
+ * Instances are not thread-safe; {@link #and} and {@link #or} return new bitmaps and leave
+ * their operands unchanged.
+ */
+public class CompressedBitmap {
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1024;
+
+    private int[] keys = new int[4];
+    private Chunk[] chunks = new Chunk[4];
+    private int chunkCount;
+
+    /**
+     * Adds an id.
+     *
+     * @param id The id, not negative.
+     * @return true if the id was not present.
+     */
+    public boolean add(int id) {
+        int key = id >>> 16;
+        int at = chunkCount > 0 && keys[chunkCount - 1] == key ? chunkCount - 1 : Arrays.binarySearch(keys, 0, chunkCount, key);
+        if (at < 0) {
+            at = -at - 1;
+            insertChunk(at, key, new Chunk());
+        }
+        return chunks[at].add((char) id);
+    }
+
+    /**
+     * Removes an id.
+     *
+     * @param id The id.
+     * @return true if the id was present.
+     */
+    public boolean remove(int id) {
+        int at = Arrays.binarySearch(keys, 0, chunkCount, id >>> 16);
+        if (at < 0 || !chunks[at].remove((char) id)) {
+            return false;
+        }
+        if (chunks[at].cardinality == 0) {
+            System.arraycopy(keys, at + 1, keys, at, chunkCount - at - 1);
+            System.arraycopy(chunks, at + 1, chunks, at, chunkCount - at - 1);
+            chunks[--chunkCount] = null;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether an id is present.
+     *
+     * @param id The id.
+     * @return true if the id is present.
+     */
+    public boolean contains(int id) {
+        int at = Arrays.binarySearch(keys, 0, chunkCount, id >>> 16);
+        return at >= 0 && chunks[at].contains((char) id);
+    }
+
+    /**
+     * Returns the number of ids.
+     *
+     * @return The cardinality.
+     */
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            cardinality += chunks[i].cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * Checks whether the bitmap holds no id.
+     *
+     * @return true if empty.
+     */
+    public boolean isEmpty() {
+        return chunkCount == 0;
+    }
+
+    /**
+     * Returns the ids present in both bitmaps.
+     *
+     * @param first  The first bitmap.
+     * @param second The second bitmap.
+     * @return A new bitmap.
+     */
+    public static CompressedBitmap and(CompressedBitmap first, CompressedBitmap second) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < first.chunkCount && j < second.chunkCount) {
+            if (first.keys[i] < second.keys[j]) {
+                i++;
+            } else if (first.keys[i] > second.keys[j]) {
+                j++;
+            } else {
+                Chunk chunk = Chunk.and(first.chunks[i], second.chunks[j]);
+                if (chunk.cardinality > 0) {
+                    result.insertChunk(result.chunkCount, first.keys[i], chunk);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the ids present in either bitmap.
+     *
+     * @param first  The first bitmap.
+     * @param second The second bitmap.
+     * @return A new bitmap.
+     */
+    public static CompressedBitmap or(CompressedBitmap first, CompressedBitmap second) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < first.chunkCount || j < second.chunkCount) {
+            if (j == second.chunkCount || (i < first.chunkCount && first.keys[i] < second.keys[j])) {
+                result.insertChunk(result.chunkCount, first.keys[i], first.chunks[i].copy());
+                i++;
+            } else if (i == first.chunkCount || first.keys[i] > second.keys[j]) {
+                result.insertChunk(result.chunkCount, second.keys[j], second.chunks[j].copy());
+                j++;
+            } else {
+                result.insertChunk(result.chunkCount, first.keys[i], Chunk.or(first.chunks[i], second.chunks[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a copy of the bitmap.
+     *
+     * @return A new bitmap with the same ids.
+     */
+    public CompressedBitmap copy() {
+        return or(this, new CompressedBitmap());
+    }
+
+    /**
+     * Returns the ids in ascending order. The bitmap must not change while the stream is consumed.
+     *
+     * @return A lazy stream of the ids.
+     */
+    public IntStream stream() {
+        Spliterator.OfInt spliterator = Spliterators.spliterator(iterator(), getCardinality(),
+                Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        return StreamSupport.intStream(spliterator, false);
+    }
+
+    /**
+     * Returns an iterator over the ids in ascending order.
+     *
+     * @return The iterator.
+     */
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private int chunk;
+            private int position = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk < chunkCount) {
+                    int next = chunks[chunk].nextPosition(position);
+                    if (next >= 0) {
+                        return true;
+                    }
+                    chunk++;
+                    position = -1;
+                }
+                return false;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                position = chunks[chunk].nextPosition(position);
+                return keys[chunk] << 16 | chunks[chunk].valueAt(position);
+            }
+        };
+    }
+
+    private void insertChunk(int at, int key, Chunk chunk) {
+        if (chunkCount == keys.length) {
+            keys = Arrays.copyOf(keys, chunkCount * 2);
+            chunks = Arrays.copyOf(chunks, chunkCount * 2);
+        }
+        System.arraycopy(keys, at, keys, at + 1, chunkCount - at);
+        System.arraycopy(chunks, at, chunks, at + 1, chunkCount - at);
+        keys[at] = key;
+        chunks[at] = chunk;
+        chunkCount++;
+    }
+
+    /**
+     * The lower 16 bits of the ids sharing the same upper 16 bits, either as a sorted array
+     * ({@code words == null}) or as a bitset.
+     */
+    private static final class Chunk {
+        private char[] values = new char[4];
+        private long[] words;
+        private int cardinality;
+
+        boolean add(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) != 0) return false;
+
+                words[low >>> 6] |= bit;
+                cardinality++;
+                return true;
+            }
+
+            int at = cardinality == 0 || values[cardinality - 1] < low
+                    ? -cardinality - 1
+                    : Arrays.binarySearch(values, 0, cardinality, low);
+            if (at >= 0) return false;
+
+            if (cardinality == ARRAY_MAX) {
+                toWords();
+                return add(low);
+            }
+            at = -at - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, cardinality * 2));
+            }
+            System.arraycopy(values, at, values, at + 1, cardinality - at);
+            values[at] = low;
+            cardinality++;
+            return true;
+        }
+
+        boolean remove(char low) {
+            if (words != null) {
+                long bit = 1L << low;
+                if ((words[low >>> 6] & bit) == 0) return false;
+
+                words[low >>> 6] &= ~bit;
+                if (--cardinality <= ARRAY_MAX) {
+                    toValues();
+                }
+                return true;
+            }
+
+            int at = Arrays.binarySearch(values, 0, cardinality, low);
+            if (at < 0) return false;
+
+            System.arraycopy(values, at + 1, values, at, cardinality - at - 1);
+            cardinality--;
+            return true;
+        }
+
+        boolean contains(char low) {
+            if (words != null) {
+                return (words[low >>> 6] & 1L << low) != 0;
+            }
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        /**
+         * Returns the position of the first value after a position: an array index, or the value
+         * itself for a bitset. Returns -1 past the last value.
+         */
+        int nextPosition(int position) {
+            if (words == null) {
+                return position + 1 < cardinality ? position + 1 : -1;
+            }
+            int from = position + 1;
+            if (from >= WORDS * 64) return -1;
+
+            int w = from >>> 6;
+            long word = words[w] & (-1L << from);
+            while (word == 0) {
+                if (++w == WORDS) return -1;
+                word = words[w];
+            }
+            return w * 64 + Long.numberOfTrailingZeros(word);
+        }
+
+        int valueAt(int position) {
+            return words == null ? values[position] : position;
+        }
+
+        Chunk copy() {
+            Chunk copy = new Chunk();
+            copy.cardinality = cardinality;
+            if (words != null) {
+                copy.words = words.clone();
+                copy.values = null;
+            } else {
+                copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            }
+            return copy;
+        }
+
+        static Chunk and(Chunk first, Chunk second) {
+            Chunk result = new Chunk();
+            if (first.words != null && second.words != null) {
+                result.words = new long[WORDS];
+                result.values = null;
+                for (int w = 0; w < WORDS; w++) {
+                    result.words[w] = first.words[w] & second.words[w];
+                    result.cardinality += Long.bitCount(result.words[w]);
+                }
+                if (result.cardinality <= ARRAY_MAX) {
+                    result.toValues();
+                }
+            } else if (first.words != null || second.words != null) {
+                Chunk array = first.words == null ? first : second;
+                Chunk bitset = first.words == null ? second : first;
+                result.values = new char[Math.max(4, array.cardinality)];
+                for (int i = 0; i < array.cardinality; i++) {
+                    if (bitset.contains(array.values[i])) {
+                        result.values[result.cardinality++] = array.values[i];
+                    }
+                }
+            } else {
+                result.values = new char[Math.max(4, Math.min(first.cardinality, second.cardinality))];
+                int i = 0, j = 0;
+                while (i < first.cardinality && j < second.cardinality) {
+                    if (first.values[i] < second.values[j]) {
+                        i++;
+                    } else if (first.values[i] > second.values[j]) {
+                        j++;
+                    } else {
+                        result.values[result.cardinality++] = first.values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            }
+            return result;
+        }
+
+        static Chunk or(Chunk first, Chunk second) {
+            if (first.words == null && second.words == null && first.cardinality + second.cardinality <= ARRAY_MAX) {
+                Chunk result = new Chunk();
+                result.values = new char[Math.max(4, first.cardinality + second.cardinality)];
+                int i = 0, j = 0;
+                while (i < first.cardinality || j < second.cardinality) {
+                    char next;
+                    if (j == second.cardinality || (i < first.cardinality && first.values[i] < second.values[j])) {
+                        next = first.values[i++];
+                    } else if (i == first.cardinality || first.values[i] > second.values[j]) {
+                        next = second.values[j++];
+                    } else {
+                        next = first.values[i++];
+                        j++;
+                    }
+                    result.values[result.cardinality++] = next;
+                }
+                return result;
+            }
+
+            Chunk result = new Chunk();
+            result.words = new long[WORDS];
+            result.values = null;
+            for (Chunk chunk : new Chunk[]{first, second}) {
+                if (chunk.words != null) {
+                    for (int w = 0; w < WORDS; w++) {
+                        result.words[w] |= chunk.words[w];
+                    }
+                } else {
+                    for (int i = 0; i < chunk.cardinality; i++) {
+                        result.words[chunk.values[i] >>> 6] |= 1L << chunk.values[i];
+                    }
+                }
+            }
+            for (long word : result.words) {
+                result.cardinality += Long.bitCount(word);
+            }
+            if (result.cardinality <= ARRAY_MAX) {
+                result.toValues();
+            }
+            return result;
+        }
+
+        private void toWords() {
+            words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            values = null;
+        }
+
+        private void toValues() {
+            values = new char[Math.max(4, cardinality)];
+            int count = 0;
+            for (int w = 0; w < WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[count++] = (char) (w * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            words = null;
+        }
+    }
+}
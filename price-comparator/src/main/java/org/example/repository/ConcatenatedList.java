@@ -0,0 +1,85 @@
+package org.example.repository;
+
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Immutable list viewing a sequence of lists as one list, without copying their elements.
+ * Building it costs one step per part rather than one per element, so the merged view of a catalog
+ * can be rebuilt after every file change at a cost independent of the catalog size.
+ *
+ * @param <T> The type of element
+ */
+final class ConcatenatedList<T> extends AbstractList<T> implements RandomAccess {
+    private final List<List<T>> parts;
+    private final int[] offsets;
+
+    /**
+     * Constructs the view of the given lists, which must not change afterwards.
+     *
+     * @param lists The lists, in order.
+     */
+    ConcatenatedList(Collection<List<T>> lists) {
+        List<List<T>> nonEmpty = new ArrayList<>(lists.size());
+        for (List<T> list : lists) {
+            if (!list.isEmpty()) {
+                nonEmpty.add(list);
+            }
+        }
+        this.parts = nonEmpty;
+        this.offsets = new int[nonEmpty.size() + 1];
+        for (int i = 0; i < nonEmpty.size(); i++) {
+            offsets[i + 1] = offsets[i] + nonEmpty.get(i).size();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        Objects.checkIndex(index, size());
+        int part = Arrays.binarySearch(offsets, index);
+        // Offsets of empty parts are never repeated, so an exact match is the start of its part.
+        part = part >= 0 ? part : -part - 2;
+        return parts.get(part).get(index - offsets[part]);
+    }
+
+    @Override
+    public int size() {
+        return offsets[offsets.length - 1];
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int part;
+            private Iterator<T> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && part < parts.size()) {
+                    current = parts.get(part++).iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public void forEach(Consumer<? super T> action) {
+        for (List<T> part : parts) {
+            part.forEach(action);
+        }
+    }
+
+    @Override
+    public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.IMMUTABLE);
+    }
+}
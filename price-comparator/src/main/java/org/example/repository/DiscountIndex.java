@@ -0,0 +1,117 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of discounts by (store, product id), organized by validity interval.
+ * <p>
+ * For every key, the validity intervals of its discounts are cut into disjoint date ranges, each
+ * holding the best discount active over the whole range. Finding the discount active on a date is
+ * a binary search over the range boundaries. The index is kept up to date from the deltas of the
+ * discount catalog; lookups see either the previous or the new timeline of a key, never a partial one.
+ */
+public class DiscountIndex {
+    private final Map<Key, List<Discount>> discountsByKey = new HashMap<>();
+    private final Map<Key, Timeline> timelines = new ConcurrentHashMap<>();
+
+    /**
+     * Applies a delta of the discount catalog. Must not be called concurrently.
+     *
+     * @param delta The discounts added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<Discount> delta) {
+        Set<Key> changedKeys = new HashSet<>();
+        for (Discount discount : delta.getRemovedEntries()) {
+            Key key = Key.of(discount);
+            List<Discount> discounts = discountsByKey.get(key);
+            if (discounts != null && discounts.removeIf(d -> d == discount)) {
+                changedKeys.add(key);
+            }
+        }
+        for (Discount discount : delta.getAddedEntries()) {
+            if (discount.getStartingDate() == null || discount.getEndingDate() == null) continue;
+
+            Key key = Key.of(discount);
+            discountsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(discount);
+            changedKeys.add(key);
+        }
+
+        for (Key key : changedKeys) {
+            List<Discount> discounts = discountsByKey.get(key);
+            if (discounts.isEmpty()) {
+                discountsByKey.remove(key);
+                timelines.remove(key);
+            } else {
+                timelines.put(key, Timeline.of(discounts));
+            }
+        }
+    }
+
+    /**
+     * Finds the discount of a product at a store that is active on a date.
+     * When several discounts overlap, the one with the highest percentage is returned.
+     *
+     * @param storeName The store name.
+     * @param productId The product id.
+     * @param date      The date the discount must be valid on.
+     * @return The active discount, or null if there is none.
+     */
+    public Discount findActive(String storeName, String productId, LocalDate date) {
+        Timeline timeline = timelines.get(new Key(storeName, productId));
+        return timeline == null ? null : timeline.find(date.toEpochDay());
+    }
+
+    /**
+     * Returns the number of (store, product) keys with at least one discount.
+     *
+     * @return The key count.
+     */
+    public int size() {
+        return timelines.size();
+    }
+
+    private record Key(String storeName, String productId) {
+        static Key of(Discount discount) {
+            return new Key(discount.getStoreName(), discount.getProductId());
+        }
+    }
+
+    /**
+     * Disjoint date ranges of a key: range i starts at {@code starts[i]} and ends before
+     * {@code starts[i + 1]}, with {@code best[i]} active over it, or null for a gap.
+     */
+    private record Timeline(long[] starts, Discount[] best) {
+        static Timeline of(List<Discount> discounts) {
+            TreeSet<Long> boundaries = new TreeSet<>();
+            for (Discount discount : discounts) {
+                boundaries.add(discount.getStartingDate().toEpochDay());
+                boundaries.add(discount.getEndingDate().toEpochDay() + 1);
+            }
+
+            long[] starts = boundaries.stream().mapToLong(Long::longValue).toArray();
+            Discount[] best = new Discount[starts.length];
+            for (Discount discount : discounts) {
+                int from = Arrays.binarySearch(starts, discount.getStartingDate().toEpochDay());
+                int to = Arrays.binarySearch(starts, discount.getEndingDate().toEpochDay() + 1);
+                for (int i = from; i < to; i++) {
+                    if (best[i] == null || discount.getPercentageOfDiscount() > best[i].getPercentageOfDiscount()) {
+                        best[i] = discount;
+                    }
+                }
+            }
+            return new Timeline(starts, best);
+        }
+
+        Discount find(long epochDay) {
+            int index = Arrays.binarySearch(starts, epochDay);
+            if (index < 0) {
+                index = -index - 2;
+            }
+            return index < 0 ? null : best[index];
+        }
+    }
+}
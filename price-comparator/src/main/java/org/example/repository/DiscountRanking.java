@@ -0,0 +1,199 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Rankings of the discounts active on the current date: all active discounts by percentage, and
+ * the best active discount of every product by percentage.
+ * <p>
+ * Both rankings are skip lists kept up to date from the deltas of the discount catalog and as
+ * the date moves on: discounts not started yet wait in a queue ordered by starting date, active
+ * ones are also queued by ending date, so moving to the next day only touches the discounts that
+ * start or end. Reading the top N of a ranking walks its first N elements. Ties keep the order
+ * in which discounts were added to the catalog.
+ */
+public class DiscountRanking {
+    private static final Comparator<Ranked> BY_PERCENTAGE = Comparator
+            .comparingDouble((Ranked ranked) -> -ranked.discount().getPercentageOfDiscount())
+            .thenComparingLong(Ranked::sequence);
+    private static final Comparator<Ranked> BY_START = Comparator
+            .comparing((Ranked ranked) -> ranked.discount().getStartingDate())
+            .thenComparingLong(Ranked::sequence);
+    private static final Comparator<Ranked> BY_END = Comparator
+            .comparing((Ranked ranked) -> ranked.discount().getEndingDate())
+            .thenComparingLong(Ranked::sequence);
+
+    private final Map<Discount, Ranked> rankedByDiscount = new IdentityHashMap<>();
+    private final NavigableSet<Ranked> upcoming = new TreeSet<>(BY_START);
+    private final NavigableSet<Ranked> activeByEnd = new TreeSet<>(BY_END);
+    private final Map<String, NavigableSet<Ranked>> activeByProduct = new HashMap<>();
+    private final NavigableSet<Ranked> active = new ConcurrentSkipListSet<>(BY_PERCENTAGE);
+    private final NavigableSet<Ranked> productMaxima = new ConcurrentSkipListSet<>(BY_PERCENTAGE);
+    private long nextSequence;
+    private volatile LocalDate date;
+
+    /**
+     * Applies a delta of the discount catalog.
+     *
+     * @param delta The discounts added and removed by a source file change.
+     */
+    public synchronized void apply(CatalogDelta<Discount> delta) {
+        for (Discount discount : delta.getRemovedEntries()) {
+            Ranked ranked = rankedByDiscount.remove(discount);
+            if (ranked == null) continue;
+
+            upcoming.remove(ranked);
+            if (activeByEnd.remove(ranked)) {
+                deactivate(ranked);
+            }
+        }
+        for (Discount discount : delta.getAddedEntries()) {
+            if (discount.getStartingDate() == null || discount.getEndingDate() == null) continue;
+
+            Ranked ranked = new Ranked(discount, nextSequence++);
+            rankedByDiscount.put(discount, ranked);
+            if (date != null) {
+                schedule(ranked);
+            }
+        }
+    }
+
+    /**
+     * Moves the rankings to a date. Moving forward only processes the discounts starting or
+     * ending in between; moving back rebuilds the rankings.
+     *
+     * @param newDate The date the rankings must reflect.
+     */
+    public void advanceTo(LocalDate newDate) {
+        if (newDate.equals(date)) return;
+
+        synchronized (this) {
+            if (newDate.equals(date)) return;
+
+            if (date == null || newDate.isBefore(date)) {
+                upcoming.clear();
+                activeByEnd.clear();
+                activeByProduct.clear();
+                active.clear();
+                productMaxima.clear();
+                date = newDate;
+                rankedByDiscount.values().forEach(this::schedule);
+                return;
+            }
+
+            date = newDate;
+            while (!upcoming.isEmpty() && !upcoming.first().discount().getStartingDate().isAfter(newDate)) {
+                schedule(upcoming.pollFirst());
+            }
+            while (!activeByEnd.isEmpty() && activeByEnd.first().discount().getEndingDate().isBefore(newDate)) {
+                deactivate(activeByEnd.pollFirst());
+            }
+        }
+    }
+
+    /**
+     * Returns the discounts active on a date with the highest percentages.
+     *
+     * @param date  The date the discounts must be valid on.
+     * @param limit The maximum number of discounts returned.
+     * @return The discounts, highest percentage first.
+     */
+    public List<Discount> findHighest(LocalDate date, int limit) {
+        advanceTo(date);
+        return top(active, limit);
+    }
+
+    /**
+     * Returns the best discount active on a date for each product, for the products with the
+     * highest percentages.
+     *
+     * @param date  The date the discounts must be valid on.
+     * @param limit The maximum number of products returned.
+     * @return One discount per product id, highest percentage first.
+     */
+    public List<Discount> findMaxPerProduct(LocalDate date, int limit) {
+        advanceTo(date);
+        return top(productMaxima, limit);
+    }
+
+    /**
+     * Moves the rankings to a date and copies them into an immutable set of active discounts.
+     *
+     * @param date The date the discounts must be valid on.
+     * @return The discounts active on that date.
+     */
+    public synchronized ActiveDiscounts snapshot(LocalDate date) {
+        advanceTo(date);
+        return new ActiveDiscounts(date, top(active, Integer.MAX_VALUE), top(productMaxima, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Returns the number of discounts active on the current date of the rankings.
+     *
+     * @return The active discount count.
+     */
+    public int size() {
+        return active.size();
+    }
+
+    private static List<Discount> top(NavigableSet<Ranked> ranking, int limit) {
+        List<Discount> discounts = new ArrayList<>(Math.max(0, Math.min(limit, 64)));
+        for (Iterator<Ranked> it = ranking.iterator(); it.hasNext() && discounts.size() < limit; ) {
+            discounts.add(it.next().discount());
+        }
+        return discounts;
+    }
+
+    /**
+     * Queues a discount by starting date, activates it, or drops it if it has already ended.
+     */
+    private void schedule(Ranked ranked) {
+        Discount discount = ranked.discount();
+        if (discount.getStartingDate().isAfter(date)) {
+            upcoming.add(ranked);
+        } else if (!discount.getEndingDate().isBefore(date)) {
+            activeByEnd.add(ranked);
+            activate(ranked);
+        }
+    }
+
+    private void activate(Ranked ranked) {
+        active.add(ranked);
+        NavigableSet<Ranked> productDiscounts = activeByProduct.computeIfAbsent(
+                ranked.discount().getProductId(), k -> new TreeSet<>(BY_PERCENTAGE));
+        Ranked previousMax = productDiscounts.isEmpty() ? null : productDiscounts.first();
+        productDiscounts.add(ranked);
+        if (productDiscounts.first() == ranked) {
+            if (previousMax != null) {
+                productMaxima.remove(previousMax);
+            }
+            productMaxima.add(ranked);
+        }
+    }
+
+    private void deactivate(Ranked ranked) {
+        active.remove(ranked);
+        String productId = ranked.discount().getProductId();
+        NavigableSet<Ranked> productDiscounts = activeByProduct.get(productId);
+        if (productDiscounts == null) return;
+
+        boolean wasMax = productDiscounts.first() == ranked;
+        productDiscounts.remove(ranked);
+        if (wasMax) {
+            productMaxima.remove(ranked);
+            if (!productDiscounts.isEmpty()) {
+                productMaxima.add(productDiscounts.first());
+            }
+        }
+        if (productDiscounts.isEmpty()) {
+            activeByProduct.remove(productId);
+        }
+    }
+
+    private record Ranked(Discount discount, long sequence) {
+    }
+}
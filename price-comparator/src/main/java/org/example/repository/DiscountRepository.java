@@ -1,21 +1,84 @@
 package org.example.repository;
 
+import jakarta.annotation.PreDestroy;
 import org.example.model.Discount;
 import org.example.utils.CsvUtil;
-import org.example.utils.DateUtil;
 import org.example.utils.FileNameUtil;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Repository that handles loading and managing Discount entries from CSV files.
  */
 @Repository
 public class DiscountRepository implements ItemRepository<Discount> {
+    private static final String DATA_DIRECTORY = "src/main/resources/data";
+    private static final String SNAPSHOT_FILE = "discounts.snapshot";
+    private static final String MANIFEST_FILE = "discounts.manifest";
+
+    private final EntryCatalog<Discount> catalog;
+    private final Path snapshotFile;
+
+    private final DiscountIndex index = new DiscountIndex();
+    private final DiscountRanking ranking = new DiscountRanking();
+    private final Object activeDiscountsLock = new Object();
+    private volatile ActiveDiscounts activeDiscounts;
+    private final SymbolTable symbols;
+
+    /**
+     * Constructs the repository with its own symbol table.
+     */
+    public DiscountRepository() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * Constructs the repository. The discount catalog starts from the binary snapshot of the data
+     * directory when one exists, and only parses the CSV files that are newer than the snapshot.
+     * The files it is built from are recorded in a manifest next to the snapshot, and the
+     * (store, product) index, the active discount rankings and the set of discounts active today
+     * follow every change of the catalog.
+     *
+     * @param symbols The symbol table sharing repeated string values between entries.
+     */
+    @Autowired
+    public DiscountRepository(SymbolTable symbols) {
+        this(symbols, Paths.get(DATA_DIRECTORY));
+    }
+
+    /**
+     * Constructs the repository over the given data directory, which also holds its snapshot and manifest.
+     *
+     * @param symbols       The symbol table sharing repeated string values between entries.
+     * @param dataDirectory The directory holding the discount files.
+     */
+    DiscountRepository(SymbolTable symbols, Path dataDirectory) {
+        this.symbols = symbols;
+        this.catalog = new EntryCatalog<>(dataDirectory, name -> FileNameUtil.parseFileName(name).isDiscountFile(),
+                this::loadEntriesFromFile);
+        this.snapshotFile = dataDirectory.resolve(SNAPSHOT_FILE);
+        catalog.useSnapshot(snapshotFile, new SnapshotCodec());
+        catalog.useManifest(dataDirectory.resolve(MANIFEST_FILE));
+        catalog.addListener(delta -> {
+            index.apply(delta);
+            ranking.apply(delta);
+            synchronized (activeDiscountsLock) {
+                if (activeDiscounts != null) {
+                    activeDiscounts = ranking.snapshot(activeDiscounts.getDate());
+                }
+            }
+        });
+    }
 
     /**
      * Loads discount entries from the given file if it matches the expected discount filename pattern.
@@ -34,55 +97,283 @@ public class DiscountRepository implements ItemRepository<Discount> {
             return discounts;
         }
 
-        LocalDate date = fileInfo.getDate();
+        String storeName = symbols.intern(fileInfo.getStoreName());
 
-        for (String[] row : CsvUtil.readCsv(filePath, ";")) {
-            if (row.length < 9) continue;
+        CsvUtil.forEachRow(filePath, ';', row -> {
+            if (row.getFieldCount() < 9) return;
 
             try {
-                Discount discount = new Discount();
-                discount.setProductId(row[0]);
-                discount.setProductName(row[1]);
-                discount.setBrand(row[2]);
-                discount.setPackageQuantity(Double.parseDouble(row[3]));
-                discount.setPackageUnit(row[4]);
-                discount.setProductCategory(row[5]);
-                discount.setStartingDate(DateUtil.parseDate(row[6]));
-                discount.setEndingDate(DateUtil.parseDate(row[7]));
-                discount.setPercentageOfDiscount(Double.parseDouble(row[8]));
-                discounts.add(discount);
+                discounts.add(parseRow(row, storeName));
             } catch (Exception e) {
                 e.printStackTrace();
             }
-        }
+        });
 
         return discounts;
     }
 
     /**
-     * Loads all discount entries by scanning the default data directory for valid discount CSV files.
+     * Parses an uploaded discount feed as it is read and merges it into the catalog, replacing a
+     * previous upload of the same file name. Rows that cannot be parsed are counted and skipped.
+     *
+     * @param fileName The file name of the feed, such as {@code lidl_discounts_2025-05-01.csv}.
+     * @param body     The content of the feed.
+     * @return The outcome of the upload.
+     * @throws IOException If the body cannot be read.
+     */
+    public EntryCatalog.UploadResult<Discount> ingestUpload(String fileName, InputStream body) throws IOException {
+        FileNameUtil.FileInfo fileInfo = FileNameUtil.parseFileName(fileName);
+        if (!fileInfo.isDiscountFile()) {
+            throw new IllegalArgumentException("Not a discount file name: " + fileName);
+        }
+        String storeName = symbols.intern(fileInfo.getStoreName());
+
+        return catalog.ingestStream(fileName, body, (in, accepted, rejected) ->
+                CsvUtil.forEachRow(in, fileInfo.getCompression(), ';', row -> {
+                    try {
+                        if (row.getFieldCount() < 9) {
+                            rejected.run();
+                        } else {
+                            accepted.accept(parseRow(row, storeName));
+                        }
+                    } catch (Exception e) {
+                        rejected.run();
+                    }
+                }));
+    }
+
+    private Discount parseRow(CsvUtil.CsvRow row, String storeName) {
+        Discount discount = new Discount();
+        discount.setProductId(row.getString(0));
+        discount.setProductName(symbols.intern(row.getString(1)));
+        discount.setBrand(symbols.intern(row.getString(2)));
+        discount.setPackageQuantity(row.getDouble(3));
+        discount.setPackageUnit(symbols.intern(row.getString(4)));
+        discount.setProductCategory(symbols.intern(row.getString(5)));
+        discount.setStartingDate(row.getDate(6));
+        discount.setEndingDate(row.getDate(7));
+        discount.setPercentageOfDiscount(row.getDouble(8));
+        discount.setStoreName(storeName);
+        return discount;
+    }
+
+    /**
+     * Returns all discount entries of the data directory. Entries are served from the
+     * in-memory catalog, which only re-reads the directory when its files have changed.
      *
      * @return A list of all Discount entries found.
      */
     @Override
     public List<Discount> loadAllEntries() {
-        List<Discount> allDiscounts = new ArrayList<>();
+        return catalog.getEntries();
+    }
+
+    /**
+     * Finds the discount of a product at a store that is valid on a date. For the date of the
+     * current active discount set this is a hash lookup in that set; other dates take O(log n)
+     * over the discounts of that store and product. Overlapping discounts resolve to the highest
+     * percentage.
+     *
+     * @param storeName The store name.
+     * @param productId The product id.
+     * @param date      The date the discount must be valid on.
+     * @return The active discount, or null if there is none.
+     */
+    public Discount findActiveDiscount(String storeName, String productId, LocalDate date) {
+        catalog.refreshIfStale();
+        ActiveDiscounts active = getActiveDiscounts(date);
+        return active != null ? active.find(storeName, productId) : index.findActive(storeName, productId, date);
+    }
+
+    /**
+     * Finds the discounts valid on a date with the highest percentages, reading the first
+     * entries of the active discount ranking.
+     *
+     * @param date  The date the discounts must be valid on.
+     * @param limit The maximum number of discounts returned.
+     * @return The discounts, highest percentage first.
+     */
+    public List<Discount> findHighestActiveDiscounts(LocalDate date, int limit) {
+        catalog.refreshIfStale();
+        ActiveDiscounts active = getActiveDiscounts(date);
+        return active != null ? active.getHighest(limit) : ranking.findHighest(date, limit);
+    }
 
-        File dataDir = new File("src/main/resources/data");
-        if (!dataDir.exists() || !dataDir.isDirectory()) {
-            return allDiscounts;
+    /**
+     * Finds the best discount valid on a date for each product, for the products with the
+     * highest percentages, reading the first entries of the per-product ranking.
+     *
+     * @param date  The date the discounts must be valid on.
+     * @param limit The maximum number of products returned.
+     * @return One discount per product id, highest percentage first.
+     */
+    public List<Discount> findMaxActiveDiscountPerProduct(LocalDate date, int limit) {
+        catalog.refreshIfStale();
+        ActiveDiscounts active = getActiveDiscounts(date);
+        return active != null ? active.getMaxPerProduct(limit) : ranking.findMaxPerProduct(date, limit);
+    }
+
+    /**
+     * Computes the set of discounts active on a date and swaps it in for all subsequent requests.
+     * Called at midnight; a set is also rolled over on the first request of a new day.
+     *
+     * @param date The new current date.
+     */
+    public void rollOverActiveDiscounts(LocalDate date) {
+        catalog.refreshIfStale();
+        synchronized (activeDiscountsLock) {
+            if (activeDiscounts == null || date.isAfter(activeDiscounts.getDate())) {
+                activeDiscounts = ranking.snapshot(date);
+            }
+        }
+    }
+
+    /**
+     * Returns the precomputed set of discounts active on a date, rolling the set over when the
+     * date is past the current one.
+     *
+     * @param date The date the discounts must be valid on.
+     * @return The active discount set, or null for a date before the current set.
+     */
+    private ActiveDiscounts getActiveDiscounts(LocalDate date) {
+        ActiveDiscounts active = activeDiscounts;
+        if (active != null && active.getDate().equals(date)) {
+            return active;
         }
+        if (active != null && date.isBefore(active.getDate())) {
+            return null;
+        }
+        rollOverActiveDiscounts(date);
+        active = activeDiscounts;
+        return active.getDate().equals(date) ? active : null;
+    }
+
+    /**
+     * Stops reads from checking the data directory for changed discount files, once the directory
+     * watcher delivers every change through {@link #ingestFile(String)} and {@link #rescanDirectory()}.
+     */
+    public void disableDirectoryRechecks() {
+        catalog.disableRechecks();
+    }
 
-        File[] files = dataDir.listFiles((dir, name) -> name.endsWith(".csv"));
-        if (files == null) {
-            return allDiscounts;
+    /**
+     * Checks the data directory for added, modified and deleted discount files and merges them into the catalog.
+     *
+     * @return true if the catalog content changed, false otherwise.
+     */
+    public boolean rescanDirectory() {
+        return catalog.refresh();
+    }
+
+    /**
+     * Stops the threads parsing discount files.
+     */
+    @PreDestroy
+    public void close() {
+        catalog.close();
+    }
+
+    /**
+     * Returns the version of the in-memory discount catalog.
+     *
+     * @return The current catalog version.
+     */
+    @Override
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * Parses a single added, modified or deleted discount file and merges it into the catalog
+     * as a delta, without re-reading the other files of the data directory.
+     *
+     * @param filePath The path of the changed file.
+     * @return The applied delta, or null if the file is not a discount file.
+     */
+    public CatalogDelta<Discount> ingestFile(String filePath) {
+        return catalog.ingestFile(filePath);
+    }
+
+    /**
+     * Registers a listener notified of every delta applied to the discount catalog.
+     *
+     * @param listener The listener to register.
+     */
+    public void addCatalogListener(Consumer<CatalogDelta<Discount>> listener) {
+        catalog.addListener(listener);
+    }
+
+    /**
+     * Returns the manifest of the files the discount catalog is currently built from.
+     *
+     * @return The manifest records, in file path order.
+     */
+    public List<FileManifest.FileRecord> getManifest() {
+        return catalog.getManifest();
+    }
+
+    /**
+     * Compiles the current discount catalog into the binary snapshot loaded on startup.
+     *
+     * @return The number of entries written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public int writeSnapshot() throws IOException {
+        return catalog.writeSnapshot(snapshotFile, new SnapshotCodec());
+    }
+
+    /**
+     * Returns the per-file parsing times of the last discount catalog (re)load.
+     *
+     * @return The load statistics, in file path order.
+     */
+    public List<EntryCatalog.FileLoadStats> getLastLoadStats() {
+        return catalog.getLastLoadStats();
+    }
+
+    /**
+     * Columnar snapshot encoding of discounts.
+     */
+    private class SnapshotCodec implements CatalogSnapshot.Codec<Discount> {
+        @Override
+        public String getKind() {
+            return "discount-v2";
         }
 
-        for (File file : files) {
-            List<Discount> discountsFromFile = loadEntriesFromFile(file.getPath());
-            allDiscounts.addAll(discountsFromFile);
+        @Override
+        public void writeColumns(List<Discount> entries, CatalogSnapshot.ColumnWriter writer) throws IOException {
+            writer.writeStrings(entries, Discount::getProductId);
+            writer.writeStrings(entries, Discount::getProductName);
+            writer.writeStrings(entries, Discount::getBrand);
+            writer.writeFixedPoint(entries, Discount::getPackageQuantity, 3);
+            writer.writeStrings(entries, Discount::getPackageUnit);
+            writer.writeStrings(entries, Discount::getProductCategory);
+            writer.writeDates(entries, Discount::getStartingDate);
+            writer.writeDates(entries, Discount::getEndingDate);
+            writer.writeFixedPoint(entries, Discount::getPercentageOfDiscount, 2);
+            writer.writeStrings(entries, Discount::getStoreName);
         }
 
-        return allDiscounts;
+        @Override
+        public List<Discount> readColumns(int rowCount, CatalogSnapshot.ColumnReader reader) {
+            String[] productIds = reader.readStrings(rowCount);
+            String[] productNames = reader.readStrings(rowCount);
+            String[] brands = reader.readStrings(rowCount);
+            double[] quantities = reader.readFixedPoint(rowCount);
+            String[] units = reader.readStrings(rowCount);
+            String[] categories = reader.readStrings(rowCount);
+            LocalDate[] startingDates = reader.readDates(rowCount);
+            LocalDate[] endingDates = reader.readDates(rowCount);
+            double[] percentages = reader.readFixedPoint(rowCount);
+            String[] storeNames = reader.readStrings(rowCount);
+
+            List<Discount> entries = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                entries.add(new Discount(productIds[i], symbols.internShared(productNames[i]), symbols.internShared(brands[i]),
+                        quantities[i], symbols.internShared(units[i]), symbols.internShared(categories[i]),
+                        startingDates[i], endingDates[i], percentages[i], symbols.internShared(storeNames[i])));
+            }
+            return entries;
+        }
     }
 }
@@ -0,0 +1,707 @@
+package org.example.repository;
+
+import org.example.utils.CsvUtil;
+import org.example.utils.HashingInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory, versioned catalog of the entries parsed from the CSV files of a data directory.
+ * Entries are kept per source file: only files that have been added or modified are parsed,
+ * and the entries of a file are replaced or retired as a single delta.
+ * <p>
+ * Files are parsed concurrently on a bounded fork-join pool and merged back in file path
+ * order, so the resulting entry order does not depend on thread scheduling. The merged view
+ * concatenates the entry lists of the files without copying them.
+ * <p>
+ * When a {@link CatalogSnapshot} is configured, the first load takes the entries of every
+ * file whose size and modification time still match the snapshot from it, and only parses
+ * the files that are newer than the snapshot.
+ * <p>
+ * Every segment records the SHA-256 hash of its file. A file whose modification time changed
+ * but whose content did not is not parsed again. When a manifest file is configured, the list
+ * of ingested files is persisted to it after every change.
+ * <p>
+ * Entries can also be pushed as a stream under an upload name; uploaded segments are keyed
+ * with the {@value #UPLOAD_PREFIX} prefix, are not retired by directory scans and are not
+ * written to snapshots.
+ *
+ * @param <ItemType> The type of entry held by the catalog
+ */
+public class EntryCatalog<ItemType> implements AutoCloseable {
+    /**
+     * Prefix of the keys of uploaded segments.
+     */
+    public static final String UPLOAD_PREFIX = "upload:";
+
+    private static final long DEFAULT_RECHECK_INTERVAL_MILLIS = 1000;
+    private static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+    private final Path dataDirectory;
+    private final Predicate<String> fileNameFilter;
+    private final Function<String, List<ItemType>> fileLoader;
+    private final long recheckIntervalMillis;
+    private final ForkJoinPool ingestionPool;
+    private final List<Consumer<CatalogDelta<ItemType>>> listeners = new CopyOnWriteArrayList<>();
+    private Path snapshotFile;
+    private CatalogSnapshot.Codec<ItemType> snapshotCodec;
+    private Path manifestFile;
+
+    private final Map<String, Segment<ItemType>> segments = new TreeMap<>();
+    private volatile List<FileLoadStats> lastLoadStats = Collections.emptyList();
+    private volatile List<ItemType> entries = Collections.emptyList();
+    private volatile long version;
+    private volatile long lastCheckMillis;
+    private volatile boolean loaded;
+    private volatile boolean rechecksEnabled = true;
+
+    /**
+     * Constructs a catalog over the given data directory.
+     *
+     * @param dataDirectory  The directory holding the CSV files.
+     * @param fileNameFilter Selects the file names this catalog is built from.
+     * @param fileLoader     Parses a single file into entries.
+     */
+    public EntryCatalog(Path dataDirectory, Predicate<String> fileNameFilter,
+                        Function<String, List<ItemType>> fileLoader) {
+        this(dataDirectory, fileNameFilter, fileLoader, DEFAULT_RECHECK_INTERVAL_MILLIS, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Constructs a catalog over the given data directory.
+     *
+     * @param dataDirectory         The directory holding the CSV files.
+     * @param fileNameFilter        Selects the file names this catalog is built from.
+     * @param fileLoader            Parses a single file into entries.
+     * @param recheckIntervalMillis Minimum delay between two checks of the directory for changes.
+     * @param parallelism           Maximum number of files parsed concurrently; 1 parses sequentially.
+     */
+    public EntryCatalog(Path dataDirectory, Predicate<String> fileNameFilter,
+                        Function<String, List<ItemType>> fileLoader, long recheckIntervalMillis, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.dataDirectory = dataDirectory;
+        this.fileNameFilter = fileNameFilter;
+        this.fileLoader = fileLoader;
+        this.recheckIntervalMillis = recheckIntervalMillis;
+        this.ingestionPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * Returns all entries currently held by the catalog, loading the data directory on first use.
+     *
+     * @return An unmodifiable list of entries.
+     */
+    public List<ItemType> getEntries() {
+        refreshIfStale();
+        return entries;
+    }
+
+    /**
+     * Returns the version of the catalog content. The version is incremented for every
+     * delta applied to the catalog.
+     *
+     * @return The current catalog version.
+     */
+    public long getVersion() {
+        refreshIfStale();
+        return version;
+    }
+
+    /**
+     * Registers a listener notified of every delta applied to the catalog, including the
+     * deltas of the initial load. Listeners are called on the ingesting thread.
+     *
+     * @param listener The listener to register.
+     */
+    public void addListener(Consumer<CatalogDelta<ItemType>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Configures the snapshot the first load starts from. Has no effect once the catalog is loaded.
+     *
+     * @param snapshotFile The snapshot file, which may not exist yet.
+     * @param codec        The codec of the entries.
+     */
+    public synchronized void useSnapshot(Path snapshotFile, CatalogSnapshot.Codec<ItemType> codec) {
+        this.snapshotFile = snapshotFile;
+        this.snapshotCodec = codec;
+    }
+
+    /**
+     * Configures the manifest file the list of ingested files is persisted to. On first load, the
+     * previous manifest lets snapshot sections be reused for files that were touched but not modified.
+     *
+     * @param manifestFile The manifest file, which may not exist yet.
+     */
+    public synchronized void useManifest(Path manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Returns the files the catalog is currently built from. File paths are relative to the data
+     * directory; uploads keep their {@value #UPLOAD_PREFIX} key.
+     *
+     * @return The manifest records, in file path order.
+     */
+    public synchronized List<FileManifest.FileRecord> getManifest() {
+        refreshIfStale();
+        Path root = dataDirectory.toAbsolutePath().normalize();
+        List<FileManifest.FileRecord> records = new ArrayList<>(segments.size());
+        segments.forEach((filePath, segment) -> records.add(new FileManifest.FileRecord(
+                filePath.startsWith(UPLOAD_PREFIX) ? filePath : root.relativize(Path.of(filePath)).toString(),
+                segment.stamp().size(), segment.stamp().lastModified(), segment.contentHash(),
+                segment.entries().size(), segment.ingestedAt())));
+        return records;
+    }
+
+    /**
+     * Writes the current content of the catalog to a snapshot file, one section per source file.
+     *
+     * @param snapshotFile The snapshot file to write.
+     * @param codec        The codec of the entries.
+     * @return The number of entries written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public synchronized int writeSnapshot(Path snapshotFile, CatalogSnapshot.Codec<ItemType> codec) throws IOException {
+        refreshIfStale();
+
+        Path root = dataDirectory.toAbsolutePath().normalize();
+        List<CatalogSnapshot.FileSection<ItemType>> sections = new ArrayList<>(segments.size());
+        int entryCount = 0;
+        for (Map.Entry<String, Segment<ItemType>> entry : segments.entrySet()) {
+            if (entry.getKey().startsWith(UPLOAD_PREFIX)) continue;
+
+            Segment<ItemType> segment = entry.getValue();
+            String fileName = root.relativize(Path.of(entry.getKey())).toString();
+            sections.add(new CatalogSnapshot.FileSection<>(fileName, segment.stamp().size(),
+                    segment.stamp().lastModified(), segment.entries()));
+            entryCount += segment.entries().size();
+        }
+        CatalogSnapshot.write(snapshotFile, codec, sections);
+        return entryCount;
+    }
+
+    /**
+     * Checks the data directory for changes. Added or modified files are parsed and
+     * replace their previous entries; entries of deleted files are retired.
+     *
+     * @return true if the catalog content changed, false otherwise.
+     */
+    public synchronized boolean refresh() {
+        lastCheckMillis = System.currentTimeMillis();
+        Map<String, FileStamp> currentStamps = scanSourceFiles();
+
+        List<CatalogDelta<ItemType>> deltas = new ArrayList<>();
+        List<FileLoadStats> stats = new ArrayList<>();
+        if (!loaded && snapshotFile != null) {
+            loadSnapshot(currentStamps, deltas, stats);
+        }
+
+        List<String> changedFiles = new ArrayList<>();
+        boolean touched = false;
+        for (Map.Entry<String, FileStamp> entry : currentStamps.entrySet()) {
+            String filePath = entry.getKey();
+            Segment<ItemType> segment = segments.get(filePath);
+            if (segment == null) {
+                changedFiles.add(filePath);
+            } else if (!segment.stamp().equals(entry.getValue())) {
+                if (hasContent(segment, filePath)) {
+                    segments.put(filePath, segment.withStamp(entry.getValue()));
+                    touched = true;
+                } else {
+                    changedFiles.add(filePath);
+                }
+            }
+        }
+        List<String> deletedFiles = segments.keySet().stream()
+                .filter(filePath -> !filePath.startsWith(UPLOAD_PREFIX) && !currentStamps.containsKey(filePath))
+                .toList();
+
+        if (loaded && changedFiles.isEmpty() && deletedFiles.isEmpty()) {
+            if (touched) {
+                writeManifest();
+            }
+            return false;
+        }
+
+        for (String filePath : deletedFiles) {
+            deltas.add(replaceSegment(filePath, null));
+        }
+        List<FileLoad<ItemType>> loads = loadFiles(changedFiles);
+        for (int i = 0; i < loads.size(); i++) {
+            String filePath = changedFiles.get(i);
+            FileLoad<ItemType> load = loads.get(i);
+            deltas.add(replaceSegment(filePath, new Segment<>(currentStamps.get(filePath), load.contentHash(),
+                    load.entries(), System.currentTimeMillis())));
+            stats.add(load.stats());
+        }
+
+        lastLoadStats = Collections.unmodifiableList(stats);
+        publish(deltas);
+        return true;
+    }
+
+    /**
+     * Applies the current content of a single file to the catalog: the file is parsed and its
+     * entries replace the previous ones, or they are retired if the file no longer exists.
+     * Other files are left untouched, and a file whose content hash did not change is not parsed again.
+     *
+     * @param filePath The path of the added, modified or deleted file.
+     * @return The applied delta, empty if the content did not change, or null if the file is not
+     * part of this catalog.
+     */
+    public synchronized CatalogDelta<ItemType> ingestFile(String filePath) {
+        Path path = Path.of(filePath);
+        if (!fileNameFilter.test(path.getFileName().toString())) {
+            return null;
+        }
+        if (!loaded) {
+            refresh();
+            return null;
+        }
+
+        String key = path.toAbsolutePath().normalize().toString();
+        CatalogDelta<ItemType> delta;
+        if (Files.isRegularFile(path)) {
+            FileStamp stamp = FileStamp.of(path);
+            Segment<ItemType> segment = segments.get(key);
+            if (segment != null && (segment.stamp().equals(stamp) || hasContent(segment, key))) {
+                if (!segment.stamp().equals(stamp)) {
+                    segments.put(key, segment.withStamp(stamp));
+                    writeManifest();
+                }
+                return new CatalogDelta<>(key, version, List.of(), List.of());
+            }
+
+            FileLoad<ItemType> load = loadFile(key);
+            lastLoadStats = List.of(load.stats());
+            delta = replaceSegment(key, new Segment<>(stamp, load.contentHash(), load.entries(), System.currentTimeMillis()));
+        } else if (segments.containsKey(key)) {
+            delta = replaceSegment(key, null);
+        } else {
+            return new CatalogDelta<>(key, version, List.of(), List.of());
+        }
+        publish(List.of(delta));
+        return delta;
+    }
+
+    /**
+     * Parses uploaded content as it is read from a stream and merges it into the catalog under the
+     * upload name, replacing a previous upload of the same name. The stream is not buffered, and the
+     * catalog stays readable while it is parsed.
+     *
+     * @param uploadName The name of the upload, such as the file name of the feed.
+     * @param body       The uploaded content.
+     * @param loader     Parses the content into entries.
+     * @return The outcome of the upload; its delta is empty if the content did not change.
+     * @throws IOException If the stream cannot be read.
+     */
+    public UploadResult<ItemType> ingestStream(String uploadName, InputStream body, StreamLoader<ItemType> loader)
+            throws IOException {
+        long start = System.nanoTime();
+        HashingInputStream in = new HashingInputStream(body);
+        List<ItemType> accepted = new ArrayList<>();
+        int[] rejected = new int[1];
+        loader.load(in, accepted::add, () -> rejected[0]++);
+        String contentHash = in.getHash();
+
+        CatalogDelta<ItemType> delta;
+        synchronized (this) {
+            refreshIfStale();
+            String key = UPLOAD_PREFIX + uploadName;
+            Segment<ItemType> segment = segments.get(key);
+            if (segment != null && contentHash.equals(segment.contentHash())) {
+                delta = new CatalogDelta<>(key, version, List.of(), List.of());
+            } else {
+                long now = System.currentTimeMillis();
+                delta = replaceSegment(key, new Segment<>(new FileStamp(in.getByteCount(), now), contentHash,
+                        Collections.unmodifiableList(accepted), now));
+                publish(List.of(delta));
+            }
+        }
+        return new UploadResult<>(delta, accepted.size(), rejected[0], System.nanoTime() - start);
+    }
+
+    /**
+     * Returns the per-file timings of the files parsed by the last refresh or ingestion.
+     *
+     * @return The load statistics, in file path order.
+     */
+    public List<FileLoadStats> getLastLoadStats() {
+        return lastLoadStats;
+    }
+
+    /**
+     * Stops the threads parsing files concurrently. Later loads parse their files on the calling thread.
+     */
+    @Override
+    public void close() {
+        if (ingestionPool != null) {
+            ingestionPool.shutdownNow();
+        }
+    }
+
+    private void loadSnapshot(Map<String, FileStamp> currentStamps, List<CatalogDelta<ItemType>> deltas,
+                              List<FileLoadStats> stats) {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<CatalogSnapshot.FileSection<ItemType>> sections;
+        try {
+            sections = CatalogSnapshot.read(snapshotFile, snapshotCodec);
+        } catch (IOException e) {
+            System.err.println("Ignoring snapshot " + snapshotFile + ": " + e.getMessage());
+            return;
+        }
+
+        Map<String, FileManifest.FileRecord> manifest = readManifest();
+        int entryCount = 0;
+        for (CatalogSnapshot.FileSection<ItemType> section : sections) {
+            String filePath = dataDirectory.resolve(section.fileName()).toAbsolutePath().normalize().toString();
+            FileStamp sectionStamp = new FileStamp(section.size(), section.lastModified());
+            FileStamp currentStamp = currentStamps.get(filePath);
+            if (currentStamp == null) continue;
+
+            FileManifest.FileRecord record = manifest.get(filePath);
+            String contentHash;
+            long ingestedAt;
+            if (record != null && sectionStamp.equals(new FileStamp(record.size(), record.lastModified()))) {
+                contentHash = record.contentHash();
+                ingestedAt = record.ingestedAt();
+                if (!sectionStamp.equals(currentStamp) && !contentHash.equals(hashOf(filePath))) continue;
+            } else if (sectionStamp.equals(currentStamp)) {
+                contentHash = hashOf(filePath);
+                ingestedAt = System.currentTimeMillis();
+            } else {
+                continue;
+            }
+
+            deltas.add(replaceSegment(filePath, new Segment<>(currentStamp, contentHash,
+                    Collections.unmodifiableList(section.entries()), ingestedAt)));
+            entryCount += section.entries().size();
+        }
+        stats.add(new FileLoadStats(snapshotFile.toString(), entryCount, System.nanoTime() - start,
+                Thread.currentThread().getName()));
+    }
+
+    private Map<String, FileManifest.FileRecord> readManifest() {
+        Map<String, FileManifest.FileRecord> records = new HashMap<>();
+        if (manifestFile == null) {
+            return records;
+        }
+        try {
+            for (FileManifest.FileRecord record : FileManifest.read(manifestFile)) {
+                records.put(record.filePath(), record);
+            }
+        } catch (IOException e) {
+            System.err.println("Ignoring manifest " + manifestFile + ": " + e.getMessage());
+        }
+        return records;
+    }
+
+    private void writeManifest() {
+        if (manifestFile == null) {
+            return;
+        }
+        try {
+            List<FileManifest.FileRecord> records = new ArrayList<>(segments.size());
+            segments.forEach((filePath, segment) -> records.add(new FileManifest.FileRecord(filePath,
+                    segment.stamp().size(), segment.stamp().lastModified(), segment.contentHash(),
+                    segment.entries().size(), segment.ingestedAt())));
+            FileManifest.write(manifestFile, records);
+        } catch (IOException e) {
+            System.err.println("Error writing manifest " + manifestFile + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean hasContent(Segment<?> segment, String filePath) {
+        return segment.contentHash() != null && segment.contentHash().equals(hashOf(filePath));
+    }
+
+    private static String hashOf(String filePath) {
+        try {
+            return FileManifest.hash(Path.of(filePath));
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private CatalogDelta<ItemType> replaceSegment(String filePath, Segment<ItemType> segment) {
+        Segment<ItemType> previous = segment == null ? segments.remove(filePath) : segments.put(filePath, segment);
+        List<ItemType> removed = previous == null ? List.of() : previous.entries();
+        List<ItemType> added = segment == null ? List.of() : segment.entries();
+        return new CatalogDelta<>(filePath, ++version, added, removed);
+    }
+
+    private void publish(List<CatalogDelta<ItemType>> deltas) {
+        List<List<ItemType>> parts = new ArrayList<>(segments.size());
+        for (Segment<ItemType> segment : segments.values()) {
+            parts.add(segment.entries());
+        }
+        entries = new ConcatenatedList<>(parts);
+        loaded = true;
+        writeManifest();
+
+        for (CatalogDelta<ItemType> delta : deltas) {
+            for (Consumer<CatalogDelta<ItemType>> listener : listeners) {
+                listener.accept(delta);
+            }
+        }
+    }
+
+    private List<FileLoad<ItemType>> loadFiles(List<String> filePaths) {
+        if (ingestionPool == null || ingestionPool.isShutdown() || filePaths.size() < 2) {
+            return filePaths.stream().map(this::loadFile).toList();
+        }
+
+        List<Callable<FileLoad<ItemType>>> tasks = filePaths.stream()
+                .<Callable<FileLoad<ItemType>>>map(filePath -> () -> loadFile(filePath))
+                .toList();
+        List<FileLoad<ItemType>> loads = new ArrayList<>(tasks.size());
+        try {
+            for (Future<FileLoad<ItemType>> future : ingestionPool.invokeAll(tasks)) {
+                loads.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading " + dataDirectory, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to load " + dataDirectory, e.getCause());
+        }
+        return loads;
+    }
+
+    private FileLoad<ItemType> loadFile(String filePath) {
+        long start = System.nanoTime();
+        CsvUtil.takeLastReadStats();
+        List<ItemType> fileEntries = Collections.unmodifiableList(fileLoader.apply(filePath));
+        CsvUtil.ReadStats readStats = CsvUtil.takeLastReadStats();
+        // Loaders reading through CsvUtil report the hash of the bytes they parsed; hash the file otherwise.
+        String contentHash = readStats != null ? readStats.sourceHash() : hashOf(filePath);
+        long elapsed = System.nanoTime() - start;
+        return new FileLoad<>(fileEntries, contentHash, new FileLoadStats(filePath, fileEntries.size(), elapsed,
+                Thread.currentThread().getName(), readStats));
+    }
+
+    /**
+     * Stops read-path checks of the data directory: once loaded, the catalog only changes through
+     * {@link #ingestFile(String)}, {@link #refresh()} and {@link #ingestStream}. Used when a directory
+     * watcher feeds every change through one thread, so a reader cannot pick up a file that is still
+     * being written and the watcher ingest it a second time.
+     */
+    public void disableRechecks() {
+        rechecksEnabled = false;
+    }
+
+    /**
+     * Loads the catalog on first use, or checks the data directory for changes once the
+     * recheck interval has elapsed, unless rechecks are disabled. Listeners have seen every delta
+     * when this method returns.
+     */
+    public void refreshIfStale() {
+        if (!loaded || (rechecksEnabled && System.currentTimeMillis() - lastCheckMillis >= recheckIntervalMillis)) {
+            refresh();
+        }
+    }
+
+    private Map<String, FileStamp> scanSourceFiles() {
+        Map<String, FileStamp> stamps = new LinkedHashMap<>();
+        if (!Files.isDirectory(dataDirectory)) {
+            return stamps;
+        }
+
+        try (Stream<Path> paths = Files.walk(dataDirectory)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(p -> fileNameFilter.test(p.getFileName().toString()))
+                    .map(p -> p.toAbsolutePath().normalize())
+                    .sorted()
+                    .forEach(p -> stamps.put(p.toString(), FileStamp.of(p)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return stamps;
+    }
+
+    /**
+     * Timing of the parsing of a single source file, with the decompression volume and time
+     * of compressed files.
+     */
+    public static class FileLoadStats {
+        private final String filePath;
+        private final int entryCount;
+        private final long elapsedNanos;
+        private final String threadName;
+        private final CsvUtil.ReadStats readStats;
+
+        /**
+         * Constructs a FileLoadStats object.
+         *
+         * @param filePath     The parsed file.
+         * @param entryCount   The number of entries parsed from the file.
+         * @param elapsedNanos The time spent parsing the file.
+         * @param threadName   The thread that parsed the file.
+         */
+        public FileLoadStats(String filePath, int entryCount, long elapsedNanos, String threadName) {
+            this(filePath, entryCount, elapsedNanos, threadName, null);
+        }
+
+        /**
+         * Constructs a FileLoadStats object.
+         *
+         * @param filePath     The parsed file.
+         * @param entryCount   The number of entries parsed from the file.
+         * @param elapsedNanos The time spent parsing the file.
+         * @param threadName   The thread that parsed the file.
+         * @param readStats    The volume read from the file, or null if unknown.
+         */
+        public FileLoadStats(String filePath, int entryCount, long elapsedNanos, String threadName,
+                             CsvUtil.ReadStats readStats) {
+            this.filePath = filePath;
+            this.entryCount = entryCount;
+            this.elapsedNanos = elapsedNanos;
+            this.threadName = threadName;
+            this.readStats = readStats;
+        }
+
+        /**
+         * Returns the path of the parsed file.
+         *
+         * @return The file path.
+         */
+        public String getFilePath() {
+            return filePath;
+        }
+
+        /**
+         * Returns the number of entries parsed from the file.
+         *
+         * @return The entry count.
+         */
+        public int getEntryCount() {
+            return entryCount;
+        }
+
+        /**
+         * Returns the time spent parsing the file.
+         *
+         * @return The elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the name of the thread that parsed the file.
+         *
+         * @return The thread name.
+         */
+        public String getThreadName() {
+            return threadName;
+        }
+
+        /**
+         * Returns the volume read from the file.
+         *
+         * @return The read statistics, or null if the file was not read through {@link CsvUtil}.
+         */
+        public CsvUtil.ReadStats getReadStats() {
+            return readStats;
+        }
+
+        /**
+         * Returns the decompression throughput of the file.
+         *
+         * @return The decompressed megabytes produced per second, or 0 for an uncompressed file.
+         */
+        public double getInflateThroughput() {
+            return readStats == null ? 0 : readStats.getInflateThroughput();
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format("%s: %d entries in %.2fms [%s]", filePath, entryCount, elapsedNanos / 1e6, threadName);
+            if (readStats == null || readStats.inflateNanos() == 0) {
+                return summary;
+            }
+            return summary + String.format(", %d -> %d bytes inflated at %.1f MB/s",
+                    readStats.sourceBytes(), readStats.decodedBytes(), getInflateThroughput());
+        }
+    }
+
+    /**
+     * Parses entries from uploaded content.
+     *
+     * @param <ItemType> The type of entry
+     */
+    @FunctionalInterface
+    public interface StreamLoader<ItemType> {
+        /**
+         * Parses the content of a stream, reporting every row as accepted or rejected.
+         *
+         * @param in       The content to parse.
+         * @param accepted Receives the entry of every accepted row.
+         * @param rejected Called for every rejected row.
+         * @throws IOException If the stream cannot be read.
+         */
+        void load(InputStream in, Consumer<ItemType> accepted, Runnable rejected) throws IOException;
+    }
+
+    /**
+     * Outcome of an upload.
+     *
+     * @param delta        The delta applied to the catalog.
+     * @param acceptedRows The number of rows parsed into entries.
+     * @param rejectedRows The number of rows that could not be parsed.
+     * @param elapsedNanos The time spent reading, parsing and merging the upload.
+     * @param <ItemType>   The type of entry
+     */
+    public record UploadResult<ItemType>(CatalogDelta<ItemType> delta, int acceptedRows, int rejectedRows,
+                                         long elapsedNanos) {
+    }
+
+    private record FileLoad<ItemType>(List<ItemType> entries, String contentHash, FileLoadStats stats) {
+    }
+
+    private record Segment<ItemType>(FileStamp stamp, String contentHash, List<ItemType> entries, long ingestedAt) {
+        Segment<ItemType> withStamp(FileStamp newStamp) {
+            return new Segment<>(newStamp, contentHash, entries, ingestedAt);
+        }
+    }
+
+    /**
+     * Size and modification time of a source file, used to detect changes.
+     */
+    private record FileStamp(long size, long lastModified) {
+        static FileStamp of(Path path) {
+            try {
+                return new FileStamp(Files.size(path), Files.getLastModifiedTime(path).toMillis());
+            } catch (IOException e) {
+                return new FileStamp(-1, -1);
+            }
+        }
+    }
+}
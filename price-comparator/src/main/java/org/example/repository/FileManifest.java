@@ -0,0 +1,117 @@
+package org.example.repository;
+
+import org.example.utils.HashingInputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent manifest of the source files an {@link EntryCatalog} was built from.
+ * Each record holds the path, size, modification time and SHA-256 content hash of a file,
+ * with the number of entries it produced and when it was ingested.
+ * <p>
+ * The manifest is stored as a {@code ;}-separated text file with a header line, and is
+ * rewritten atomically whenever the catalog changes.
+ */
+public final class FileManifest {
+    private static final String HEADER = "path;size;lastModified;sha256;entryCount;ingestedAt";
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private FileManifest() {
+    }
+
+    /**
+     * A single ingested source file.
+     *
+     * @param filePath     The absolute path of the file.
+     * @param size         The size of the file when it was ingested.
+     * @param lastModified The modification time of the file when it was ingested.
+     * @param contentHash  The hex-encoded SHA-256 hash of the file content.
+     * @param entryCount   The number of entries parsed from the file.
+     * @param ingestedAt   When the file was ingested, in epoch milliseconds.
+     */
+    public record FileRecord(String filePath, long size, long lastModified, String contentHash,
+                             int entryCount, long ingestedAt) {
+    }
+
+    /**
+     * Computes the SHA-256 hash of a file's content.
+     *
+     * @param file The file to hash.
+     * @return The hex-encoded hash.
+     * @throws IOException If the file cannot be read.
+     */
+    public static String hash(Path file) throws IOException {
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (HashingInputStream in = new HashingInputStream(Files.newInputStream(file))) {
+            while (in.read(buffer) != -1) {
+                // Drained for the hash only.
+            }
+            return in.getHash();
+        }
+    }
+
+    /**
+     * Writes a manifest file, replacing the previous one.
+     *
+     * @param manifestFile The manifest file to write.
+     * @param records      The records to write.
+     * @throws IOException If the manifest cannot be written.
+     */
+    public static void write(Path manifestFile, List<FileRecord> records) throws IOException {
+        Path parent = manifestFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tempFile = Files.createTempFile(parent, manifestFile.getFileName().toString(), ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (FileRecord record : records) {
+                writer.write(String.join(";", record.filePath(), Long.toString(record.size()),
+                        Long.toString(record.lastModified()), record.contentHash(),
+                        Integer.toString(record.entryCount()), Long.toString(record.ingestedAt())));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        Files.move(tempFile, manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a manifest file.
+     *
+     * @param manifestFile The manifest file to read.
+     * @return The records of the manifest, or an empty list if the file does not exist.
+     * @throws IOException If the file cannot be read or is malformed.
+     */
+    public static List<FileRecord> read(Path manifestFile) throws IOException {
+        List<FileRecord> records = new ArrayList<>();
+        if (!Files.isRegularFile(manifestFile)) {
+            return records;
+        }
+
+        List<String> lines = Files.readAllLines(manifestFile, StandardCharsets.UTF_8);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            if (line.isBlank()) continue;
+
+            String[] fields = line.split(";");
+            if (fields.length != 6) {
+                throw new IOException("Malformed manifest line in " + manifestFile + ": " + line);
+            }
+            try {
+                records.add(new FileRecord(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                        fields[3], Integer.parseInt(fields[4]), Long.parseLong(fields[5])));
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed manifest line in " + manifestFile + ": " + line, e);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.repository;
+
+import java.time.LocalDate;
+import java.util.Locale;
+
+/**
+ * Periods price histories are rolled up by.
+ */
+public enum Granularity {
+    /**
+     * ISO weeks, starting on Monday.
+     */
+    WEEK,
+    /**
+     * Calendar months.
+     */
+    MONTH;
+
+    /**
+     * Returns the first day of the period containing a day.
+     *
+     * @param epochDay The day, in days since 1970-01-01.
+     * @return The first day of its period, in days since 1970-01-01.
+     */
+    public long periodStart(long epochDay) {
+        return switch (this) {
+            // 1970-01-01 was a Thursday, three days after a Monday.
+            case WEEK -> epochDay - Math.floorMod(epochDay + 3, 7);
+            case MONTH -> LocalDate.ofEpochDay(epochDay).withDayOfMonth(1).toEpochDay();
+        };
+    }
+
+    /**
+     * Parses a granularity name, ignoring case.
+     *
+     * @param name The name, such as {@code "week"}.
+     * @return The granularity.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+    public static Granularity parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.Comparator;
+
+/**
+ * Position in a price history paged in (date, store, product id) order: the key of the last
+ * entry of a page, from which the next page resumes. Product names break the remaining ties.
+ * Rollups are paged with the same keys, dated by the start of their period.
+ * <p>
+ * Cursors travel to clients as opaque URL-safe tokens.
+ *
+ * @param epochDay    The day of the entry, in days since 1970-01-01.
+ * @param storeName   The store name.
+ * @param productId   The product id.
+ * @param productName The product name.
+ */
+public record HistoryCursor(long epochDay, String storeName, String productId, String productName)
+        implements Comparable<HistoryCursor> {
+    private static final Comparator<HistoryCursor> ORDER = Comparator
+            .comparingLong(HistoryCursor::epochDay)
+            .thenComparing(HistoryCursor::storeName, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(HistoryCursor::productId, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(HistoryCursor::productName, Comparator.nullsFirst(Comparator.naturalOrder()));
+    private static final char SEPARATOR = '\u001F';
+
+    /**
+     * Returns the key of a dated price entry.
+     *
+     * @param entry The entry.
+     * @return The cursor positioned on the entry.
+     */
+    public static HistoryCursor of(PriceEntry entry) {
+        return new HistoryCursor(entry.getDate().toEpochDay(), entry.getStoreName(), entry.getProductId(),
+                entry.getProductName());
+    }
+
+    /**
+     * Returns the key of a rollup, with the period start in place of the entry date.
+     *
+     * @param rollup The rollup.
+     * @return The cursor positioned on the rollup.
+     */
+    public static HistoryCursor of(PriceRollup rollup) {
+        return new HistoryCursor(rollup.periodStart().toEpochDay(), rollup.storeName(), rollup.productId(),
+                rollup.productName());
+    }
+
+    /**
+     * Decodes a token produced by {@link #toToken()}.
+     *
+     * @param token The token.
+     * @return The cursor.
+     * @throws IllegalArgumentException If the token is malformed.
+     */
+    public static HistoryCursor fromToken(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(String.valueOf(SEPARATOR), -1);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor: " + token);
+            }
+            return new HistoryCursor(LocalDate.parse(parts[0]).toEpochDay(), parts[1], parts[2], parts[3]);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + token, e);
+        }
+    }
+
+    /**
+     * Encodes the cursor as an opaque URL-safe token.
+     *
+     * @return The token.
+     */
+    public String toToken() {
+        String text = LocalDate.ofEpochDay(epochDay) + String.valueOf(SEPARATOR) + nullToEmpty(storeName)
+                + SEPARATOR + nullToEmpty(productId) + SEPARATOR + nullToEmpty(productName);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int compareTo(HistoryCursor other) {
+        return ORDER.compare(this, other);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
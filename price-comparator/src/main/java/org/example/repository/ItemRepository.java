@@ -22,4 +22,12 @@ public interface ItemRepository<ItemType> {
      * @return A list of all entries.
      */
     List<ItemType> loadAllEntries();
+
+    /**
+     * Returns the version of the in-memory catalog backing {@link #loadAllEntries()}.
+     * The version changes whenever the catalog is rebuilt from changed source files.
+     *
+     * @return The current catalog version.
+     */
+    long getCatalogVersion();
 }
@@ -0,0 +1,135 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Index of the current price of every product: the most recent entry of each (product, store)
+ * pair, and the cheapest of these across stores.
+ * <p>
+ * The index is kept up to date from the deltas of the price catalog. For every (product, store)
+ * pair touched by a delta, the most recent entry is recomputed from the price history of that
+ * pair only; the current prices of a product are then published as a single immutable view, so
+ * lookups are a hash probe and never see a partially applied delta.
+ */
+public class LatestPriceIndex {
+    private final BiFunction<String, String, List<PriceEntry>> historyLookup;
+    private final Map<String, Map<String, PriceEntry>> latestByProduct = new HashMap<>();
+    private final Map<String, CurrentPrices> currentPrices = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an index reading price histories through the given lookup.
+     *
+     * @param historyLookup Returns the price entries of a (product name, store) pair, with the
+     *                      delta being applied already reflected.
+     */
+    public LatestPriceIndex(BiFunction<String, String, List<PriceEntry>> historyLookup) {
+        this.historyLookup = historyLookup;
+    }
+
+    /**
+     * Applies a delta of the price catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<PriceEntry> delta) {
+        Map<String, Set<String>> changedStores = new HashMap<>();
+        for (List<PriceEntry> entries : List.of(delta.getRemovedEntries(), delta.getAddedEntries())) {
+            for (PriceEntry entry : entries) {
+                if (entry.getProductName() == null || entry.getStoreName() == null) continue;
+
+                changedStores.computeIfAbsent(entry.getProductName(), k -> new HashSet<>()).add(entry.getStoreName());
+            }
+        }
+
+        changedStores.forEach((productName, stores) -> {
+            Map<String, PriceEntry> latestByStore = latestByProduct.computeIfAbsent(productName, k -> new HashMap<>());
+            for (String store : stores) {
+                PriceEntry latest = latestOf(historyLookup.apply(productName, store));
+                if (latest == null) {
+                    latestByStore.remove(store);
+                } else {
+                    latestByStore.put(store, latest);
+                }
+            }
+
+            if (latestByStore.isEmpty()) {
+                latestByProduct.remove(productName);
+                currentPrices.remove(productName);
+            } else {
+                currentPrices.put(productName, CurrentPrices.of(latestByStore));
+            }
+        });
+    }
+
+    /**
+     * Returns the most recent price entry of a product at a store.
+     *
+     * @param productName The product name.
+     * @param storeName   The store name.
+     * @return The most recent entry, or null if the store never listed the product.
+     */
+    public PriceEntry findLatest(String productName, String storeName) {
+        CurrentPrices prices = productName == null ? null : currentPrices.get(productName);
+        return prices == null || storeName == null ? null : prices.latestByStore().get(storeName);
+    }
+
+    /**
+     * Returns the most recent price entry of a product at every store listing it.
+     *
+     * @param productName The product name.
+     * @return An unmodifiable map from store name to entry, empty if the product is unknown.
+     */
+    public Map<String, PriceEntry> findLatestByStore(String productName) {
+        CurrentPrices prices = productName == null ? null : currentPrices.get(productName);
+        return prices == null ? Map.of() : prices.latestByStore();
+    }
+
+    /**
+     * Returns the cheapest current price of a product across stores, comparing the most recent
+     * entry of every store. Ties resolve to the store name first in alphabetical order.
+     *
+     * @param productName The product name.
+     * @return The cheapest current entry, or null if the product is unknown.
+     */
+    public PriceEntry findCheapest(String productName) {
+        CurrentPrices prices = productName == null ? null : currentPrices.get(productName);
+        return prices == null ? null : prices.cheapest();
+    }
+
+    /**
+     * Returns the number of products with a current price.
+     *
+     * @return The product count.
+     */
+    public int size() {
+        return currentPrices.size();
+    }
+
+    /**
+     * Picks the entry with the latest date, keeping the first one in catalog order on ties.
+     */
+    private static PriceEntry latestOf(List<PriceEntry> history) {
+        PriceEntry latest = null;
+        for (PriceEntry entry : history) {
+            if (entry.getDate() == null) continue;
+
+            if (latest == null || entry.getDate().isAfter(latest.getDate())) {
+                latest = entry;
+            }
+        }
+        return latest;
+    }
+
+    private record CurrentPrices(Map<String, PriceEntry> latestByStore, PriceEntry cheapest) {
+        static CurrentPrices of(Map<String, PriceEntry> latestByStore) {
+            PriceEntry cheapest = latestByStore.values().stream()
+                    .min(Comparator.comparingDouble(PriceEntry::getPrice).thenComparing(PriceEntry::getStoreName))
+                    .orElse(null);
+            return new CurrentPrices(Map.copyOf(latestByStore), cheapest);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bitmap indexes of the price catalog over row ids, one {@link CompressedBitmap} per value of the
+ * category, brand, store and unit columns.
+ * <p>
+ * Every price entry gets a row id when its file is ingested; the rows of a file form a
+ * contiguous range, released as a whole when the file changes or is removed. Released ranges are
+ * merged with their neighbours and reused by the next file that fits in one, smallest fitting
+ * range first, so a file replaced again and again keeps the same rows instead of growing the
+ * id space. Combined filters are evaluated with bitmap unions within a column and intersections
+ * or unions across columns, without reading the entries, which are only resolved while the
+ * result is streamed.
+ * <p>
+ * A filter streams from the row array current when it was evaluated. Rows are only reassigned
+ * in a fresh copy of the array, so a stream still being consumed never sees a reused row id
+ * resolve to an entry it did not select.
+ */
+public class PriceFilterIndex {
+
+    /**
+     * The indexed columns.
+     */
+    public enum Dimension {
+        CATEGORY(PriceEntry::getProductCategory),
+        BRAND(PriceEntry::getBrand),
+        STORE(PriceEntry::getStoreName),
+        UNIT(PriceEntry::getPackageUnit);
+
+        private final Function<PriceEntry, String> extractor;
+
+        Dimension(Function<PriceEntry, String> extractor) {
+            this.extractor = extractor;
+        }
+    }
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Dimension, Map<String, CompressedBitmap>> bitmaps = new EnumMap<>(Dimension.class);
+    private final Map<String, int[]> rowRangesByFile = new HashMap<>();
+    private final NavigableMap<Integer, Integer> freeRanges = new TreeMap<>();
+    private final CompressedBitmap liveRows = new CompressedBitmap();
+    private volatile PriceEntry[] rows = new PriceEntry[1024];
+    private int nextRow;
+    private int highWater;
+
+    /**
+     * Constructs empty indexes.
+     */
+    public PriceFilterIndex() {
+        for (Dimension dimension : Dimension.values()) {
+            bitmaps.put(dimension, new HashMap<>());
+        }
+    }
+
+    /**
+     * Applies a delta of the price catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<PriceEntry> delta) {
+        lock.writeLock().lock();
+        try {
+            if (!delta.getRemovedEntries().isEmpty()) {
+                int[] previous = rowRangesByFile.remove(delta.getFilePath());
+                if (previous != null) {
+                    for (int row = previous[0]; row < previous[1]; row++) {
+                        removeRow(row);
+                    }
+                    release(previous[0], previous[1]);
+                }
+            }
+
+            List<PriceEntry> added = delta.getAddedEntries();
+            if (!added.isEmpty()) {
+                int start = allocate(added.size());
+                int row = start;
+                for (PriceEntry entry : added) {
+                    addRow(row++, entry);
+                }
+                rowRangesByFile.put(delta.getFilePath(), new int[]{start, row});
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Selects the rows matching a combination of column values. Within a column, a row matches
+     * any of the values given; across columns, a row must match every column given or, if
+     * {@code matchAll} is false, any of them.
+     *
+     * @param criteria The values accepted for each filtered column; columns absent or without
+     *                 values are not filtered on.
+     * @param matchAll Whether the columns are combined with AND rather than OR.
+     * @return The matching row ids. With no criteria, all rows when {@code matchAll} is true and
+     * none otherwise.
+     */
+    public CompressedBitmap select(Map<Dimension, ? extends Collection<String>> criteria, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap result = null;
+            for (Map.Entry<Dimension, ? extends Collection<String>> criterion : criteria.entrySet()) {
+                if (criterion.getValue() == null || criterion.getValue().isEmpty()) continue;
+
+                CompressedBitmap column = new CompressedBitmap();
+                for (String value : criterion.getValue()) {
+                    CompressedBitmap bitmap = bitmaps.get(criterion.getKey()).get(value);
+                    if (bitmap != null) {
+                        column = CompressedBitmap.or(column, bitmap);
+                    }
+                }
+
+                if (result == null) {
+                    result = column;
+                } else {
+                    result = matchAll ? CompressedBitmap.and(result, column) : CompressedBitmap.or(result, column);
+                }
+            }
+
+            if (result == null) {
+                return matchAll ? liveRows.copy() : new CompressedBitmap();
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Streams the entries matching a combination of column values, as selected by {@link #select},
+     * in row order. Rows released while the stream is consumed are skipped.
+     *
+     * @param criteria The values accepted for each filtered column.
+     * @param matchAll Whether the columns are combined with AND rather than OR.
+     * @return A lazy stream of the entries.
+     */
+    public Stream<PriceEntry> filter(Map<Dimension, ? extends Collection<String>> criteria, boolean matchAll) {
+        CompressedBitmap selection;
+        PriceEntry[] selectedRows;
+        lock.readLock().lock();
+        try {
+            selection = select(criteria, matchAll);
+            selectedRows = rows;
+        } finally {
+            lock.readLock().unlock();
+        }
+        return selection.stream()
+                .mapToObj(row -> selectedRows[row])
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Returns the number of row ids in use or released below the highest one, which bounds the
+     * size of the row array.
+     *
+     * @return The row id span.
+     */
+    int rowSpan() {
+        lock.readLock().lock();
+        try {
+            return nextRow;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of rows of a column value.
+     *
+     * @param dimension The column.
+     * @param value     The value.
+     * @return The row count.
+     */
+    public int count(Dimension dimension, String value) {
+        lock.readLock().lock();
+        try {
+            CompressedBitmap bitmap = bitmaps.get(dimension).get(value);
+            return bitmap == null ? 0 : bitmap.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void addRow(int row, PriceEntry entry) {
+        rows[row] = entry;
+        liveRows.add(row);
+        for (Dimension dimension : Dimension.values()) {
+            String value = dimension.extractor.apply(entry);
+            if (value != null) {
+                bitmaps.get(dimension).computeIfAbsent(value, k -> new CompressedBitmap()).add(row);
+            }
+        }
+    }
+
+    private void removeRow(int row) {
+        PriceEntry entry = rows[row];
+        if (entry == null) return;
+
+        rows[row] = null;
+        liveRows.remove(row);
+        for (Dimension dimension : Dimension.values()) {
+            String value = dimension.extractor.apply(entry);
+            if (value == null) continue;
+
+            Map<String, CompressedBitmap> byValue = bitmaps.get(dimension);
+            CompressedBitmap bitmap = byValue.get(value);
+            if (bitmap != null && bitmap.remove(row) && bitmap.isEmpty()) {
+                byValue.remove(value);
+            }
+        }
+    }
+
+    /**
+     * Reserves a range of rows: the smallest released range fitting them, or new rows after the
+     * last one. The row array is copied before rows that a published array may still hold are
+     * reassigned.
+     */
+    private int allocate(int size) {
+        Map.Entry<Integer, Integer> fit = null;
+        for (Map.Entry<Integer, Integer> range : freeRanges.entrySet()) {
+            int length = range.getValue() - range.getKey();
+            if (length >= size && (fit == null || length < fit.getValue() - fit.getKey())) {
+                fit = range;
+            }
+        }
+
+        int start;
+        if (fit != null) {
+            start = fit.getKey();
+            freeRanges.remove(start);
+            if (start + size < fit.getValue()) {
+                freeRanges.put(start + size, fit.getValue());
+            }
+        } else {
+            start = nextRow;
+            nextRow += size;
+        }
+
+        int end = start + size;
+        if (start < highWater || end > rows.length) {
+            rows = Arrays.copyOf(rows, end > rows.length ? Math.max(end, rows.length * 2) : rows.length);
+        }
+        highWater = Math.max(highWater, end);
+        return start;
+    }
+
+    /**
+     * Returns a range of rows to the released ranges, merged with adjacent released ranges; a
+     * range ending at the last row shrinks the rows in use instead.
+     */
+    private void release(int start, int end) {
+        Map.Entry<Integer, Integer> before = freeRanges.floorEntry(start);
+        if (before != null && before.getValue() == start) {
+            freeRanges.remove(before.getKey());
+            start = before.getKey();
+        }
+        Integer afterEnd = freeRanges.remove(end);
+        if (afterEnd != null) {
+            end = afterEnd;
+        }
+
+        if (end == nextRow) {
+            nextRow = start;
+        } else {
+            freeRanges.put(start, end);
+        }
+    }
+}
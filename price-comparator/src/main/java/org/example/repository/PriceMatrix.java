@@ -0,0 +1,243 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Dense product-by-store matrix of the current prices of the catalog on one date.
+ * <p>
+ * Each cell holds the most recent entry of a (product, store) pair, its regular price, and its
+ * effective package and unit prices after the best discount active on the date, in row-major
+ * {@code double[]} arrays; cells of products a store does not sell hold {@code NaN}. The matrix is
+ * immutable and built once per price catalog version, discount catalog version and date, so a
+ * basket is priced with one row read per item instead of index lookups per (item, store) pair.
+ */
+public class PriceMatrix {
+
+    /**
+     * Looks up the best discount of a product at a store.
+     */
+    @FunctionalInterface
+    public interface DiscountLookup {
+        /**
+         * Finds the best active discount of a product at a store.
+         *
+         * @param storeName The store name.
+         * @param productId The product id.
+         * @return The discount, or null if there is none.
+         */
+        Discount find(String storeName, String productId);
+    }
+
+    private final long priceVersion;
+    private final long discountVersion;
+    private final LocalDate date;
+    private final String[] storeNames;
+    private final Map<String, Integer> productRows;
+    private final PriceEntry[] entries;
+    private final double[] regularPrices;
+    private final double[] effectivePrices;
+    private final double[] effectiveUnitPrices;
+    private final double[] highestRegularPrices;
+
+    private PriceMatrix(long priceVersion, long discountVersion, LocalDate date, String[] storeNames,
+                        Map<String, Integer> productRows, PriceEntry[] entries) {
+        this.priceVersion = priceVersion;
+        this.discountVersion = discountVersion;
+        this.date = date;
+        this.storeNames = storeNames;
+        this.productRows = productRows;
+        this.entries = entries;
+        this.regularPrices = new double[entries.length];
+        this.effectivePrices = new double[entries.length];
+        this.effectiveUnitPrices = new double[entries.length];
+        this.highestRegularPrices = new double[productRows.size()];
+    }
+
+    /**
+     * Builds the matrix of the current prices of a catalog.
+     *
+     * @param catalogEntries  All price entries of the catalog; the most recent entry of each
+     *                        (product, store) pair is kept, the first one in catalog order on ties.
+     * @param discounts       The lookup of the discounts active on the date.
+     * @param date            The date the discounts are valid on.
+     * @param priceVersion    The version of the price catalog the entries come from.
+     * @param discountVersion The version of the discount catalog the lookup reads.
+     * @return The matrix.
+     */
+    public static PriceMatrix build(List<PriceEntry> catalogEntries, DiscountLookup discounts, LocalDate date,
+                                    long priceVersion, long discountVersion) {
+        SortedSet<String> stores = new TreeSet<>();
+        Map<String, Integer> productRows = new LinkedHashMap<>();
+        for (PriceEntry entry : catalogEntries) {
+            if (entry.getProductName() == null || entry.getStoreName() == null || entry.getDate() == null) continue;
+
+            stores.add(entry.getStoreName());
+            productRows.putIfAbsent(entry.getProductName(), productRows.size());
+        }
+
+        String[] storeNames = stores.toArray(new String[0]);
+        Map<String, Integer> storeColumns = new HashMap<>();
+        for (int column = 0; column < storeNames.length; column++) {
+            storeColumns.put(storeNames[column], column);
+        }
+
+        PriceEntry[] latest = new PriceEntry[productRows.size() * storeNames.length];
+        for (PriceEntry entry : catalogEntries) {
+            if (entry.getProductName() == null || entry.getStoreName() == null || entry.getDate() == null) continue;
+
+            int cell = productRows.get(entry.getProductName()) * storeNames.length + storeColumns.get(entry.getStoreName());
+            if (latest[cell] == null || entry.getDate().isAfter(latest[cell].getDate())) {
+                latest[cell] = entry;
+            }
+        }
+
+        PriceMatrix matrix = new PriceMatrix(priceVersion, discountVersion, date, storeNames,
+                Collections.unmodifiableMap(productRows), latest);
+        Arrays.fill(matrix.highestRegularPrices, Double.NaN);
+        for (int cell = 0; cell < latest.length; cell++) {
+            PriceEntry entry = latest[cell];
+            if (entry == null) {
+                matrix.regularPrices[cell] = Double.NaN;
+                matrix.effectivePrices[cell] = Double.NaN;
+                matrix.effectiveUnitPrices[cell] = Double.NaN;
+                continue;
+            }
+
+            Discount discount = discounts.find(entry.getStoreName(), entry.getProductId());
+            double factor = discount == null ? 1.0 : 1.0 - discount.getPercentageOfDiscount() / 100.0;
+            matrix.regularPrices[cell] = entry.getPrice();
+            matrix.effectivePrices[cell] = entry.getPrice() * factor;
+            matrix.effectiveUnitPrices[cell] = entry.getUnitPrice() * factor;
+
+            int row = cell / storeNames.length;
+            if (!(matrix.highestRegularPrices[row] >= entry.getPrice())) {
+                matrix.highestRegularPrices[row] = entry.getPrice();
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Returns the version of the price catalog the matrix was built from.
+     *
+     * @return The price catalog version.
+     */
+    public long getPriceVersion() {
+        return priceVersion;
+    }
+
+    /**
+     * Returns the version of the discount catalog the matrix was built from.
+     *
+     * @return The discount catalog version.
+     */
+    public long getDiscountVersion() {
+        return discountVersion;
+    }
+
+    /**
+     * Returns the date the effective prices are valid on.
+     *
+     * @return The date.
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Returns the number of stores, the columns of the matrix.
+     *
+     * @return The store count.
+     */
+    public int getStoreCount() {
+        return storeNames.length;
+    }
+
+    /**
+     * Returns the name of a store.
+     *
+     * @param store The store column, stores being in alphabetical order.
+     * @return The store name.
+     */
+    public String getStoreName(int store) {
+        return storeNames[store];
+    }
+
+    /**
+     * Returns the number of products, the rows of the matrix.
+     *
+     * @return The product count.
+     */
+    public int getProductCount() {
+        return productRows.size();
+    }
+
+    /**
+     * Returns the row of a product.
+     *
+     * @param productName The product name.
+     * @return The row, or -1 if no store sells the product.
+     */
+    public int getProductRow(String productName) {
+        Integer row = productName == null ? null : productRows.get(productName);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * Returns the most recent entry of a product at a store.
+     *
+     * @param product The product row.
+     * @param store   The store column.
+     * @return The entry, or null if the store does not sell the product.
+     */
+    public PriceEntry getEntry(int product, int store) {
+        return entries[product * storeNames.length + store];
+    }
+
+    /**
+     * Returns the regular price of a product at a store.
+     *
+     * @param product The product row.
+     * @param store   The store column.
+     * @return The price, or NaN if the store does not sell the product.
+     */
+    public double getRegularPrice(int product, int store) {
+        return regularPrices[product * storeNames.length + store];
+    }
+
+    /**
+     * Returns the price of a product at a store after its best active discount.
+     *
+     * @param product The product row.
+     * @param store   The store column.
+     * @return The price, or NaN if the store does not sell the product.
+     */
+    public double getEffectivePrice(int product, int store) {
+        return effectivePrices[product * storeNames.length + store];
+    }
+
+    /**
+     * Returns the price per canonical unit of a product at a store after its best active discount.
+     *
+     * @param product The product row.
+     * @param store   The store column.
+     * @return The unit price, or NaN if the store does not sell the product.
+     */
+    public double getEffectiveUnitPrice(int product, int store) {
+        return effectiveUnitPrices[product * storeNames.length + store];
+    }
+
+    /**
+     * Returns the highest regular price of a product across stores.
+     *
+     * @param product The product row.
+     * @return The price.
+     */
+    public double getHighestRegularPrice(int product) {
+        return highestRegularPrices[product];
+    }
+}
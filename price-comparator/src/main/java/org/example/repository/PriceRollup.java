@@ -0,0 +1,22 @@
+package org.example.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Aggregate of the prices of a (product, store) pair over one period.
+ *
+ * @param productId   The product id of the last entry of the period.
+ * @param productName The product name.
+ * @param storeName   The store name.
+ * @param periodStart The first day of the period.
+ * @param minPrice    The lowest price of the period.
+ * @param maxPrice    The highest price of the period.
+ * @param avgPrice    The average price of the entries of the period, rounded to the cent.
+ * @param firstPrice  The price of the earliest entry of the period.
+ * @param lastPrice   The price of the latest entry of the period.
+ * @param entryCount  The number of entries of the period.
+ */
+public record PriceRollup(String productId, String productName, String storeName, LocalDate periodStart,
+                          double minPrice, double maxPrice, double avgPrice, double firstPrice, double lastPrice,
+                          int entryCount) {
+}
@@ -0,0 +1,808 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Time-series storage of the price history of every (product, store) pair.
+ * <p>
+ * Each series holds the epoch days of its entries in ascending order, alongside their prices as
+ * fixed-point longs with {@value #PRICE_DECIMALS} decimals. A date range is located with two
+ * binary searches, and series of several stores, or of all the products of a category or brand,
+ * are combined with a k-way merge instead of a sort. Entries of the same day keep their catalog order.
+ * Category and brand histories can also be read in pages ordered by (date, store, product id),
+ * each page resuming from a {@link HistoryCursor} with a binary search in every series.
+ * <p>
+ * Every series also holds weekly and monthly rollups (min, max, average, first and last price
+ * per period), computed when the series is rebuilt, so trends at those granularities are read
+ * without touching the raw entries. A series whose entries span several categories or brands is
+ * rolled up again from its matching entries when read by category or brand. Rollups are paged
+ * like the raw history, with the period start in place of the entry date.
+ * <p>
+ * The index is kept up to date from the deltas of the price catalog: only the series touched
+ * by a delta are rebuilt, from the history of that (product, store) pair.
+ */
+public class PriceSeriesIndex {
+    /**
+     * Number of decimals of the fixed-point prices.
+     */
+    public static final int PRICE_DECIMALS = 2;
+    private static final double PRICE_SCALE = 100;
+
+    private final BiFunction<String, String, List<PriceEntry>> historyLookup;
+    private final Map<SeriesKey, Series> series = new ConcurrentHashMap<>();
+    private final SeriesGroups byProduct = new SeriesGroups(PriceEntry::getProductName);
+    private final SeriesGroups byCategory = new SeriesGroups(PriceEntry::getProductCategory);
+    private final SeriesGroups byBrand = new SeriesGroups(PriceEntry::getBrand);
+
+    /**
+     * Constructs an index reading price histories through the given lookup.
+     *
+     * @param historyLookup Returns the price entries of a (product name, store) pair in catalog
+     *                      order, with the delta being applied already reflected.
+     */
+    public PriceSeriesIndex(BiFunction<String, String, List<PriceEntry>> historyLookup) {
+        this.historyLookup = historyLookup;
+    }
+
+    /**
+     * Applies a delta of the price catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<PriceEntry> delta) {
+        Set<SeriesKey> changedSeries = new HashSet<>();
+        for (PriceEntry entry : delta.getRemovedEntries()) {
+            SeriesKey key = SeriesKey.of(entry);
+            if (key == null) continue;
+
+            changedSeries.add(key);
+            byProduct.remove(entry, key);
+            byCategory.remove(entry, key);
+            byBrand.remove(entry, key);
+        }
+        for (PriceEntry entry : delta.getAddedEntries()) {
+            SeriesKey key = SeriesKey.of(entry);
+            if (key == null) continue;
+
+            changedSeries.add(key);
+            byProduct.add(entry, key);
+            byCategory.add(entry, key);
+            byBrand.add(entry, key);
+        }
+
+        for (SeriesKey key : changedSeries) {
+            Series rebuilt = Series.of(historyLookup.apply(key.productName(), key.storeName()));
+            if (rebuilt == null) {
+                series.remove(key);
+            } else {
+                series.put(key, rebuilt);
+            }
+        }
+        byProduct.publish();
+        byCategory.publish();
+        byBrand.publish();
+    }
+
+    /**
+     * Returns the price series of a product at a store.
+     *
+     * @param productName The product name.
+     * @param storeName   The store name.
+     * @return The series, or null if the store never listed the product.
+     */
+    public Series findSeries(String productName, String storeName) {
+        if (productName == null || storeName == null) {
+            return null;
+        }
+        return series.get(new SeriesKey(productName, storeName));
+    }
+
+    /**
+     * Returns the price history of a product at a store within a date range, by date.
+     *
+     * @param productName The product name.
+     * @param storeName   The store name.
+     * @param from        The first date included, or null for no lower bound.
+     * @param to          The last date included, or null for no upper bound.
+     * @return The entries of the range, in ascending date order.
+     */
+    public List<PriceEntry> findHistory(String productName, String storeName, LocalDate from, LocalDate to) {
+        Series found = findSeries(productName, storeName);
+        return found == null ? List.of() : merge(List.of(found), from, to, entry -> true);
+    }
+
+    /**
+     * Returns the price history of a product at every store within a date range, by date.
+     *
+     * @param productName The product name.
+     * @param from        The first date included, or null for no lower bound.
+     * @param to          The last date included, or null for no upper bound.
+     * @return The entries of the range, in ascending date order.
+     */
+    public List<PriceEntry> findProductHistory(String productName, LocalDate from, LocalDate to) {
+        return merge(seriesOf(byProduct.find(productName)), from, to, entry -> true);
+    }
+
+    /**
+     * Returns the price history of the products of a category within a date range, by date.
+     *
+     * @param category The product category.
+     * @param from     The first date included, or null for no lower bound.
+     * @param to       The last date included, or null for no upper bound.
+     * @return The entries of the range, in ascending date order.
+     */
+    public List<PriceEntry> findCategoryHistory(String category, LocalDate from, LocalDate to) {
+        return merge(seriesOf(byCategory.find(category)), from, to, entry -> category.equals(entry.getProductCategory()));
+    }
+
+    /**
+     * Returns the price history of the products of a brand within a date range, by date.
+     *
+     * @param brand The brand name.
+     * @param from  The first date included, or null for no lower bound.
+     * @param to    The last date included, or null for no upper bound.
+     * @return The entries of the range, in ascending date order.
+     */
+    public List<PriceEntry> findBrandHistory(String brand, LocalDate from, LocalDate to) {
+        return merge(seriesOf(byBrand.find(brand)), from, to, entry -> brand.equals(entry.getBrand()));
+    }
+
+    /**
+     * Returns a page of the price history of the products of a category within a date range,
+     * ordered by (date, store, product id).
+     *
+     * @param category The product category.
+     * @param from     The first date included, or null for no lower bound.
+     * @param to       The last date included, or null for no upper bound.
+     * @param after    The key of the last entry of the previous page, or null for the first page.
+     * @param limit    The maximum number of entries returned.
+     * @return The entries of the page.
+     */
+    public List<PriceEntry> findCategoryHistoryPage(String category, LocalDate from, LocalDate to,
+                                                    HistoryCursor after, int limit) {
+        return mergePage(seriesOf(byCategory.find(category)), from, to, after, limit,
+                entry -> category.equals(entry.getProductCategory()));
+    }
+
+    /**
+     * Returns a page of the price history of the products of a brand within a date range,
+     * ordered by (date, store, product id).
+     *
+     * @param brand The brand name.
+     * @param from  The first date included, or null for no lower bound.
+     * @param to    The last date included, or null for no upper bound.
+     * @param after The key of the last entry of the previous page, or null for the first page.
+     * @param limit The maximum number of entries returned.
+     * @return The entries of the page.
+     */
+    public List<PriceEntry> findBrandHistoryPage(String brand, LocalDate from, LocalDate to,
+                                                 HistoryCursor after, int limit) {
+        return mergePage(seriesOf(byBrand.find(brand)), from, to, after, limit,
+                entry -> brand.equals(entry.getBrand()));
+    }
+
+    /**
+     * Returns the rollups of the price history of the products of a category within a date range.
+     *
+     * @param category    The product category.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @return The rollups, ordered by period, store and product id.
+     */
+    public List<PriceRollup> findCategoryRollups(String category, Granularity granularity, LocalDate from, LocalDate to) {
+        return findCategoryRollupsPage(category, granularity, from, to, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a page of the rollups of the price history of the products of a category within a
+     * date range, ordered by (period, store, product id).
+     *
+     * @param category    The product category.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @param after       The key of the last rollup of the previous page, or null for the first page.
+     * @param limit       The maximum number of rollups returned.
+     * @return The rollups of the page.
+     */
+    public List<PriceRollup> findCategoryRollupsPage(String category, Granularity granularity, LocalDate from,
+                                                     LocalDate to, HistoryCursor after, int limit) {
+        return rollupPage(seriesOf(byCategory.find(category)), granularity, from, to, after, limit,
+                entry -> category.equals(entry.getProductCategory()));
+    }
+
+    /**
+     * Returns the rollups of the price history of the products of a brand within a date range.
+     *
+     * @param brand       The brand name.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @return The rollups, ordered by period, store and product id.
+     */
+    public List<PriceRollup> findBrandRollups(String brand, Granularity granularity, LocalDate from, LocalDate to) {
+        return findBrandRollupsPage(brand, granularity, from, to, null, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns a page of the rollups of the price history of the products of a brand within a
+     * date range, ordered by (period, store, product id).
+     *
+     * @param brand       The brand name.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @param after       The key of the last rollup of the previous page, or null for the first page.
+     * @param limit       The maximum number of rollups returned.
+     * @return The rollups of the page.
+     */
+    public List<PriceRollup> findBrandRollupsPage(String brand, Granularity granularity, LocalDate from,
+                                                  LocalDate to, HistoryCursor after, int limit) {
+        return rollupPage(seriesOf(byBrand.find(brand)), granularity, from, to, after, limit,
+                entry -> brand.equals(entry.getBrand()));
+    }
+
+    /**
+     * Returns the number of (product, store) series.
+     *
+     * @return The series count.
+     */
+    public int size() {
+        return series.size();
+    }
+
+    private List<Series> seriesOf(List<SeriesKey> keys) {
+        List<Series> found = new ArrayList<>(keys.size());
+        for (SeriesKey key : keys) {
+            Series current = series.get(key);
+            if (current != null) {
+                found.add(current);
+            }
+        }
+        return found;
+    }
+
+    private static List<PriceEntry> merge(List<Series> seriesList, LocalDate from, LocalDate to,
+                                          Predicate<PriceEntry> filter) {
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        int resultSize = 0;
+        for (int order = 0; order < seriesList.size(); order++) {
+            Series current = seriesList.get(order);
+            int start = current.lowerBound(fromDay);
+            int end = current.upperBound(toDay);
+            if (start < end) {
+                cursors.add(new Cursor(current, start, end, order));
+                resultSize += end - start;
+            }
+        }
+
+        List<PriceEntry> merged = new ArrayList<>(resultSize);
+        while (!cursors.isEmpty()) {
+            Cursor cursor = cursors.poll();
+            PriceEntry entry = cursor.series.getEntry(cursor.position);
+            if (filter.test(entry)) {
+                merged.add(entry);
+            }
+            if (++cursor.position < cursor.end) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merges the rollups of the periods overlapping a date range and following a cursor, in
+     * (period, store, product id) order. Periods are aggregated as a whole, including days of the
+     * first and last period outside the range. The stored rollups of a series are used when all its
+     * entries pass the filter; a mixed series is rolled up again from the entries that do.
+     * Each series has at most one rollup per period, so keys never repeat across a page boundary.
+     */
+    private static List<PriceRollup> rollupPage(List<Series> seriesList, Granularity granularity, LocalDate from,
+                                                LocalDate to, HistoryCursor after, int limit,
+                                                Predicate<PriceEntry> filter) {
+        long fromPeriod = from == null ? Long.MIN_VALUE : granularity.periodStart(from.toEpochDay());
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        if (after != null) {
+            fromPeriod = Math.max(fromPeriod, after.epochDay());
+        }
+
+        PriorityQueue<RollupCursor> cursors = new PriorityQueue<>();
+        for (Series current : seriesList) {
+            Rollups periods = current.isMixed()
+                    ? Rollups.of(current, granularity, filter)
+                    : current.getRollups(granularity);
+            int start = periods.lowerBound(fromPeriod);
+            int end = periods.upperBound(toDay);
+            if (after != null) {
+                while (start < end && periods.key(start).compareTo(after) <= 0) {
+                    start++;
+                }
+            }
+            if (start < end) {
+                cursors.add(new RollupCursor(periods, start, end));
+            }
+        }
+
+        List<PriceRollup> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        while (!cursors.isEmpty() && page.size() < limit) {
+            RollupCursor cursor = cursors.poll();
+            page.add(cursor.periods.get(cursor.position));
+            if (++cursor.position < cursor.end) {
+                cursor.key = cursor.periods.key(cursor.position);
+                cursors.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Merges the entries following a cursor in (date, store, product id) order. Each series is
+     * entered with a binary search on the cursor day, skipping only the entries of that day that
+     * are not after the cursor, so earlier pages are never read again. A page never ends between
+     * two entries with the same key, so it may exceed the limit by such duplicates.
+     */
+    private static List<PriceEntry> mergePage(List<Series> seriesList, LocalDate from, LocalDate to,
+                                              HistoryCursor after, int limit, Predicate<PriceEntry> filter) {
+        long fromDay = from == null ? Long.MIN_VALUE : from.toEpochDay();
+        long toDay = to == null ? Long.MAX_VALUE : to.toEpochDay();
+        if (after != null) {
+            fromDay = Math.max(fromDay, after.epochDay());
+        }
+
+        PriorityQueue<PageCursor> cursors = new PriorityQueue<>();
+        for (Series current : seriesList) {
+            int start = current.lowerBound(fromDay);
+            int end = current.upperBound(toDay);
+            if (after != null) {
+                while (start < end && HistoryCursor.of(current.getEntry(start)).compareTo(after) <= 0) {
+                    start++;
+                }
+            }
+            if (start < end) {
+                cursors.add(new PageCursor(current, start, end));
+            }
+        }
+
+        List<PriceEntry> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        HistoryCursor last = null;
+        while (!cursors.isEmpty() && (page.size() < limit || cursors.peek().key.equals(last))) {
+            PageCursor cursor = cursors.poll();
+            PriceEntry entry = cursor.series.getEntry(cursor.position);
+            if (filter.test(entry)) {
+                page.add(entry);
+                last = cursor.key;
+            }
+            if (++cursor.position < cursor.end) {
+                cursor.key = HistoryCursor.of(cursor.series.getEntry(cursor.position));
+                cursors.add(cursor);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Date-sorted price history of a single (product, store) pair.
+     */
+    public static final class Series {
+        private final int[] epochDays;
+        private final long[] prices;
+        private final PriceEntry[] entries;
+        private final boolean mixed;
+        private final Map<Granularity, Rollups> rollups = new EnumMap<>(Granularity.class);
+
+        private Series(int[] epochDays, long[] prices, PriceEntry[] entries) {
+            this.epochDays = epochDays;
+            this.prices = prices;
+            this.entries = entries;
+            this.mixed = spansSeveralGroups(entries);
+            for (Granularity granularity : Granularity.values()) {
+                rollups.put(granularity, Rollups.of(this, granularity, entry -> true));
+            }
+        }
+
+        private static boolean spansSeveralGroups(PriceEntry[] entries) {
+            for (PriceEntry entry : entries) {
+                if (!Objects.equals(entry.getProductCategory(), entries[0].getProductCategory())
+                        || !Objects.equals(entry.getBrand(), entries[0].getBrand())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static Series of(List<PriceEntry> history) {
+            List<PriceEntry> sorted = new ArrayList<>(history.size());
+            for (PriceEntry entry : history) {
+                if (entry.getDate() != null) {
+                    sorted.add(entry);
+                }
+            }
+            if (sorted.isEmpty()) {
+                return null;
+            }
+            sorted.sort(Comparator.comparing(PriceEntry::getDate)
+                    .thenComparing(PriceEntry::getProductId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+            int[] epochDays = new int[sorted.size()];
+            long[] prices = new long[sorted.size()];
+            for (int i = 0; i < epochDays.length; i++) {
+                PriceEntry entry = sorted.get(i);
+                epochDays[i] = (int) entry.getDate().toEpochDay();
+                prices[i] = Math.round(entry.getPrice() * PRICE_SCALE);
+            }
+            return new Series(epochDays, prices, sorted.toArray(new PriceEntry[0]));
+        }
+
+        /**
+         * Returns the number of entries of the series.
+         *
+         * @return The entry count.
+         */
+        public int size() {
+            return epochDays.length;
+        }
+
+        /**
+         * Returns the epoch day of an entry.
+         *
+         * @param index The entry index, in date order.
+         * @return The number of days since 1970-01-01.
+         */
+        public int getEpochDay(int index) {
+            return epochDays[index];
+        }
+
+        /**
+         * Returns the price of an entry as a fixed-point value with {@value #PRICE_DECIMALS} decimals.
+         *
+         * @param index The entry index, in date order.
+         * @return The fixed-point price.
+         */
+        public long getFixedPointPrice(int index) {
+            return prices[index];
+        }
+
+        /**
+         * Returns an entry.
+         *
+         * @param index The entry index, in date order.
+         * @return The price entry.
+         */
+        public PriceEntry getEntry(int index) {
+            return entries[index];
+        }
+
+        /**
+         * Returns whether the entries of the series span more than one category or brand.
+         *
+         * @return True if the stored rollups mix entries of several categories or brands.
+         */
+        public boolean isMixed() {
+            return mixed;
+        }
+
+        /**
+         * Returns the rollups of the series.
+         *
+         * @param granularity The period length.
+         * @return The rollups, one per period with entries.
+         */
+        public Rollups getRollups(Granularity granularity) {
+            return rollups.get(granularity);
+        }
+
+        /**
+         * Returns the index of the first entry on or after a day.
+         *
+         * @param epochDay The day.
+         * @return The index, or {@link #size()} if every entry is before the day.
+         */
+        public int lowerBound(long epochDay) {
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (epochDays[middle] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index following the last entry on or before a day.
+         *
+         * @param epochDay The day.
+         * @return The index, or 0 if every entry is after the day.
+         */
+        public int upperBound(long epochDay) {
+            int low = 0;
+            int high = epochDays.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (epochDays[middle] <= epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Per-period aggregates of a series, with fixed-point prices, in ascending period order.
+     */
+    public static final class Rollups {
+        private final int[] periodStarts;
+        private final long[] minPrices;
+        private final long[] maxPrices;
+        private final long[] firstPrices;
+        private final long[] lastPrices;
+        private final long[] priceSums;
+        private final int[] counts;
+        private final PriceEntry[] lastEntries;
+
+        private Rollups(int periods) {
+            periodStarts = new int[periods];
+            minPrices = new long[periods];
+            maxPrices = new long[periods];
+            firstPrices = new long[periods];
+            lastPrices = new long[periods];
+            priceSums = new long[periods];
+            counts = new int[periods];
+            lastEntries = new PriceEntry[periods];
+        }
+
+        private static Rollups of(Series series, Granularity granularity, Predicate<PriceEntry> filter) {
+            int periods = 0;
+            long previous = Long.MIN_VALUE;
+            for (int i = 0; i < series.size(); i++) {
+                if (!filter.test(series.getEntry(i))) continue;
+
+                long start = granularity.periodStart(series.getEpochDay(i));
+                if (start != previous) {
+                    periods++;
+                    previous = start;
+                }
+            }
+
+            Rollups rollups = new Rollups(periods);
+            int period = -1;
+            previous = Long.MIN_VALUE;
+            for (int i = 0; i < series.size(); i++) {
+                if (!filter.test(series.getEntry(i))) continue;
+
+                long start = granularity.periodStart(series.getEpochDay(i));
+                long price = series.getFixedPointPrice(i);
+                if (start != previous) {
+                    period++;
+                    previous = start;
+                    rollups.periodStarts[period] = (int) start;
+                    rollups.minPrices[period] = price;
+                    rollups.maxPrices[period] = price;
+                    rollups.firstPrices[period] = price;
+                } else {
+                    rollups.minPrices[period] = Math.min(rollups.minPrices[period], price);
+                    rollups.maxPrices[period] = Math.max(rollups.maxPrices[period], price);
+                }
+                rollups.lastPrices[period] = price;
+                rollups.priceSums[period] += price;
+                rollups.counts[period]++;
+                rollups.lastEntries[period] = series.getEntry(i);
+            }
+            return rollups;
+        }
+
+        /**
+         * Returns the number of periods.
+         *
+         * @return The period count.
+         */
+        public int size() {
+            return periodStarts.length;
+        }
+
+        /**
+         * Returns the aggregate of a period.
+         *
+         * @param index The period index, in ascending order.
+         * @return The aggregate, with prices converted back to decimals.
+         */
+        public PriceRollup get(int index) {
+            PriceEntry last = lastEntries[index];
+            return new PriceRollup(last.getProductId(), last.getProductName(), last.getStoreName(),
+                    LocalDate.ofEpochDay(periodStarts[index]),
+                    minPrices[index] / PRICE_SCALE, maxPrices[index] / PRICE_SCALE,
+                    Math.round((double) priceSums[index] / counts[index]) / PRICE_SCALE,
+                    firstPrices[index] / PRICE_SCALE, lastPrices[index] / PRICE_SCALE, counts[index]);
+        }
+
+        /**
+         * Returns the paging key of a period.
+         */
+        HistoryCursor key(int index) {
+            PriceEntry last = lastEntries[index];
+            return new HistoryCursor(periodStarts[index], last.getStoreName(), last.getProductId(), last.getProductName());
+        }
+
+        /**
+         * Returns the index of the first period starting on or after a day.
+         */
+        int lowerBound(long epochDay) {
+            int low = 0;
+            int high = periodStarts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (periodStarts[middle] < epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Returns the index following the last period starting on or before a day.
+         */
+        int upperBound(long epochDay) {
+            int low = 0;
+            int high = periodStarts.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (periodStarts[middle] <= epochDay) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record SeriesKey(String productName, String storeName) implements Comparable<SeriesKey> {
+        static SeriesKey of(PriceEntry entry) {
+            if (entry.getProductName() == null || entry.getStoreName() == null) {
+                return null;
+            }
+            return new SeriesKey(entry.getProductName(), entry.getStoreName());
+        }
+
+        @Override
+        public int compareTo(SeriesKey other) {
+            int byName = productName.compareTo(other.productName);
+            return byName != 0 ? byName : storeName.compareTo(other.storeName);
+        }
+    }
+
+    /**
+     * Position of the k-way merge in one series. Ties on the day resolve in series order.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+        private final Series series;
+        private final int end;
+        private final int order;
+        private int position;
+
+        Cursor(Series series, int position, int end, int order) {
+            this.series = series;
+            this.position = position;
+            this.end = end;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            int byDay = Integer.compare(series.getEpochDay(position), other.series.getEpochDay(other.position));
+            return byDay != 0 ? byDay : Integer.compare(order, other.order);
+        }
+    }
+
+    /**
+     * Position of the paged merge in one series, ordered by the key of its current entry.
+     */
+    private static final class PageCursor implements Comparable<PageCursor> {
+        private final Series series;
+        private final int end;
+        private int position;
+        private HistoryCursor key;
+
+        PageCursor(Series series, int position, int end) {
+            this.series = series;
+            this.position = position;
+            this.end = end;
+            this.key = HistoryCursor.of(series.getEntry(position));
+        }
+
+        @Override
+        public int compareTo(PageCursor other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * Position of the paged rollup merge in one series, ordered by the key of its current period.
+     */
+    private static final class RollupCursor implements Comparable<RollupCursor> {
+        private final Rollups periods;
+        private final int end;
+        private int position;
+        private HistoryCursor key;
+
+        RollupCursor(Rollups periods, int position, int end) {
+            this.periods = periods;
+            this.position = position;
+            this.end = end;
+            this.key = periods.key(position);
+        }
+
+        @Override
+        public int compareTo(RollupCursor other) {
+            return key.compareTo(other.key);
+        }
+    }
+
+    /**
+     * Series keys grouped by an entry attribute, with the number of entries backing each key.
+     */
+    private static final class SeriesGroups {
+        private final Function<PriceEntry, String> attribute;
+        private final Map<String, Map<SeriesKey, Integer>> counts = new HashMap<>();
+        private final Map<String, List<SeriesKey>> published = new ConcurrentHashMap<>();
+        private final Set<String> changed = new HashSet<>();
+
+        SeriesGroups(Function<PriceEntry, String> attribute) {
+            this.attribute = attribute;
+        }
+
+        void add(PriceEntry entry, SeriesKey key) {
+            String value = attribute.apply(entry);
+            if (value == null) return;
+
+            counts.computeIfAbsent(value, k -> new HashMap<>()).merge(key, 1, Integer::sum);
+            changed.add(value);
+        }
+
+        void remove(PriceEntry entry, SeriesKey key) {
+            String value = attribute.apply(entry);
+            Map<SeriesKey, Integer> keys = value == null ? null : counts.get(value);
+            if (keys == null) return;
+
+            keys.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+            changed.add(value);
+        }
+
+        void publish() {
+            for (String value : changed) {
+                Map<SeriesKey, Integer> keys = counts.get(value);
+                if (keys == null || keys.isEmpty()) {
+                    counts.remove(value);
+                    published.remove(value);
+                } else {
+                    List<SeriesKey> sorted = new ArrayList<>(keys.keySet());
+                    Collections.sort(sorted);
+                    published.put(value, List.copyOf(sorted));
+                }
+            }
+            changed.clear();
+        }
+
+        List<SeriesKey> find(String value) {
+            return value == null ? List.of() : published.getOrDefault(value, List.of());
+        }
+    }
+}
@@ -1,24 +1,84 @@
 package org.example.repository;
 
+import jakarta.annotation.PreDestroy;
 import org.example.model.PriceEntry;
 import org.example.utils.CsvUtil;
 import org.example.utils.FileNameUtil;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.InputStream;
 import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * Repository for loading and parsing product price entries from CSV files.
  */
 @Repository
 public class ProductRepository implements ItemRepository<PriceEntry> {
+    private static final String DATA_DIRECTORY = "src/main/resources/data";
+    private static final String SNAPSHOT_FILE = DATA_DIRECTORY + "/prices.snapshot";
+    private static final String MANIFEST_FILE = DATA_DIRECTORY + "/prices.manifest";
+    private static final double PRICE_SCALE = Math.pow(10, PriceSeriesIndex.PRICE_DECIMALS);
+
+    private final EntryCatalog<PriceEntry> catalog = new EntryCatalog<>(
+            Paths.get(DATA_DIRECTORY), ProductRepository::isPriceFile, this::loadEntriesFromFile);
+
+    private final SecondaryIndex<String, PriceEntry> byProductName = new SecondaryIndex<>(PriceEntry::getProductName);
+    private final SecondaryIndex<String, PriceEntry> byCategory = new SecondaryIndex<>(PriceEntry::getProductCategory);
+    private final SecondaryIndex<String, PriceEntry> byBrand = new SecondaryIndex<>(PriceEntry::getBrand);
+    private final SecondaryIndex<NameAndStore, PriceEntry> byProductNameAndStore =
+            new SecondaryIndex<>(NameAndStore::of);
+    private final LatestPriceIndex latestPrices = new LatestPriceIndex(
+            (productName, storeName) -> byProductNameAndStore.find(new NameAndStore(productName, storeName)));
+    private final PriceSeriesIndex priceSeries = new PriceSeriesIndex(
+            (productName, storeName) -> byProductNameAndStore.find(new NameAndStore(productName, storeName)));
+    private final UnitPriceIndex unitPrices = new UnitPriceIndex(latestPrices::findLatest);
+    private final ProductSearchIndex productSearch = new ProductSearchIndex();
+    private final PriceFilterIndex priceFilters = new PriceFilterIndex();
+    private final SymbolTable symbols;
+
+    /**
+     * Constructs the repository with its own symbol table.
+     */
+    public ProductRepository() {
+        this(new SymbolTable());
+    }
+
+    /**
+     * Constructs the repository. The price catalog starts from the binary snapshot of the data
+     * directory when one exists, and only parses the CSV files that are newer than the snapshot.
+     * The files it is built from are recorded in a manifest next to the snapshot, and the
+     * name, category, brand, (name, store), latest price, unit price, price series, product name
+     * search and column bitmap indexes follow every change of the catalog.
+     *
+     * @param symbols The symbol table sharing repeated string values between entries.
+     */
+    @Autowired
+    public ProductRepository(SymbolTable symbols) {
+        this.symbols = symbols;
+        catalog.useSnapshot(Paths.get(SNAPSHOT_FILE), new SnapshotCodec());
+        catalog.useManifest(Paths.get(MANIFEST_FILE));
+        catalog.addListener(delta -> {
+            byProductName.apply(delta);
+            byCategory.apply(delta);
+            byBrand.apply(delta);
+            byProductNameAndStore.apply(delta);
+            latestPrices.apply(delta);
+            unitPrices.apply(delta);
+            priceSeries.apply(delta);
+            productSearch.apply(delta);
+            priceFilters.apply(delta);
+        });
+    }
 
     /**
      * Loads price entries from a specific CSV file, if it's not a discount file.
@@ -37,100 +97,469 @@ public class ProductRepository implements ItemRepository<PriceEntry> {
             return priceEntries;
         }
 
-        String storeName = fileInfo.getStoreName();
+        String storeName = symbols.intern(fileInfo.getStoreName());
         LocalDate date = fileInfo.getDate();
 
-        for (String[] row : CsvUtil.readCsv(filePath, ";")) {
-            if (row.length < 8) continue;
+        CsvUtil.forEachRow(filePath, ';', row -> {
+            if (row.getFieldCount() < 8) return;
 
             try {
-                PriceEntry entry = new PriceEntry();
-                entry.setProductId(row[0]);
-                entry.setProductName(row[1]);
-                entry.setProductCategory(row[2]);
-                entry.setBrand(row[3]);
-                entry.setPackageQuantity(Double.parseDouble(row[4]));
-                entry.setPackageUnit(row[5]);
-                entry.setPrice(Double.parseDouble(row[6]));
-                entry.setCurrency(row[7]);
-                entry.setStoreName(storeName);
-                entry.setDate(date);
-                priceEntries.add(entry);
+                priceEntries.add(parseRow(row, storeName, date));
             } catch (Exception e) {
                 e.printStackTrace();
             }
-        }
+        });
 
         return priceEntries;
     }
 
     /**
-     * Loads all price entries by scanning the data directory recursively,
-     * excluding discount files.
+     * Parses an uploaded price feed as it is read and merges it into the catalog, replacing a
+     * previous upload of the same file name. Rows that cannot be parsed are counted and skipped.
+     *
+     * @param fileName The file name of the feed, such as {@code lidl_2025-05-01.csv} or {@code lidl_2025-05-01.csv.gz}.
+     * @param body     The content of the feed.
+     * @return The outcome of the upload.
+     * @throws IOException If the body cannot be read.
+     */
+    public EntryCatalog.UploadResult<PriceEntry> ingestUpload(String fileName, InputStream body) throws IOException {
+        if (!isPriceFile(fileName)) {
+            throw new IllegalArgumentException("Not a price file name: " + fileName);
+        }
+        FileNameUtil.FileInfo fileInfo = FileNameUtil.parseFileName(fileName);
+        String storeName = symbols.intern(fileInfo.getStoreName());
+        LocalDate date = fileInfo.getDate();
+
+        return catalog.ingestStream(fileName, body, (in, accepted, rejected) ->
+                CsvUtil.forEachRow(in, fileInfo.getCompression(), ';', row -> {
+                    try {
+                        if (row.getFieldCount() < 8) {
+                            rejected.run();
+                        } else {
+                            accepted.accept(parseRow(row, storeName, date));
+                        }
+                    } catch (Exception e) {
+                        rejected.run();
+                    }
+                }));
+    }
+
+    /**
+     * Parses a price row. The price is read as a fixed-point value, so it is kept to the cent like
+     * the price series built from it.
+     */
+    private PriceEntry parseRow(CsvUtil.CsvRow row, String storeName, LocalDate date) {
+        return new PriceEntry(row.getString(0), symbols.intern(row.getString(1)), symbols.intern(row.getString(2)),
+                symbols.intern(row.getString(3)), row.getDouble(4), symbols.intern(row.getString(5)), storeName, date,
+                row.getFixedPoint(6, PriceSeriesIndex.PRICE_DECIMALS) / PRICE_SCALE, symbols.intern(row.getString(7)));
+    }
+
+    /**
+     * Returns all price entries of the data directory, excluding discount files.
+     * Entries are served from the in-memory catalog, which only re-reads the directory
+     * when its files have changed.
      *
      * @return A list of all PriceEntry records found.
      */
     @Override
     public List<PriceEntry> loadAllEntries() {
-        List<PriceEntry> all = new ArrayList<>();
-        try {
-            Files.walk(Paths.get("src/main/resources/data"))
-                    .filter(Files::isRegularFile)
-                    .filter(p -> p.getFileName().toString().matches(".*_\\d{4}-\\d{2}-\\d{2}\\.csv"))
-                    .filter(p -> !p.getFileName().toString().contains("_discounts_"))
-                    .forEach(p -> all.addAll(loadEntriesFromFile(p.toString())));
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-        return all;
+        return catalog.getEntries();
     }
 
     /**
-     * Finds all price entries by product name.
+     * Stops reads from checking the data directory for changed price files, once the directory
+     * watcher delivers every change through {@link #ingestFile(String)} and {@link #rescanDirectory()}.
+     */
+    public void disableDirectoryRechecks() {
+        catalog.disableRechecks();
+    }
+
+    /**
+     * Checks the data directory for added, modified and deleted price files and merges them into the catalog.
+     *
+     * @return true if the catalog content changed, false otherwise.
+     */
+    public boolean rescanDirectory() {
+        return catalog.refresh();
+    }
+
+    /**
+     * Stops the threads parsing price files.
+     */
+    @PreDestroy
+    public void close() {
+        catalog.close();
+    }
+
+    /**
+     * Returns the version of the in-memory price catalog.
+     *
+     * @return The current catalog version.
+     */
+    @Override
+    public long getCatalogVersion() {
+        return catalog.getVersion();
+    }
+
+    /**
+     * Parses a single added, modified or deleted price file and merges it into the catalog
+     * as a delta, without re-reading the other files of the data directory.
+     *
+     * @param filePath The path of the changed file.
+     * @return The applied delta, or null if the file is not a price file.
+     */
+    public CatalogDelta<PriceEntry> ingestFile(String filePath) {
+        return catalog.ingestFile(filePath);
+    }
+
+    /**
+     * Registers a listener notified of every delta applied to the price catalog.
+     *
+     * @param listener The listener to register.
+     */
+    public void addCatalogListener(Consumer<CatalogDelta<PriceEntry>> listener) {
+        catalog.addListener(listener);
+    }
+
+    /**
+     * Returns the manifest of the files the price catalog is currently built from.
+     *
+     * @return The manifest records, in file path order.
+     */
+    public List<FileManifest.FileRecord> getManifest() {
+        return catalog.getManifest();
+    }
+
+    /**
+     * Compiles the current price catalog into the binary snapshot loaded on startup.
+     *
+     * @return The number of entries written.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public int writeSnapshot() throws IOException {
+        return catalog.writeSnapshot(Paths.get(SNAPSHOT_FILE), new SnapshotCodec());
+    }
+
+    /**
+     * Returns the per-file parsing times of the last price catalog (re)load.
+     *
+     * @return The load statistics, in file path order.
+     */
+    public List<EntryCatalog.FileLoadStats> getLastLoadStats() {
+        return catalog.getLastLoadStats();
+    }
+
+    /**
+     * Checks whether a file name denotes a store price file.
+     *
+     * @param fileName The file name.
+     * @return true if the file holds regular prices, false otherwise.
+     */
+    private static boolean isPriceFile(String fileName) {
+        return fileName.matches(".*_\\d{4}-\\d{2}-\\d{2}\\.csv(\\.gz)?") && !fileName.contains("_discounts_");
+    }
+
+    /**
+     * Finds all price entries by product name, through the product name index.
      *
      * @param productName The product name.
      * @return List of matching price entries.
      */
     public List<PriceEntry> findByProductName(String productName) {
-        return loadAllEntries().stream()
-                .filter(p -> p.getProductName().equals(productName))
-                .toList();
+        catalog.refreshIfStale();
+        return byProductName.find(productName);
     }
 
     /**
-     * Finds price entries by product name and store name.
+     * Finds price entries by product name and store name, through the (name, store) index.
      *
      * @param productName The product name.
      * @param storeName The store name.
      * @return List of matching price entries.
      */
     public List<PriceEntry> findByProductNameAndStore(String productName, String storeName) {
-        return loadAllEntries().stream()
-                .filter(p -> p.getProductName().equals(productName) && p.getStoreName().equals(storeName))
-                .toList();
+        catalog.refreshIfStale();
+        return byProductNameAndStore.find(new NameAndStore(productName, storeName));
     }
 
     /**
-     * Finds price entries by product category.
+     * Finds price entries by product category, through the category index.
      *
      * @param category The product category.
      * @return List of matching price entries.
      */
     public List<PriceEntry> findByProductCategory(String category) {
-        return loadAllEntries().stream()
-                .filter(p -> p.getProductCategory().equals(category))
-                .toList();
+        catalog.refreshIfStale();
+        return byCategory.find(category);
     }
 
     /**
-     * Finds price entries by brand name.
+     * Finds price entries by brand name, through the brand index.
      *
      * @param brand The brand name.
      * @return List of matching price entries.
      */
     public List<PriceEntry> findByBrand(String brand) {
-        return loadAllEntries().stream()
-                .filter(p -> p.getBrand().equals(brand))
-                .toList();
+        catalog.refreshIfStale();
+        return byBrand.find(brand);
+    }
+
+    /**
+     * Finds the most recent price entry of a product at a store, through the latest price index.
+     *
+     * @param productName The product name.
+     * @param storeName   The store name.
+     * @return The most recent entry, or null if the store never listed the product.
+     */
+    public PriceEntry findLatestEntry(String productName, String storeName) {
+        catalog.refreshIfStale();
+        return latestPrices.findLatest(productName, storeName);
+    }
+
+    /**
+     * Finds the most recent price entry of a product at every store listing it.
+     *
+     * @param productName The product name.
+     * @return An unmodifiable map from store name to entry, empty if the product is unknown.
+     */
+    public Map<String, PriceEntry> findLatestEntriesByStore(String productName) {
+        catalog.refreshIfStale();
+        return latestPrices.findLatestByStore(productName);
+    }
+
+    /**
+     * Finds the cheapest current price of a product across stores, comparing the most recent
+     * entry of every store.
+     *
+     * @param productName The product name.
+     * @return The cheapest current entry, or null if the product is unknown.
+     */
+    public PriceEntry findCheapestCurrentEntry(String productName) {
+        catalog.refreshIfStale();
+        return latestPrices.findCheapest(productName);
+    }
+
+    /**
+     * Finds the current entries of a category sold in a canonical unit with the lowest regular
+     * unit prices, through the unit price index.
+     *
+     * @param category      The product category.
+     * @param canonicalUnit The canonical unit, such as {@code kg}.
+     * @param limit         The maximum number of entries returned.
+     * @return The entries, lowest unit price first.
+     */
+    public List<PriceEntry> findCheapestPerUnit(String category, String canonicalUnit, int limit) {
+        catalog.refreshIfStale();
+        return unitPrices.findCheapest(category, canonicalUnit, limit);
+    }
+
+    /**
+     * Finds the price history of a product at every store within a date range, merged from the
+     * date-sorted series of each store.
+     *
+     * @param productName The product name.
+     * @param from        The first date included, or null for no lower bound.
+     * @param to          The last date included, or null for no upper bound.
+     * @return The matching entries, in ascending date order.
+     */
+    public List<PriceEntry> findPriceHistory(String productName, LocalDate from, LocalDate to) {
+        catalog.refreshIfStale();
+        return priceSeries.findProductHistory(productName, from, to);
+    }
+
+    /**
+     * Finds the price history of a product at a store within a date range.
+     *
+     * @param productName The product name.
+     * @param storeName   The store name.
+     * @param from        The first date included, or null for no lower bound.
+     * @param to          The last date included, or null for no upper bound.
+     * @return The matching entries, in ascending date order.
+     */
+    public List<PriceEntry> findPriceHistory(String productName, String storeName, LocalDate from, LocalDate to) {
+        catalog.refreshIfStale();
+        return priceSeries.findHistory(productName, storeName, from, to);
+    }
+
+    /**
+     * Finds the price history of the products of a category within a date range.
+     *
+     * @param category The product category.
+     * @param from     The first date included, or null for no lower bound.
+     * @param to       The last date included, or null for no upper bound.
+     * @return The matching entries, in ascending date order.
+     */
+    public List<PriceEntry> findPriceHistoryByCategory(String category, LocalDate from, LocalDate to) {
+        catalog.refreshIfStale();
+        return priceSeries.findCategoryHistory(category, from, to);
+    }
+
+    /**
+     * Finds the price history of the products of a brand within a date range.
+     *
+     * @param brand The brand name.
+     * @param from  The first date included, or null for no lower bound.
+     * @param to    The last date included, or null for no upper bound.
+     * @return The matching entries, in ascending date order.
+     */
+    public List<PriceEntry> findPriceHistoryByBrand(String brand, LocalDate from, LocalDate to) {
+        catalog.refreshIfStale();
+        return priceSeries.findBrandHistory(brand, from, to);
+    }
+
+    /**
+     * Finds a page of the price history of the products of a category within a date range,
+     * ordered by (date, store, product id).
+     *
+     * @param category The product category.
+     * @param from     The first date included, or null for no lower bound.
+     * @param to       The last date included, or null for no upper bound.
+     * @param after    The key of the last entry of the previous page, or null for the first page.
+     * @param limit    The maximum number of entries returned.
+     * @return The entries of the page.
+     */
+    public List<PriceEntry> findPriceHistoryPageByCategory(String category, LocalDate from, LocalDate to,
+                                                           HistoryCursor after, int limit) {
+        catalog.refreshIfStale();
+        return priceSeries.findCategoryHistoryPage(category, from, to, after, limit);
+    }
+
+    /**
+     * Finds a page of the price history of the products of a brand within a date range,
+     * ordered by (date, store, product id).
+     *
+     * @param brand The brand name.
+     * @param from  The first date included, or null for no lower bound.
+     * @param to    The last date included, or null for no upper bound.
+     * @param after The key of the last entry of the previous page, or null for the first page.
+     * @param limit The maximum number of entries returned.
+     * @return The entries of the page.
+     */
+    public List<PriceEntry> findPriceHistoryPageByBrand(String brand, LocalDate from, LocalDate to,
+                                                        HistoryCursor after, int limit) {
+        catalog.refreshIfStale();
+        return priceSeries.findBrandHistoryPage(brand, from, to, after, limit);
+    }
+
+    /**
+     * Finds a page of the rollups of the price history of the products of a category, one per
+     * product, store and period overlapping a date range, ordered by (period, store, product id).
+     *
+     * @param category    The product category.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @param after       The key of the last rollup of the previous page, or null for the first page.
+     * @param limit       The maximum number of rollups returned.
+     * @return The rollups of the page.
+     */
+    public List<PriceRollup> findPriceRollupsPageByCategory(String category, Granularity granularity,
+                                                            LocalDate from, LocalDate to,
+                                                            HistoryCursor after, int limit) {
+        catalog.refreshIfStale();
+        return priceSeries.findCategoryRollupsPage(category, granularity, from, to, after, limit);
+    }
+
+    /**
+     * Finds a page of the rollups of the price history of the products of a brand, one per
+     * product, store and period overlapping a date range, ordered by (period, store, product id).
+     *
+     * @param brand       The brand name.
+     * @param granularity The period length.
+     * @param from        A day of the first period included, or null for no lower bound.
+     * @param to          A day of the last period included, or null for no upper bound.
+     * @param after       The key of the last rollup of the previous page, or null for the first page.
+     * @param limit       The maximum number of rollups returned.
+     * @return The rollups of the page.
+     */
+    public List<PriceRollup> findPriceRollupsPageByBrand(String brand, Granularity granularity,
+                                                         LocalDate from, LocalDate to,
+                                                         HistoryCursor after, int limit) {
+        catalog.refreshIfStale();
+        return priceSeries.findBrandRollupsPage(brand, granularity, from, to, after, limit);
+    }
+
+    /**
+     * Searches the distinct product names of the catalog, ignoring case and diacritics, through
+     * the product name search index.
+     *
+     * @param query The text typed so far.
+     * @param limit The maximum number of names returned.
+     * @return The matching product names, best match first.
+     */
+    public List<String> searchProductNames(String query, int limit) {
+        catalog.refreshIfStale();
+        return productSearch.search(query, limit);
+    }
+
+    /**
+     * Finds the price entries matching a combination of category, brand, store and unit values,
+     * evaluated on the column bitmap indexes. Within a column, an entry matches any of the values
+     * given; across columns, it must match every column given or, if {@code matchAll} is false,
+     * any of them.
+     *
+     * @param criteria The values accepted for each filtered column.
+     * @param matchAll Whether the columns are combined with AND rather than OR.
+     * @return A lazy stream of the matching entries.
+     */
+    public Stream<PriceEntry> filterEntries(Map<PriceFilterIndex.Dimension, ? extends Collection<String>> criteria,
+                                            boolean matchAll) {
+        catalog.refreshIfStale();
+        return priceFilters.filter(criteria, matchAll);
+    }
+
+    private record NameAndStore(String productName, String storeName) {
+        static NameAndStore of(PriceEntry entry) {
+            if (entry.getProductName() == null || entry.getStoreName() == null) {
+                return null;
+            }
+            return new NameAndStore(entry.getProductName(), entry.getStoreName());
+        }
+    }
+
+    /**
+     * Columnar snapshot encoding of price entries.
+     */
+    private class SnapshotCodec implements CatalogSnapshot.Codec<PriceEntry> {
+        @Override
+        public String getKind() {
+            return "price-entry";
+        }
+
+        @Override
+        public void writeColumns(List<PriceEntry> entries, CatalogSnapshot.ColumnWriter writer) throws IOException {
+            writer.writeStrings(entries, PriceEntry::getProductId);
+            writer.writeStrings(entries, PriceEntry::getProductName);
+            writer.writeStrings(entries, PriceEntry::getProductCategory);
+            writer.writeStrings(entries, PriceEntry::getBrand);
+            writer.writeFixedPoint(entries, PriceEntry::getPackageQuantity, 3);
+            writer.writeStrings(entries, PriceEntry::getPackageUnit);
+            writer.writeStrings(entries, PriceEntry::getStoreName);
+            writer.writeDates(entries, PriceEntry::getDate);
+            writer.writeFixedPoint(entries, PriceEntry::getPrice, 2);
+            writer.writeStrings(entries, PriceEntry::getCurrency);
+        }
+
+        @Override
+        public List<PriceEntry> readColumns(int rowCount, CatalogSnapshot.ColumnReader reader) {
+            String[] productIds = reader.readStrings(rowCount);
+            String[] productNames = reader.readStrings(rowCount);
+            String[] categories = reader.readStrings(rowCount);
+            String[] brands = reader.readStrings(rowCount);
+            double[] quantities = reader.readFixedPoint(rowCount);
+            String[] units = reader.readStrings(rowCount);
+            String[] storeNames = reader.readStrings(rowCount);
+            LocalDate[] dates = reader.readDates(rowCount);
+            double[] prices = reader.readFixedPoint(rowCount);
+            String[] currencies = reader.readStrings(rowCount);
+
+            List<PriceEntry> entries = new ArrayList<>(rowCount);
+            for (int i = 0; i < rowCount; i++) {
+                entries.add(new PriceEntry(productIds[i], symbols.internShared(productNames[i]), symbols.internShared(categories[i]),
+                        symbols.internShared(brands[i]), quantities[i], symbols.internShared(units[i]), symbols.internShared(storeNames[i]),
+                        dates[i], prices[i], symbols.internShared(currencies[i])));
+            }
+            return entries;
+        }
     }
 }
@@ -0,0 +1,478 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.example.utils.TextUtil;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Diacritics-insensitive search index over the distinct product names of the price catalog.
+ * <p>
+ * Every name is folded with {@link TextUtil#fold(String)}, so {@code "oua marimea M"} finds
+ * {@code "ouă mărimea M"}, and each word of the folded name is cut into trigrams, padded with
+ * two leading spaces so that the first trigrams mark the start of the word. A query is cut the
+ * same way, without trailing padding, so that every query word matches as a word prefix.
+ * <p>
+ * Posting lists are kept in result order, shortest name first, and every name carries its rank
+ * in that order, so a search intersects the rarest posting list of each query word by
+ * leapfrogging between them with galloping seeks over integer ranks, checks each common name
+ * against the query words and stops as soon as it has enough matches, however common the query
+ * words are. When a query word starts no word of the catalog, it is looked up in the sorted
+ * vocabulary of folded words for the word prefixes one edit away, found by binary searches that
+ * only branch where the typed prefix still exists, and the corrected queries, at most
+ * {@link #MAX_CORRECTED_QUERIES} of them, are matched the same way. This tolerates a typo
+ * without scoring names against the whole catalog.
+ * <p>
+ * Names get an id when first seen and keep it for the lifetime of the index, so posting lists
+ * only ever grow and a name leaving the catalog is merely marked as absent.
+ */
+public class ProductSearchIndex {
+    private static final String WORD_START = "  ";
+    private static final int MAX_CORRECTED_QUERIES = 16;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> idsByName = new HashMap<>();
+    private final Map<String, List<Integer>> idsByFoldedName = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<String> foldedNames = new ArrayList<>();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private String[] words = new String[0];
+    private int[] ordered = new int[0];
+    private int[] ranks = new int[0];
+    private int[] entryCounts = new int[16];
+    private int size;
+
+    /**
+     * Applies a delta of the price catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<PriceEntry> delta) {
+        lock.writeLock().lock();
+        try {
+            for (PriceEntry entry : delta.getRemovedEntries()) {
+                Integer id = entry.getProductName() == null ? null : idsByName.get(entry.getProductName());
+                if (id == null || entryCounts[id] == 0) continue;
+
+                if (--entryCounts[id] == 0) {
+                    size--;
+                }
+            }
+
+            int registered = names.size();
+            List<Postings> grown = new ArrayList<>();
+            Set<String> newWords = new HashSet<>();
+            for (PriceEntry entry : delta.getAddedEntries()) {
+                if (entry.getProductName() == null) continue;
+
+                int id = idsByName.computeIfAbsent(entry.getProductName(), name -> register(name, grown, newWords));
+                if (entryCounts[id]++ == 0) {
+                    size++;
+                }
+            }
+            if (names.size() > registered) {
+                rank(registered);
+                grown.forEach(Postings::mergePending);
+            }
+            if (!newWords.isEmpty()) {
+                String[] merged = Arrays.copyOf(words, words.length + newWords.size());
+                int i = words.length;
+                for (String word : newWords) {
+                    merged[i++] = word;
+                }
+                Arrays.sort(merged);
+                words = merged;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the product names best matching a query, ignoring case and diacritics. The exact name
+     * comes first, then names in which every query word starts a word, then, when some query
+     * word starts no word at all, names matching the query with that word one edit away;
+     * within each group, shorter names come first, then names in alphabetical order.
+     *
+     * @param query The text typed so far, such as {@code "oua mar"}.
+     * @param limit The maximum number of names returned.
+     * @return The matching product names, best match first.
+     */
+    public List<String> search(String query, int limit) {
+        String foldedQuery = TextUtil.fold(query);
+        if (foldedQuery.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String[] queryWords = foldedQuery.split(" ");
+
+        lock.readLock().lock();
+        try {
+            Set<Integer> matched = new LinkedHashSet<>();
+            for (int id : idsByFoldedName.getOrDefault(foldedQuery, List.of())) {
+                if (entryCounts[id] > 0 && matched.size() < limit) {
+                    matched.add(id);
+                }
+            }
+
+            List<List<String>> corrections = new ArrayList<>(queryWords.length);
+            boolean corrected = false;
+            for (String queryWord : queryWords) {
+                if (startsWord(queryWord)) {
+                    corrections.add(List.of(queryWord));
+                } else {
+                    corrections.add(correctionsOf(queryWord));
+                    corrected = true;
+                }
+            }
+
+            if (!corrected) {
+                addWordPrefixMatches(rarestPostingsOf(queryWords), queryWords, matched, limit);
+            } else if (matched.size() < limit) {
+                addCorrectedMatches(corrections, matched, limit);
+            }
+
+            List<String> result = new ArrayList<>(matched.size());
+            for (int id : matched) {
+                result.add(names.get(id));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of distinct product names in the catalog.
+     *
+     * @return The name count.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds the names present in every given posting list in which every query word starts a word,
+     * in result order. The lists are visited in turn, each one seeking the current candidate and
+     * proposing its next id when it does not hold it, until all of them agree.
+     */
+    private void addWordPrefixMatches(List<Postings> lists, String[] queryWords, Set<Integer> matched, int limit) {
+        int count = lists.size();
+        int[] positions = new int[count];
+        int candidate = lists.get(0).ids[0];
+        int agreed = 0;
+        for (int l = 0; matched.size() < limit; l = (l + 1) % count) {
+            Postings list = lists.get(l);
+            positions[l] = list.seek(candidate, positions[l]);
+            if (positions[l] == list.size) return;
+
+            int id = list.ids[positions[l]];
+            if (id != candidate) {
+                candidate = id;
+                agreed = 1;
+            } else if (++agreed >= count) {
+                if (entryCounts[id] > 0 && startsEveryWord(foldedNames.get(id), queryWords)) {
+                    matched.add(id);
+                }
+                if (++positions[l] == list.size) return;
+
+                candidate = list.ids[positions[l]];
+                agreed = 1;
+            }
+        }
+    }
+
+    /**
+     * Adds the names matching the queries spelled with the given corrections of each query word,
+     * for at most {@link #MAX_CORRECTED_QUERIES} queries, in result order across all of them.
+     */
+    private void addCorrectedMatches(List<List<String>> corrections, Set<Integer> matched, int limit) {
+        Set<Integer> found = new HashSet<>();
+        int[] choices = new int[corrections.size()];
+        for (int queries = 0; queries < MAX_CORRECTED_QUERIES; queries++) {
+            String[] queryWords = new String[choices.length];
+            for (int w = 0; w < choices.length; w++) {
+                if (corrections.get(w).isEmpty()) return;
+
+                queryWords[w] = corrections.get(w).get(choices[w]);
+            }
+            Set<Integer> queryMatches = new LinkedHashSet<>();
+            addWordPrefixMatches(rarestPostingsOf(queryWords), queryWords, queryMatches, limit);
+            found.addAll(queryMatches);
+
+            int w = 0;
+            while (w < choices.length && ++choices[w] == corrections.get(w).size()) {
+                choices[w++] = 0;
+            }
+            if (w == choices.length) break;
+        }
+
+        found.removeAll(matched);
+        found.stream()
+                .sorted(Comparator.comparingInt(id -> ranks[id]))
+                .limit(limit - matched.size())
+                .forEach(matched::add);
+    }
+
+    /**
+     * Returns the prefixes of vocabulary words one deletion, transposition, substitution or
+     * insertion away from the given query word. Edits are only tried after a prefix of the query
+     * word that some word still starts with, and substituted or inserted characters are taken
+     * from the words continuing that prefix.
+     */
+    private List<String> correctionsOf(String queryWord) {
+        Set<String> corrections = new LinkedHashSet<>();
+        int from = 0;
+        int to = words.length;
+        for (int at = 0; at <= queryWord.length() && from < to; at++) {
+            String head = queryWord.substring(0, at);
+            String tail = queryWord.substring(Math.min(at + 1, queryWord.length()));
+            if (at < queryWord.length()) {
+                addIfWordPrefix(head + tail, from, to, corrections);
+            }
+            if (at + 1 < queryWord.length()) {
+                addIfWordPrefix(head + queryWord.charAt(at + 1) + queryWord.charAt(at) + queryWord.substring(at + 2),
+                        from, to, corrections);
+            }
+            for (int next = from; next < to; ) {
+                if (words[next].length() == at) {
+                    next++;
+                    continue;
+                }
+                char c = words[next].charAt(at);
+                int end = lowerBound(head + c + Character.MAX_VALUE, next, to);
+                if (at < queryWord.length() && c != queryWord.charAt(at)) {
+                    addIfWordPrefix(head + c + tail, next, end, corrections);
+                }
+                addIfWordPrefix(head + c + queryWord.substring(at), next, end, corrections);
+                next = end;
+            }
+            if (at < queryWord.length()) {
+                String longer = head + queryWord.charAt(at);
+                from = lowerBound(longer, from, to);
+                to = lowerBound(longer + Character.MAX_VALUE, from, to);
+            }
+        }
+        return new ArrayList<>(corrections);
+    }
+
+    private void addIfWordPrefix(String prefix, int from, int to, Set<String> corrections) {
+        if (prefix.isEmpty()) return;
+
+        int at = lowerBound(prefix, from, to);
+        if (at < to && words[at].startsWith(prefix)) {
+            corrections.add(prefix);
+        }
+    }
+
+    private boolean startsWord(String prefix) {
+        int at = lowerBound(prefix, 0, words.length);
+        return at < words.length && words[at].startsWith(prefix);
+    }
+
+    /**
+     * Returns the index of the first vocabulary word not ordered before the given text, between
+     * the given indexes.
+     */
+    private int lowerBound(String text, int from, int to) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (words[mid].compareTo(text) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int register(String name, List<Postings> grown, Set<String> newWords) {
+        int id = names.size();
+        String folded = TextUtil.fold(name);
+        names.add(name);
+        foldedNames.add(folded);
+        idsByFoldedName.computeIfAbsent(folded, k -> new ArrayList<>()).add(id);
+        if (id == entryCounts.length) {
+            entryCounts = Arrays.copyOf(entryCounts, id * 2);
+        }
+        if (!folded.isEmpty()) {
+            String[] nameWords = folded.split(" ");
+            for (String word : nameWords) {
+                if (Arrays.binarySearch(words, word) < 0) {
+                    newWords.add(word);
+                }
+            }
+            for (String gram : gramsOf(nameWords, true)) {
+                Postings list = postings.computeIfAbsent(gram, k -> new Postings());
+                if (list.pendingSize == 0) {
+                    grown.add(list);
+                }
+                list.addPending(id);
+            }
+        }
+        return id;
+    }
+
+    /**
+     * Merges the names registered from the given id on into the result order and renumbers the
+     * ranks of all names.
+     */
+    private void rank(int firstNewId) {
+        List<Integer> added = new ArrayList<>();
+        for (int id = firstNewId; id < names.size(); id++) {
+            added.add(id);
+        }
+        added.sort(this::compareNames);
+
+        int[] merged = new int[names.size()];
+        int i = 0, j = 0, k = 0;
+        while (i < ordered.length || j < added.size()) {
+            if (j == added.size() || (i < ordered.length && compareNames(ordered[i], added.get(j)) < 0)) {
+                merged[k++] = ordered[i++];
+            } else {
+                merged[k++] = added.get(j++);
+            }
+        }
+        ordered = merged;
+        ranks = new int[names.size()];
+        for (int rank = 0; rank < ordered.length; rank++) {
+            ranks[ordered[rank]] = rank;
+        }
+    }
+
+    /**
+     * Returns, for every query word, the shortest posting list among its trigrams, shortest first.
+     * Every posting list of the query must exist.
+     */
+    private List<Postings> rarestPostingsOf(String[] queryWords) {
+        Set<Postings> rarest = new LinkedHashSet<>();
+        for (String queryWord : queryWords) {
+            Postings wordRarest = null;
+            for (String gram : gramsOf(new String[]{queryWord}, false)) {
+                Postings list = postings.get(gram);
+                if (wordRarest == null || list.size < wordRarest.size) {
+                    wordRarest = list;
+                }
+            }
+            rarest.add(wordRarest);
+        }
+        List<Postings> lists = new ArrayList<>(rarest);
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        return lists;
+    }
+
+    /**
+     * Cuts words into distinct trigrams, each word padded with {@link #WORD_START} and, for
+     * indexed names, a trailing space.
+     */
+    private static Set<String> gramsOf(String[] words, boolean wholeWords) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = WORD_START + word + (wholeWords ? " " : "");
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * Orders name ids by name length, then name, then id.
+     */
+    private int compareNames(int first, int second) {
+        String firstName = names.get(first);
+        String secondName = names.get(second);
+        if (firstName.length() != secondName.length()) {
+            return Integer.compare(firstName.length(), secondName.length());
+        }
+        int byName = firstName.compareTo(secondName);
+        return byName != 0 ? byName : Integer.compare(first, second);
+    }
+
+    private static boolean startsEveryWord(String folded, String[] queryWords) {
+        for (String queryWord : queryWords) {
+            int at = folded.indexOf(queryWord);
+            while (at > 0 && folded.charAt(at - 1) != ' ') {
+                at = folded.indexOf(queryWord, at + 1);
+            }
+            if (at < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * List of name ids in result order. Ids registered by a delta are buffered and merged in
+     * once the delta is applied and the new names are ranked.
+     */
+    private class Postings {
+        private int[] ids = new int[0];
+        private int size;
+        private int[] pending = new int[0];
+        private int pendingSize;
+
+        void addPending(int id) {
+            if (pendingSize == pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(4, pendingSize * 2));
+            }
+            pending[pendingSize++] = id;
+        }
+
+        void mergePending() {
+            int[] pendingRanks = new int[pendingSize];
+            for (int i = 0; i < pendingSize; i++) {
+                pendingRanks[i] = ranks[pending[i]];
+            }
+            Arrays.sort(pendingRanks);
+
+            int[] merged = new int[size + pendingSize];
+            int i = 0, j = 0, k = 0;
+            while (i < size || j < pendingSize) {
+                if (j == pendingSize || (i < size && ranks[ids[i]] < pendingRanks[j])) {
+                    merged[k++] = ids[i++];
+                } else {
+                    merged[k++] = ordered[pendingRanks[j++]];
+                }
+            }
+            ids = merged;
+            size = merged.length;
+            pending = new int[0];
+            pendingSize = 0;
+        }
+
+        /**
+         * Returns the index of the first id not ordered before the target, starting at the given
+         * index: gallops ahead in doubling steps, then binary searches the last step.
+         */
+        int seek(int target, int from) {
+            int step = 1;
+            int low = from;
+            int high = from;
+            int targetRank = ranks[target];
+            while (high < size && ranks[ids[high]] < targetRank) {
+                low = high + 1;
+                high = from + step;
+                step <<= 1;
+            }
+            high = Math.min(high, size);
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (ranks[ids[mid]] < targetRank) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package org.example.repository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Hash index from a key derived from the entries of a catalog to the posting list of the entries
+ * with that key.
+ * <p>
+ * Postings are kept per source file, so a delta only replaces the postings of its own file, and a
+ * lookup returns the entries in catalog order. The posting list of every key is published as an
+ * immutable list, so a lookup costs a hash probe and sees either the previous or the new postings
+ * of a key, never a partial one.
+ *
+ * @param <KeyType>  The type of the index key
+ * @param <ItemType> The type of entry indexed
+ */
+public class SecondaryIndex<KeyType, ItemType> {
+    private final Function<ItemType, KeyType> keyExtractor;
+    private final Map<KeyType, TreeMap<String, List<ItemType>>> postingsByFile = new HashMap<>();
+    private final Map<KeyType, List<ItemType>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an index over the given key. Entries whose key is null are not indexed.
+     *
+     * @param keyExtractor Derives the index key of an entry.
+     */
+    public SecondaryIndex(Function<ItemType, KeyType> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+    }
+
+    /**
+     * Applies a delta of the indexed catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<ItemType> delta) {
+        String filePath = delta.getFilePath();
+        Set<KeyType> changedKeys = new HashSet<>();
+        for (ItemType entry : delta.getRemovedEntries()) {
+            KeyType key = keyExtractor.apply(entry);
+            if (key == null || !changedKeys.add(key)) continue;
+
+            TreeMap<String, List<ItemType>> files = postingsByFile.get(key);
+            if (files != null) {
+                files.remove(filePath);
+            }
+        }
+
+        Map<KeyType, List<ItemType>> added = new HashMap<>();
+        for (ItemType entry : delta.getAddedEntries()) {
+            KeyType key = keyExtractor.apply(entry);
+            if (key == null) continue;
+
+            added.computeIfAbsent(key, k -> new ArrayList<>()).add(entry);
+        }
+        added.forEach((key, entries) -> {
+            postingsByFile.computeIfAbsent(key, k -> new TreeMap<>()).put(filePath, entries);
+            changedKeys.add(key);
+        });
+
+        for (KeyType key : changedKeys) {
+            TreeMap<String, List<ItemType>> files = postingsByFile.get(key);
+            if (files == null || files.isEmpty()) {
+                postingsByFile.remove(key);
+                postings.remove(key);
+            } else {
+                List<ItemType> merged = new ArrayList<>();
+                files.values().forEach(merged::addAll);
+                postings.put(key, Collections.unmodifiableList(merged));
+            }
+        }
+    }
+
+    /**
+     * Returns the entries with the given key, in catalog order.
+     *
+     * @param key The key to look up.
+     * @return An unmodifiable list of entries, empty if no entry has the key.
+     */
+    public List<ItemType> find(KeyType key) {
+        if (key == null) {
+            return List.of();
+        }
+        return postings.getOrDefault(key, List.of());
+    }
+
+    /**
+     * Returns the number of distinct keys indexed.
+     *
+     * @return The key count.
+     */
+    public int size() {
+        return postings.size();
+    }
+}
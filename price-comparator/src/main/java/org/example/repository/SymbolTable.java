@@ -0,0 +1,112 @@
+package org.example.repository;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Symbol table shared by the repositories during ingestion.
+ * Each distinct value of a low-cardinality string column (store, category, brand, unit,
+ * currency, product name) is stored once; entries hold a reference to the shared instance
+ * instead of their own copy. The heap size of a value is estimated once, when it is registered.
+ * <p>
+ * The table is safe for concurrent use by the parsing threads.
+ */
+@Component
+public class SymbolTable {
+    private static final int STRING_HEADER_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final ConcurrentHashMap<String, Symbol> symbols = new ConcurrentHashMap<>();
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    /**
+     * Returns the shared instance of a value, registering it on first use. Every later lookup
+     * of an equal value counts its copy as saved heap.
+     *
+     * @param value The value read from a source file.
+     * @return The shared instance equal to the value, or null for a null value.
+     */
+    public String intern(String value) {
+        return lookup(value, true);
+    }
+
+    /**
+     * Returns the shared instance of a value that its source already shares between entries,
+     * such as a string of a snapshot dictionary. The value is registered on first use, but no
+     * heap is counted as saved, since no per-entry copy existed.
+     *
+     * @param value The value read from a shared source.
+     * @return The shared instance equal to the value, or null for a null value.
+     */
+    public String internShared(String value) {
+        return lookup(value, false);
+    }
+
+    /**
+     * Returns the number of distinct values registered.
+     *
+     * @return The symbol count.
+     */
+    public int size() {
+        return symbols.size();
+    }
+
+    /**
+     * Returns the estimated heap saved by sharing values instead of keeping one copy per lookup.
+     *
+     * @return The saved heap, in bytes.
+     */
+    public long getSavedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Describes the effect of the table on a catalog of the given size.
+     *
+     * @param rowCount The number of entries ingested through the table.
+     * @return A one-line report with the symbol count and the heap saved per million rows.
+     */
+    public String report(long rowCount) {
+        double savedPerMillionRows = rowCount == 0 ? 0 : getSavedBytes() * (1_000_000.0 / rowCount);
+        return String.format("%d distinct symbols over %d lookups, %.1f MB saved per million rows",
+                size(), lookups.sum(), savedPerMillionRows / (1024 * 1024));
+    }
+
+    private String lookup(String value, boolean countSaved) {
+        if (value == null) {
+            return null;
+        }
+        lookups.increment();
+
+        Symbol symbol = symbols.get(value);
+        if (symbol == null) {
+            Symbol registered = new Symbol(value, estimateSize(value));
+            symbol = symbols.putIfAbsent(value, registered);
+            if (symbol == null) {
+                return registered.value();
+            }
+        }
+        if (countSaved) {
+            savedBytes.add(symbol.heapBytes());
+        }
+        return symbol.value();
+    }
+
+    private static long estimateSize(String value) {
+        boolean latin1 = true;
+        for (int i = 0; i < value.length() && latin1; i++) {
+            latin1 = value.charAt(i) < 256;
+        }
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) value.length() * (latin1 ? 1 : 2);
+        return STRING_HEADER_BYTES + ((arrayBytes + 7) & ~7L);
+    }
+
+    /**
+     * A registered value with its estimated heap size.
+     */
+    private record Symbol(String value, long heapBytes) {
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Index of the current prices of every (category, canonical unit) pair, sorted by unit price, so
+ * "the cheapest kilogram of cheese across stores" is a read of the first entries of one array.
+ * <p>
+ * Only the most recent entry of each (product, store) pair is ranked. The index is kept up to date
+ * from the deltas of the price catalog: for every (product, store) pair touched by a delta, its
+ * current entry is looked up and moved in its ranking, and the rankings that changed are then
+ * published as immutable sorted arrays, so lookups never see a partially applied delta.
+ */
+public class UnitPriceIndex {
+    private static final Comparator<PriceEntry> BY_UNIT_PRICE = Comparator
+            .comparingDouble(PriceEntry::getUnitPrice)
+            .thenComparing(PriceEntry::getProductName)
+            .thenComparing(PriceEntry::getStoreName);
+
+    private final BiFunction<String, String, PriceEntry> currentLookup;
+    private final Map<ProductAndStore, PriceEntry> rankedByProductAndStore = new HashMap<>();
+    private final Map<CategoryAndUnit, NavigableSet<PriceEntry>> rankings = new HashMap<>();
+    private final Map<CategoryAndUnit, PriceEntry[]> published = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an index reading current prices through the given lookup.
+     *
+     * @param currentLookup Returns the most recent entry of a (product name, store) pair, with the
+     *                      delta being applied already reflected, or null if there is none.
+     */
+    public UnitPriceIndex(BiFunction<String, String, PriceEntry> currentLookup) {
+        this.currentLookup = currentLookup;
+    }
+
+    /**
+     * Applies a delta of the price catalog. Must not be called concurrently.
+     *
+     * @param delta The entries added and removed by a source file change.
+     */
+    public void apply(CatalogDelta<PriceEntry> delta) {
+        Set<ProductAndStore> touched = new HashSet<>();
+        for (List<PriceEntry> entries : List.of(delta.getRemovedEntries(), delta.getAddedEntries())) {
+            for (PriceEntry entry : entries) {
+                if (entry.getProductName() == null || entry.getStoreName() == null) continue;
+
+                touched.add(new ProductAndStore(entry.getProductName(), entry.getStoreName()));
+            }
+        }
+
+        Set<CategoryAndUnit> changed = new HashSet<>();
+        for (ProductAndStore pair : touched) {
+            PriceEntry previous = rankedByProductAndStore.get(pair);
+            PriceEntry current = currentLookup.apply(pair.productName(), pair.storeName());
+            if (current != null && CategoryAndUnit.of(current) == null) {
+                current = null;
+            }
+            if (previous == current) continue;
+
+            if (previous != null) {
+                CategoryAndUnit key = CategoryAndUnit.of(previous);
+                NavigableSet<PriceEntry> ranking = rankings.get(key);
+                ranking.remove(previous);
+                if (ranking.isEmpty()) {
+                    rankings.remove(key);
+                }
+                rankedByProductAndStore.remove(pair);
+                changed.add(key);
+            }
+            if (current != null) {
+                CategoryAndUnit key = CategoryAndUnit.of(current);
+                rankings.computeIfAbsent(key, k -> new TreeSet<>(BY_UNIT_PRICE)).add(current);
+                rankedByProductAndStore.put(pair, current);
+                changed.add(key);
+            }
+        }
+
+        for (CategoryAndUnit key : changed) {
+            NavigableSet<PriceEntry> ranking = rankings.get(key);
+            if (ranking == null) {
+                published.remove(key);
+            } else {
+                published.put(key, ranking.toArray(new PriceEntry[0]));
+            }
+        }
+    }
+
+    /**
+     * Returns the current entries of a category in a canonical unit with the lowest unit prices.
+     *
+     * @param category      The product category.
+     * @param canonicalUnit The canonical unit, such as {@code kg}.
+     * @param limit         The maximum number of entries returned.
+     * @return The entries, lowest unit price first.
+     */
+    public List<PriceEntry> findCheapest(String category, String canonicalUnit, int limit) {
+        PriceEntry[] ranking = ranking(category, canonicalUnit);
+        return view(ranking, 0, Math.max(0, Math.min(limit, ranking.length)));
+    }
+
+    /**
+     * Returns the current entries of a category in a canonical unit whose unit price lies in a range.
+     *
+     * @param category      The product category.
+     * @param canonicalUnit The canonical unit, such as {@code kg}.
+     * @param minUnitPrice  The lowest unit price included.
+     * @param maxUnitPrice  The highest unit price included.
+     * @return The entries, lowest unit price first.
+     */
+    public List<PriceEntry> findInRange(String category, String canonicalUnit, double minUnitPrice, double maxUnitPrice) {
+        PriceEntry[] ranking = ranking(category, canonicalUnit);
+        int from = firstAbove(ranking, minUnitPrice, false);
+        int to = firstAbove(ranking, maxUnitPrice, true);
+        return from >= to ? List.of() : view(ranking, from, to);
+    }
+
+    /**
+     * Returns the number of (category, unit) rankings.
+     *
+     * @return The ranking count.
+     */
+    public int size() {
+        return published.size();
+    }
+
+    private PriceEntry[] ranking(String category, String canonicalUnit) {
+        if (category == null || canonicalUnit == null) {
+            return new PriceEntry[0];
+        }
+        PriceEntry[] ranking = published.get(new CategoryAndUnit(category, canonicalUnit));
+        return ranking == null ? new PriceEntry[0] : ranking;
+    }
+
+    /**
+     * Wraps a slice of a published ranking without copying it.
+     */
+    private static List<PriceEntry> view(PriceEntry[] ranking, int from, int to) {
+        return Collections.unmodifiableList(Arrays.asList(ranking).subList(from, to));
+    }
+
+    /**
+     * Finds the first position whose unit price is above the bound, or at or above it when not
+     * inclusive.
+     */
+    private static int firstAbove(PriceEntry[] ranking, double bound, boolean inclusive) {
+        int low = 0;
+        int high = ranking.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            double unitPrice = ranking[mid].getUnitPrice();
+            if (unitPrice < bound || (inclusive && unitPrice == bound)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private record ProductAndStore(String productName, String storeName) {
+    }
+
+    private record CategoryAndUnit(String category, String canonicalUnit) {
+        static CategoryAndUnit of(PriceEntry entry) {
+            if (entry.getProductCategory() == null || entry.getCanonicalUnit() == null) {
+                return null;
+            }
+            return new CategoryAndUnit(entry.getProductCategory(), entry.getCanonicalUnit());
+        }
+    }
+}
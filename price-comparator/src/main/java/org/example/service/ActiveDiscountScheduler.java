@@ -0,0 +1,108 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.repository.DiscountRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rolls the precomputed set of active discounts over to the new day at midnight, so requests
+ * read the discounts valid today without checking validity intervals themselves.
+ * The set is also recomputed by the repository whenever a discount file is ingested.
+ * <p>
+ * The rollover runs on its own daemon thread rather than through Spring's scheduling, which
+ * would also start every other {@code @Scheduled} method of the application. Each run schedules
+ * the next one at the following midnight of the clock's time zone, so days of 23 or 25 hours
+ * are followed.
+ */
+@Service
+public class ActiveDiscountScheduler {
+
+    private final DiscountRepository discountRepository;
+    private final Clock clock;
+    private ScheduledExecutorService executor;
+
+    /**
+     * Constructs an ActiveDiscountScheduler with the specified DiscountRepository.
+     *
+     * @param discountRepository the repository holding the active discount set
+     */
+    @Autowired
+    public ActiveDiscountScheduler(DiscountRepository discountRepository) {
+        this(discountRepository, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructs an ActiveDiscountScheduler reading the date from the given clock.
+     *
+     * @param discountRepository the repository holding the active discount set
+     * @param clock              the clock giving the current date and time zone
+     */
+    ActiveDiscountScheduler(DiscountRepository discountRepository, Clock clock) {
+        this.discountRepository = discountRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Schedules the first rollover at the next midnight.
+     */
+    @PostConstruct
+    public void start() {
+        executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "discount-rollover");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNext();
+    }
+
+    /**
+     * Cancels the pending rollover.
+     */
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Computes the discounts active today and swaps them in.
+     */
+    public void rollOver() {
+        discountRepository.rollOverActiveDiscounts(LocalDate.now(clock));
+    }
+
+    /**
+     * Returns the time left until the next midnight of the clock's time zone.
+     *
+     * @return The delay before the next rollover.
+     */
+    Duration untilNextMidnight() {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(now.getZone()));
+    }
+
+    private void scheduleNext() {
+        executor.schedule(() -> {
+            try {
+                rollOver();
+            } catch (RuntimeException e) {
+                System.err.println("Error rolling over active discounts: " + e.getMessage());
+            } finally {
+                if (!executor.isShutdown()) {
+                    scheduleNext();
+                }
+            }
+        }, untilNextMidnight().toMillis(), TimeUnit.MILLISECONDS);
+    }
+}
@@ -1,294 +1,387 @@
 package org.example.service;
 
+import jakarta.annotation.PreDestroy;
+import org.example.dto.BasketCacheStatsDTO;
 import org.example.dto.BasketItemDTO;
+import org.example.dto.BasketResultDTO;
 import org.example.dto.OptimizedBasketDTO;
 import org.example.dto.ShoppingListDTO;
 import org.example.model.BasketItem;
 import org.example.model.Discount;
 import org.example.model.PriceEntry;
-import org.example.repository.ItemRepository;
+import org.example.repository.CatalogDelta;
+import org.example.repository.DiscountRepository;
+import org.example.repository.PriceMatrix;
 import org.example.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Service for splitting a basket across stores at the lowest prices.
+ * Baskets are priced on a product-by-store matrix of current effective prices, built once per
+ * price catalog version, discount catalog version and day, so optimizing a basket reads one
+ * matrix row per item.
+ * Results of identical baskets are cached until the catalogs change; baskets are optimized in their
+ * canonical form, one item per product with summed quantities, sorted by product name.
+ */
 @Service
-public class BasketOptimizationService {
+public class BasketOptimizationService implements IngestionListener {
+    public static final long DEFAULT_TIME_BUDGET_MILLIS = 200;
+    public static final long MAX_TIME_BUDGET_MILLIS = 2000;
+    public static final int MAX_BATCH_BASKETS = 1000;
+    public static final int MAX_BATCH_ITEMS = 50_000;
+    public static final int MAX_BATCH_BYTES = 8 * 1024 * 1024;
+    public static final int MAX_CACHED_RESULTS = 10_000;
+    public static final Duration CACHE_TTL = Duration.ofMinutes(10);
+    private static final int DEFAULT_PARALLELISM = Runtime.getRuntime().availableProcessors();
 
     private final ProductRepository productRepository;
-    private final ItemRepository<Discount> discountRepository;
+    private final DiscountRepository discountRepository;
+    private final ForkJoinPool batchPool = new ForkJoinPool(DEFAULT_PARALLELISM);
+    private final BasketResultCache resultCache = new BasketResultCache(MAX_CACHED_RESULTS, CACHE_TTL);
+    private volatile PriceMatrix priceMatrix;
 
     @Autowired
-    public BasketOptimizationService(ProductRepository productRepository, ItemRepository<Discount> discountRepository) {
+    public BasketOptimizationService(ProductRepository productRepository, DiscountRepository discountRepository) {
         this.productRepository = productRepository;
         this.discountRepository = discountRepository;
     }
 
     /**
-     * Optimizes basket by finding the lowest price for each item from all stores
-     * @param basket List of basket items to optimize
-     * @return OptimizedBasketDTO with the most cost-effective shopping strategy
+     * Drops the cached results once a price file has been ingested.
+     * @param delta The applied price delta
      */
-    public OptimizedBasketDTO optimizeBasket(List<BasketItem> basket) {
+    @Override
+    public void onPriceDelta(CatalogDelta<PriceEntry> delta) {
+        resultCache.clear();
+    }
 
-        OptimizedBasketDTO result = new OptimizedBasketDTO();
-        LocalDate today = LocalDate.now();
+    /**
+     * Drops the cached results once a discount file has been ingested.
+     * @param delta The applied discount delta
+     */
+    @Override
+    public void onDiscountDelta(CatalogDelta<Discount> delta) {
+        resultCache.clear();
+    }
 
-        double originalCost = calculateOriginalCost(basket);
-        result.setOriginalCost(originalCost);
+    /**
+     * Returns the hit and miss counts of the cache of optimized baskets.
+     * @return The cache statistics
+     */
+    public BasketCacheStatsDTO getCacheStats() {
+        return resultCache.getStats();
+    }
 
-        List<Discount> activeDiscounts = discountRepository.loadAllEntries().stream()
-                .filter(d -> !today.isBefore(d.getStartingDate()) && !today.isAfter(d.getEndingDate()))
-                .collect(Collectors.toList());
+    /**
+     * Stops the threads optimizing batches of baskets.
+     */
+    @PreDestroy
+    public void shutdown() {
+        batchPool.shutdownNow();
+    }
 
-        Set<String> allStores = productRepository.loadAllEntries().stream()
-                .map(PriceEntry::getStoreName)
-                .collect(Collectors.toSet());
+    /**
+     * Optimizes basket by finding the lowest price for each item from all stores
+     * @param basket List of basket items to optimize
+     * @return OptimizedBasketDTO with the most cost-effective shopping strategy
+     */
+    public OptimizedBasketDTO optimizeBasket(List<BasketItem> basket) {
+        return optimizeCached(getPriceMatrix(), basket, false);
+    }
 
-        Map<String, ShoppingListDTO> storeShoppingLists = new HashMap<>();
-        for (String store : allStores) {
-            storeShoppingLists.put(store, new ShoppingListDTO());
-            storeShoppingLists.get(store).setStoreName(store);
+    /**
+     * Optimizes a batch of baskets in parallel, like {@link #optimizeBasket(List)}.
+     * All baskets are priced on the same price matrix, so they see one consistent state of the
+     * catalog even if files are ingested meanwhile. A basket that cannot be optimized gets an error
+     * in its result instead of failing the batch.
+     * @param baskets The baskets to optimize
+     * @return One result per basket, in the order of the baskets
+     * @throws IllegalArgumentException If the batch holds more than {@link #MAX_BATCH_BASKETS} baskets
+     * or {@link #MAX_BATCH_ITEMS} items in total
+     */
+    public List<BasketResultDTO> optimizeBaskets(List<List<BasketItem>> baskets) {
+        if (baskets.size() > MAX_BATCH_BASKETS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_BASKETS + " baskets: " + baskets.size());
+        }
+        long itemCount = baskets.stream().filter(Objects::nonNull).mapToLong(List::size).sum();
+        if (itemCount > MAX_BATCH_ITEMS) {
+            throw new IllegalArgumentException("A batch holds at most " + MAX_BATCH_ITEMS + " items: " + itemCount);
         }
 
-        for (BasketItem item : basket) {
-            String productName = item.getProductName();
-            int quantity = item.getQuantity();
-
-            List<PriceEntry> priceEntries = productRepository.findByProductName(productName);
-            if (priceEntries.isEmpty()) continue;
-
-            List<Discount> productDiscounts = activeDiscounts.stream()
-                    .filter(d -> d.getProductName().equals(productName))
-                    .collect(Collectors.toList());
-
-            Map<String, Double> storeToEffectivePrice = new HashMap<>();
-            Map<String, Double> storeToDiscount = new HashMap<>();
-            Map<String, PriceEntry> storeToPriceEntry = new HashMap<>();
-
-            double highestRegularPrice = 0.0;
-
-            for (PriceEntry entry : priceEntries) {
-                String store = entry.getStoreName();
-                double regularPrice = entry.getPrice();
-
-                if (regularPrice > highestRegularPrice) {
-                    highestRegularPrice = regularPrice;
-                }
-
-                double bestDiscountPercentage = productDiscounts.stream()
-                        .mapToDouble(Discount::getPercentageOfDiscount)
-                        .max()
-                        .orElse(0.0);
-
-                double discountAmount = regularPrice * (bestDiscountPercentage / 100.0);
-                double effectivePrice = regularPrice - discountAmount;
-
-                System.out.printf("Product: %s, Store: %s, Regular: %.2fRON, Discount: %.2fRON, Effective: %.2fRON%n",
-                        productName, entry.getStoreName(), regularPrice, discountAmount, effectivePrice);
-
-                storeToEffectivePrice.put(store, effectivePrice);
-                storeToDiscount.put(store, discountAmount);
-                storeToPriceEntry.put(store, entry);
-            }
-
-            Map.Entry<String, Double> bestStore = storeToEffectivePrice.entrySet().stream()
-                    .min(Map.Entry.comparingByValue())
-                    .orElse(null);
-
-            if (bestStore != null) {
-                String store = bestStore.getKey();
-                double effectivePrice = bestStore.getValue();
-                double discount = storeToDiscount.get(store);
-                PriceEntry priceEntry = storeToPriceEntry.get(store);
-
-                double actualSavings = (highestRegularPrice - effectivePrice) * quantity;
+        PriceMatrix matrix = getPriceMatrix();
+        if (baskets.size() < 2) {
+            return baskets.isEmpty() ? List.of() : List.of(optimizeInBatch(matrix, 0, baskets.get(0)));
+        }
 
-                BasketItemDTO itemDTO = new BasketItemDTO();
-                itemDTO.setProductId(item.getProductId());
-                itemDTO.setProductName(productName);
-                itemDTO.setQuantity(quantity);
-                itemDTO.setPrice(effectivePrice*quantity);
-                itemDTO.setSavings(actualSavings);
-                itemDTO.setStoreName(store);
+        List<Callable<BasketResultDTO>> tasks = new ArrayList<>(baskets.size());
+        for (int i = 0; i < baskets.size(); i++) {
+            int index = i;
+            tasks.add(() -> optimizeInBatch(matrix, index, baskets.get(index)));
+        }
 
-                storeShoppingLists.get(store).addItem(itemDTO);
+        List<BasketResultDTO> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<BasketResultDTO> future : batchPool.invokeAll(tasks)) {
+                results.add(future.get());
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while optimizing baskets", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to optimize baskets", e.getCause());
         }
-
-        List<ShoppingListDTO> nonEmptyLists = storeShoppingLists.values().stream()
-                .filter(list -> !list.getItems().isEmpty())
-                .collect(Collectors.toList());
-
-        result.setShoppingLists(nonEmptyLists);
-
-        return result;
+        return results;
     }
 
-    public double calculateOriginalCost(List<BasketItem> basket) {
-        Map<String, Integer> productQuantities = basket.stream()
-                .collect(Collectors.toMap(BasketItem::getProductName, BasketItem::getQuantity));
-
-        Map<String, Double> storeTotalCosts = new HashMap<>();
-
-        Set<String> allStores = productRepository.loadAllEntries().stream()
-                .map(PriceEntry::getStoreName)
-                .collect(Collectors.toSet());
-
-        for (String store : allStores) {
-            double totalCost = 0.0;
-            boolean hasAllItems = true;
-
-            for (Map.Entry<String, Integer> entry : productQuantities.entrySet()) {
-                String productName = entry.getKey();
-                int quantity = entry.getValue();
-
-                List<PriceEntry> storeEntries = productRepository.findByProductNameAndStore(productName, store);
-                if (storeEntries.isEmpty()) {
-                    hasAllItems = false;
-                    break;
-                }
-
-                PriceEntry priceEntry = storeEntries.stream()
-                        .max(Comparator.comparing(PriceEntry::getDate))
-                        .orElse(null);
+    private BasketResultDTO optimizeInBatch(PriceMatrix matrix, int index, List<BasketItem> basket) {
+        try {
+            validate(basket);
+            return BasketResultDTO.success(index, optimizeCached(matrix, basket, false));
+        } catch (RuntimeException e) {
+            return BasketResultDTO.failure(index, e.getMessage() == null ? e.toString() : e.getMessage());
+        }
+    }
 
-                if (priceEntry != null) {
-                    totalCost += priceEntry.getPrice() * quantity;
-                } else {
-                    hasAllItems = false;
-                    break;
-                }
+    private static void validate(List<BasketItem> basket) {
+        if (basket == null) {
+            throw new IllegalArgumentException("Basket is missing");
+        }
+        for (int i = 0; i < basket.size(); i++) {
+            BasketItem item = basket.get(i);
+            if (item == null || item.getProductName() == null || item.getProductName().isBlank()) {
+                throw new IllegalArgumentException("Item " + i + " has no product name");
             }
-
-            if (hasAllItems) {
-                storeTotalCosts.put(store, totalCost);
+            if (item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Item " + i + " has a non-positive quantity: " + item.getQuantity());
             }
         }
+    }
 
-        return storeTotalCosts.values().stream()
-                .min(Double::compare)
-                .orElse(0.0);
+    /**
+     * Calculates the cost of the basket without optimization: the cost of buying all items at
+     * their regular prices from the cheapest single store that sells all of them.
+     * @param basket List of basket items
+     * @return The cost, or 0 if no store sells every item
+     */
+    public double calculateOriginalCost(List<BasketItem> basket) {
+        PriceMatrix matrix = getPriceMatrix();
+        double[] storeTotals = new double[matrix.getStoreCount()];
+        for (BasketItem item : basket) {
+            addRegularCost(matrix, matrix.getProductRow(item.getProductName()), item.getQuantity(), storeTotals);
+        }
+        return cheapestCompleteStore(storeTotals);
     }
 
     /**
-     * Optimizes basket by finding the lowest unit price for each item from all stores
+     * Optimizes basket by finding the lowest unit price for each item from all stores.
+     * Unit prices are compared in canonical units (kg, l, buc), normalized when the prices are ingested,
+     * so a 500 g package is compared per kilogram with a 1 kg package.
      * @param basket List of basket items to optimize
      * @return OptimizedBasketDTO with the most cost-effective shopping strategy based on unit prices
      */
     public OptimizedBasketDTO optimizeBasketWithUnitPrice(List<BasketItem> basket) {
+        return optimizeCached(getPriceMatrix(), basket, true);
+    }
 
-        OptimizedBasketDTO result = new OptimizedBasketDTO();
+    /**
+     * Returns the matrix of the current effective prices, rebuilding it if the price or discount
+     * catalog has changed or the day has moved on since it was built.
+     * @return The price matrix
+     */
+    public PriceMatrix getPriceMatrix() {
         LocalDate today = LocalDate.now();
+        long priceVersion = productRepository.getCatalogVersion();
+        long discountVersion = discountRepository.getCatalogVersion();
 
-        double originalCost = calculateOriginalCost(basket);
-        result.setOriginalCost(originalCost);
-
-        List<Discount> activeDiscounts = discountRepository.loadAllEntries().stream()
-                .filter(d -> !today.isBefore(d.getStartingDate()) && !today.isAfter(d.getEndingDate()))
-                .collect(Collectors.toList());
-
-        Set<String> allStores = productRepository.loadAllEntries().stream()
-                .map(PriceEntry::getStoreName)
-                .collect(Collectors.toSet());
-
-        Map<String, ShoppingListDTO> storeShoppingLists = new HashMap<>();
-        for (String store : allStores) {
-            storeShoppingLists.put(store, new ShoppingListDTO());
-            storeShoppingLists.get(store).setStoreName(store);
+        PriceMatrix current = priceMatrix;
+        if (isCurrent(current, priceVersion, discountVersion, today)) {
+            return current;
         }
+        synchronized (this) {
+            current = priceMatrix;
+            if (!isCurrent(current, priceVersion, discountVersion, today)) {
+                current = PriceMatrix.build(productRepository.loadAllEntries(),
+                        (storeName, productId) -> discountRepository.findActiveDiscount(storeName, productId, today),
+                        today, priceVersion, discountVersion);
+                priceMatrix = current;
+            }
+            return current;
+        }
+    }
 
-        for (BasketItem item : basket) {
-            String productName = item.getProductName();
-            int quantity = item.getQuantity();
-
-            List<PriceEntry> priceEntries = productRepository.findByProductName(productName);
-            if (priceEntries.isEmpty()) continue;
-
-            List<Discount> productDiscounts = activeDiscounts.stream()
-                    .filter(d -> d.getProductName().equals(productName))
-                    .collect(Collectors.toList());
-
-            Map<String, Double> storeToUnitPrice = new HashMap<>();
-            Map<String, Double> storeToEffectivePrice = new HashMap<>();
-            Map<String, Double> storeToDiscount = new HashMap<>();
-            Map<String, PriceEntry> storeToPriceEntry = new HashMap<>();
-
-            double highestRegularPrice = 0.0;
+    private static boolean isCurrent(PriceMatrix matrix, long priceVersion, long discountVersion, LocalDate date) {
+        return matrix != null && matrix.getPriceVersion() == priceVersion
+                && matrix.getDiscountVersion() == discountVersion && matrix.getDate().equals(date);
+    }
 
-            for (PriceEntry entry : priceEntries) {
-                String store = entry.getStoreName();
-                double regularPrice = entry.getPrice();
-                double packageQuantity = entry.getPackageQuantity();
-                String packageUnit = entry.getPackageUnit();
+    /**
+     * Optimizes the canonical form of a basket, serving the cached result of an identical basket
+     * priced on the same catalog versions and date when there is one.
+     */
+    private OptimizedBasketDTO optimizeCached(PriceMatrix matrix, List<BasketItem> basket, boolean byUnitPrice) {
+        List<BasketResultCache.BasketItemKey> items = BasketResultCache.canonicalize(basket);
+        BasketResultCache.Key key = new BasketResultCache.Key(items, byUnitPrice, matrix.getPriceVersion(),
+                matrix.getDiscountVersion(), matrix.getDate());
+        return resultCache.get(key, k -> optimize(matrix, items.stream()
+                .map(item -> new BasketItem(null, item.productName(), item.quantity()))
+                .toList(), byUnitPrice));
+    }
 
-                if (regularPrice > highestRegularPrice) {
-                    highestRegularPrice = regularPrice;
+    /**
+     * Picks the best store of every item and the single-store baseline cost in one pass over the
+     * matrix rows of the basket.
+     */
+    private OptimizedBasketDTO optimize(PriceMatrix matrix, List<BasketItem> basket, boolean byUnitPrice) {
+        int storeCount = matrix.getStoreCount();
+        double[] storeTotals = new double[storeCount];
+        int[] products = new int[basket.size()];
+        int[] stores = new int[basket.size()];
+
+        for (int i = 0; i < basket.size(); i++) {
+            BasketItem item = basket.get(i);
+            int product = matrix.getProductRow(item.getProductName());
+            addRegularCost(matrix, product, item.getQuantity(), storeTotals);
+            products[i] = product;
+            stores[i] = -1;
+            if (product < 0) continue;
+
+            double bestValue = Double.POSITIVE_INFINITY;
+            for (int store = 0; store < storeCount; store++) {
+                double value = byUnitPrice
+                        ? matrix.getEffectiveUnitPrice(product, store)
+                        : matrix.getEffectivePrice(product, store);
+                if (value < bestValue) {
+                    bestValue = value;
+                    stores[i] = store;
                 }
+            }
+        }
+        return toBasketDTO(matrix, basket, products, stores, storeTotals, byUnitPrice);
+    }
 
-                double unitPrice = packageQuantity > 0 ? regularPrice / packageQuantity : regularPrice;
-
-                double bestDiscountPercentage = productDiscounts.stream()
-                        .mapToDouble(Discount::getPercentageOfDiscount)
-                        .max()
-                        .orElse(0.0);
-
-                double discountAmount = regularPrice * (bestDiscountPercentage / 100.0);
-                double effectivePrice = regularPrice - discountAmount;
-                double effectiveUnitPrice = packageQuantity > 0 ? effectivePrice / packageQuantity : effectivePrice;
-
-                System.out.printf("Product: %s, Store: %s, Regular: %.2f€, PkgQty: %.2f %s, Unit: %.2fRON, Discount: %.2fRON, EffectiveUnit: %.2fRON%n",
-                        productName, entry.getStoreName(), regularPrice, packageQuantity, packageUnit, unitPrice, discountAmount, effectiveUnitPrice);
-
-                storeToUnitPrice.put(store, unitPrice);
-                storeToEffectivePrice.put(store, effectivePrice);
-                storeToDiscount.put(store, discountAmount);
-                storeToPriceEntry.put(store, entry);
+    /**
+     * Optimizes basket under a limit on the number of stores visited and a penalty per store visit:
+     * finds the set of at most {@code maxStores} stores minimizing the cost of the items plus the
+     * visit penalties, each item being bought at the cheapest store of the set.
+     * Items no store of the best set sells are left out of the shopping lists; the set covering the
+     * most items is preferred over a cheaper one covering fewer.
+     * @param basket List of basket items to optimize
+     * @param maxStores The maximum number of stores visited, at least 1
+     * @param visitCost The penalty of visiting a store, in the currency of the prices
+     * @param timeBudgetMillis The search time after which the best plan found so far is returned, capped at {@link #MAX_TIME_BUDGET_MILLIS}
+     * @return OptimizedBasketDTO with the plan, its visit cost, and whether it is proven optimal
+     * @throws IllegalArgumentException If a limit is out of range
+     */
+    public OptimizedBasketDTO optimizeBasketWithStoreLimit(List<BasketItem> basket, int maxStores, double visitCost,
+                                                           long timeBudgetMillis) {
+        if (timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("timeBudgetMillis must be positive: " + timeBudgetMillis);
+        }
+        PriceMatrix matrix = getPriceMatrix();
+        int storeCount = matrix.getStoreCount();
+        double[] storeTotals = new double[storeCount];
+        int[] products = new int[basket.size()];
+        double[][] costs = new double[basket.size()][storeCount];
+
+        for (int i = 0; i < basket.size(); i++) {
+            BasketItem item = basket.get(i);
+            int product = matrix.getProductRow(item.getProductName());
+            addRegularCost(matrix, product, item.getQuantity(), storeTotals);
+            products[i] = product;
+            for (int store = 0; store < storeCount; store++) {
+                costs[i][store] = product < 0 ? Double.NaN : matrix.getEffectivePrice(product, store) * item.getQuantity();
             }
+        }
 
-            Map.Entry<String, Double> bestStore = storeToEffectivePrice.entrySet().stream()
-                    .min(Map.Entry.comparingByValue())
-                    .orElse(null);
-
-            if (bestStore != null) {
-                String store = bestStore.getKey();
-                double effectivePrice = bestStore.getValue();
-                double discount = storeToDiscount.get(store);
-                PriceEntry priceEntry = storeToPriceEntry.get(store);
-
-                double actualSavings = (highestRegularPrice - effectivePrice) * quantity;
-
-                BasketItemDTO itemDTO = new BasketItemDTO();
-                itemDTO.setProductId(item.getProductId());
-                itemDTO.setProductName(productName);
-                itemDTO.setQuantity(quantity);
-                itemDTO.setPrice(effectivePrice * quantity);
-                itemDTO.setSavings(actualSavings);
-                itemDTO.setStoreName(store);
-
-                if (priceEntry.getPackageQuantity() > 0) {
-                    double unitPrice = effectivePrice / priceEntry.getPackageQuantity();
-                    itemDTO.setUnitPrice(unitPrice);
-                    itemDTO.setUnitPriceLabel("per " + priceEntry.getPackageUnit());
-                } else {
-                    itemDTO.setUnitPrice(0);
-                    itemDTO.setUnitPriceLabel("N/A");
-                }
+        BasketSolver.Plan plan = BasketSolver.solve(costs, maxStores, visitCost,
+                Duration.ofMillis(Math.min(timeBudgetMillis, MAX_TIME_BUDGET_MILLIS)));
+        OptimizedBasketDTO result = toBasketDTO(matrix, basket, products, plan.assignments(), storeTotals, false);
+        result.setVisitCost(plan.visitCost());
+        result.setOptimal(plan.optimal());
+        return result;
+    }
 
-                storeShoppingLists.get(store).addItem(itemDTO);
+    /**
+     * Groups the items of a basket into one shopping list per store they are bought at.
+     */
+    private static OptimizedBasketDTO toBasketDTO(PriceMatrix matrix, List<BasketItem> basket, int[] products,
+                                                  int[] stores, double[] storeTotals, boolean withUnitPrice) {
+        ShoppingListDTO[] shoppingLists = new ShoppingListDTO[matrix.getStoreCount()];
+        for (int i = 0; i < basket.size(); i++) {
+            int store = stores[i];
+            if (store < 0) continue;
+
+            if (shoppingLists[store] == null) {
+                shoppingLists[store] = new ShoppingListDTO();
+                shoppingLists[store].setStoreName(matrix.getStoreName(store));
             }
+            shoppingLists[store].addItem(toItemDTO(matrix, basket.get(i), products[i], store, withUnitPrice));
         }
 
-        List<ShoppingListDTO> nonEmptyLists = storeShoppingLists.values().stream()
-                .filter(list -> !list.getItems().isEmpty())
-                .collect(Collectors.toList());
-
+        OptimizedBasketDTO result = new OptimizedBasketDTO();
+        result.setOriginalCost(cheapestCompleteStore(storeTotals));
+        List<ShoppingListDTO> nonEmptyLists = new ArrayList<>();
+        for (ShoppingListDTO shoppingList : shoppingLists) {
+            if (shoppingList != null) {
+                nonEmptyLists.add(shoppingList);
+            }
+        }
         result.setShoppingLists(nonEmptyLists);
-
         return result;
     }
 
-}
\ No newline at end of file
+    /**
+     * Adds the regular cost of an item to the total of every store selling it, and marks the
+     * other stores as unable to supply the whole basket with a NaN total.
+     */
+    private static void addRegularCost(PriceMatrix matrix, int product, int quantity, double[] storeTotals) {
+        for (int store = 0; store < storeTotals.length; store++) {
+            storeTotals[store] += product < 0 ? Double.NaN : matrix.getRegularPrice(product, store) * quantity;
+        }
+    }
+
+    private static double cheapestCompleteStore(double[] storeTotals) {
+        double cheapest = Double.POSITIVE_INFINITY;
+        for (double total : storeTotals) {
+            if (total < cheapest) {
+                cheapest = total;
+            }
+        }
+        return cheapest == Double.POSITIVE_INFINITY ? 0.0 : cheapest;
+    }
+
+    private static BasketItemDTO toItemDTO(PriceMatrix matrix, BasketItem item, int product, int store,
+                                           boolean withUnitPrice) {
+        int quantity = item.getQuantity();
+        double effectivePrice = matrix.getEffectivePrice(product, store);
+
+        BasketItemDTO itemDTO = new BasketItemDTO();
+        itemDTO.setProductId(matrix.getEntry(product, store).getProductId());
+        itemDTO.setProductName(item.getProductName());
+        itemDTO.setQuantity(quantity);
+        itemDTO.setPrice(effectivePrice * quantity);
+        itemDTO.setSavings((matrix.getHighestRegularPrice(product) - effectivePrice) * quantity);
+        itemDTO.setStoreName(matrix.getStoreName(store));
+
+        if (withUnitPrice) {
+            PriceEntry priceEntry = matrix.getEntry(product, store);
+            if (priceEntry.getPackageQuantity() > 0) {
+                itemDTO.setUnitPrice(matrix.getEffectiveUnitPrice(product, store));
+                itemDTO.setUnitPriceLabel("per " + priceEntry.getCanonicalUnit());
+            } else {
+                itemDTO.setUnitPrice(0);
+                itemDTO.setUnitPriceLabel("N/A");
+            }
+        }
+        return itemDTO;
+    }
+}
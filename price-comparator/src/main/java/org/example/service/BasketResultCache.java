@@ -0,0 +1,228 @@
+package org.example.service;
+
+import org.example.dto.BasketCacheStatsDTO;
+import org.example.dto.BasketItemDTO;
+import org.example.dto.OptimizedBasketDTO;
+import org.example.dto.ShoppingListDTO;
+import org.example.model.BasketItem;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded cache of optimized baskets, keyed by the canonical form of a basket and the versions of
+ * the price and discount catalogs and the date it was priced on, so a result is never served once
+ * the prices it was computed from have changed.
+ * <p>
+ * The least recently used result is evicted once the cache is full, and results expire a fixed
+ * time after they were computed. A result is computed once per key: callers missing on a key that
+ * is already being computed wait for that computation instead of repeating it. Every caller gets
+ * its own copy of the result, so callers may modify what they receive.
+ */
+public class BasketResultCache {
+
+    /**
+     * Key of a cached result.
+     *
+     * @param items           The canonical basket.
+     * @param byUnitPrice     Whether stores were picked by unit price.
+     * @param priceVersion    The version of the price catalog.
+     * @param discountVersion The version of the discount catalog.
+     * @param date            The date the discounts were applied on.
+     */
+    public record Key(List<BasketItemKey> items, boolean byUnitPrice, long priceVersion, long discountVersion,
+                      LocalDate date) {
+    }
+
+    /**
+     * Item of a canonical basket. Baskets are optimized by product name, so the product ids of
+     * the basket items are not part of the key.
+     *
+     * @param productName The product name.
+     * @param quantity    The quantity, summed over the basket items of the product.
+     */
+    public record BasketItemKey(String productName, int quantity) {
+    }
+
+    private static final Comparator<BasketItemKey> ITEM_ORDER = Comparator
+            .comparing(BasketItemKey::productName, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final LinkedHashMap<Key, CachedResult> results;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxSize The maximum number of results held.
+     * @param ttl     The time after which a result expires.
+     */
+    public BasketResultCache(int maxSize, Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    BasketResultCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, CachedResult> eldest) {
+                if (size() > BasketResultCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the canonical form of a basket: one item per product name with the quantities of its
+     * items summed, sorted by product name.
+     *
+     * @param basket The basket.
+     * @return The canonical items.
+     */
+    public static List<BasketItemKey> canonicalize(List<BasketItem> basket) {
+        Map<String, Integer> quantities = new HashMap<>();
+        for (BasketItem item : basket) {
+            quantities.merge(item.getProductName(), item.getQuantity(), Integer::sum);
+        }
+        List<BasketItemKey> items = new ArrayList<>(quantities.size());
+        quantities.forEach((productName, quantity) -> items.add(new BasketItemKey(productName, quantity)));
+        items.sort(ITEM_ORDER);
+        return List.copyOf(items);
+    }
+
+    /**
+     * Returns a copy of the result cached for a key, computing and caching it on a miss. Concurrent
+     * misses on the same key compute it once; the other callers wait for it and count as hits.
+     * A failed computation is not cached, and its exception is thrown to every waiting caller.
+     * The least recently used result is evicted if the cache is full.
+     *
+     * @param key     The key.
+     * @param compute Computes the result of the key.
+     * @return A copy of the result.
+     */
+    public OptimizedBasketDTO get(Key key, Function<Key, OptimizedBasketDTO> compute) {
+        CachedResult pending = null;
+        CachedResult cached;
+        synchronized (this) {
+            cached = results.get(key);
+            if (cached != null && nanoClock.getAsLong() - cached.createdAtNanos() >= ttlNanos) {
+                results.remove(key);
+                expirations++;
+                cached = null;
+            }
+            if (cached == null) {
+                misses++;
+                pending = new CachedResult(new CompletableFuture<>(), nanoClock.getAsLong());
+                results.put(key, pending);
+                cached = pending;
+            } else {
+                hits++;
+            }
+        }
+
+        if (pending != null) {
+            try {
+                pending.result().complete(compute.apply(key));
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    results.remove(key, pending);
+                }
+                pending.result().completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return copyOf(cached.result().join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops every cached result. Statistics are kept.
+     */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * Returns the hit and miss counts and the current size of the cache.
+     *
+     * @return The statistics.
+     */
+    public synchronized BasketCacheStatsDTO getStats() {
+        BasketCacheStatsDTO stats = new BasketCacheStatsDTO();
+        stats.setSize(results.size());
+        stats.setMaxSize(maxSize);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setHitRate(hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+        stats.setEvictions(evictions);
+        stats.setExpirations(expirations);
+        return stats;
+    }
+
+    private static OptimizedBasketDTO copyOf(OptimizedBasketDTO result) {
+        List<ShoppingListDTO> shoppingLists = new ArrayList<>(result.getShoppingLists().size());
+        for (ShoppingListDTO shoppingList : result.getShoppingLists()) {
+            shoppingLists.add(copyOf(shoppingList));
+        }
+        OptimizedBasketDTO copy = new OptimizedBasketDTO();
+        copy.setShoppingLists(shoppingLists);
+        copy.setTotalCost(result.getTotalCost());
+        copy.setTotalSavings(result.getTotalSavings());
+        copy.setOriginalCost(result.getOriginalCost());
+        copy.setVisitCost(result.getVisitCost());
+        copy.setOptimal(result.isOptimal());
+        return copy;
+    }
+
+    private static ShoppingListDTO copyOf(ShoppingListDTO shoppingList) {
+        List<BasketItemDTO> items = new ArrayList<>(shoppingList.getItems().size());
+        for (BasketItemDTO item : shoppingList.getItems()) {
+            BasketItemDTO copy = new BasketItemDTO();
+            copy.setProductId(item.getProductId());
+            copy.setProductName(item.getProductName());
+            copy.setQuantity(item.getQuantity());
+            copy.setPrice(item.getPrice());
+            copy.setUnitPrice(item.getUnitPrice());
+            copy.setUnitPriceLabel(item.getUnitPriceLabel());
+            copy.setSavings(item.getSavings());
+            copy.setStoreName(item.getStoreName());
+            items.add(copy);
+        }
+        ShoppingListDTO copy = new ShoppingListDTO();
+        copy.setStoreName(shoppingList.getStoreName());
+        copy.setItems(items);
+        copy.setTotalCost(shoppingList.getTotalCost());
+        copy.setTotalSavings(shoppingList.getTotalSavings());
+        return copy;
+    }
+
+    /**
+     * A cached result, or the result being computed by the first caller that missed on its key.
+     */
+    private record CachedResult(CompletableFuture<OptimizedBasketDTO> result, long createdAtNanos) {
+    }
+}
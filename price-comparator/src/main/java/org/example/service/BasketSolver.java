@@ -0,0 +1,276 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Branch-and-bound search for the cheapest split of a basket across a limited number of stores.
+ * <p>
+ * A plan is a set of at most {@code maxStores} stores; each item is bought at the cheapest store of
+ * the set selling it, and every store of the set costs a fixed visit penalty. Plans are ranked by
+ * the number of items they cannot supply first, then by item cost plus visit penalties, so a store
+ * limit too tight for the whole basket still yields the plan covering the most items.
+ * <p>
+ * Store sets are enumerated depth first in increasing store order, starting from a greedy plan.
+ * A subtree is pruned when even buying every item at the cheapest store still reachable from it
+ * cannot beat the best plan found, and the search stops at its deadline with that plan.
+ */
+public final class BasketSolver {
+    private static final int DEADLINE_CHECK_INTERVAL = 1024;
+
+    private final double[][] costs;
+    private final int itemCount;
+    private final int maxStores;
+    private final double visitCost;
+    private final long deadline;
+
+    private int[] candidates;
+    private double[][] suffixMinimums;
+    private double[][] bestByDepth;
+    private int[] chosen;
+
+    private int[] bestSet = new int[0];
+    private int bestMissing;
+    private double bestCost;
+    private long nodes;
+    private boolean expired;
+
+    private BasketSolver(double[][] costs, int maxStores, double visitCost, Duration budget) {
+        this.costs = costs;
+        this.itemCount = costs.length;
+        this.maxStores = maxStores;
+        this.visitCost = visitCost;
+        this.deadline = System.nanoTime() + budget.toNanos();
+    }
+
+    /**
+     * Result of a search.
+     *
+     * @param assignments The store of each item, or -1 for items no store of the plan sells.
+     * @param itemCost    The cost of the items bought.
+     * @param storeCount  The number of stores visited.
+     * @param visitCost   The total visit penalty of the stores visited.
+     * @param optimal     Whether the search finished, proving the plan optimal, rather than
+     *                    running out of time.
+     */
+    public record Plan(int[] assignments, double itemCost, int storeCount, double visitCost, boolean optimal) {
+    }
+
+    /**
+     * Finds the cheapest plan visiting at most {@code maxStores} stores.
+     *
+     * @param costs      The cost of each item at each store, {@code costs[item][store]}; NaN where
+     *                   the store does not sell the item. All rows have the same length.
+     * @param maxStores  The maximum number of stores visited, at least 1.
+     * @param visitCost  The penalty added for every store visited, at least 0.
+     * @param budget     The time after which the best plan found so far is returned.
+     * @return The plan.
+     * @throws IllegalArgumentException If a limit is out of range.
+     */
+    public static Plan solve(double[][] costs, int maxStores, double visitCost, Duration budget) {
+        if (maxStores < 1) {
+            throw new IllegalArgumentException("maxStores must be at least 1: " + maxStores);
+        }
+        if (!(visitCost >= 0) || Double.isInfinite(visitCost)) {
+            throw new IllegalArgumentException("visitCost must be a non-negative number: " + visitCost);
+        }
+        if (budget.isNegative() || budget.isZero()) {
+            throw new IllegalArgumentException("The time budget must be positive: " + budget);
+        }
+        return new BasketSolver(costs, maxStores, visitCost, budget).search();
+    }
+
+    private Plan search() {
+        int storeCount = itemCount == 0 ? 0 : costs[0].length;
+        candidates = orderedCandidates(storeCount);
+        int depth = Math.min(maxStores, candidates.length);
+
+        suffixMinimums = new double[candidates.length + 1][itemCount];
+        Arrays.fill(suffixMinimums[candidates.length], Double.POSITIVE_INFINITY);
+        for (int c = candidates.length - 1; c >= 0; c--) {
+            for (int item = 0; item < itemCount; item++) {
+                suffixMinimums[c][item] = Math.min(suffixMinimums[c + 1][item], cost(item, candidates[c]));
+            }
+        }
+
+        bestByDepth = new double[depth + 1][itemCount];
+        Arrays.fill(bestByDepth[0], Double.POSITIVE_INFINITY);
+        chosen = new int[depth];
+        bestMissing = itemCount;
+        bestCost = 0.0;
+        greedy();
+        explore(0, 0, itemCount, 0.0);
+        return toPlan();
+    }
+
+    /**
+     * Returns the stores selling at least one item, those supplying the most items most cheaply
+     * on their own first, so good plans are found early and prune the rest of the search.
+     */
+    private int[] orderedCandidates(int storeCount) {
+        int[] missing = new int[storeCount];
+        double[] total = new double[storeCount];
+        for (int store = 0; store < storeCount; store++) {
+            for (int item = 0; item < itemCount; item++) {
+                double cost = cost(item, store);
+                if (cost == Double.POSITIVE_INFINITY) {
+                    missing[store]++;
+                } else {
+                    total[store] += cost;
+                }
+            }
+        }
+        return IntStream.range(0, storeCount)
+                .filter(store -> missing[store] < itemCount)
+                .boxed()
+                .sorted(Comparator.<Integer>comparingInt(store -> missing[store])
+                        .thenComparingDouble(store -> total[store]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Seeds the search with the plan built by repeatedly adding the store improving it most.
+     */
+    private void greedy() {
+        double[] current = bestByDepth[0].clone();
+        int[] set = new int[0];
+        while (set.length < maxStores) {
+            int bestCandidate = -1;
+            int candidateMissing = bestMissing;
+            double candidateCost = bestCost;
+            for (int c = 0; c < candidates.length; c++) {
+                if (contains(set, c)) continue;
+
+                int missing = 0;
+                double cost = visitCost * (set.length + 1);
+                for (int item = 0; item < itemCount; item++) {
+                    double itemCost = Math.min(current[item], cost(item, candidates[c]));
+                    if (itemCost == Double.POSITIVE_INFINITY) {
+                        missing++;
+                    } else {
+                        cost += itemCost;
+                    }
+                }
+                if (isBetter(missing, cost, candidateMissing, candidateCost)) {
+                    bestCandidate = c;
+                    candidateMissing = missing;
+                    candidateCost = cost;
+                }
+            }
+            if (bestCandidate < 0) break;
+
+            for (int item = 0; item < itemCount; item++) {
+                current[item] = Math.min(current[item], cost(item, candidates[bestCandidate]));
+            }
+            set = Arrays.copyOf(set, set.length + 1);
+            set[set.length - 1] = bestCandidate;
+            bestSet = set;
+            bestMissing = candidateMissing;
+            bestCost = candidateCost;
+        }
+    }
+
+    /**
+     * Explores the store sets extending the {@code size} stores chosen so far with candidates from
+     * {@code next} on.
+     */
+    private void explore(int next, int size, int missing, double itemCost) {
+        if (isBetter(missing, itemCost + visitCost * size, bestMissing, bestCost)) {
+            bestSet = Arrays.copyOf(chosen, size);
+            bestMissing = missing;
+            bestCost = itemCost + visitCost * size;
+        }
+        if (size == chosen.length) return;
+
+        double[] current = bestByDepth[size];
+        double[] extended = bestByDepth[size + 1];
+        for (int c = next; c < candidates.length; c++) {
+            if (++nodes % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                expired = true;
+            }
+            if (expired) return;
+
+            // Later candidates reach fewer stores, so their bounds are no lower.
+            if (!canImprove(current, suffixMinimums[c], size + 1)) return;
+
+            int store = candidates[c];
+            int extendedMissing = 0;
+            double extendedCost = 0.0;
+            for (int item = 0; item < itemCount; item++) {
+                double cost = Math.min(current[item], cost(item, store));
+                extended[item] = cost;
+                if (cost == Double.POSITIVE_INFINITY) {
+                    extendedMissing++;
+                } else {
+                    extendedCost += cost;
+                }
+            }
+            chosen[size] = c;
+            explore(c + 1, size + 1, extendedMissing, extendedCost);
+        }
+    }
+
+    /**
+     * Checks whether a set of at least {@code size} stores, drawn from the current ones and those
+     * with the given per-item minimum costs, could beat the best plan found.
+     */
+    private boolean canImprove(double[] current, double[] reachable, int size) {
+        int missing = 0;
+        double cost = visitCost * size;
+        for (int item = 0; item < itemCount; item++) {
+            double itemCost = Math.min(current[item], reachable[item]);
+            if (itemCost == Double.POSITIVE_INFINITY) {
+                missing++;
+            } else {
+                cost += itemCost;
+            }
+        }
+        return isBetter(missing, cost, bestMissing, bestCost);
+    }
+
+    private Plan toPlan() {
+        int[] assignments = new int[itemCount];
+        boolean[] visited = new boolean[itemCount == 0 ? 0 : costs[0].length];
+        double itemCost = 0.0;
+        int storeCount = 0;
+        for (int item = 0; item < itemCount; item++) {
+            int bestStore = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int c : bestSet) {
+                double cost = cost(item, candidates[c]);
+                if (cost < best || (cost == best && bestStore >= 0 && candidates[c] < bestStore)) {
+                    best = cost;
+                    bestStore = candidates[c];
+                }
+            }
+            assignments[item] = bestStore;
+            if (bestStore >= 0) {
+                itemCost += best;
+                if (!visited[bestStore]) {
+                    visited[bestStore] = true;
+                    storeCount++;
+                }
+            }
+        }
+        return new Plan(assignments, itemCost, storeCount, visitCost * storeCount, !expired);
+    }
+
+    private double cost(int item, int store) {
+        double cost = costs[item][store];
+        return Double.isNaN(cost) ? Double.POSITIVE_INFINITY : cost;
+    }
+
+    private static boolean isBetter(int missing, double cost, int otherMissing, double otherCost) {
+        return missing < otherMissing || (missing == otherMissing && cost < otherCost);
+    }
+
+    private static boolean contains(int[] set, int value) {
+        for (int element : set) {
+            if (element == value) return true;
+        }
+        return false;
+    }
+}
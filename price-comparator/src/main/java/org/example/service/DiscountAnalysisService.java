@@ -2,7 +2,7 @@ package org.example.service;
 
 import org.example.dto.DiscountDTO;
 import org.example.model.Discount;
-import org.example.repository.ItemRepository;
+import org.example.repository.DiscountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -17,7 +17,7 @@ import java.util.stream.Collectors;
 @Service
 public class DiscountAnalysisService {
 
-    private final ItemRepository<Discount> discountRepository;
+    private final DiscountRepository discountRepository;
 
     /**
      * Constructs a new {@code DiscountAnalysisService} with the provided discount repository.
@@ -25,36 +25,22 @@ public class DiscountAnalysisService {
      * @param discountRepository Repository for accessing discount data.
      */
     @Autowired
-    public DiscountAnalysisService(ItemRepository<Discount> discountRepository) {
+    public DiscountAnalysisService(DiscountRepository discountRepository) {
         this.discountRepository = discountRepository;
     }
 
     /**
      * Retrieves the top active discounts by percentage.
+     * The ranking of active discounts is maintained by the repository as discount files are
+     * ingested and discounts expire, so only the requested entries are read.
      *
      * @param limit The maximum number of top discounts to return.
      * @return A list of DiscountDTO representing the highest discounts.
      */
     public List<DiscountDTO> getHighestDiscounts(int limit) {
-        LocalDate today = LocalDate.now();
-
-        List<Discount> allDiscounts = discountRepository.loadAllEntries();
-
-        List<Discount> validDiscounts = allDiscounts.stream()
-                .filter(discount -> {
-                    boolean isValid = !today.isBefore(discount.getStartingDate()) &&
-                            !today.isAfter(discount.getEndingDate());
-                    return isValid;
-                })
-                .collect(Collectors.toList());
-
-        List<DiscountDTO> highestDiscounts = validDiscounts.stream()
-                .sorted(Comparator.comparing(Discount::getPercentageOfDiscount).reversed())
-                .limit(limit)
+        return discountRepository.findHighestActiveDiscounts(LocalDate.now(), limit).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
-
-        return highestDiscounts;
     }
 
     /**
@@ -2,14 +2,12 @@ package org.example.service;
 
 import org.example.dto.DiscountDTO;
 import org.example.model.Discount;
-import org.example.repository.ItemRepository;
+import org.example.repository.DiscountRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -17,7 +15,7 @@ import java.util.stream.Collectors;
  */
 @Service
 public class DiscountService implements IDiscountService {
-    private final ItemRepository<Discount> discountRepository;
+    private final DiscountRepository discountRepository;
 
     /**
      * Constructs a new DiscountService with the given discount repository.
@@ -25,7 +23,7 @@ public class DiscountService implements IDiscountService {
      * @param discountRepository The repository for loading discount data.
      */
     @Autowired
-    public DiscountService(ItemRepository<Discount> discountRepository) {
+    public DiscountService(DiscountRepository discountRepository) {
         this.discountRepository = discountRepository;
     }
 
@@ -55,31 +53,16 @@ public class DiscountService implements IDiscountService {
 
     /**
      * Retrieves the top discounts per product, limited to a specified number.
+     * The best active discount of every product is maintained by the repository as discount
+     * files are ingested and discounts expire, so only the requested entries are read.
      *
      * @param limit The maximum number of discounts to return.
      * @return A list of DiscountDTO objects sorted by discount percentage.
      */
     public List<DiscountDTO> getMaxDiscountPerProduct(int limit) {
-        LocalDate today = LocalDate.now();
-
-        List<Discount> allDiscounts = discountRepository.loadAllEntries();
-
-        Map<String, Discount> maxDiscounts = allDiscounts.stream()
-                .filter(discount -> !today.isBefore(discount.getStartingDate()) &&
-                        !today.isAfter(discount.getEndingDate()))
-                .collect(Collectors.toMap(
-                        Discount::getProductId,
-                        discount -> discount,
-                        (d1, d2) -> d1.getPercentageOfDiscount() >= d2.getPercentageOfDiscount() ? d1 : d2
-                ));
-
-        List<DiscountDTO> result = maxDiscounts.values().stream()
-                .sorted(Comparator.comparing(Discount::getPercentageOfDiscount).reversed())
-                .limit(limit)
+        return discountRepository.findMaxActiveDiscountPerProduct(LocalDate.now(), limit).stream()
                 .map(DiscountDTO::convertToDTO)
                 .collect(Collectors.toList());
-
-        return result;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package org.example.service;
+
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
+
+/**
+ * Downstream consumer of the deltas published by the {@link IngestionService}.
+ * Beans implementing this interface are registered automatically.
+ */
+public interface IngestionListener {
+
+    /**
+     * Called after a price file has been merged into the price catalog.
+     *
+     * @param delta The applied price delta.
+     */
+    default void onPriceDelta(CatalogDelta<PriceEntry> delta) {
+    }
+
+    /**
+     * Called after a discount file has been merged into the discount catalog.
+     *
+     * @param delta The applied discount delta.
+     */
+    default void onDiscountDelta(CatalogDelta<Discount> delta) {
+    }
+}
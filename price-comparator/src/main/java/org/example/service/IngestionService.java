@@ -0,0 +1,315 @@
+package org.example.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.example.dto.FileManifestDTO;
+import org.example.dto.UploadSummaryDTO;
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
+import org.example.repository.DiscountRepository;
+import org.example.repository.EntryCatalog;
+import org.example.repository.ProductRepository;
+import org.example.utils.FileNameUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
+
+/**
+ * Service that watches the data directory and merges changed CSV files, plain or gzip-compressed,
+ * into the in-memory catalogs.
+ * Only the file that was created, modified or deleted is parsed; bursts of events for the same file
+ * are debounced, and every resulting delta is published to the registered {@link IngestionListener}s.
+ * While the watcher runs, reads no longer rescan the data directory, so every file change is ingested
+ * once, on the single ingestion thread. The catalogs read the data directory recursively, so every
+ * subdirectory is watched too, including those created later.
+ */
+@Service
+public class IngestionService {
+    private static final String CSV_DIRECTORY = "src/main/resources/data";
+    private static final long DEBOUNCE_MILLIS = 500;
+
+    private final ProductRepository productRepository;
+    private final DiscountRepository discountRepository;
+    private final List<IngestionListener> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Path, ScheduledFuture<?>> pendingFiles = new ConcurrentHashMap<>();
+    private final Map<WatchKey, Path> watchedDirectories = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService debounceExecutor;
+    private WatchService watchService;
+
+    /**
+     * Constructs an IngestionService publishing deltas to the given listeners.
+     *
+     * @param productRepository  the repository holding the price catalog
+     * @param discountRepository the repository holding the discount catalog
+     * @param listeners          the downstream consumers of the deltas
+     */
+    @Autowired
+    public IngestionService(ProductRepository productRepository, DiscountRepository discountRepository,
+                            List<IngestionListener> listeners) {
+        this.productRepository = productRepository;
+        this.discountRepository = discountRepository;
+        this.listeners.addAll(listeners);
+
+        productRepository.addCatalogListener(this::publishPriceDelta);
+        discountRepository.addCatalogListener(this::publishDiscountDelta);
+    }
+
+    /**
+     * Registers an additional listener for ingestion deltas.
+     *
+     * @param listener the listener to register
+     */
+    public void addListener(IngestionListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously registered listener.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(IngestionListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the manifest of the files the price and discount catalogs are currently built from.
+     *
+     * @return The manifest records, price files first.
+     */
+    public List<FileManifestDTO> getManifest() {
+        List<FileManifestDTO> manifest = new ArrayList<>();
+        productRepository.getManifest().forEach(record -> manifest.add(FileManifestDTO.from("prices", record)));
+        discountRepository.getManifest().forEach(record -> manifest.add(FileManifestDTO.from("discounts", record)));
+        return manifest;
+    }
+
+    /**
+     * Parses an uploaded feed as it is read and merges it into the price or discount catalog,
+     * depending on its file name. The deltas are published to the listeners like those of watched files.
+     *
+     * @param fileName the file name of the feed, following the naming convention of the data directory
+     * @param body     the content of the feed
+     * @return the number of rows accepted and rejected, and the time spent
+     * @throws IOException              if the body cannot be read
+     * @throws IllegalArgumentException if the file name is neither a price nor a discount file name
+     */
+    public UploadSummaryDTO ingestUpload(String fileName, InputStream body) throws IOException {
+        UploadSummaryDTO summary;
+        if (FileNameUtil.parseFileName(fileName).isDiscountFile()) {
+            summary = UploadSummaryDTO.from("discounts", fileName, discountRepository.ingestUpload(fileName, body));
+        } else {
+            summary = UploadSummaryDTO.from("prices", fileName, productRepository.ingestUpload(fileName, body));
+        }
+        System.out.printf("Upload %s ingested: %d rows accepted, %d rejected in %.2fms%n",
+                fileName, summary.getAcceptedRows(), summary.getRejectedRows(), summary.getElapsedMillis());
+        return summary;
+    }
+
+    /**
+     * Starts watching the data directory for created, modified and deleted files.
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            Path directoryPath = Paths.get(CSV_DIRECTORY);
+
+            if (!Files.exists(directoryPath)) {
+                Files.createDirectories(directoryPath);
+                System.out.println("Created directory: " + directoryPath);
+            }
+
+            debounceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ingestion-worker");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(directoryPath);
+
+            productRepository.disableDirectoryRechecks();
+            discountRepository.disableDirectoryRechecks();
+            debounceExecutor.execute(this::rescan);
+
+            Thread watcherThread = new Thread(this::watch, "data-directory-watcher");
+            watcherThread.setDaemon(true);
+            watcherThread.start();
+            System.out.println("Started monitoring CSV files in: " + directoryPath);
+        } catch (IOException e) {
+            System.err.println("Error setting up directory watcher: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Stops watching the data directory and drops pending ingestions.
+     */
+    @PreDestroy
+    public void stop() {
+        if (debounceExecutor != null) {
+            debounceExecutor.shutdownNow();
+        }
+        pendingFiles.clear();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Error closing watch service: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Schedules the ingestion of a changed file. A later event for the same file before the
+     * debounce delay has elapsed replaces the pending ingestion.
+     *
+     * @param filePath the changed file
+     */
+    public void scheduleIngestion(Path filePath) {
+        pendingFiles.compute(filePath, (path, pending) -> {
+            if (pending != null) {
+                pending.cancel(false);
+            }
+            return debounceExecutor.schedule(() -> ingest(path), DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    /**
+     * Parses a single changed file and merges it into the matching catalog.
+     *
+     * @param filePath the changed file
+     */
+    public void ingest(Path filePath) {
+        pendingFiles.remove(filePath);
+        try {
+            CatalogDelta<PriceEntry> priceDelta = productRepository.ingestFile(filePath.toString());
+            CatalogDelta<Discount> discountDelta = discountRepository.ingestFile(filePath.toString());
+            CatalogDelta<?> delta = priceDelta != null ? priceDelta : discountDelta;
+            if (delta != null) {
+                System.out.println("CSV file ingested: " + delta);
+                if (delta.getAddedEntries().isEmpty() && delta.getRemovedEntries().isEmpty()) return;
+
+                List<EntryCatalog.FileLoadStats> stats = priceDelta != null
+                        ? productRepository.getLastLoadStats() : discountRepository.getLastLoadStats();
+                stats.forEach(fileStats -> System.out.println("  " + fileStats));
+            }
+        } catch (Exception e) {
+            System.err.println("Error ingesting " + filePath + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Checks the whole data directory for changes missed by the watcher, such as files written
+     * before it started or events dropped on overflow. Runs on the ingestion thread, like the
+     * ingestion of single files.
+     */
+    public void rescan() {
+        try {
+            productRepository.rescanDirectory();
+            discountRepository.rescanDirectory();
+        } catch (Exception e) {
+            System.err.println("Error rescanning the data directory: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Watches a directory and every directory below it.
+     *
+     * @param root the top of the directory tree
+     * @throws IOException if a directory cannot be listed or watched
+     */
+    private void registerTree(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            for (Path directory : (Iterable<Path>) paths.filter(Files::isDirectory)::iterator) {
+                WatchKey key = directory.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY,
+                        StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirectories.put(key, directory);
+            }
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directoryPath = watchedDirectories.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || directoryPath == null) {
+                        debounceExecutor.execute(this::rescan);
+                        continue;
+                    }
+
+                    @SuppressWarnings("unchecked")
+                    WatchEvent<Path> pathEvent = (WatchEvent<Path>) event;
+                    Path path = directoryPath.resolve(pathEvent.context());
+
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                        watchNewDirectory(path);
+                    } else if (FileNameUtil.isCsvFile(path.getFileName().toString())) {
+                        scheduleIngestion(path);
+                    }
+                }
+
+                if (!key.reset()) {
+                    // The directory was deleted or moved away; the rescan drops the files it held.
+                    watchedDirectories.remove(key);
+                    if (watchedDirectories.isEmpty()) {
+                        break;
+                    }
+                    debounceExecutor.execute(this::rescan);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Directory watcher interrupted: " + e.getMessage());
+        } catch (ClosedWatchServiceException e) {
+            System.out.println("Directory watcher closed");
+        }
+    }
+
+    /**
+     * Starts watching a directory created under the data directory. Files may have been written
+     * into it before it was registered, so the data directory is rescanned afterwards.
+     */
+    private void watchNewDirectory(Path directory) {
+        try {
+            registerTree(directory);
+        } catch (IOException e) {
+            System.err.println("Error watching " + directory + ": " + e.getMessage());
+        }
+        debounceExecutor.execute(this::rescan);
+    }
+
+    private void publishPriceDelta(CatalogDelta<PriceEntry> delta) {
+        for (IngestionListener listener : listeners) {
+            try {
+                listener.onPriceDelta(delta);
+            } catch (Exception e) {
+                System.err.println("Error publishing price delta: " + e.getMessage());
+            }
+        }
+    }
+
+    private void publishDiscountDelta(CatalogDelta<Discount> delta) {
+        for (IngestionListener listener : listeners) {
+            try {
+                listener.onDiscountDelta(delta);
+            } catch (Exception e) {
+                System.err.println("Error publishing discount delta: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -3,6 +3,7 @@ package org.example.service;
 import org.example.dto.PriceAlertDTO;
 import org.example.model.PriceAlert;
 import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
 import org.example.repository.PriceAlertRepository;
 import org.example.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,18 +11,19 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * Service for managing price alerts.
  * Provides methods to create, retrieve, update, and delete price alerts,
  * as well as to check and trigger alerts based on current prices.
+ * Alerts are also re-checked whenever a price file is ingested, limited to the products it contains.
  */
 @Service
-public class PriceAlertService {
+public class PriceAlertService implements IngestionListener {
 
     private final PriceAlertRepository alertRepository;
     private final ProductRepository productRepository;
@@ -103,8 +105,33 @@ public class PriceAlertService {
      */
     @Scheduled(fixedRate = 3600000)
     public void checkPriceAlerts() {
-        List<PriceAlert> activeAlerts = alertRepository.findAllActive();
+        checkPriceAlerts(alertRepository.findAllActive());
+    }
 
+    /**
+     * Checks the active price alerts of the products affected by an ingested price file.
+     *
+     * @param delta the price entries added and removed by the ingestion
+     */
+    @Override
+    public void onPriceDelta(CatalogDelta<PriceEntry> delta) {
+        Set<String> affectedProducts = delta.getAddedEntries().stream()
+                .map(PriceEntry::getProductName)
+                .collect(Collectors.toSet());
+        if (affectedProducts.isEmpty()) return;
+
+        checkPriceAlerts(alertRepository.findAllActive().stream()
+                .filter(alert -> affectedProducts.contains(alert.getProductId()))
+                .collect(Collectors.toList()));
+    }
+
+    /**
+     * Triggers the given alerts whose product's cheapest current price across stores is at or
+     * below the target price.
+     *
+     * @param activeAlerts the active alerts to check
+     */
+    private void checkPriceAlerts(List<PriceAlert> activeAlerts) {
         Map<String, List<PriceAlert>> alertsByProduct = activeAlerts.stream()
                 .collect(Collectors.groupingBy(PriceAlert::getProductId));
 
@@ -112,16 +139,10 @@ public class PriceAlertService {
             String productId = entry.getKey();
             List<PriceAlert> productAlerts = entry.getValue();
 
-            List<PriceEntry> priceEntries = productRepository.findByProductName(productId);
-            if (priceEntries.isEmpty()) continue;
-
-            PriceEntry latestPriceEntry = priceEntries.stream()
-                    .max(Comparator.comparing(PriceEntry::getDate))
-                    .orElse(null);
+            PriceEntry currentPriceEntry = productRepository.findCheapestCurrentEntry(productId);
+            if (currentPriceEntry == null) continue;
 
-            if (latestPriceEntry == null) continue;
-
-            double currentPrice = latestPriceEntry.getPrice();
+            double currentPrice = currentPriceEntry.getPrice();
 
             for (PriceAlert alert : productAlerts) {
                 if (currentPrice <= alert.getTargetPrice()) {
@@ -162,17 +183,11 @@ public class PriceAlertService {
         dto.setCreatedAt(alert.getCreatedAt());
         dto.setTriggeredAt(alert.getTriggeredAt());
 
-        List<PriceEntry> entries = productRepository.findByProductName(alert.getProductId());
-        if (!entries.isEmpty()) {
-            PriceEntry latestEntry = entries.stream()
-                    .max(Comparator.comparing(PriceEntry::getDate))
-                    .orElse(null);
-
-            if (latestEntry != null) {
-                dto.setProductName(latestEntry.getProductName());
-                dto.setCurrentPrice(latestEntry.getPrice());
-                dto.setStoreName(latestEntry.getStoreName());
-            }
+        PriceEntry currentEntry = productRepository.findCheapestCurrentEntry(alert.getProductId());
+        if (currentEntry != null) {
+            dto.setProductName(currentEntry.getProductName());
+            dto.setCurrentPrice(currentEntry.getPrice());
+            dto.setStoreName(currentEntry.getStoreName());
         }
 
         return dto;
@@ -1,21 +1,31 @@
 package org.example.service;
 
 import org.example.dto.PriceEntryDTO;
+import org.example.dto.PriceRollupDTO;
+import org.example.dto.PriceTrendPageDTO;
 import org.example.model.PriceEntry;
+import org.example.repository.Granularity;
+import org.example.repository.HistoryCursor;
+import org.example.repository.PriceRollup;
 import org.example.repository.ProductRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Comparator;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
  * Service for retrieving and analyzing price trends of products.
  * Provides methods to fetch price trends based on product name, store, category, or brand.
+ * Trends are read from the date-sorted price series of the repository, optionally restricted
+ * to a date range. Category and brand trends can be read in pages, resumed from an opaque cursor,
+ * or as weekly or monthly rollups maintained by the repository when prices are ingested.
  */
 @Service
 public class PriceTrendService {
+    public static final int DEFAULT_PAGE_SIZE = 500;
+    public static final int MAX_PAGE_SIZE = 1000;
 
     private final ProductRepository productRepository;
 
@@ -36,10 +46,19 @@ public class PriceTrendService {
      * @return a list of PriceEntryDTOs sorted by date
      */
     public List<PriceEntryDTO> getPriceTrendsForProduct(String productName) {
-        List<PriceEntry> entries = productRepository.findByProductName(productName);
+        return getPriceTrendsForProduct(productName, null, null);
+    }
 
-        return entries.stream()
-                .sorted(Comparator.comparing(PriceEntry::getDate))
+    /**
+     * Retrieves the price trend for a specific product within a date range.
+     *
+     * @param productName the name of the product
+     * @param from        the first date included, or null for no lower bound
+     * @param to          the last date included, or null for no upper bound
+     * @return a list of PriceEntryDTOs sorted by date
+     */
+    public List<PriceEntryDTO> getPriceTrendsForProduct(String productName, LocalDate from, LocalDate to) {
+        return productRepository.findPriceHistory(productName, from, to).stream()
                 .map(PriceEntryDTO::from)
                 .collect(Collectors.toList());
     }
@@ -52,9 +71,21 @@ public class PriceTrendService {
      * @return a list of PriceEntryDTOs sorted by date
      */
     public List<PriceEntryDTO> getPriceTrendsForProductAndStore(String productName, String storeName) {
+        return getPriceTrendsForProductAndStore(productName, storeName, null, null);
+    }
 
-        return productRepository.findByProductNameAndStore(productName, storeName).stream()
-                .sorted(Comparator.comparing(PriceEntry::getDate))
+    /**
+     * Retrieves the price trend for a specific product in a specific store within a date range.
+     *
+     * @param productName the name of the product
+     * @param storeName   the name of the store
+     * @param from        the first date included, or null for no lower bound
+     * @param to          the last date included, or null for no upper bound
+     * @return a list of PriceEntryDTOs sorted by date
+     */
+    public List<PriceEntryDTO> getPriceTrendsForProductAndStore(String productName, String storeName,
+                                                                 LocalDate from, LocalDate to) {
+        return productRepository.findPriceHistory(productName, storeName, from, to).stream()
                 .map(PriceEntryDTO::from)
                 .collect(Collectors.toList());
     }
@@ -64,10 +95,25 @@ public class PriceTrendService {
      *
      * @param category the category of products
      * @return a list of PriceEntryDTOs sorted by date
+     * @deprecated reads the whole history at once; use {@link #getPriceTrendsPageByCategory}
      */
+    @Deprecated
     public List<PriceEntryDTO> getPriceTrendsByCategory(String category) {
-        return productRepository.findByProductCategory(category).stream()
-                .sorted(Comparator.comparing(PriceEntry::getDate))
+        return getPriceTrendsByCategory(category, null, null);
+    }
+
+    /**
+     * Retrieves the price trends for products in a specific category within a date range.
+     *
+     * @param category the category of products
+     * @param from     the first date included, or null for no lower bound
+     * @param to       the last date included, or null for no upper bound
+     * @return a list of PriceEntryDTOs sorted by date
+     * @deprecated reads the whole history at once; use {@link #getPriceTrendsPageByCategory}
+     */
+    @Deprecated
+    public List<PriceEntryDTO> getPriceTrendsByCategory(String category, LocalDate from, LocalDate to) {
+        return productRepository.findPriceHistoryByCategory(category, from, to).stream()
                 .map(PriceEntryDTO::from)
                 .collect(Collectors.toList());
     }
@@ -77,11 +123,132 @@ public class PriceTrendService {
      *
      * @param brand the brand of products
      * @return a list of PriceEntryDTOs sorted by date
+     * @deprecated reads the whole history at once; use {@link #getPriceTrendsPageByBrand}
      */
+    @Deprecated
     public List<PriceEntryDTO> getPriceTrendsByBrand(String brand) {
-        return productRepository.findByBrand(brand).stream()
-                .sorted(Comparator.comparing(PriceEntry::getDate))
+        return getPriceTrendsByBrand(brand, null, null);
+    }
+
+    /**
+     * Retrieves the price trends for products of a specific brand within a date range.
+     *
+     * @param brand the brand of products
+     * @param from  the first date included, or null for no lower bound
+     * @param to    the last date included, or null for no upper bound
+     * @return a list of PriceEntryDTOs sorted by date
+     * @deprecated reads the whole history at once; use {@link #getPriceTrendsPageByBrand}
+     */
+    @Deprecated
+    public List<PriceEntryDTO> getPriceTrendsByBrand(String brand, LocalDate from, LocalDate to) {
+        return productRepository.findPriceHistoryByBrand(brand, from, to).stream()
                 .map(PriceEntryDTO::from)
                 .collect(Collectors.toList());
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a page of the price trends for products in a specific category within a date range,
+     * ordered by date, store and product id.
+     *
+     * @param category the category of products
+     * @param from     the first date included, or null for no lower bound
+     * @param to       the last date included, or null for no upper bound
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param pageSize the requested number of entries, at least 1, capped at {@link #MAX_PAGE_SIZE}
+     * @return the page, with the cursor of the next page, or null if there is none
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is below 1
+     */
+    public PriceTrendPageDTO getPriceTrendsPageByCategory(String category, LocalDate from, LocalDate to,
+                                                          String cursor, int pageSize) {
+        int limit = pageLimit(pageSize);
+        return toPage(productRepository.findPriceHistoryPageByCategory(category, from, to, decode(cursor), limit), limit);
+    }
+
+    /**
+     * Retrieves a page of the price trends for products of a specific brand within a date range,
+     * ordered by date, store and product id.
+     *
+     * @param brand    the brand of products
+     * @param from     the first date included, or null for no lower bound
+     * @param to       the last date included, or null for no upper bound
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param pageSize the requested number of entries, at least 1, capped at {@link #MAX_PAGE_SIZE}
+     * @return the page, with the cursor of the next page, or null if there is none
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is below 1
+     */
+    public PriceTrendPageDTO getPriceTrendsPageByBrand(String brand, LocalDate from, LocalDate to,
+                                                       String cursor, int pageSize) {
+        int limit = pageLimit(pageSize);
+        return toPage(productRepository.findPriceHistoryPageByBrand(brand, from, to, decode(cursor), limit), limit);
+    }
+
+    /**
+     * Retrieves a page of the weekly or monthly price rollups of the products in a specific category,
+     * one per product, store and period overlapping a date range, ordered by period, store and product id.
+     *
+     * @param category    the category of products
+     * @param granularity the period length
+     * @param from        a day of the first period included, or null for no lower bound
+     * @param to          a day of the last period included, or null for no upper bound
+     * @param cursor      the cursor returned with the previous page, or null for the first page
+     * @param pageSize    the requested number of rollups, at least 1, capped at {@link #MAX_PAGE_SIZE}
+     * @return the page, with the cursor of the next page, or null if there is none
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is below 1
+     */
+    public PriceTrendPageDTO getPriceRollupsPageByCategory(String category, Granularity granularity,
+                                                           LocalDate from, LocalDate to, String cursor, int pageSize) {
+        int limit = pageLimit(pageSize);
+        return toRollupPage(productRepository.findPriceRollupsPageByCategory(category, granularity, from, to,
+                decode(cursor), limit), limit);
+    }
+
+    /**
+     * Retrieves a page of the weekly or monthly price rollups of the products of a specific brand,
+     * one per product, store and period overlapping a date range, ordered by period, store and product id.
+     *
+     * @param brand       the brand of products
+     * @param granularity the period length
+     * @param from        a day of the first period included, or null for no lower bound
+     * @param to          a day of the last period included, or null for no upper bound
+     * @param cursor      the cursor returned with the previous page, or null for the first page
+     * @param pageSize    the requested number of rollups, at least 1, capped at {@link #MAX_PAGE_SIZE}
+     * @return the page, with the cursor of the next page, or null if there is none
+     * @throws IllegalArgumentException if the cursor is malformed or the page size is below 1
+     */
+    public PriceTrendPageDTO getPriceRollupsPageByBrand(String brand, Granularity granularity,
+                                                        LocalDate from, LocalDate to, String cursor, int pageSize) {
+        int limit = pageLimit(pageSize);
+        return toRollupPage(productRepository.findPriceRollupsPageByBrand(brand, granularity, from, to,
+                decode(cursor), limit), limit);
+    }
+
+    private static int pageLimit(int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("Page size must be at least 1: " + pageSize);
+        }
+        return Math.min(pageSize, MAX_PAGE_SIZE);
+    }
+
+    private static HistoryCursor decode(String cursor) {
+        return cursor == null || cursor.isEmpty() ? null : HistoryCursor.fromToken(cursor);
+    }
+
+    /**
+     * Builds a page. A full page gets a cursor even if nothing follows it, in which case the next
+     * page is empty and has none.
+     */
+    private static PriceTrendPageDTO toPage(List<PriceEntry> entries, int limit) {
+        String nextCursor = entries.size() >= limit
+                ? HistoryCursor.of(entries.get(entries.size() - 1)).toToken()
+                : null;
+        return new PriceTrendPageDTO(entries.stream().map(PriceEntryDTO::from).collect(Collectors.toList()), nextCursor);
+    }
+
+    private static PriceTrendPageDTO toRollupPage(List<PriceRollup> rollups, int limit) {
+        String nextCursor = rollups.size() >= limit
+                ? HistoryCursor.of(rollups.get(rollups.size() - 1)).toToken()
+                : null;
+        return PriceTrendPageDTO.ofRollups(rollups.stream().map(PriceRollupDTO::from).collect(Collectors.toList()),
+                nextCursor);
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.service;
+
+import org.example.dto.PriceEntryDTO;
+import org.example.model.PriceEntry;
+import org.example.repository.PriceFilterIndex;
+import org.example.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Service for filtering price entries by combinations of category, brand, store and unit,
+ * such as "lactate from Zuzu at kaufland and profi".
+ * Filters are evaluated on the bitmap indexes of the repository and results are streamed.
+ */
+@Service
+public class ProductFilterService {
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Constructs a ProductFilterService with the specified ProductRepository.
+     *
+     * @param productRepository the repository to filter price entries in
+     */
+    @Autowired
+    public ProductFilterService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Filters price entries. Within a column an entry matches any of the values given; across
+     * columns it must match all of them, or any of them when {@code matchAll} is false.
+     * Columns given no values are not filtered on.
+     *
+     * @param categories the accepted product categories
+     * @param brands     the accepted brands
+     * @param stores     the accepted store names
+     * @param units      the accepted package units
+     * @param matchAll   whether the columns are combined with AND rather than OR
+     * @return a lazy stream of the matching entries as DTOs
+     */
+    public Stream<PriceEntryDTO> filter(List<String> categories, List<String> brands, List<String> stores,
+                                        List<String> units, boolean matchAll) {
+        Map<PriceFilterIndex.Dimension, List<String>> criteria = new EnumMap<>(PriceFilterIndex.Dimension.class);
+        criteria.put(PriceFilterIndex.Dimension.CATEGORY, categories);
+        criteria.put(PriceFilterIndex.Dimension.BRAND, brands);
+        criteria.put(PriceFilterIndex.Dimension.STORE, stores);
+        criteria.put(PriceFilterIndex.Dimension.UNIT, units);
+
+        return productRepository.filterEntries(criteria, matchAll).map(this::convertToDTO);
+    }
+
+    /**
+     * Converts a PriceEntry into a PriceEntryDTO including the filtered columns.
+     *
+     * @param entry the price entry to convert
+     * @return the DTO
+     */
+    private PriceEntryDTO convertToDTO(PriceEntry entry) {
+        PriceEntryDTO dto = PriceEntryDTO.from(entry);
+        dto.setProductCategory(entry.getProductCategory());
+        dto.setBrand(entry.getBrand());
+        dto.setPackageQuantity(entry.getPackageQuantity());
+        dto.setPackageUnit(entry.getPackageUnit());
+        dto.setCurrency(entry.getCurrency());
+        return dto;
+    }
+}
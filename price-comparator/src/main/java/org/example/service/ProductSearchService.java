@@ -0,0 +1,43 @@
+package org.example.service;
+
+import org.example.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Service for searching product names as they are typed.
+ * Matching ignores case and diacritics, so "oua marimea M" finds "ouă mărimea M".
+ */
+@Service
+public class ProductSearchService {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 50;
+
+    private final ProductRepository productRepository;
+
+    /**
+     * Constructs a ProductSearchService with the specified ProductRepository.
+     *
+     * @param productRepository the repository to search product names in
+     */
+    @Autowired
+    public ProductSearchService(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /**
+     * Suggests the product names best matching a partial query.
+     *
+     * @param query the text typed so far
+     * @param limit the maximum number of suggestions, capped at {@link #MAX_LIMIT}
+     * @return the matching product names, best match first
+     */
+    public List<String> autocomplete(String query, int limit) {
+        if (query == null || query.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        return productRepository.searchProductNames(query, Math.min(limit, MAX_LIMIT));
+    }
+}
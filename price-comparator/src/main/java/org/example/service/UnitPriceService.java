@@ -0,0 +1,115 @@
+package org.example.service;
+
+import org.example.dto.PriceEntryDTO;
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+import org.example.repository.DiscountRepository;
+import org.example.repository.ProductRepository;
+import org.example.utils.UnitUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Service for ranking the current prices of a category by effective unit price, such as the
+ * cheapest kilogram of cheese across stores today.
+ * Rankings are read from the unit price index of the repository, sorted by regular unit price;
+ * today's discounts are then applied while reading, and reading stops as soon as no further entry
+ * can beat the results found, even with the highest active discount.
+ */
+@Service
+public class UnitPriceService {
+    public static final int DEFAULT_LIMIT = 10;
+    public static final int MAX_LIMIT = 100;
+
+    private final ProductRepository productRepository;
+    private final DiscountRepository discountRepository;
+
+    /**
+     * Constructs a UnitPriceService with the specified repositories.
+     *
+     * @param productRepository  the repository to read unit price rankings from
+     * @param discountRepository the repository to read active discounts from
+     */
+    @Autowired
+    public UnitPriceService(ProductRepository productRepository, DiscountRepository discountRepository) {
+        this.productRepository = productRepository;
+        this.discountRepository = discountRepository;
+    }
+
+    /**
+     * Finds the current prices of a category with the lowest effective unit prices today.
+     *
+     * @param category the product category
+     * @param unit     the unit to compare in; package units are normalized, so {@code g} means {@code kg}
+     * @param limit    the maximum number of entries returned, capped at {@link #MAX_LIMIT}
+     * @return the entries, lowest effective unit price first, with the discounted package price,
+     * the effective unit price and its label
+     */
+    public List<PriceEntryDTO> findCheapestPerUnit(String category, String unit, int limit) {
+        int cappedLimit = Math.min(Math.max(limit, 0), MAX_LIMIT);
+        String canonicalUnit = UnitUtil.canonicalUnit(unit);
+        LocalDate today = LocalDate.now();
+        if (cappedLimit == 0) {
+            return List.of();
+        }
+
+        List<Discount> highest = discountRepository.findHighestActiveDiscounts(today, 1);
+        double maxDiscountFactor = highest.isEmpty()
+                ? 1.0
+                : Math.max(0.0, 1.0 - highest.get(0).getPercentageOfDiscount() / 100.0);
+
+        Comparator<Candidate> byEffectiveUnitPrice = Comparator.comparingDouble(Candidate::effectiveUnitPrice)
+                .thenComparingInt(Candidate::rank);
+        PriorityQueue<Candidate> best = new PriorityQueue<>(byEffectiveUnitPrice.reversed());
+        int rank = 0;
+        for (PriceEntry entry : productRepository.findCheapestPerUnit(category, canonicalUnit, Integer.MAX_VALUE)) {
+            if (best.size() == cappedLimit
+                    && entry.getUnitPrice() * maxDiscountFactor >= best.peek().effectiveUnitPrice()) {
+                break;
+            }
+
+            Discount discount = discountRepository.findActiveDiscount(entry.getStoreName(), entry.getProductId(), today);
+            double factor = discount == null ? 1.0 : 1.0 - discount.getPercentageOfDiscount() / 100.0;
+            Candidate candidate = new Candidate(entry, factor, entry.getUnitPrice() * factor, rank++);
+            if (best.size() < cappedLimit) {
+                best.add(candidate);
+            } else if (byEffectiveUnitPrice.compare(candidate, best.peek()) < 0) {
+                best.poll();
+                best.add(candidate);
+            }
+        }
+
+        List<Candidate> ranked = new ArrayList<>(best);
+        ranked.sort(byEffectiveUnitPrice);
+        return ranked.stream().map(this::convertToDTO).toList();
+    }
+
+    /**
+     * Converts a ranked entry into a PriceEntryDTO carrying its discounted prices.
+     *
+     * @param candidate the ranked entry
+     * @return the DTO
+     */
+    private PriceEntryDTO convertToDTO(Candidate candidate) {
+        PriceEntry entry = candidate.entry();
+        PriceEntryDTO dto = PriceEntryDTO.from(entry);
+        dto.setPrice(entry.getPrice() * candidate.discountFactor());
+        dto.setProductCategory(entry.getProductCategory());
+        dto.setBrand(entry.getBrand());
+        dto.setPackageQuantity(entry.getPackageQuantity());
+        dto.setPackageUnit(entry.getPackageUnit());
+        dto.setCurrency(entry.getCurrency());
+        dto.setUnitPrice(candidate.effectiveUnitPrice());
+        dto.setUnitPriceLabel("per " + entry.getCanonicalUnit());
+        return dto;
+    }
+
+    private record Candidate(PriceEntry entry, double discountFactor, double effectiveUnitPrice, int rank) {
+    }
+}
@@ -3,15 +3,14 @@ package org.example.ui;
 import org.example.controller.*;
 import org.example.dto.*;
 import org.example.model.BasketItem;
+import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
 import org.example.service.*;
+import org.example.utils.TextUtil;
 
-import java.io.IOException;
-import java.nio.file.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 
 public class UI {
     private final PriceTrendController priceTrendController;
@@ -20,30 +19,40 @@ public class UI {
     private final DiscountController discountController;
     private final PriceAlertController priceAlertController;
     private final PriceAlertService priceAlertService;
-
-    private final ConcurrentMap<String, WatchService> fileWatchers = new ConcurrentHashMap<>();
+    private final IngestionService ingestionService;
+    private final ProductSearchService productSearchService;
 
     private static final String DEFAULT_USER_ID = "user1";
-    private static final String CSV_DIRECTORY = "src/main/resources/data";
 
     public UI(PriceTrendController priceTrendController,
               BasketOptimizationController basketOptimizationController,
               DiscountAnalysisController discountAnalysisController,
               DiscountController discountController,
               PriceAlertController priceAlertController,
-              PriceAlertService priceAlertService) {
+              PriceAlertService priceAlertService,
+              IngestionService ingestionService,
+              ProductSearchService productSearchService) {
         this.priceTrendController = priceTrendController;
         this.basketOptimizationController = basketOptimizationController;
         this.discountAnalysisController = discountAnalysisController;
         this.discountController = discountController;
         this.priceAlertController = priceAlertController;
         this.priceAlertService = priceAlertService;
+        this.ingestionService = ingestionService;
+        this.productSearchService = productSearchService;
     }
 
     public void run() throws Exception {
         Scanner scanner = new Scanner(System.in);
 
-        startWatcher();
+        IngestionListener alertNotifier = new IngestionListener() {
+            @Override
+            public void onPriceDelta(CatalogDelta<PriceEntry> delta) {
+                System.out.println("CSV file detected: " + delta.getFilePath());
+                showTriggeredAlerts();
+            }
+        };
+        ingestionService.addListener(alertNotifier);
 
         while (true) {
             System.out.println("\nSelect an option:");
@@ -79,7 +88,7 @@ public class UI {
                 case "12" -> handleDeletePriceAlert(scanner);
                 case "13" -> {
                     System.out.println("Exiting...");
-                    closeAllWatchServices();
+                    ingestionService.removeListener(alertNotifier);
                     return;
                 }
                 default -> System.out.println("Invalid choice.");
@@ -87,65 +96,12 @@ public class UI {
         }
     }
 
-    private void startWatcher() {
+    /**
+     * Prints the alerts triggered by the last ingested file; the alerts themselves are checked
+     * by the PriceAlertService as it receives the delta.
+     */
+    private void showTriggeredAlerts() {
         try {
-            Path directoryPath = Paths.get(CSV_DIRECTORY);
-
-            if (!Files.exists(directoryPath)) {
-                Files.createDirectories(directoryPath);
-                System.out.println("Created directory: " + directoryPath);
-            }
-
-            WatchService watchService = FileSystems.getDefault().newWatchService();
-            directoryPath.register(watchService,
-                    StandardWatchEventKinds.ENTRY_CREATE,
-                    StandardWatchEventKinds.ENTRY_MODIFY);
-
-            Thread watcherThread = new Thread(() -> {
-                try {
-                    while (true) {
-                        WatchKey key = watchService.take();
-                        for (WatchEvent<?> event : key.pollEvents()) {
-                            @SuppressWarnings("unchecked")
-                            WatchEvent<Path> pathEvent = (WatchEvent<Path>) event;
-                            Path filename = pathEvent.context();
-
-                            if (filename.toString().toLowerCase().endsWith(".csv")) {
-                                Path fullPath = directoryPath.resolve(filename);
-                                System.out.println("CSV file detected: " + fullPath);
-
-                                Thread.sleep(500);
-
-                                checkPriceAlerts();
-                            }
-                        }
-
-                        boolean valid = key.reset();
-                        if (!valid) {
-                            break;
-                        }
-                    }
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    System.out.println("Directory watcher interrupted: " + e.getMessage());
-                }
-            });
-
-            watcherThread.setDaemon(true);
-            watcherThread.start();
-            System.out.println("Started monitoring CSV files in: " + directoryPath);
-        } catch (IOException e) {
-            System.err.println("Error setting up directory watcher: " + e.getMessage());
-            e.printStackTrace();
-        }
-    }
-
-    private void checkPriceAlerts() {
-        System.out.println("Checking for triggered price alerts...");
-
-        try {
-            priceAlertService.checkPriceAlerts();
-
             List<PriceAlertDTO> triggeredAlerts = priceAlertController.getTriggeredAlerts(DEFAULT_USER_ID);
 
             if (!triggeredAlerts.isEmpty()) {
@@ -163,24 +119,13 @@ public class UI {
         }
     }
 
-    private void closeAllWatchServices() {
-        for (WatchService watchService : fileWatchers.values()) {
-            try {
-                watchService.close();
-            } catch (IOException e) {
-                System.err.println("Error closing watch service: " + e.getMessage());
-            }
-        }
-        fileWatchers.clear();
-    }
-
     private void handleProductTrend(Scanner scanner) {
         System.out.print("Enter product name: ");
         String productName = scanner.nextLine();
 
         System.out.printf("searching for %s", productName);
         try {
-            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsForProduct(productName);
+            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsForProduct(productName, null, null);
             if (trend.isEmpty()) {
                 System.out.println("No trend data found.");
             } else {
@@ -199,7 +144,7 @@ public class UI {
         String store = scanner.nextLine();
 
         try {
-            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsForProductAndStore(productName, store);
+            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsForProductAndStore(productName, store, null, null);
             if (trend.isEmpty()) {
                 System.out.println("No trend data found for that product in the specified store.");
             } else {
@@ -216,12 +161,18 @@ public class UI {
         String category = scanner.nextLine();
 
         try {
-            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsByCategory(category);
-            if (trend.isEmpty()) {
-                System.out.println("No trend data found for that category.");
-            } else {
-                trend.forEach(e ->
+            String cursor = null;
+            boolean found = false;
+            do {
+                PriceTrendPageDTO page = priceTrendController.getPriceTrendsByCategory(
+                        category, null, null, cursor, PriceTrendService.DEFAULT_PAGE_SIZE, "raw").getBody();
+                page.getEntries().forEach(e ->
                         System.out.printf("%s: %.2fRON (%s) [%s]%n", e.getProductName(), e.getPrice(), e.getDate(), e.getStoreName()));
+                found |= !page.getEntries().isEmpty();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            if (!found) {
+                System.out.println("No trend data found for that category.");
             }
         } catch (Exception e) {
             System.err.println("Error getting category trend: " + e.getMessage());
@@ -233,12 +184,18 @@ public class UI {
         String brand = scanner.nextLine();
 
         try {
-            List<PriceEntryDTO> trend = priceTrendController.getPriceTrendsByBrand(brand);
-            if (trend.isEmpty()) {
-                System.out.println("No trend data found for that brand.");
-            } else {
-                trend.forEach(e ->
+            String cursor = null;
+            boolean found = false;
+            do {
+                PriceTrendPageDTO page = priceTrendController.getPriceTrendsByBrand(
+                        brand, null, null, cursor, PriceTrendService.DEFAULT_PAGE_SIZE, "raw").getBody();
+                page.getEntries().forEach(e ->
                         System.out.printf("%s: %.2fRON (%s) [%s]%n", e.getProductId(), e.getPrice(), e.getDate(), e.getStoreName()));
+                found |= !page.getEntries().isEmpty();
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            if (!found) {
+                System.out.println("No trend data found for that brand.");
             }
         } catch (Exception e) {
             System.err.println("Error getting brand trend: " + e.getMessage());
@@ -311,34 +268,8 @@ public class UI {
     }
 
     private void handleBasketOptimization(Scanner scanner) {
-        List<BasketItem> basket = new ArrayList<>();
-
         System.out.println("Enter products with quantity (e.g., Milk:2, Eggs:1):");
-        String input = scanner.nextLine();
-
-        String[] items = input.split(",");
-        for (String item : items) {
-            String[] parts = item.trim().split(":");
-            if (parts.length != 2) continue;
-
-            String name = parts[0].trim();
-            int qty;
-            try {
-                qty = Integer.parseInt(parts[1].trim());
-            } catch (NumberFormatException e) {
-                System.out.println("Invalid quantity for: " + name);
-                continue;
-            }
-
-            List<PriceEntryDTO> priceEntries = priceTrendController.getPriceTrendsForProduct(name);
-            if (priceEntries.isEmpty()) {
-                System.out.println("Product not found: " + name);
-                continue;
-            }
-
-            String productId = priceEntries.get(0).getProductName();
-            basket.add(new BasketItem(productId, name, qty));
-        }
+        List<BasketItem> basket = readBasket(scanner.nextLine());
 
         if (basket.isEmpty()) {
             System.out.println("No valid items provided.");
@@ -371,11 +302,44 @@ public class UI {
     }
 
     private void handleBasketOptimizationWithUnitPrice(Scanner scanner) {
-        List<BasketItem> basket = new ArrayList<>();
-
         System.out.println("Enter products with quantity (e.g., Milk:2, Eggs:1):");
-        String input = scanner.nextLine();
+        List<BasketItem> basket = readBasket(scanner.nextLine());
+
+        if (basket.isEmpty()) {
+            System.out.println("No valid items provided.");
+            return;
+        }
 
+        try {
+            OptimizedBasketDTO optimized = basketOptimizationController.optimizeBasketWithUnitPrice(basket);
+
+            System.out.printf("\nOriginal Cost: %.2fRON%n", optimized.getOriginalCost());
+            System.out.printf("Optimized Cost: %.2fRON%n", optimized.getTotalCost());
+            System.out.printf("Total Savings: %.2fRON%n", optimized.getTotalSavings());
+
+            for (ShoppingListDTO list : optimized.getShoppingLists()) {
+                System.out.println("\nStore: " + list.getStoreName());
+                for (BasketItemDTO item : list.getItems()) {
+                    System.out.printf(" - %s: %.2fRON (Qty: %d, Saved: %.2fRON) %s %.2fRON per unit%n",
+                            item.getProductName(), item.getPrice(), item.getQuantity(), item.getSavings(),
+                            item.getUnitPriceLabel(), item.getUnitPrice());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("Error optimizing basket with unit price: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Parses a basket typed as {@code name:quantity} pairs separated by commas. Every name is
+     * resolved to a known product, and the item carries the product's catalog name rather than
+     * the typed one, so the optimizer finds its prices.
+     *
+     * @param input The typed basket.
+     * @return The items whose product was found.
+     */
+    List<BasketItem> readBasket(String input) {
+        List<BasketItem> basket = new ArrayList<>();
         String[] items = input.split(",");
         for (String item : items) {
             String[] parts = item.trim().split(":");
@@ -390,46 +354,47 @@ public class UI {
                 continue;
             }
 
-            List<PriceEntryDTO> priceEntries = priceTrendController.getPriceTrendsForProduct(name);
+            List<PriceEntryDTO> priceEntries = findProductOrSuggest(name);
             if (priceEntries.isEmpty()) {
-                System.out.println("Product not found: " + name);
                 continue;
             }
 
-            String productId = priceEntries.get(0).getProductName();
-            basket.add(new BasketItem(productId, name, qty));
+            PriceEntryDTO product = priceEntries.get(0);
+            basket.add(new BasketItem(product.getProductId(), product.getProductName(), qty));
         }
+        return basket;
+    }
 
-        if (basket.isEmpty()) {
-            System.out.println("No valid items provided.");
-            return;
+    /**
+     * Looks up the price entries of a product for the basket prompts. A name differing from a
+     * known product only by case or diacritics resolves to that product; otherwise the closest
+     * product names are suggested.
+     */
+    private List<PriceEntryDTO> findProductOrSuggest(String name) {
+        List<PriceEntryDTO> priceEntries = priceTrendController.getPriceTrendsForProduct(name, null, null);
+        if (!priceEntries.isEmpty()) {
+            return priceEntries;
         }
 
-        try {
-            OptimizedBasketDTO optimized = basketOptimizationController.optimizeBasketWithUnitPrice(basket);
-
-            System.out.printf("\nOriginal Cost: %.2fRON%n", optimized.getOriginalCost());
-            System.out.printf("Optimized Cost: %.2fRON%n", optimized.getTotalCost());
-            System.out.printf("Total Savings: %.2fRON%n", optimized.getTotalSavings());
+        List<String> suggestions = productSearchService.autocomplete(name, 5);
+        if (!suggestions.isEmpty() && TextUtil.fold(suggestions.get(0)).equals(TextUtil.fold(name))) {
+            System.out.println("Using \"" + suggestions.get(0) + "\" for: " + name);
+            return priceTrendController.getPriceTrendsForProduct(suggestions.get(0), null, null);
+        }
 
-            for (ShoppingListDTO list : optimized.getShoppingLists()) {
-                System.out.println("\nStore: " + list.getStoreName());
-                for (BasketItemDTO item : list.getItems()) {
-                    System.out.printf(" - %s: %.2fRON (Qty: %d, Saved: %.2fRON) %s %.2fRON per unit%n",
-                            item.getProductName(), item.getPrice(), item.getQuantity(), item.getSavings(),
-                            item.getUnitPriceLabel(), item.getUnitPrice());
-                }
-            }
-        } catch (Exception e) {
-            System.err.println("Error optimizing basket with unit price: " + e.getMessage());
+        if (suggestions.isEmpty()) {
+            System.out.println("Product not found: " + name);
+        } else {
+            System.out.println("Product not found: " + name + ". Did you mean: " + String.join(", ", suggestions) + "?");
         }
+        return List.of();
     }
 
     private void handleCreatePriceAlert(Scanner scanner) {
         System.out.print("Enter product name to watch: ");
         String productName = scanner.nextLine();
 
-        List<PriceEntryDTO> priceEntries = priceTrendController.getPriceTrendsForProduct(productName);
+        List<PriceEntryDTO> priceEntries = priceTrendController.getPriceTrendsForProduct(productName, null, null);
         if (priceEntries.isEmpty()) {
             System.out.println("Product not found. Please check the product name and try again.");
             return;
@@ -1,34 +1,405 @@
 package org.example.utils;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Utility class for reading CSV files.
+ * Files are memory-mapped and scanned as UTF-8 bytes; each row is handed to a callback
+ * as a set of field slices over the mapped buffer, without materializing intermediate
+ * lines, token arrays or row lists.
+ * <p>
+ * Compressed files ({@code .csv.gz}) are decompressed and scanned in a single pass through a
+ * reusable chunk buffer, so they are never unpacked to disk nor held in memory as a whole.
+ * The buffer sizes default to the {@code csv.inflateBufferSize} and {@code csv.chunkSize}
+ * system properties.
+ * <p>
+ * The bytes read from the file are hashed as they are scanned, so the content hash reported in
+ * {@link ReadStats} is the hash of exactly the content the rows were parsed from.
  */
 public class CsvUtil {
+    private static final long SEGMENT_SIZE = 64L * 1024 * 1024;
+    private static final int DEFAULT_INFLATE_BUFFER_SIZE = Integer.getInteger("csv.inflateBufferSize", 64 * 1024);
+    private static final int DEFAULT_CHUNK_SIZE = Integer.getInteger("csv.chunkSize", 1024 * 1024);
+    private static final ThreadLocal<ReadStats> LAST_READ_STATS = new ThreadLocal<>();
 
     /**
-     * Reads a CSV file and returns its contents as a list of string arrays.
+     * Callback receiving the rows of a CSV file.
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        /**
+         * Handles a single row. The row and its field slices are only valid during this call.
+         *
+         * @param row The current row.
+         */
+        void handleRow(CsvRow row);
+    }
+
+    /**
+     * Volume and timing of the last file read by a thread.
+     *
+     * @param compression  The compression of the file.
+     * @param sourceBytes  The number of bytes read from the file.
+     * @param decodedBytes The number of CSV bytes scanned, after decompression.
+     * @param inflateNanos The time spent decompressing, zero for an uncompressed file.
+     * @param sourceHash   The hex-encoded SHA-256 hash of the bytes read from the file.
+     */
+    public record ReadStats(FileNameUtil.Compression compression, long sourceBytes, long decodedBytes,
+                            long inflateNanos, String sourceHash) {
+        /**
+         * Returns the decompression throughput.
+         *
+         * @return The decompressed megabytes produced per second, or 0 for an uncompressed file.
+         */
+        public double getInflateThroughput() {
+            return inflateNanos == 0 ? 0 : decodedBytes / (1024.0 * 1024.0) / (inflateNanos / 1e9);
+        }
+    }
+
+    /**
+     * A single CSV row exposed as field slices over the underlying byte buffer.
+     * Instances are reused from one row to the next.
+     */
+    public static class CsvRow {
+        private ByteBuffer buffer;
+        private int[] fieldStarts = new int[16];
+        private int[] fieldEnds = new int[16];
+        private int fieldCount;
+        private byte[] scratch = new byte[64];
+
+        /**
+         * Returns the number of fields in the row.
+         *
+         * @return The field count.
+         */
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        /**
+         * Returns the buffer the field slices point into.
+         *
+         * @return The backing buffer.
+         */
+        public ByteBuffer getBuffer() {
+            return buffer;
+        }
+
+        /**
+         * Returns the absolute buffer offset at which a field starts.
+         *
+         * @param index The field index.
+         * @return The start offset of the field.
+         */
+        public int getFieldOffset(int index) {
+            checkIndex(index);
+            return fieldStarts[index];
+        }
+
+        /**
+         * Returns the length in bytes of a field.
+         *
+         * @param index The field index.
+         * @return The field length.
+         */
+        public int getFieldLength(int index) {
+            checkIndex(index);
+            return fieldEnds[index] - fieldStarts[index];
+        }
+
+        /**
+         * Decodes a field as a UTF-8 string.
+         *
+         * @param index The field index.
+         * @return The field value.
+         */
+        public String getString(int index) {
+            int length = getFieldLength(index);
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(fieldStarts[index], scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Parses a field as a double, without decoding it to a string first.
+         *
+         * @param index The field index.
+         * @return The parsed value.
+         */
+        public double getDouble(int index) {
+            return NumberUtil.parseDouble(buffer, fieldStarts[index], getFieldLength(index));
+        }
+
+        /**
+         * Parses a decimal field as a fixed-point value, so "9.90" with 2 decimals becomes 990.
+         *
+         * @param index    The field index.
+         * @param decimals The number of decimals of the fixed-point value.
+         * @return The parsed value.
+         */
+        public long getFixedPoint(int index, int decimals) {
+            return NumberUtil.parseFixedPoint(buffer, fieldStarts[index], getFieldLength(index), decimals);
+        }
+
+        /**
+         * Parses a {@code yyyy-MM-dd} field as an epoch day.
+         *
+         * @param index The field index.
+         * @return The number of days since 1970-01-01.
+         */
+        public long getEpochDay(int index) {
+            return DateUtil.parseEpochDay(buffer, fieldStarts[index], getFieldLength(index));
+        }
+
+        /**
+         * Parses a {@code yyyy-MM-dd} field as a date.
+         *
+         * @param index The field index.
+         * @return The parsed date.
+         */
+        public LocalDate getDate(int index) {
+            return DateUtil.toLocalDate(getEpochDay(index));
+        }
+
+        private void reset(ByteBuffer buffer) {
+            this.buffer = buffer;
+            this.fieldCount = 0;
+        }
+
+        private void addField(int start, int end) {
+            if (fieldCount == fieldStarts.length) {
+                fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+                fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+            }
+            fieldStarts[fieldCount] = start;
+            fieldEnds[fieldCount] = end;
+            fieldCount++;
+        }
+
+        private void checkIndex(int index) {
+            if (index < 0 || index >= fieldCount) {
+                throw new IndexOutOfBoundsException("Field " + index + " out of " + fieldCount);
+            }
+        }
+    }
+
+    /**
+     * Reads a CSV file and passes each row after the header line to the given handler.
+     * Compressed files are decompressed on the fly with the default buffer sizes.
      *
      * @param filePath  Path to the CSV file.
-     * @param delimiter The delimiter used to split each row.
-     * @return A list of string arrays.
-     */
-    public static List<String[]> readCsv(String filePath, String delimiter) {
-        List<String[]> rows = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            br.readLine();
-            String line;
-            while ((line = br.readLine()) != null) {
-                String[] tokens = line.split(delimiter, -1);
-                rows.add(tokens);
+     * @param delimiter The ASCII delimiter separating the fields of a row.
+     * @param handler   The callback receiving each row.
+     */
+    public static void forEachRow(String filePath, char delimiter, RowHandler handler) {
+        forEachRow(filePath, delimiter, DEFAULT_INFLATE_BUFFER_SIZE, DEFAULT_CHUNK_SIZE, handler);
+    }
+
+    /**
+     * Reads a CSV file and passes each row after the header line to the given handler.
+     *
+     * @param filePath          Path to the CSV file.
+     * @param delimiter         The ASCII delimiter separating the fields of a row.
+     * @param inflateBufferSize The input buffer size of the decompressor, for compressed files.
+     * @param chunkSize         The initial size of the decompressed chunk scanned at once, for compressed files.
+     * @param handler           The callback receiving each row.
+     */
+    public static void forEachRow(String filePath, char delimiter, int inflateBufferSize, int chunkSize,
+                                  RowHandler handler) {
+        LAST_READ_STATS.remove();
+        Path path = Path.of(filePath);
+        FileNameUtil.Compression compression = FileNameUtil.getCompression(path.getFileName().toString());
+        try {
+            switch (compression) {
+                case NONE -> mapRows(path, (byte) delimiter, handler);
+                default -> {
+                    try (InputStream in = Files.newInputStream(path)) {
+                        forEachRow(in, compression, delimiter, inflateBufferSize, chunkSize, handler);
+                    }
+                }
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return rows;
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads CSV content from a stream and passes each row after the header line to the given handler.
+     * The stream is consumed incrementally through a reusable chunk buffer and is not closed.
+     *
+     * @param in          The stream holding the CSV content.
+     * @param compression The compression of the content.
+     * @param delimiter   The ASCII delimiter separating the fields of a row.
+     * @param handler     The callback receiving each row.
+     * @throws IOException If the stream cannot be read or decompressed, or holds a row longer than the maximum.
+     */
+    public static void forEachRow(InputStream in, FileNameUtil.Compression compression, char delimiter,
+                                  RowHandler handler) throws IOException {
+        forEachRow(in, compression, delimiter, DEFAULT_INFLATE_BUFFER_SIZE, DEFAULT_CHUNK_SIZE, handler);
+    }
+
+    private static void forEachRow(InputStream in, FileNameUtil.Compression compression, char delimiter,
+                                   int inflateBufferSize, int chunkSize, RowHandler handler) throws IOException {
+        LAST_READ_STATS.remove();
+        HashingInputStream source = new HashingInputStream(in);
+        InputStream decoded = switch (compression) {
+            case NONE -> source;
+            case GZIP -> new GZIPInputStream(source, inflateBufferSize);
+        };
+        streamRows(decoded, source, compression, (byte) delimiter, chunkSize, handler);
+    }
+
+    /**
+     * Returns the statistics of the last file read by the calling thread, and clears them.
+     *
+     * @return The read statistics, or null if the last read failed or no file was read.
+     */
+    public static ReadStats takeLastReadStats() {
+        ReadStats stats = LAST_READ_STATS.get();
+        LAST_READ_STATS.remove();
+        return stats;
+    }
+
+    private static void mapRows(Path path, byte delimiter, RowHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            boolean headerPending = true;
+            CsvRow row = new CsvRow();
+            MessageDigest digest = newDigest();
+
+            while (position < size) {
+                long length = Math.min(SEGMENT_SIZE, size - position);
+                boolean lastSegment = position + length == size;
+                ByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                int consumed = scanRows(segment, delimiter, lastSegment, headerPending, row, handler);
+                if (consumed == 0 && !lastSegment) {
+                    throw new IOException("Row longer than " + SEGMENT_SIZE + " bytes in " + path);
+                }
+                digest.update(segment.slice(0, consumed));
+                headerPending = headerPending && consumed == 0;
+                position += consumed;
+            }
+            LAST_READ_STATS.set(new ReadStats(FileNameUtil.Compression.NONE, size, size, 0,
+                    HexFormat.of().formatHex(digest.digest())));
+        }
+    }
+
+    private static void streamRows(InputStream in, HashingInputStream source, FileNameUtil.Compression compression,
+                                   byte delimiter, int chunkSize, RowHandler handler) throws IOException {
+        byte[] chunk = new byte[chunkSize];
+        int filled = 0;
+        long decodedBytes = 0;
+        long inflateNanos = 0;
+        boolean headerPending = true;
+        CsvRow row = new CsvRow();
+
+        while (true) {
+            long start = System.nanoTime();
+            int read = in.read(chunk, filled, chunk.length - filled);
+            inflateNanos += System.nanoTime() - start;
+
+            boolean endOfInput = read < 0;
+            if (!endOfInput) {
+                filled += read;
+                decodedBytes += read;
+                if (filled < chunk.length) continue;
+            }
+
+            int consumed = scanRows(ByteBuffer.wrap(chunk, 0, filled), delimiter, endOfInput, headerPending, row, handler);
+            if (endOfInput) break;
+
+            headerPending = headerPending && consumed == 0;
+            if (consumed == 0) {
+                if (chunk.length >= SEGMENT_SIZE) {
+                    throw new IOException("Row longer than " + SEGMENT_SIZE + " bytes");
+                }
+                chunk = Arrays.copyOf(chunk, (int) Math.min(SEGMENT_SIZE, chunk.length * 2L));
+            } else {
+                System.arraycopy(chunk, consumed, chunk, 0, filled - consumed);
+                filled -= consumed;
+            }
+        }
+        // A decompressor may stop before trailing bytes; they are still part of the hashed content.
+        while (source.read(chunk) >= 0) {
+            // Drained for the hash only.
+        }
+        LAST_READ_STATS.set(new ReadStats(compression, source.getByteCount(), decodedBytes,
+                compression == FileNameUtil.Compression.NONE ? 0 : inflateNanos, source.getHash()));
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Scans the complete rows of a buffer and hands them to the handler.
+     *
+     * @param buffer        The bytes to scan, from position 0 to the buffer limit.
+     * @param delimiter     The field delimiter.
+     * @param endOfInput    Whether the buffer ends the input, so a trailing unterminated row is complete.
+     * @param skipFirstLine Whether the first line of the buffer is a header to skip.
+     * @param row           The reusable row instance.
+     * @param handler       The row callback.
+     * @return The number of bytes consumed, always ending on a row boundary.
+     */
+    static int scanRows(ByteBuffer buffer, byte delimiter, boolean endOfInput, boolean skipFirstLine,
+                        CsvRow row, RowHandler handler) {
+        int limit = buffer.limit();
+        int lineStart = 0;
+        boolean skipLine = skipFirstLine;
+
+        while (lineStart < limit) {
+            int lineEnd = lineStart;
+            while (lineEnd < limit && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            if (lineEnd == limit && !endOfInput) {
+                break;
+            }
+
+            if (skipLine) {
+                skipLine = false;
+            } else {
+                int contentEnd = lineEnd;
+                if (contentEnd > lineStart && buffer.get(contentEnd - 1) == '\r') {
+                    contentEnd--;
+                }
+                if (contentEnd > lineStart) {
+                    row.reset(buffer);
+                    int fieldStart = lineStart;
+                    for (int i = lineStart; i < contentEnd; i++) {
+                        if (buffer.get(i) == delimiter) {
+                            row.addField(fieldStart, i);
+                            fieldStart = i + 1;
+                        }
+                    }
+                    row.addField(fieldStart, contentEnd);
+                    handler.handleRow(row);
+                }
+            }
+            lineStart = Math.min(lineEnd + 1, limit);
+        }
+        return lineStart;
+    }
+}
@@ -1,13 +1,22 @@
 package org.example.utils;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 
 /**
  * Utility class for parsing dates from strings.
+ * Dates in the fixed {@code yyyy-MM-dd} layout are decoded straight from byte or character
+ * slices into epoch days, and recently used dates are served from a small cache of
+ * {@link LocalDate} instances.
  */
 public class DateUtil {
     private static final DateTimeFormatter DEFAULT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final int DATE_LENGTH = 10;
+    private static final int CACHE_SIZE = 64;
+    private static final LocalDate[] RECENT_DATES = new LocalDate[CACHE_SIZE];
 
     /**
      * Parses a date string in LocalDate object.
@@ -16,6 +25,113 @@ public class DateUtil {
      * @return The parsed LocalDate object.
      */
     public static LocalDate parseDate(String dateStr) {
+        if (dateStr.length() == DATE_LENGTH) {
+            try {
+                return toLocalDate(parseEpochDay(dateStr, 0, DATE_LENGTH));
+            } catch (DateTimeParseException e) {
+                // fall through to the formatter for its detailed error
+            }
+        }
         return LocalDate.parse(dateStr, DEFAULT_FORMATTER);
     }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date into its epoch day.
+     *
+     * @param buffer The buffer holding the date, as ASCII bytes.
+     * @param offset The absolute offset of the first byte.
+     * @param length The number of bytes.
+     * @return The number of days since 1970-01-01.
+     * @throws DateTimeParseException If the slice is not a valid {@code yyyy-MM-dd} date.
+     */
+    public static long parseEpochDay(ByteBuffer buffer, int offset, int length) {
+        return parseEpochDay(buffer, null, offset, length);
+    }
+
+    /**
+     * Parses a {@code yyyy-MM-dd} date into its epoch day.
+     *
+     * @param text   The text holding the date.
+     * @param offset The offset of the first character.
+     * @param length The number of characters.
+     * @return The number of days since 1970-01-01.
+     * @throws DateTimeParseException If the slice is not a valid {@code yyyy-MM-dd} date.
+     */
+    public static long parseEpochDay(CharSequence text, int offset, int length) {
+        return parseEpochDay(null, text, offset, length);
+    }
+
+    /**
+     * Returns the date of an epoch day, reusing the cached instance when the date was recently used.
+     *
+     * @param epochDay The number of days since 1970-01-01.
+     * @return The corresponding date.
+     */
+    public static LocalDate toLocalDate(long epochDay) {
+        int slot = (int) (epochDay & (CACHE_SIZE - 1));
+        LocalDate cached = RECENT_DATES[slot];
+        if (cached != null && cached.toEpochDay() == epochDay) {
+            return cached;
+        }
+        LocalDate date = LocalDate.ofEpochDay(epochDay);
+        RECENT_DATES[slot] = date;
+        return date;
+    }
+
+    private static long parseEpochDay(ByteBuffer buffer, CharSequence text, int offset, int length) {
+        if (length != DATE_LENGTH
+                || charAt(buffer, text, offset + 4) != '-' || charAt(buffer, text, offset + 7) != '-') {
+            throw invalidDate(buffer, text, offset, length);
+        }
+        int year = digits(buffer, text, offset, 4);
+        int month = digits(buffer, text, offset + 5, 2);
+        int day = digits(buffer, text, offset + 8, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw invalidDate(buffer, text, offset, length);
+        }
+
+        // days from civil: shift the year to start in March so the leap day is the last day of the year
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = shiftedYear / 400;
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    private static int digits(ByteBuffer buffer, CharSequence text, int offset, int count) {
+        int value = 0;
+        for (int i = 0; i < count; i++) {
+            char c = charAt(buffer, text, offset + i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    private static char charAt(ByteBuffer buffer, CharSequence text, int index) {
+        return buffer != null ? (char) (buffer.get(index) & 0xFF) : text.charAt(index);
+    }
+
+    private static DateTimeParseException invalidDate(ByteBuffer buffer, CharSequence text, int offset, int length) {
+        String value;
+        if (buffer == null) {
+            value = text.subSequence(offset, offset + length).toString();
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes, 0, length);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new DateTimeParseException("Invalid yyyy-MM-dd date: " + value, value, 0);
+    }
 }
@@ -8,8 +8,31 @@ import java.util.regex.Pattern;
  * Utility class for parsing file names.
  */
 public class FileNameUtil {
-    private static final Pattern PRICE_FILE_PATTERN = Pattern.compile("^([^_]+)_(\\d{4}-\\d{2}-\\d{2})\\.csv$");
-    private static final Pattern DISCOUNT_FILE_PATTERN = Pattern.compile("^([^_]+)_discounts_(\\d{4}-\\d{2}-\\d{2})\\.csv$");
+    private static final Pattern PRICE_FILE_PATTERN = Pattern.compile("^([^_]+)_(\\d{4}-\\d{2}-\\d{2})\\.csv(\\.gz)?$");
+    private static final Pattern DISCOUNT_FILE_PATTERN = Pattern.compile("^([^_]+)_discounts_(\\d{4}-\\d{2}-\\d{2})\\.csv(\\.gz)?$");
+
+    /**
+     * Compression applied to a CSV file, recognized from its extension.
+     */
+    public enum Compression {
+        NONE(""),
+        GZIP(".gz");
+
+        private final String extension;
+
+        Compression(String extension) {
+            this.extension = extension;
+        }
+
+        /**
+         * Returns the extension following {@code .csv} in the names of files with this compression.
+         *
+         * @return The extension, empty for uncompressed files.
+         */
+        public String getExtension() {
+            return extension;
+        }
+    }
 
     /**
      * Metadata extracted from a file name.
@@ -18,18 +41,32 @@ public class FileNameUtil {
         private final String storeName;
         private final LocalDate date;
         private final boolean isDiscountFile;
+        private final Compression compression;
 
         /**
-         * Constructs a FileInfo object.
+         * Constructs a FileInfo object for an uncompressed file.
          *
          * @param storeName       The name of the store.
          * @param date            The date associated with the file.
          * @param isDiscountFile  Whether the file is a discount file.
          */
         public FileInfo(String storeName, LocalDate date, boolean isDiscountFile) {
+            this(storeName, date, isDiscountFile, Compression.NONE);
+        }
+
+        /**
+         * Constructs a FileInfo object.
+         *
+         * @param storeName       The name of the store.
+         * @param date            The date associated with the file.
+         * @param isDiscountFile  Whether the file is a discount file.
+         * @param compression     The compression of the file.
+         */
+        public FileInfo(String storeName, LocalDate date, boolean isDiscountFile, Compression compression) {
             this.storeName = storeName;
             this.date = date;
             this.isDiscountFile = isDiscountFile;
+            this.compression = compression;
         }
 
         /**
@@ -58,6 +95,40 @@ public class FileNameUtil {
         public boolean isDiscountFile() {
             return isDiscountFile;
         }
+
+        /**
+         * Returns the compression of the file.
+         *
+         * @return The compression, NONE for a plain CSV file.
+         */
+        public Compression getCompression() {
+            return compression;
+        }
+    }
+
+    /**
+     * Indicates whether a file name denotes a CSV file, plain or compressed.
+     *
+     * @param fileName The file name to check.
+     * @return true for {@code .csv} and {@code .csv.gz} files.
+     */
+    public static boolean isCsvFile(String fileName) {
+        String lowerCase = fileName.toLowerCase();
+        return lowerCase.endsWith(".csv") || lowerCase.endsWith(".csv.gz");
+    }
+
+    /**
+     * Returns the compression of a file from its extension.
+     *
+     * @param fileName The file name.
+     * @return The compression, NONE if the name has no compressed extension.
+     */
+    public static Compression getCompression(String fileName) {
+        String lowerCase = fileName.toLowerCase();
+        if (lowerCase.endsWith(Compression.GZIP.getExtension())) {
+            return Compression.GZIP;
+        }
+        return Compression.NONE;
     }
 
     /**
@@ -71,14 +142,14 @@ public class FileNameUtil {
         if (discountMatcher.matches()) {
             String storeName = discountMatcher.group(1);
             LocalDate date = LocalDate.parse(discountMatcher.group(2));
-            return new FileInfo(storeName, date, true);
+            return new FileInfo(storeName, date, true, getCompression(fileName));
         }
 
         Matcher priceMatcher = PRICE_FILE_PATTERN.matcher(fileName);
         if (priceMatcher.matches()) {
             String storeName = priceMatcher.group(1);
             LocalDate date = LocalDate.parse(priceMatcher.group(2));
-            return new FileInfo(storeName, date, false);
+            return new FileInfo(storeName, date, false, getCompression(fileName));
         }
         return new FileInfo("unknown", LocalDate.now(), false);
     }
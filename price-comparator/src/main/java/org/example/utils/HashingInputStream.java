@@ -0,0 +1,69 @@
+package org.example.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stream hashing and counting the bytes read through it, so content can be parsed and hashed
+ * in a single pass.
+ */
+public class HashingInputStream extends FilterInputStream {
+    private final MessageDigest digest;
+    private long byteCount;
+
+    /**
+     * Constructs a HashingInputStream over the given stream.
+     *
+     * @param in The stream to read.
+     */
+    public HashingInputStream(InputStream in) {
+        super(in);
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            digest.update((byte) value);
+            byteCount++;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0) {
+            digest.update(b, off, read);
+            byteCount += read;
+        }
+        return read;
+    }
+
+    /**
+     * Returns the number of bytes read so far.
+     *
+     * @return The byte count.
+     */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /**
+     * Returns the hash of the bytes read, once the stream has been consumed. May only be called once.
+     *
+     * @return The hex-encoded SHA-256 hash.
+     */
+    public String getHash() {
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,177 @@
+package org.example.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Utility class for parsing decimal numbers straight from byte or character slices,
+ * without creating intermediate strings.
+ */
+public class NumberUtil {
+    private static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+    private static final long MAX_EXACT_DOUBLE_MANTISSA = 1L << 53;
+    private static final int MAX_DIGITS = 18;
+
+    /**
+     * Parses a plain decimal number ("9.90", "-0.5", "12") into a fixed-point value with the given
+     * number of decimals, so "9.90" with 2 decimals becomes 990. Extra decimals are rounded half up.
+     *
+     * @param buffer   The buffer holding the text, as ASCII bytes.
+     * @param offset   The absolute offset of the first byte.
+     * @param length   The number of bytes.
+     * @param decimals The number of decimals of the fixed-point value.
+     * @return The fixed-point value.
+     * @throws NumberFormatException If the slice is not a plain decimal number.
+     */
+    public static long parseFixedPoint(ByteBuffer buffer, int offset, int length, int decimals) {
+        return parseFixedPoint(buffer, null, offset, length, decimals);
+    }
+
+    /**
+     * Parses a plain decimal number into a fixed-point value with the given number of decimals.
+     *
+     * @param text     The text holding the number.
+     * @param offset   The offset of the first character.
+     * @param length   The number of characters.
+     * @param decimals The number of decimals of the fixed-point value.
+     * @return The fixed-point value.
+     * @throws NumberFormatException If the slice is not a plain decimal number.
+     */
+    public static long parseFixedPoint(CharSequence text, int offset, int length, int decimals) {
+        return parseFixedPoint(null, text, offset, length, decimals);
+    }
+
+    /**
+     * Parses a decimal number into a double. Plain decimals are parsed without allocation and give
+     * the same result as {@link Double#parseDouble(String)}; other notations fall back to it.
+     *
+     * @param buffer The buffer holding the text, as ASCII bytes.
+     * @param offset The absolute offset of the first byte.
+     * @param length The number of bytes.
+     * @return The parsed value.
+     * @throws NumberFormatException If the slice is not a number.
+     */
+    public static double parseDouble(ByteBuffer buffer, int offset, int length) {
+        double value = parsePlainDouble(buffer, null, offset, length);
+        return Double.isNaN(value) ? Double.parseDouble(describe(buffer, null, offset, length)) : value;
+    }
+
+    /**
+     * Parses a decimal number into a double, falling back to {@link Double#parseDouble(String)}
+     * for notations other than plain decimals.
+     *
+     * @param text   The text holding the number.
+     * @param offset The offset of the first character.
+     * @param length The number of characters.
+     * @return The parsed value.
+     * @throws NumberFormatException If the slice is not a number.
+     */
+    public static double parseDouble(CharSequence text, int offset, int length) {
+        double value = parsePlainDouble(null, text, offset, length);
+        return Double.isNaN(value) ? Double.parseDouble(describe(null, text, offset, length)) : value;
+    }
+
+    private static long parseFixedPoint(ByteBuffer buffer, CharSequence text, int offset, int length, int decimals) {
+        if (decimals < 0 || decimals >= POWERS_OF_TEN.length) {
+            throw new IllegalArgumentException("Unsupported number of decimals: " + decimals);
+        }
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (charAt(buffer, text, offset) == '-' || charAt(buffer, text, offset) == '+')) {
+            negative = charAt(buffer, text, offset) == '-';
+            index++;
+        }
+
+        long value = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        boolean roundUp = false;
+        for (; index < length; index++) {
+            char c = charAt(buffer, text, offset + index);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9') {
+                if (fractionDigits >= decimals) {
+                    roundUp |= fractionDigits == decimals && c >= '5';
+                    fractionDigits++;
+                    continue;
+                }
+                if (++digits > MAX_DIGITS) {
+                    throw new NumberFormatException("Number too large: " + describe(buffer, text, offset, length));
+                }
+                value = value * 10 + (c - '0');
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                throw new NumberFormatException("Invalid number: " + describe(buffer, text, offset, length));
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("Invalid number: " + describe(buffer, text, offset, length));
+        }
+
+        int keptDecimals = Math.max(fractionDigits, 0);
+        if (keptDecimals > decimals) {
+            keptDecimals = decimals;
+        }
+        value = value * POWERS_OF_TEN[decimals - keptDecimals] + (roundUp ? 1 : 0);
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a plain decimal into a double: an integer mantissa below 2^53 divided by an exact
+     * power of ten is correctly rounded, like {@link Double#parseDouble(String)}.
+     *
+     * @return The value, or NaN if the slice needs the general parser.
+     */
+    private static double parsePlainDouble(ByteBuffer buffer, CharSequence text, int offset, int length) {
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (charAt(buffer, text, offset) == '-' || charAt(buffer, text, offset) == '+')) {
+            negative = charAt(buffer, text, offset) == '-';
+            index++;
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; index < length; index++) {
+            char c = charAt(buffer, text, offset + index);
+            if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if (c >= '0' && c <= '9' && digits < MAX_DIGITS) {
+                mantissa = mantissa * 10 + (c - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digits == 0 || mantissa >= MAX_EXACT_DOUBLE_MANTISSA) {
+            return Double.NaN;
+        }
+
+        double value = fractionDigits > 0 ? mantissa / (double) POWERS_OF_TEN[fractionDigits] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private static char charAt(ByteBuffer buffer, CharSequence text, int index) {
+        return buffer != null ? (char) (buffer.get(index) & 0xFF) : text.charAt(index);
+    }
+
+    private static String describe(ByteBuffer buffer, CharSequence text, int offset, int length) {
+        if (buffer == null) {
+            return text.subSequence(offset, offset + length).toString();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes, 0, length);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
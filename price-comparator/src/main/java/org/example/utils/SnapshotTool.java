@@ -0,0 +1,42 @@
+package org.example.utils;
+
+import org.example.repository.DiscountRepository;
+import org.example.repository.ProductRepository;
+import org.example.repository.SymbolTable;
+
+import java.io.IOException;
+
+/**
+ * Command-line tool compiling the CSV files of the data directory into the binary snapshots
+ * the repositories load on startup. Run it from the project directory after adding or
+ * replacing a large batch of CSV files.
+ */
+public class SnapshotTool {
+
+    /**
+     * Writes the price and discount snapshots.
+     *
+     * @param args Unused.
+     * @throws IOException If a snapshot cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        long start = System.nanoTime();
+        SymbolTable symbols = new SymbolTable();
+        ProductRepository productRepository = new ProductRepository(symbols);
+        DiscountRepository discountRepository = new DiscountRepository(symbols);
+        int priceEntries;
+        int discounts;
+        try {
+            priceEntries = productRepository.writeSnapshot();
+            discounts = discountRepository.writeSnapshot();
+        } finally {
+            productRepository.close();
+            discountRepository.close();
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Snapshot written: %d price entries, %d discounts in %dms%n",
+                priceEntries, discounts, elapsedMillis);
+        System.out.println("Symbol table: " + symbols.report(priceEntries + discounts));
+    }
+}
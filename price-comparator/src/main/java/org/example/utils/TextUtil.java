@@ -0,0 +1,42 @@
+package org.example.utils;
+
+import java.text.Normalizer;
+
+/**
+ * Utility class for normalizing free text before it is compared.
+ */
+public class TextUtil {
+
+    /**
+     * Folds a text for diacritics- and case-insensitive comparison: accents and other combining
+     * marks are removed ({@code "ouă mărimea M"} becomes {@code "oua marimea m"}), letters are
+     * lower-cased, and every run of characters other than letters and digits becomes a single space.
+     *
+     * @param text The text to fold.
+     * @return The folded text, without leading or trailing spaces; empty for a null text.
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) continue;
+
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && folded.length() > 0) {
+                    folded.append(' ');
+                }
+                pendingSpace = false;
+                folded.append(Character.toLowerCase(c));
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return folded.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.utils;
+
+import java.util.Locale;
+
+/**
+ * Utility class for converting package quantities to canonical units, so unit prices of packages
+ * sold in different units compare correctly: grams become kilograms, millilitres become litres,
+ * and pieces are counted in {@code buc}.
+ */
+public class UnitUtil {
+    public static final String KILOGRAM = "kg";
+    public static final String LITRE = "l";
+    public static final String PIECE = "buc";
+
+    /**
+     * Returns the canonical unit of a package unit: {@code kg} for mass, {@code l} for volume and
+     * {@code buc} for pieces. Other units are kept as they are, lower-cased.
+     *
+     * @param unit The package unit, such as {@code "g"} or {@code "ml"}.
+     * @return The canonical unit, or null for a null unit.
+     */
+    public static String canonicalUnit(String unit) {
+        if (unit == null) {
+            return null;
+        }
+        String normalized = unit.trim().toLowerCase(Locale.ROOT);
+        return switch (normalized) {
+            case "mg", "g", "gr", "kg" -> KILOGRAM;
+            case "ml", "cl", "l" -> LITRE;
+            case "buc", "bucata", "bucati" -> PIECE;
+            default -> normalized;
+        };
+    }
+
+    /**
+     * Converts a package quantity to its canonical unit, so 500 g becomes 0.5 kg.
+     *
+     * @param quantity The package quantity.
+     * @param unit     The package unit.
+     * @return The quantity expressed in {@link #canonicalUnit(String)}.
+     */
+    public static double toCanonicalQuantity(double quantity, String unit) {
+        if (unit == null) {
+            return quantity;
+        }
+        return switch (unit.trim().toLowerCase(Locale.ROOT)) {
+            case "mg" -> quantity / 1_000_000;
+            case "g", "gr", "ml" -> quantity / 1000;
+            case "cl" -> quantity / 100;
+            default -> quantity;
+        };
+    }
+
+    /**
+     * Computes the price of one canonical unit of a package.
+     *
+     * @param price    The price of the package.
+     * @param quantity The package quantity.
+     * @param unit     The package unit.
+     * @return The price per canonical unit, or the package price if the quantity is not positive.
+     */
+    public static double unitPrice(double price, double quantity, String unit) {
+        double canonicalQuantity = toCanonicalQuantity(quantity, unit);
+        return canonicalQuantity > 0 ? price / canonicalQuantity : price;
+    }
+}
@@ -1,5 +1,8 @@
 package org.example.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.dto.BasketCacheStatsDTO;
+import org.example.dto.BasketResultDTO;
 import org.example.dto.OptimizedBasketDTO;
 import org.example.dto.ShoppingListDTO;
 import org.example.model.BasketItem;
@@ -7,16 +10,26 @@ import org.example.service.BasketOptimizationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 public class BasketOptimizationControllerTest {
@@ -24,7 +37,9 @@ public class BasketOptimizationControllerTest {
     @Mock
     private BasketOptimizationService basketOptimizationService;
 
-    @InjectMocks
+    @Captor
+    private ArgumentCaptor<List<List<BasketItem>>> basketsCaptor;
+
     private BasketOptimizationController basketOptimizationController;
 
     private List<BasketItem> testBasket;
@@ -32,6 +47,8 @@ public class BasketOptimizationControllerTest {
 
     @BeforeEach
     void setUp() {
+        basketOptimizationController = new BasketOptimizationController(basketOptimizationService, new ObjectMapper());
+
         testBasket = new ArrayList<>();
         BasketItem item1 = new BasketItem("P001", "lapte", 2);
         BasketItem item2 = new BasketItem("P002", "banane", 1);
@@ -128,4 +145,86 @@ public class BasketOptimizationControllerTest {
             basketOptimizationController.optimizeBasketWithUnitPrice(nullBasket);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOptimizeBaskets_Success() {
+        List<BasketResultDTO> results = List.of(
+                BasketResultDTO.success(0, mockOptimizedBasket),
+                BasketResultDTO.failure(1, "Basket is missing"));
+        when(basketOptimizationService.optimizeBaskets(anyList())).thenReturn(results);
+
+        ResponseEntity<List<BasketResultDTO>> response = basketOptimizationController.optimizeBaskets(null,
+                body("[[{\"productId\":\"P001\",\"productName\":\"lapte\",\"quantity\":2}], null]"));
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+        verify(basketOptimizationService).optimizeBaskets(basketsCaptor.capture());
+        assertEquals(2, basketsCaptor.getValue().size());
+        assertEquals("lapte", basketsCaptor.getValue().get(0).get(0).getProductName());
+        assertEquals(2, basketsCaptor.getValue().get(0).get(0).getQuantity());
+        assertNull(basketsCaptor.getValue().get(1));
+    }
+
+    @Test
+    void testOptimizeBaskets_OversizedBatch() {
+        when(basketOptimizationService.optimizeBaskets(anyList())).thenThrow(new IllegalArgumentException("too many"));
+
+        ResponseEntity<List<BasketResultDTO>> response = basketOptimizationController.optimizeBaskets(null, body("[[]]"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    void testOptimizeBaskets_DeclaredBodyTooLarge() {
+        ResponseEntity<List<BasketResultDTO>> response = basketOptimizationController.optimizeBaskets(
+                BasketOptimizationService.MAX_BATCH_BYTES + 1L, body("[[]]"));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verifyNoInteractions(basketOptimizationService);
+    }
+
+    @Test
+    void testOptimizeBaskets_StreamedBodyTooLarge() {
+        byte[] oversized = new byte[BasketOptimizationService.MAX_BATCH_BYTES + 1];
+        Arrays.fill(oversized, (byte) ' ');
+
+        ResponseEntity<List<BasketResultDTO>> response = basketOptimizationController.optimizeBaskets(null,
+                new ByteArrayInputStream(oversized));
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, response.getStatusCode());
+        verifyNoInteractions(basketOptimizationService);
+    }
+
+    @Test
+    void testOptimizeBaskets_MalformedBody() {
+        ResponseEntity<List<BasketResultDTO>> response = basketOptimizationController.optimizeBaskets(null,
+                body("[[{\"quantity\":"));
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(basketOptimizationService);
+    }
+
+    @Test
+    void testGetCacheStats() throws Exception {
+        BasketCacheStatsDTO stats = new BasketCacheStatsDTO();
+        stats.setSize(3);
+        stats.setMaxSize(BasketOptimizationService.MAX_CACHED_RESULTS);
+        stats.setHits(6);
+        stats.setMisses(2);
+        stats.setHitRate(0.75);
+        when(basketOptimizationService.getCacheStats()).thenReturn(stats);
+
+        MockMvcBuilders.standaloneSetup(basketOptimizationController).build()
+                .perform(get("/api/basket/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(3))
+                .andExpect(jsonPath("$.maxSize").value(BasketOptimizationService.MAX_CACHED_RESULTS))
+                .andExpect(jsonPath("$.hits").value(6))
+                .andExpect(jsonPath("$.misses").value(2))
+                .andExpect(jsonPath("$.hitRate").value(0.75));
+    }
+
+    private static InputStream body(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.controller;
+
+import org.example.dto.FileManifestDTO;
+import org.example.dto.UploadSummaryDTO;
+import org.example.repository.FileManifest;
+import org.example.service.IngestionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class IngestionControllerTest {
+
+    @Mock
+    private IngestionService ingestionService;
+
+    @InjectMocks
+    private IngestionController ingestionController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(ingestionController).build();
+    }
+
+    @Test
+    public void testGetManifest() throws Exception {
+        FileManifest.FileRecord record = new FileManifest.FileRecord("/data/lidl_2025-05-01.csv", 2048,
+                1746057600000L, "ab12", 35, 1746057700000L);
+        when(ingestionService.getManifest()).thenReturn(List.of(FileManifestDTO.from("prices", record)));
+
+        mockMvc.perform(get("/api/ingestion/manifest"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].catalog").value("prices"))
+                .andExpect(jsonPath("$[0].filePath").value("/data/lidl_2025-05-01.csv"))
+                .andExpect(jsonPath("$[0].contentHash").value("ab12"))
+                .andExpect(jsonPath("$[0].entryCount").value(35));
+    }
+
+    @Test
+    public void testUploadReturnsSummary() throws Exception {
+        UploadSummaryDTO summary = new UploadSummaryDTO();
+        summary.setCatalog("prices");
+        summary.setFileName("lidl_2025-05-01.csv");
+        summary.setAcceptedRows(2);
+        summary.setRejectedRows(1);
+        when(ingestionService.ingestUpload(eq("lidl_2025-05-01.csv"), any(InputStream.class))).thenReturn(summary);
+
+        mockMvc.perform(post("/api/ingestion/upload/lidl_2025-05-01.csv")
+                        .content("header\nP001;lapte;lactate;Zuzu;1;l;9.90;RON\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.catalog").value("prices"))
+                .andExpect(jsonPath("$.acceptedRows").value(2))
+                .andExpect(jsonPath("$.rejectedRows").value(1));
+    }
+
+    @Test
+    public void testUploadRejectsUnknownFileName() throws Exception {
+        when(ingestionService.ingestUpload(eq("notes.txt"), any(InputStream.class)))
+                .thenThrow(new IllegalArgumentException("Not a price file name: notes.txt"));
+
+        mockMvc.perform(post("/api/ingestion/upload/notes.txt").content("anything"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.controller;
+
+import org.example.dto.PriceRollupDTO;
+import org.example.dto.PriceTrendPageDTO;
+import org.example.repository.Granularity;
+import org.example.repository.PriceRollup;
+import org.example.service.PriceTrendService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class PriceTrendControllerTest {
+
+    @Mock
+    private PriceTrendService priceTrendService;
+
+    @InjectMocks
+    private PriceTrendController priceTrendController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(priceTrendController).build();
+    }
+
+    @Test
+    public void testNonPositivePageSizeIsRejected() throws Exception {
+        when(priceTrendService.getPriceTrendsPageByCategory("lactate", null, null, null, 0))
+                .thenThrow(new IllegalArgumentException("Page size must be at least 1: 0"));
+
+        mockMvc.perform(get("/api/price-trends/category")
+                        .param("category", "lactate")
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testWeeklyGranularityReturnsARollupPage() throws Exception {
+        PriceRollupDTO rollup = PriceRollupDTO.from(new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 4, 28),
+                9.7, 9.9, 9.8, 9.9, 9.7, 2));
+        when(priceTrendService.getPriceRollupsPageByCategory("lactate", Granularity.WEEK, null, null, "abc", 1))
+                .thenReturn(PriceTrendPageDTO.ofRollups(List.of(rollup), "next"));
+
+        mockMvc.perform(get("/api/price-trends/category")
+                        .param("category", "lactate")
+                        .param("granularity", "week")
+                        .param("cursor", "abc")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rollups[0].storeName").value("lidl"))
+                .andExpect(jsonPath("$.rollups[0].entryCount").value(2))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    public void testUnknownGranularityIsRejected() throws Exception {
+        mockMvc.perform(get("/api/price-trends/brand")
+                        .param("brand", "Zuzu")
+                        .param("granularity", "fortnight"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(priceTrendService);
+    }
+}
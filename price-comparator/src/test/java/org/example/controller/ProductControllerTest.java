@@ -1,38 +1,96 @@
-//import org.example.controller.ProductController;
-//import org.example.dto.PriceEntryDTO;
-//import org.example.model.PriceEntry;
-//import org.example.service.IProductService;
-//import org.junit.Test;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-//import org.springframework.boot.test.mock.mockito.MockBean;
-//import org.springframework.test.web.servlet.MockMvc;
-//
-//import java.time.LocalDate;
-//import java.util.List;
-//
-//import static java.nio.file.Paths.get;
-//import static org.mockito.Mockito.when;
-//import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
-//import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
-//
-//@WebMvcTest(ProductController.class)
-//public class ProductControllerTest {
-//
-//    @Autowired
-//    private MockMvc mockMvc;
-//
-//    @MockBean
-//    private IProductService productService;
-//
-//    @Test
-//    public void testLoadPriceEntries() throws Exception {
-//        PriceEntryDTO entry = new PriceEntryDTO(new PriceEntry("P001", "Detergent", "Ariel", 1, "kg", "Lidl", LocalDate.of(2024, 1, 1), 2.99, "RON");
-//        when(productService.loadPriceEntries("test.csv")).thenReturn(List.of(entry));
-//
-//        mockMvc.perform(get("/api/products/load")
-//                        .param("filePath", "test.csv"))
-//                .andExpect(status().isOk())
-//                .andExpect(jsonPath("$[0].productId").value("P123"));
-//    }
-//}
+package org.example.controller;
+
+import org.example.dto.PriceEntryDTO;
+import org.example.model.PriceEntry;
+import org.example.service.IProductService;
+import org.example.service.ProductFilterService;
+import org.example.service.ProductSearchService;
+import org.example.service.UnitPriceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class ProductControllerTest {
+
+    @Mock
+    private IProductService productService;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductFilterService productFilterService;
+
+    @Mock
+    private UnitPriceService unitPriceService;
+
+    @InjectMocks
+    private ProductController productController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    public void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(productController).build();
+    }
+
+    @Test
+    public void testLoadPriceEntries() throws Exception {
+        PriceEntryDTO entry = PriceEntryDTO.from(new PriceEntry("P123", "Detergent", "menaj", "Ariel", 1, "kg",
+                "Lidl", LocalDate.of(2024, 1, 1), 2.99, "RON"));
+        when(productService.loadPriceEntries("test.csv")).thenReturn(List.of(entry));
+
+        mockMvc.perform(get("/api/products/load")
+                        .param("filePath", "test.csv"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].productId").value("P123"));
+    }
+
+    @Test
+    public void testFilterPassesColumnValuesAndStreamsMatches() throws Exception {
+        PriceEntryDTO zuzu = PriceEntryDTO.from(new PriceEntry("P001", "lapte zuzu", "lactate", "Zuzu", 1, "l",
+                "kaufland", LocalDate.of(2025, 5, 1), 9.9, "RON"));
+        PriceEntryDTO pilos = PriceEntryDTO.from(new PriceEntry("P002", "lapte pilos", "lactate", "Pilos", 1, "l",
+                "profi", LocalDate.of(2025, 5, 1), 7.5, "RON"));
+        when(productFilterService.filter(List.of("lactate"), null, List.of("kaufland", "profi"), null, true))
+                .thenReturn(Stream.of(zuzu, pilos));
+
+        mockMvc.perform(get("/api/products/filter")
+                        .param("category", "lactate")
+                        .param("store", "kaufland", "profi"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].productName").value("lapte zuzu"))
+                .andExpect(jsonPath("$[1].storeName").value("profi"));
+    }
+
+    @Test
+    public void testFilterWithMatchAnyCombinesColumnsWithOr() throws Exception {
+        when(productFilterService.filter(isNull(), eq(List.of("Zuzu")), isNull(), eq(List.of("buc")), eq(false)))
+                .thenReturn(Stream.empty());
+
+        mockMvc.perform(get("/api/products/filter")
+                        .param("brand", "Zuzu")
+                        .param("unit", "buc")
+                        .param("match", "ANY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+}
@@ -50,4 +50,25 @@ class PriceEntryTest {
         assertEquals(3.49, entry.getPrice());
         assertEquals("RON", entry.getCurrency());
     }
+
+    @Test
+    void testSettersRecomputeTheUnitPrice() {
+        PriceEntry entry = new PriceEntry("P007", "iaurt", "lactate", "danone", 500, "g", "lidl", LocalDate.now(), 5.0, "RON");
+        assertEquals("kg", entry.getCanonicalUnit());
+        assertEquals(10.0, entry.getUnitPrice(), 1e-9);
+
+        entry.setPrice(4.0);
+        assertEquals(8.0, entry.getUnitPrice(), 1e-9);
+
+        entry.setPackageQuantity(250);
+        assertEquals(16.0, entry.getUnitPrice(), 1e-9);
+
+        entry.setPackageUnit("ml");
+        assertEquals("l", entry.getCanonicalUnit());
+        assertEquals(16.0, entry.getUnitPrice(), 1e-9);
+
+        entry.setPackageUnit("buc");
+        assertEquals("buc", entry.getCanonicalUnit());
+        assertEquals(4.0 / 250, entry.getUnitPrice(), 1e-9);
+    }
 }
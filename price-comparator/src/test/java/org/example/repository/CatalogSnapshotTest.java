@@ -0,0 +1,193 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CatalogSnapshotTest {
+
+    private static final CatalogSnapshot.Codec<PriceEntry> CODEC = new CatalogSnapshot.Codec<>() {
+        @Override
+        public String getKind() {
+            return "test-price";
+        }
+
+        @Override
+        public void writeColumns(List<PriceEntry> entries, CatalogSnapshot.ColumnWriter writer) throws IOException {
+            writer.writeStrings(entries, PriceEntry::getProductName);
+            writer.writeStrings(entries, PriceEntry::getStoreName);
+            writer.writeDates(entries, PriceEntry::getDate);
+            writer.writeFixedPoint(entries, PriceEntry::getPrice, 2);
+        }
+
+        @Override
+        public List<PriceEntry> readColumns(int rowCount, CatalogSnapshot.ColumnReader reader) {
+            String[] names = reader.readStrings(rowCount);
+            String[] stores = reader.readStrings(rowCount);
+            LocalDate[] dates = reader.readDates(rowCount);
+            double[] prices = reader.readFixedPoint(rowCount);
+            List<PriceEntry> entries = new ArrayList<>();
+            for (int i = 0; i < rowCount; i++) {
+                PriceEntry entry = new PriceEntry();
+                entry.setProductName(names[i]);
+                entry.setStoreName(stores[i]);
+                entry.setDate(dates[i]);
+                entry.setPrice(prices[i]);
+                entries.add(entry);
+            }
+            return entries;
+        }
+    };
+
+    @TempDir
+    Path dataDir;
+
+    private AtomicInteger loads;
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), "header\nlapte zuzu;9.90\npâine albă;3.45\n");
+        Files.writeString(dataDir.resolve("profi_2025-05-01.csv"), "header\nlapte zuzu;10.10\n");
+        loads = new AtomicInteger();
+        snapshotFile = dataDir.resolve("prices.snapshot");
+    }
+
+    @Test
+    void testSnapshotRestoresEntriesWithoutParsing() throws IOException {
+        assertEquals(3, newCatalog().writeSnapshot(snapshotFile, CODEC));
+        loads.set(0);
+
+        EntryCatalog<PriceEntry> catalog = newCatalog();
+        catalog.useSnapshot(snapshotFile, CODEC);
+        List<PriceEntry> entries = catalog.getEntries();
+
+        assertEquals(0, loads.get());
+        assertEquals(3, entries.size());
+        assertEquals("pâine albă", entries.get(1).getProductName());
+        assertEquals(3.45, entries.get(1).getPrice());
+        assertEquals(LocalDate.of(2025, 5, 1), entries.get(2).getDate());
+        assertSame(entries.get(0).getProductName(), entries.get(2).getProductName());
+    }
+
+    @Test
+    void testFilesNewerThanSnapshotAreParsed() throws IOException {
+        newCatalog().writeSnapshot(snapshotFile, CODEC);
+        loads.set(0);
+
+        Path file = dataDir.resolve("profi_2025-05-01.csv");
+        Files.writeString(file, "header\nlapte zuzu;8.75\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Files.writeString(dataDir.resolve("profi_2025-05-08.csv"), "header\nlapte zuzu;8.50\n");
+
+        EntryCatalog<PriceEntry> catalog = newCatalog();
+        catalog.useSnapshot(snapshotFile, CODEC);
+        List<PriceEntry> entries = catalog.getEntries();
+
+        assertEquals(2, loads.get());
+        assertEquals(List.of(9.90, 3.45, 8.75, 8.50), entries.stream().map(PriceEntry::getPrice).toList());
+    }
+
+    @Test
+    void testUnreadableSnapshotFallsBackToCsv() throws IOException {
+        Files.writeString(snapshotFile, "not a snapshot");
+
+        EntryCatalog<PriceEntry> catalog = newCatalog();
+        catalog.useSnapshot(snapshotFile, CODEC);
+
+        assertEquals(3, catalog.getEntries().size());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testValueWithMoreDecimalsThanKeptIsStoredExactly() throws IOException {
+        Files.writeString(dataDir.resolve("mega_2025-05-01.csv"), "header\noua;0.3333\nlapte zuzu;9.90\n");
+
+        assertEquals(5, newCatalog().writeSnapshot(snapshotFile, CODEC));
+
+        EntryCatalog<PriceEntry> catalog = newCatalog();
+        catalog.useSnapshot(snapshotFile, CODEC);
+        loads.set(0);
+        List<PriceEntry> entries = catalog.getEntries();
+
+        assertEquals(0, loads.get());
+        assertEquals(0.3333, entries.get(2).getPrice());
+        assertEquals(9.90, entries.get(3).getPrice());
+        assertEquals(10.10, entries.get(4).getPrice());
+    }
+
+    @Test
+    void testSnapshotIsReadAcrossMappedWindows() throws IOException {
+        List<PriceEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            PriceEntry entry = new PriceEntry();
+            entry.setProductName("produs cu un nume destul de lung " + i);
+            entry.setStoreName(i % 2 == 0 ? "lidl" : "profi");
+            entry.setDate(LocalDate.of(2025, 5, 1).plusDays(i));
+            entry.setPrice(i + 0.25);
+            entries.add(entry);
+        }
+        CatalogSnapshot.write(snapshotFile, CODEC, List.of(
+                new CatalogSnapshot.FileSection<>("lidl_2025-05-01.csv", 10, 20, entries.subList(0, 150)),
+                new CatalogSnapshot.FileSection<>("profi_2025-05-01.csv", 30, 40, entries.subList(150, 200))));
+
+        List<CatalogSnapshot.FileSection<PriceEntry>> sections = CatalogSnapshot.read(snapshotFile, CODEC, 13);
+
+        assertEquals(2, sections.size());
+        assertEquals("profi_2025-05-01.csv", sections.get(1).fileName());
+        assertEquals(40, sections.get(1).lastModified());
+        assertEquals(150, sections.get(0).entries().size());
+        PriceEntry last = sections.get(1).entries().get(49);
+        assertEquals("produs cu un nume destul de lung 199", last.getProductName());
+        assertEquals("profi", last.getStoreName());
+        assertEquals(LocalDate.of(2025, 5, 1).plusDays(199), last.getDate());
+        assertEquals(199.25, last.getPrice());
+    }
+
+    @Test
+    void testDamagedOrTruncatedSnapshotIsRejected() throws IOException {
+        newCatalog().writeSnapshot(snapshotFile, CODEC);
+        byte[] bytes = Files.readAllBytes(snapshotFile);
+
+        byte[] damaged = bytes.clone();
+        damaged[damaged.length - 3] ^= 1;
+        Files.write(snapshotFile, damaged);
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(snapshotFile, CODEC));
+
+        Files.write(snapshotFile, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> CatalogSnapshot.read(snapshotFile, CODEC));
+    }
+
+    private EntryCatalog<PriceEntry> newCatalog() {
+        return new EntryCatalog<>(dataDir, name -> name.endsWith(".csv"), path -> {
+            loads.incrementAndGet();
+            try {
+                String store = Path.of(path).getFileName().toString().split("_")[0];
+                return Files.readAllLines(Path.of(path)).stream().skip(1).map(line -> {
+                    String[] fields = line.split(";");
+                    PriceEntry entry = new PriceEntry();
+                    entry.setProductName(fields[0]);
+                    entry.setStoreName(store);
+                    entry.setDate(LocalDate.of(2025, 5, 1));
+                    entry.setPrice(Double.parseDouble(fields[1]));
+                    return entry;
+                }).toList();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Long.MAX_VALUE, 1);
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompressedBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+
+        assertTrue(bitmap.add(3));
+        assertFalse(bitmap.add(3));
+        assertTrue(bitmap.add(70000));
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(70000));
+        assertFalse(bitmap.contains(4));
+        assertEquals(2, bitmap.getCardinality());
+
+        assertTrue(bitmap.remove(3));
+        assertFalse(bitmap.remove(3));
+        assertArrayEquals(new int[]{70000}, bitmap.stream().toArray());
+
+        bitmap.remove(70000);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    @Test
+    void testDenseChunksConvertBothWays() {
+        CompressedBitmap bitmap = new CompressedBitmap();
+        IntStream.range(0, 10000).forEach(bitmap::add);
+
+        assertEquals(10000, bitmap.getCardinality());
+        assertArrayEquals(IntStream.range(0, 10000).toArray(), bitmap.stream().toArray());
+
+        IntStream.range(100, 10000).forEach(bitmap::remove);
+        assertEquals(100, bitmap.getCardinality());
+        assertArrayEquals(IntStream.range(0, 100).toArray(), bitmap.stream().toArray());
+    }
+
+    @Test
+    void testAndOr() {
+        CompressedBitmap evens = new CompressedBitmap();
+        CompressedBitmap lowRange = new CompressedBitmap();
+        IntStream.range(0, 20000).filter(i -> i % 2 == 0).forEach(evens::add);
+        IntStream.range(0, 10).forEach(lowRange::add);
+        lowRange.add(150000);
+
+        assertArrayEquals(new int[]{0, 2, 4, 6, 8}, CompressedBitmap.and(evens, lowRange).stream().toArray());
+
+        CompressedBitmap union = CompressedBitmap.or(evens, lowRange);
+        assertEquals(10000 + 5 + 1, union.getCardinality());
+        assertTrue(union.contains(7));
+        assertTrue(union.contains(150000));
+        assertFalse(union.contains(10001));
+
+        assertEquals(10000, evens.getCardinality(), "operands are left unchanged");
+        assertTrue(CompressedBitmap.and(lowRange, new CompressedBitmap()).isEmpty());
+    }
+}
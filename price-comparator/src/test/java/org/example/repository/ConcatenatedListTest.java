@@ -0,0 +1,37 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcatenatedListTest {
+
+    @Test
+    void testViewsPartsInOrderSkippingEmptyOnes() {
+        List<String> list = new ConcatenatedList<>(List.of(List.of("a", "b"), List.of(), List.of("c"), List.of("d", "e")));
+
+        assertEquals(5, list.size());
+        assertEquals(List.of("a", "b", "c", "d", "e"), list);
+        assertEquals("c", list.get(2));
+        assertEquals("d", list.get(3));
+        assertEquals(List.of("a", "b", "c", "d", "e"), list.stream().toList());
+
+        List<String> visited = new ArrayList<>();
+        list.forEach(visited::add);
+        assertEquals(list, visited);
+    }
+
+    @Test
+    void testEmptyAndOutOfRange() {
+        List<String> empty = new ConcatenatedList<>(List.of(List.of(), List.of()));
+        assertTrue(empty.isEmpty());
+        assertFalse(empty.iterator().hasNext());
+
+        List<String> list = new ConcatenatedList<>(List.of(List.of("a")));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(UnsupportedOperationException.class, () -> list.add("b"));
+    }
+}
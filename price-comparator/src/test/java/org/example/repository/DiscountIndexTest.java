@@ -0,0 +1,74 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiscountIndexTest {
+
+    private DiscountIndex index;
+    private Discount lidlFirstWeek;
+    private Discount lidlSecondWeek;
+    private Discount lidlWeekend;
+    private Discount profiFirstWeek;
+
+    @BeforeEach
+    void setUp() {
+        lidlFirstWeek = discount("lidl", "P001", "2025-05-01", "2025-05-07", 10);
+        lidlSecondWeek = discount("lidl", "P001", "2025-05-08", "2025-05-14", 15);
+        lidlWeekend = discount("lidl", "P001", "2025-05-03", "2025-05-04", 25);
+        profiFirstWeek = discount("profi", "P001", "2025-05-01", "2025-05-07", 30);
+
+        index = new DiscountIndex();
+        index.apply(new CatalogDelta<>("lidl_discounts_2025-05-01.csv", 1,
+                List.of(lidlFirstWeek, lidlWeekend, lidlSecondWeek), List.of()));
+        index.apply(new CatalogDelta<>("profi_discounts_2025-05-01.csv", 2, List.of(profiFirstWeek), List.of()));
+    }
+
+    @Test
+    void testFindActiveDiscountIsStoreAware() {
+        assertSame(lidlFirstWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 1)));
+        assertSame(profiFirstWeek, index.findActive("profi", "P001", LocalDate.of(2025, 5, 1)));
+        assertNull(index.findActive("kaufland", "P001", LocalDate.of(2025, 5, 1)));
+        assertNull(index.findActive("lidl", "P002", LocalDate.of(2025, 5, 1)));
+    }
+
+    @Test
+    void testFindActiveDiscountRespectsValidityInterval() {
+        assertNull(index.findActive("lidl", "P001", LocalDate.of(2025, 4, 30)));
+        assertSame(lidlFirstWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 7)));
+        assertSame(lidlSecondWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 8)));
+        assertSame(lidlSecondWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 14)));
+        assertNull(index.findActive("lidl", "P001", LocalDate.of(2025, 5, 15)));
+    }
+
+    @Test
+    void testOverlappingDiscountsResolveToHighestPercentage() {
+        assertSame(lidlWeekend, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 3)));
+        assertSame(lidlWeekend, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 4)));
+        assertSame(lidlFirstWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 5)));
+    }
+
+    @Test
+    void testRemovedDiscountsAreRetired() {
+        index.apply(new CatalogDelta<>("lidl_discounts_2025-05-01.csv", 3,
+                List.of(lidlSecondWeek), List.of(lidlFirstWeek, lidlWeekend, lidlSecondWeek)));
+
+        assertNull(index.findActive("lidl", "P001", LocalDate.of(2025, 5, 3)));
+        assertSame(lidlSecondWeek, index.findActive("lidl", "P001", LocalDate.of(2025, 5, 10)));
+
+        index.apply(new CatalogDelta<>("profi_discounts_2025-05-01.csv", 4, List.of(), List.of(profiFirstWeek)));
+        assertNull(index.findActive("profi", "P001", LocalDate.of(2025, 5, 1)));
+        assertEquals(1, index.size());
+    }
+
+    private static Discount discount(String store, String productId, String from, String to, double percentage) {
+        return new Discount(productId, "lapte zuzu", "Zuzu", 1, "l", "lactate",
+                LocalDate.parse(from), LocalDate.parse(to), percentage, store);
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiscountRankingTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    private DiscountRanking ranking;
+    private Discount milkLidl;
+    private Discount milkProfi;
+    private Discount bread;
+    private Discount juiceNextWeek;
+
+    @BeforeEach
+    void setUp() {
+        milkLidl = discount("P001", "lidl", MAY_1, MAY_1.plusDays(2), 20);
+        milkProfi = discount("P001", "profi", MAY_1.minusDays(3), MAY_1.plusDays(6), 30);
+        bread = discount("P002", "lidl", MAY_1, MAY_1.plusDays(6), 25);
+        juiceNextWeek = discount("P003", "lidl", MAY_1.plusDays(7), MAY_1.plusDays(9), 40);
+
+        ranking = new DiscountRanking();
+        ranking.apply(new CatalogDelta<>("/data/lidl_discounts_2025-05-01.csv", 1,
+                List.of(milkLidl, bread, juiceNextWeek), List.of()));
+        ranking.apply(new CatalogDelta<>("/data/profi_discounts_2025-04-28.csv", 2, List.of(milkProfi), List.of()));
+    }
+
+    @Test
+    void testActiveDiscountsAreRankedByPercentage() {
+        assertEquals(List.of(milkProfi, bread, milkLidl), ranking.findHighest(MAY_1, 10));
+        assertEquals(List.of(milkProfi), ranking.findHighest(MAY_1, 1));
+        assertEquals(List.of(milkProfi, bread), ranking.findMaxPerProduct(MAY_1, 10));
+    }
+
+    @Test
+    void testRankingsFollowTheDate() {
+        assertEquals(List.of(milkProfi, bread), ranking.findHighest(MAY_1.plusDays(3), 10));
+        assertEquals(List.of(juiceNextWeek), ranking.findHighest(MAY_1.plusDays(7), 10));
+        assertEquals(List.of(juiceNextWeek), ranking.findMaxPerProduct(MAY_1.plusDays(7), 10));
+        assertEquals(List.of(milkProfi, bread, milkLidl), ranking.findHighest(MAY_1, 10));
+    }
+
+    @Test
+    void testRetiredFileFallsBackToNextBestDiscountOfProduct() {
+        ranking.findHighest(MAY_1, 10);
+        ranking.apply(new CatalogDelta<>("/data/profi_discounts_2025-04-28.csv", 3, List.of(), List.of(milkProfi)));
+
+        assertEquals(List.of(bread, milkLidl), ranking.findMaxPerProduct(MAY_1, 10));
+        assertEquals(2, ranking.size());
+    }
+
+    @Test
+    void testSnapshotHoldsTheActiveSetOfItsDate() {
+        ActiveDiscounts today = ranking.snapshot(MAY_1);
+        ranking.apply(new CatalogDelta<>("/data/profi_discounts_2025-04-28.csv", 3, List.of(), List.of(milkProfi)));
+        ActiveDiscounts tomorrow = ranking.snapshot(MAY_1.plusDays(1));
+
+        assertEquals(MAY_1, today.getDate());
+        assertSame(milkProfi, today.find("profi", "P001"));
+        assertSame(milkLidl, today.find("lidl", "P001"));
+        assertNull(today.find("lidl", "P003"));
+        assertEquals(List.of(milkProfi, bread), today.getHighest(2));
+        assertEquals(List.of(milkProfi, bread), today.getMaxPerProduct(5));
+
+        assertNull(tomorrow.find("profi", "P001"));
+        assertEquals(List.of(bread, milkLidl), tomorrow.getMaxPerProduct(5));
+        assertEquals(2, tomorrow.size());
+    }
+
+    private static Discount discount(String productId, String storeName, LocalDate from, LocalDate to, double percentage) {
+        return new Discount(productId, "produs " + productId, "Brand", 1, "buc", "alimente",
+                from, to, percentage, storeName);
+    }
+}
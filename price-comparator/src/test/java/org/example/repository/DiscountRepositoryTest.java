@@ -0,0 +1,73 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiscountRepositoryTest {
+
+    private static final LocalDate MAY_1 = LocalDate.of(2025, 5, 1);
+
+    @TempDir
+    Path dataDir;
+
+    private DiscountRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(dataDir.resolve("lidl_discounts_2025-05-01.csv"), String.join("\n",
+                "product_id;product_name;brand;package_quantity;package_unit;product_category;from_date;to_date;percentage_of_discount",
+                "P001;lapte zuzu;Zuzu;1;l;lactate;2025-05-01;2025-05-03;20",
+                "P002;pâine albă;Vel Pitar;0.5;kg;panificație;2025-04-28;2025-05-01;30",
+                "P003;iaurt grecesc;Olympus;0.4;kg;lactate;2025-04-25;2025-04-30;40",
+                "P004;suc portocale;Santal;1;l;băuturi;2025-05-02;2025-05-05;50"));
+        repository = new DiscountRepository(new SymbolTable(), dataDir);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.close();
+    }
+
+    @Test
+    void testRollOverIncludesDiscountsStartingAndEndingThatDay() {
+        repository.rollOverActiveDiscounts(MAY_1);
+
+        assertEquals(List.of("P002", "P001"), productIds(repository.findHighestActiveDiscounts(MAY_1, 10)));
+        assertNotNull(repository.findActiveDiscount("lidl", "P002", MAY_1));
+        assertNull(repository.findActiveDiscount("lidl", "P003", MAY_1));
+        assertNull(repository.findActiveDiscount("lidl", "P004", MAY_1));
+    }
+
+    @Test
+    void testRollOverToTheNextDayRetiresDiscountsEndedTheDayBefore() {
+        repository.rollOverActiveDiscounts(MAY_1);
+        repository.rollOverActiveDiscounts(MAY_1.plusDays(1));
+
+        assertEquals(List.of("P004", "P001"), productIds(repository.findHighestActiveDiscounts(MAY_1.plusDays(1), 10)));
+        assertEquals(List.of("P004", "P001"), productIds(repository.findMaxActiveDiscountPerProduct(MAY_1.plusDays(1), 10)));
+    }
+
+    @Test
+    void testRollOverToAnEarlierDateKeepsTheCurrentSet() {
+        repository.rollOverActiveDiscounts(MAY_1.plusDays(1));
+        repository.rollOverActiveDiscounts(MAY_1);
+
+        assertNotNull(repository.findActiveDiscount("lidl", "P004", MAY_1.plusDays(1)));
+        assertEquals(List.of("P004", "P001"), productIds(repository.findHighestActiveDiscounts(MAY_1.plusDays(1), 10)));
+    }
+
+    private static List<String> productIds(List<Discount> discounts) {
+        return discounts.stream().map(Discount::getProductId).toList();
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EntryCatalogTest {
+
+    @TempDir
+    Path dataDir;
+
+    private AtomicInteger loads;
+    private EntryCatalog<String> catalog;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.writeString(dataDir.resolve("lidl_2025-05-01.csv"), "header\nrow1\nrow2\n");
+        Files.writeString(dataDir.resolve("notes.txt"), "ignored");
+
+        loads = new AtomicInteger();
+        catalog = new EntryCatalog<>(dataDir, name -> name.endsWith(".csv"), path -> {
+            loads.incrementAndGet();
+            try {
+                return Files.readAllLines(Path.of(path)).stream().skip(1).toList();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, Long.MAX_VALUE, 2);
+    }
+
+    @Test
+    void testEntriesAreLoadedOnce() {
+        List<String> first = catalog.getEntries();
+        List<String> second = catalog.getEntries();
+
+        assertEquals(List.of("row1", "row2"), first);
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals(1, catalog.getVersion());
+    }
+
+    @Test
+    void testRefreshWithoutChangesKeepsVersion() {
+        catalog.getEntries();
+
+        assertFalse(catalog.refresh());
+        assertEquals(1, catalog.getVersion());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testRefreshPicksUpNewAndModifiedFiles() throws IOException {
+        catalog.getEntries();
+
+        Path file = dataDir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(file, "header\nrow1\nrow2\nrow3\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        Files.writeString(dataDir.resolve("profi_2025-05-08.csv"), "header\nrow4\n");
+
+        assertTrue(catalog.refresh());
+        assertEquals(3, catalog.getVersion());
+        assertEquals(List.of("row1", "row2", "row3", "row4"), catalog.getEntries());
+    }
+
+    @Test
+    void testDisabledRechecksLeaveChangesToTheIngestionPath() throws IOException {
+        EntryCatalog<String> watchedCatalog = new EntryCatalog<>(dataDir, name -> name.endsWith(".csv"), path -> {
+            loads.incrementAndGet();
+            try {
+                return Files.readAllLines(Path.of(path)).stream().skip(1).toList();
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }, 0, 1);
+        List<CatalogDelta<String>> deltas = new ArrayList<>();
+        watchedCatalog.addListener(deltas::add);
+        watchedCatalog.disableRechecks();
+        watchedCatalog.getEntries();
+
+        Path file = dataDir.resolve("profi_2025-05-08.csv");
+        Files.writeString(file, "header\nrow3\n");
+        assertEquals(List.of("row1", "row2"), watchedCatalog.getEntries());
+
+        watchedCatalog.ingestFile(file.toString());
+        watchedCatalog.ingestFile(file.toString());
+        assertEquals(List.of("row1", "row2", "row3"), watchedCatalog.getEntries());
+        assertEquals(2, deltas.size());
+        assertEquals(List.of("row3"), deltas.get(1).getAddedEntries());
+    }
+
+    @Test
+    void testRefreshDropsDeletedFiles() throws IOException {
+        catalog.getEntries();
+
+        Files.delete(dataDir.resolve("lidl_2025-05-01.csv"));
+
+        assertTrue(catalog.refresh());
+        assertTrue(catalog.getEntries().isEmpty());
+    }
+
+    @Test
+    void testIngestFileParsesOnlyTheChangedFile() throws IOException {
+        Files.writeString(dataDir.resolve("profi_2025-05-01.csv"), "header\nrow3\n");
+        catalog.getEntries();
+        List<CatalogDelta<String>> deltas = new ArrayList<>();
+        catalog.addListener(deltas::add);
+
+        Path file = dataDir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(file, "header\nrow1\nrow5\n");
+        CatalogDelta<String> delta = catalog.ingestFile(file.toString());
+
+        assertEquals(3, loads.get());
+        assertEquals(List.of("row1", "row5"), delta.getAddedEntries());
+        assertEquals(List.of("row1", "row2"), delta.getRemovedEntries());
+        assertEquals(List.of(delta), deltas);
+        assertEquals(List.of("row1", "row5", "row3"), catalog.getEntries());
+        assertEquals(delta.getVersion(), catalog.getVersion());
+    }
+
+    @Test
+    void testIngestFileRetiresDeletedFile() throws IOException {
+        catalog.getEntries();
+
+        Path file = dataDir.resolve("lidl_2025-05-01.csv");
+        Files.delete(file);
+        CatalogDelta<String> delta = catalog.ingestFile(file.toString());
+
+        assertTrue(delta.getAddedEntries().isEmpty());
+        assertEquals(List.of("row1", "row2"), delta.getRemovedEntries());
+        assertTrue(catalog.getEntries().isEmpty());
+    }
+
+    @Test
+    void testDeleteOfAnUnknownFileKeepsVersionAndPublishesNothing() {
+        catalog.getEntries();
+        List<CatalogDelta<String>> deltas = new ArrayList<>();
+        catalog.addListener(deltas::add);
+
+        CatalogDelta<String> delta = catalog.ingestFile(dataDir.resolve("profi_2025-05-01.csv").toString());
+
+        assertTrue(delta.getAddedEntries().isEmpty());
+        assertTrue(delta.getRemovedEntries().isEmpty());
+        assertEquals(1, catalog.getVersion());
+        assertTrue(deltas.isEmpty());
+    }
+
+    @Test
+    void testIngestFileIgnoresFilesOutsideTheCatalog() {
+        catalog.getEntries();
+
+        assertNull(catalog.ingestFile(dataDir.resolve("notes.txt").toString()));
+        assertEquals(1, catalog.getVersion());
+    }
+
+    @Test
+    void testTouchedFileWithSameContentIsNotParsedAgain() throws IOException {
+        catalog.getEntries();
+        long version = catalog.getVersion();
+
+        Path file = dataDir.resolve("lidl_2025-05-01.csv");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+
+        assertFalse(catalog.refresh());
+        assertTrue(catalog.ingestFile(file.toString()).getAddedEntries().isEmpty());
+        assertEquals(1, loads.get());
+        assertEquals(version, catalog.getVersion());
+    }
+
+    @Test
+    void testManifestRecordsIngestedFiles() throws IOException {
+        Path manifestFile = dataDir.resolve("prices.manifest");
+        catalog.useManifest(manifestFile);
+        catalog.getEntries();
+
+        List<FileManifest.FileRecord> manifest = catalog.getManifest();
+        assertEquals(1, manifest.size());
+        FileManifest.FileRecord record = manifest.get(0);
+        assertEquals("lidl_2025-05-01.csv", record.filePath());
+        assertEquals(2, record.entryCount());
+        assertEquals(FileManifest.hash(dataDir.resolve("lidl_2025-05-01.csv")), record.contentHash());
+
+        FileManifest.FileRecord persisted = FileManifest.read(manifestFile).get(0);
+        assertEquals(dataDir.resolve("lidl_2025-05-01.csv").toAbsolutePath().normalize().toString(), persisted.filePath());
+        assertEquals(record.contentHash(), persisted.contentHash());
+
+        Files.delete(dataDir.resolve("lidl_2025-05-01.csv"));
+        catalog.refresh();
+        assertTrue(FileManifest.read(manifestFile).isEmpty());
+    }
+
+    @Test
+    void testUploadedStreamIsMergedAndSurvivesRefresh() throws IOException {
+        catalog.getEntries();
+
+        EntryCatalog.StreamLoader<String> loader = (in, accepted, rejected) -> {
+            for (String line : new String(in.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (line.startsWith("row")) accepted.accept(line);
+                else rejected.run();
+            }
+        };
+        byte[] body = "row3\nbroken\nrow4".getBytes(StandardCharsets.UTF_8);
+
+        EntryCatalog.UploadResult<String> result = catalog.ingestStream("profi_2025-05-08.csv",
+                new ByteArrayInputStream(body), loader);
+
+        assertEquals(2, result.acceptedRows());
+        assertEquals(1, result.rejectedRows());
+        assertEquals(List.of("row3", "row4"), result.delta().getAddedEntries());
+        assertEquals(List.of("row1", "row2", "row3", "row4"), catalog.getEntries());
+
+        assertFalse(catalog.refresh());
+        assertEquals(4, catalog.getEntries().size());
+        assertTrue(catalog.getManifest().stream()
+                .anyMatch(record -> record.filePath().equals(EntryCatalog.UPLOAD_PREFIX + "profi_2025-05-08.csv")
+                        && record.size() == body.length && record.entryCount() == 2));
+
+        long version = catalog.getVersion();
+        EntryCatalog.UploadResult<String> repeated = catalog.ingestStream("profi_2025-05-08.csv",
+                new ByteArrayInputStream(body), loader);
+        assertTrue(repeated.delta().getAddedEntries().isEmpty());
+        assertEquals(version, catalog.getVersion());
+    }
+
+    @Test
+    void testParallelLoadMergesInFileOrderAndReportsTimings() throws IOException {
+        for (int i = 1; i <= 4; i++) {
+            Files.writeString(dataDir.resolve("store" + i + "_2025-05-0" + i + ".csv"), "header\nstore" + i + "\n");
+        }
+        CountDownLatch allLoading = new CountDownLatch(4);
+        AtomicBoolean concurrent = new AtomicBoolean(true);
+        EntryCatalog<String> parallelCatalog = new EntryCatalog<>(dataDir,
+                name -> name.startsWith("store"), path -> {
+                    try {
+                        allLoading.countDown();
+                        if (!allLoading.await(10, TimeUnit.SECONDS)) {
+                            concurrent.set(false);
+                        }
+                        return Files.readAllLines(Path.of(path)).stream().skip(1).toList();
+                    } catch (IOException | InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }, Long.MAX_VALUE, 4);
+
+        List<String> entries = parallelCatalog.getEntries();
+        parallelCatalog.close();
+
+        assertEquals(List.of("store1", "store2", "store3", "store4"), entries);
+        assertTrue(concurrent.get(), "every file should be parsed while the others are still loading");
+
+        List<EntryCatalog.FileLoadStats> stats = parallelCatalog.getLastLoadStats();
+        assertEquals(4, stats.size());
+        assertTrue(stats.get(0).getFilePath().endsWith("store1_2025-05-01.csv"));
+        assertTrue(stats.stream().allMatch(s -> s.getEntryCount() == 1 && s.getElapsedNanos() > 0));
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LatestPriceIndexTest {
+
+    private SecondaryIndex<String, PriceEntry> byNameAndStore;
+    private LatestPriceIndex index;
+    private PriceEntry lidlFirstWeek;
+    private PriceEntry lidlSecondWeek;
+    private PriceEntry profiFirstWeek;
+
+    @BeforeEach
+    void setUp() {
+        lidlFirstWeek = entry("lidl", "2025-05-01", 9.9);
+        lidlSecondWeek = entry("lidl", "2025-05-08", 10.5);
+        profiFirstWeek = entry("profi", "2025-05-01", 10.2);
+
+        byNameAndStore = new SecondaryIndex<>(entry -> entry.getProductName() + "|" + entry.getStoreName());
+        index = new LatestPriceIndex((productName, storeName) -> byNameAndStore.find(productName + "|" + storeName));
+
+        apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 1, List.of(lidlFirstWeek), List.of()));
+        apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 2, List.of(profiFirstWeek), List.of()));
+    }
+
+    @Test
+    void testFindLatestAndCheapest() {
+        assertSame(lidlFirstWeek, index.findLatest("lapte", "lidl"));
+        assertSame(profiFirstWeek, index.findLatest("lapte", "profi"));
+        assertNull(index.findLatest("lapte", "kaufland"));
+        assertSame(lidlFirstWeek, index.findCheapest("lapte"));
+        assertNull(index.findCheapest("paine"));
+        assertEquals(Map.of("lidl", lidlFirstWeek, "profi", profiFirstWeek), index.findLatestByStore("lapte"));
+    }
+
+    @Test
+    void testNewerFileReplacesLatestAndCheapest() {
+        apply(new CatalogDelta<>("/data/lidl_2025-05-08.csv", 3, List.of(lidlSecondWeek), List.of()));
+
+        assertSame(lidlSecondWeek, index.findLatest("lapte", "lidl"));
+        assertSame(profiFirstWeek, index.findCheapest("lapte"));
+    }
+
+    @Test
+    void testRetiredFileFallsBackToPreviousEntry() {
+        apply(new CatalogDelta<>("/data/lidl_2025-05-08.csv", 3, List.of(lidlSecondWeek), List.of()));
+        apply(new CatalogDelta<>("/data/lidl_2025-05-08.csv", 4, List.of(), List.of(lidlSecondWeek)));
+        apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 5, List.of(), List.of(profiFirstWeek)));
+
+        assertSame(lidlFirstWeek, index.findLatest("lapte", "lidl"));
+        assertNull(index.findLatest("lapte", "profi"));
+        assertSame(lidlFirstWeek, index.findCheapest("lapte"));
+        assertEquals(1, index.size());
+    }
+
+    private void apply(CatalogDelta<PriceEntry> delta) {
+        byNameAndStore.apply(delta);
+        index.apply(delta);
+    }
+
+    private static PriceEntry entry(String storeName, String date, double price) {
+        return new PriceEntry("P001", "lapte", "lactate", "Zuzu", 1, "l", storeName,
+                LocalDate.parse(date), price, "RON");
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.example.repository.PriceFilterIndex.Dimension.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceFilterIndexTest {
+
+    private PriceFilterIndex index;
+    private PriceEntry zuzuKaufland;
+    private PriceEntry zuzuProfi;
+    private PriceEntry zuzuLidl;
+    private PriceEntry pilosKaufland;
+    private PriceEntry breadProfi;
+
+    @BeforeEach
+    void setUp() {
+        zuzuKaufland = entry("lapte zuzu", "lactate", "Zuzu", "l", "kaufland");
+        zuzuProfi = entry("lapte zuzu", "lactate", "Zuzu", "l", "profi");
+        zuzuLidl = entry("lapte zuzu", "lactate", "Zuzu", "l", "lidl");
+        pilosKaufland = entry("lapte pilos", "lactate", "Pilos", "l", "kaufland");
+        breadProfi = entry("paine", "panificatie", "Vel Pitar", "buc", "profi");
+
+        index = new PriceFilterIndex();
+        index.apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 1, List.of(zuzuKaufland, pilosKaufland), List.of()));
+        index.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 2, List.of(zuzuProfi, breadProfi), List.of()));
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 3, List.of(zuzuLidl), List.of()));
+    }
+
+    @Test
+    void testMatchAllIntersectsColumns() {
+        List<PriceEntry> result = filter(Map.of(
+                CATEGORY, List.of("lactate"),
+                BRAND, List.of("Zuzu"),
+                STORE, List.of("kaufland", "profi")), true);
+
+        assertEquals(List.of(zuzuKaufland, zuzuProfi), result);
+    }
+
+    @Test
+    void testMatchAnyUnitesColumns() {
+        List<PriceEntry> result = filter(Map.of(
+                BRAND, List.of("Pilos"),
+                UNIT, List.of("buc")), false);
+
+        assertEquals(List.of(pilosKaufland, breadProfi), result);
+    }
+
+    @Test
+    void testEmptyCriteriaAndUnknownValues() {
+        assertEquals(5, filter(Map.of(), true).size());
+        assertTrue(filter(Map.of(), false).isEmpty());
+        assertTrue(filter(Map.of(BRAND, List.of("Napolact")), true).isEmpty());
+        assertEquals(3, index.count(BRAND, "Zuzu"));
+    }
+
+    @Test
+    void testChangedFileReplacesItsRows() {
+        PriceEntry zuzuProfiNextWeek = entry("lapte zuzu", "lactate", "Zuzu", "l", "profi");
+        index.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 4,
+                List.of(zuzuProfiNextWeek), List.of(zuzuProfi, breadProfi)));
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 5, List.of(), List.of(zuzuLidl)));
+        index.apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 6, List.of(), List.of()));
+
+        assertEquals(List.of(zuzuKaufland, zuzuProfiNextWeek), filter(Map.of(BRAND, List.of("Zuzu")), true));
+        assertEquals(0, index.count(UNIT, "buc"));
+        assertEquals(3, filter(Map.of(), true).size());
+    }
+
+    @Test
+    void testReplacedFileReusesItsRows() {
+        for (int version = 4; version < 100; version++) {
+            PriceEntry zuzu = entry("lapte zuzu", "lactate", "Zuzu", "l", "profi");
+            PriceEntry bread = entry("paine", "panificatie", "Vel Pitar", "buc", "profi");
+            index.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", version, List.of(zuzu, bread), List.of(zuzu)));
+        }
+        assertEquals(5, index.rowSpan());
+
+        index.apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 100, List.of(), List.of(zuzuKaufland, pilosKaufland)));
+        PriceEntry bread = entry("paine", "panificatie", "Vel Pitar", "buc", "auchan");
+        index.apply(new CatalogDelta<>("/data/auchan_2025-05-01.csv", 101, List.of(bread), List.of()));
+        assertEquals(5, index.rowSpan());
+        assertEquals(2, index.count(UNIT, "buc"));
+
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 102, List.of(), List.of(zuzuLidl)));
+        assertEquals(4, index.rowSpan());
+    }
+
+    @Test
+    void testStreamDoesNotSeeReusedRows() {
+        var stream = index.filter(Map.of(STORE, List.of("kaufland")), true).iterator();
+        assertEquals(zuzuKaufland, stream.next());
+
+        PriceEntry bread = entry("paine", "panificatie", "Vel Pitar", "buc", "auchan");
+        PriceEntry juice = entry("suc", "bauturi", "Santal", "l", "auchan");
+        index.apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 4, List.of(), List.of(zuzuKaufland, pilosKaufland)));
+        index.apply(new CatalogDelta<>("/data/auchan_2025-05-01.csv", 5, List.of(bread, juice), List.of()));
+
+        assertFalse(stream.hasNext());
+        assertEquals(List.of(bread, juice), filter(Map.of(STORE, List.of("auchan")), true));
+    }
+
+    private List<PriceEntry> filter(Map<PriceFilterIndex.Dimension, List<String>> criteria, boolean matchAll) {
+        return index.filter(criteria, matchAll).toList();
+    }
+
+    private static PriceEntry entry(String name, String category, String brand, String unit, String store) {
+        return new PriceEntry("P001", name, category, brand, 1, unit, store, LocalDate.of(2025, 5, 1), 10.0, "RON");
+    }
+}
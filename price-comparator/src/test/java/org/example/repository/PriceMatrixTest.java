@@ -0,0 +1,51 @@
+package org.example.repository;
+
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceMatrixTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 8);
+
+    @Test
+    void testCellsHoldLatestEffectivePrices() {
+        PriceEntry lidlOld = entry("lapte", "lidl", "2025-05-01", 1000, "ml", 10.0);
+        PriceEntry lidlNew = entry("lapte", "lidl", "2025-05-08", 1000, "ml", 9.0);
+        PriceEntry profi = entry("lapte", "profi", "2025-05-01", 500, "ml", 6.0);
+        PriceEntry bread = entry("paine", "kaufland", "2025-05-01", 1, "buc", 4.0);
+        Discount profiDiscount = new Discount("P001", "lapte", "Zuzu", 500, "ml", "lactate",
+                TODAY.minusDays(1), TODAY.plusDays(1), 25.0, "profi");
+
+        PriceMatrix matrix = PriceMatrix.build(List.of(lidlOld, lidlNew, profi, bread),
+                (store, productId) -> store.equals("profi") ? profiDiscount : null, TODAY, 3, 7);
+
+        assertEquals(3, matrix.getStoreCount());
+        assertEquals("kaufland", matrix.getStoreName(0));
+        assertEquals(2, matrix.getProductCount());
+        assertEquals(-1, matrix.getProductRow("oua"));
+
+        int milk = matrix.getProductRow("lapte");
+        assertSame(lidlNew, matrix.getEntry(milk, 1));
+        assertEquals(9.0, matrix.getEffectivePrice(milk, 1), 1e-9);
+        assertEquals(6.0, matrix.getRegularPrice(milk, 2), 1e-9);
+        assertEquals(4.5, matrix.getEffectivePrice(milk, 2), 1e-9);
+        assertEquals(9.0, matrix.getEffectiveUnitPrice(milk, 2), 1e-9);
+        assertTrue(Double.isNaN(matrix.getEffectivePrice(milk, 0)));
+        assertNull(matrix.getEntry(milk, 0));
+        assertEquals(9.0, matrix.getHighestRegularPrice(milk), 1e-9);
+
+        assertEquals(3, matrix.getPriceVersion());
+        assertEquals(7, matrix.getDiscountVersion());
+        assertEquals(TODAY, matrix.getDate());
+    }
+
+    private static PriceEntry entry(String name, String store, String date, double quantity, String unit, double price) {
+        return new PriceEntry("P001", name, "lactate", "Zuzu", quantity, unit, store, LocalDate.parse(date), price, "RON");
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PriceSeriesIndexTest {
+
+    private SecondaryIndex<String, PriceEntry> byNameAndStore;
+    private PriceSeriesIndex index;
+    private PriceEntry lidlMay8;
+    private PriceEntry lidlMay1;
+    private PriceEntry profiMay5;
+    private PriceEntry profiMay1;
+    private PriceEntry lidlFlourMay3;
+
+    @BeforeEach
+    void setUp() {
+        lidlMay8 = entry("lapte", "lactate", "Zuzu", "lidl", "2025-05-08", 10.5);
+        lidlMay1 = entry("lapte", "lactate", "Zuzu", "lidl", "2025-05-01", 9.9);
+        profiMay5 = entry("lapte", "lactate", "Zuzu", "profi", "2025-05-05", 10.2);
+        profiMay1 = entry("lapte", "lactate", "Zuzu", "profi", "2025-05-01", 10.0);
+        lidlFlourMay3 = entry("faina", "panificatie", "Boromir", "lidl", "2025-05-03", 4.2);
+
+        byNameAndStore = new SecondaryIndex<>(entry -> entry.getProductName() + "|" + entry.getStoreName());
+        index = new PriceSeriesIndex((productName, storeName) -> byNameAndStore.find(productName + "|" + storeName));
+
+        apply(new CatalogDelta<>("/data/lidl_2025-05-08.csv", 1, List.of(lidlMay8), List.of()));
+        apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 2, List.of(lidlMay1, lidlFlourMay3), List.of()));
+        apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 3, List.of(profiMay5, profiMay1), List.of()));
+    }
+
+    @Test
+    void testSeriesIsSortedByDateWithFixedPointPrices() {
+        PriceSeriesIndex.Series series = index.findSeries("lapte", "lidl");
+
+        assertEquals(2, series.size());
+        assertEquals(LocalDate.of(2025, 5, 1).toEpochDay(), series.getEpochDay(0));
+        assertEquals(990, series.getFixedPointPrice(0));
+        assertEquals(1050, series.getFixedPointPrice(1));
+        assertEquals(1, series.lowerBound(LocalDate.of(2025, 5, 2).toEpochDay()));
+        assertEquals(1, series.upperBound(LocalDate.of(2025, 5, 7).toEpochDay()));
+    }
+
+    @Test
+    void testProductHistoryMergesStoresByDate() {
+        assertEquals(List.of(lidlMay1, profiMay1, profiMay5, lidlMay8),
+                index.findProductHistory("lapte", null, null));
+    }
+
+    @Test
+    void testHistoryIsRestrictedToDateRange() {
+        assertEquals(List.of(profiMay5),
+                index.findProductHistory("lapte", LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 7)));
+        assertEquals(List.of(lidlMay8), index.findHistory("lapte", "lidl", LocalDate.of(2025, 5, 8), null));
+        assertTrue(index.findHistory("lapte", "lidl", null, LocalDate.of(2025, 4, 30)).isEmpty());
+    }
+
+    @Test
+    void testCategoryAndBrandHistory() {
+        assertEquals(List.of(lidlMay1, profiMay1, profiMay5, lidlMay8),
+                index.findCategoryHistory("lactate", null, null));
+        assertEquals(List.of(lidlFlourMay3), index.findBrandHistory("Boromir", null, null));
+    }
+
+    @Test
+    void testCategoryHistoryPagesResumeFromCursor() {
+        List<PriceEntry> first = index.findCategoryHistoryPage("lactate", null, null, null, 3);
+        assertEquals(List.of(lidlMay1, profiMay1, profiMay5), first);
+
+        HistoryCursor cursor = HistoryCursor.fromToken(HistoryCursor.of(first.get(2)).toToken());
+        assertEquals(HistoryCursor.of(profiMay5), cursor);
+        assertEquals(List.of(lidlMay8), index.findCategoryHistoryPage("lactate", null, null, cursor, 3));
+        assertTrue(index.findCategoryHistoryPage("lactate", null, null, HistoryCursor.of(lidlMay8), 3).isEmpty());
+    }
+
+    @Test
+    void testHistoryPageOrdersSameDayByStoreAndKeepsDuplicatesTogether() {
+        PriceEntry kauflandMay1 = entry("lapte", "lactate", "Zuzu", "kaufland", "2025-05-01", 9.5);
+        PriceEntry kauflandMay1Again = entry("lapte", "lactate", "Zuzu", "kaufland", "2025-05-01", 9.6);
+        apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 4, List.of(kauflandMay1, kauflandMay1Again), List.of()));
+
+        assertEquals(List.of(kauflandMay1, kauflandMay1Again),
+                index.findBrandHistoryPage("Zuzu", null, null, null, 1));
+        assertEquals(List.of(lidlMay1, profiMay1),
+                index.findBrandHistoryPage("Zuzu", null, null, HistoryCursor.of(kauflandMay1), 2));
+        assertEquals(List.of(profiMay5),
+                index.findBrandHistoryPage("Zuzu", LocalDate.of(2025, 5, 2), LocalDate.of(2025, 5, 7), null, 5));
+    }
+
+    @Test
+    void testWeeklyAndMonthlyRollups() {
+        PriceEntry lidlMay2 = entry("lapte", "lactate", "Zuzu", "lidl", "2025-05-02", 9.7);
+        apply(new CatalogDelta<>("/data/lidl_2025-05-02.csv", 4, List.of(lidlMay2), List.of()));
+
+        List<PriceRollup> weekly = index.findCategoryRollups("lactate", Granularity.WEEK, null, null);
+        assertEquals(List.of(
+                new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 4, 28), 9.7, 9.9, 9.8, 9.9, 9.7, 2),
+                new PriceRollup("P001", "lapte", "profi", LocalDate.of(2025, 4, 28), 10.0, 10.0, 10.0, 10.0, 10.0, 1),
+                new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 5, 5), 10.5, 10.5, 10.5, 10.5, 10.5, 1),
+                new PriceRollup("P001", "lapte", "profi", LocalDate.of(2025, 5, 5), 10.2, 10.2, 10.2, 10.2, 10.2, 1)),
+                weekly);
+
+        List<PriceRollup> monthly = index.findBrandRollups("Zuzu", Granularity.MONTH, LocalDate.of(2025, 5, 20), null);
+        assertEquals(2, monthly.size());
+        assertEquals(new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 5, 1), 9.7, 10.5, 10.03, 9.9, 10.5, 3),
+                monthly.get(0));
+        assertTrue(index.findCategoryRollups("lactate", Granularity.WEEK, null, LocalDate.of(2025, 4, 27)).isEmpty());
+    }
+
+    @Test
+    void testRollupsOfMixedSeriesOnlyAggregateMatchingEntries() {
+        PriceEntry lidlPromoMay2 = entry("lapte", "promotii", "Zuzu", "lidl", "2025-05-02", 7.0);
+        apply(new CatalogDelta<>("/data/lidl_2025-05-02.csv", 4, List.of(lidlPromoMay2), List.of()));
+
+        assertTrue(index.findSeries("lapte", "lidl").isMixed());
+        assertEquals(List.of(new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 4, 28), 7.0, 7.0, 7.0, 7.0, 7.0, 1)),
+                index.findCategoryRollups("promotii", Granularity.WEEK, null, null));
+        assertEquals(new PriceRollup("P001", "lapte", "lidl", LocalDate.of(2025, 4, 28), 9.9, 9.9, 9.9, 9.9, 9.9, 1),
+                index.findCategoryRollups("lactate", Granularity.WEEK, null, null).get(0));
+        assertEquals(3, index.findBrandRollups("Zuzu", Granularity.MONTH, null, null).get(0).entryCount());
+    }
+
+    @Test
+    void testRollupPagesResumeFromTheLastKey() {
+        List<PriceRollup> all = index.findBrandRollups("Zuzu", Granularity.WEEK, null, null);
+
+        List<PriceRollup> first = index.findBrandRollupsPage("Zuzu", Granularity.WEEK, null, null, null, 3);
+        assertEquals(all.subList(0, 3), first);
+        assertEquals(all.subList(3, 4), index.findBrandRollupsPage("Zuzu", Granularity.WEEK, null, null,
+                HistoryCursor.fromToken(HistoryCursor.of(first.get(2)).toToken()), 3));
+    }
+
+    @Test
+    void testGranularityPeriodStart() {
+        assertEquals(LocalDate.of(2025, 4, 28).toEpochDay(), Granularity.WEEK.periodStart(LocalDate.of(2025, 5, 4).toEpochDay()));
+        assertEquals(LocalDate.of(2025, 5, 5).toEpochDay(), Granularity.WEEK.periodStart(LocalDate.of(2025, 5, 5).toEpochDay()));
+        assertEquals(LocalDate.of(2025, 5, 1).toEpochDay(), Granularity.MONTH.periodStart(LocalDate.of(2025, 5, 31).toEpochDay()));
+        assertEquals(Granularity.MONTH, Granularity.parse("month"));
+    }
+
+    @Test
+    void testMalformedCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> HistoryCursor.fromToken("not a cursor"));
+    }
+
+    @Test
+    void testRetiredFileRemovesItsEntries() {
+        apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 4, List.of(), List.of(lidlMay1, lidlFlourMay3)));
+
+        assertEquals(List.of(lidlMay8), index.findHistory("lapte", "lidl", null, null));
+        assertTrue(index.findBrandHistory("Boromir", null, null).isEmpty());
+        assertNull(index.findSeries("faina", "lidl"));
+        assertEquals(2, index.size());
+    }
+
+    private void apply(CatalogDelta<PriceEntry> delta) {
+        byNameAndStore.apply(delta);
+        index.apply(delta);
+    }
+
+    private static PriceEntry entry(String productName, String category, String brand, String storeName,
+                                    String date, double price) {
+        return new PriceEntry("P001", productName, category, brand, 1, "l", storeName,
+                LocalDate.parse(date), price, "RON");
+    }
+}
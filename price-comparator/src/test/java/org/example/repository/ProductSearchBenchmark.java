@@ -0,0 +1,99 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.example.utils.TextUtil;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Command-line tool measuring the latency of product name searches on a synthetic catalog of
+ * distinct names built from a small vocabulary with diacritics. Queries are folded word prefixes
+ * of catalog names, and a share of them carry a typo so that the correction pass runs too, in the
+ * warmup as well as in the measured queries.
+ */
+public class ProductSearchBenchmark {
+    private static final String[] WORDS = {
+            "ouă", "mărimea", "lapte", "brânză", "telemea", "iaurt", "grecesc", "pâine", "albă", "neagră",
+            "făină", "zahăr", "ulei", "floarea", "soarelui", "măsline", "roșii", "cartofi", "ceapă", "usturoi",
+            "cafea", "măcinată", "ceai", "verde", "suc", "portocale", "mere", "pere", "struguri", "banane",
+            "piept", "pui", "porc", "vită", "cârnați", "șuncă", "salam", "unt", "smântână", "cașcaval",
+            "orez", "paste", "spaghete", "detergent", "lichid", "șampon", "săpun", "hârtie", "igienică", "apă"
+    };
+    private static final int QUERIES = 20_000;
+    private static final int WARMUP_QUERIES = 20_000;
+    private static final int TYPO_SHARE = 5;
+
+    /**
+     * Prints the latency percentiles of exact-prefix and typo queries.
+     *
+     * @param args Optional number of distinct names and result limit; 300000 names and 10 results by default.
+     */
+    public static void main(String[] args) {
+        int nameCount = args.length > 0 ? Integer.parseInt(args[0]) : 300_000;
+        int limit = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Random random = new Random(1);
+
+        List<String> names = new ArrayList<>(nameCount);
+        List<PriceEntry> entries = new ArrayList<>(nameCount);
+        LocalDate date = LocalDate.of(2025, 5, 1);
+        for (int i = 0; i < nameCount; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            names.add(name);
+            entries.add(new PriceEntry("P" + i, name, "diverse", "brand", 1.0, "buc", "lidl", date, 1.0, "RON"));
+        }
+
+        ProductSearchIndex index = new ProductSearchIndex();
+        long start = System.nanoTime();
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 1, entries, List.of()));
+        System.out.printf("%d names indexed in %.0fms%n", index.size(), (System.nanoTime() - start) / 1e6);
+
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            String query = query(random, names);
+            index.search(i % TYPO_SHARE == 0 ? typo(random, query) : query, limit);
+        }
+
+        long[] exact = new long[QUERIES - QUERIES / TYPO_SHARE];
+        long[] typo = new long[QUERIES / TYPO_SHARE];
+        for (int i = 0; i < QUERIES; i++) {
+            boolean withTypo = i % TYPO_SHARE == 0;
+            String query = withTypo ? typo(random, query(random, names)) : query(random, names);
+            start = System.nanoTime();
+            index.search(query, limit);
+            long elapsed = System.nanoTime() - start;
+            if (withTypo) {
+                typo[i / TYPO_SHARE] = elapsed;
+            } else {
+                exact[i - i / TYPO_SHARE - 1] = elapsed;
+            }
+        }
+
+        System.out.printf("%6s %10s %10s %10s%n", "query", "p50 (us)", "p99 (us)", "max (us)");
+        print("exact", exact);
+        print("typo", typo);
+    }
+
+    private static String query(Random random, List<String> names) {
+        String[] words = TextUtil.fold(names.get(random.nextInt(names.size()))).split(" ");
+        String first = words[0];
+        String second = words[1];
+        return first + " " + second.substring(0, Math.min(second.length(), 2 + random.nextInt(4)));
+    }
+
+    private static String typo(Random random, String query) {
+        int position = random.nextInt(query.indexOf(' '));
+        return query.substring(0, position) + 'x' + query.substring(position + 1);
+    }
+
+    private static void print(String label, long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%6s %10.1f %10.1f %10.1f%n", label,
+                latencies[latencies.length / 2] / 1000.0,
+                latencies[latencies.length * 99 / 100] / 1000.0,
+                latencies[latencies.length - 1] / 1000.0);
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+    private PriceEntry eggsLidl;
+    private PriceEntry eggsProfi;
+    private PriceEntry milk;
+
+    @BeforeEach
+    void setUp() {
+        eggsLidl = entry("ouă mărimea M", "lidl");
+        eggsProfi = entry("ouă mărimea M", "profi");
+        milk = entry("lapte zuzu", "lidl");
+
+        index = new ProductSearchIndex();
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 1,
+                List.of(eggsLidl, milk, entry("ouă mărimea L", "lidl"), entry("iaurt grecesc", "lidl")), List.of()));
+        index.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 2, List.of(eggsProfi), List.of()));
+    }
+
+    @Test
+    void testMatchingIgnoresCaseAndDiacritics() {
+        assertEquals(List.of("ouă mărimea M"), index.search("OUA MARIMEA m", 1));
+        assertEquals(List.of("ouă mărimea L", "ouă mărimea M"), index.search("oua mar", 10));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testEveryQueryWordMatchesAsAWordPrefix() {
+        assertEquals(List.of("lapte zuzu"), index.search("zu lap", 10));
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void testApproximateMatchesFollowPrefixMatches() {
+        assertEquals(List.of("lapte zuzu"), index.search("lapet", 10));
+        assertEquals(List.of("ouă mărimea L", "ouă mărimea M"), index.search("arimea", 10));
+        assertEquals(List.of("iaurt grecesc"), index.search("iaurt grecsc", 10));
+        assertEquals(List.of("lapte zuzu"), index.search("lapte zuxu", 10));
+        assertTrue(index.search("qqqq", 10).isEmpty());
+    }
+
+    @Test
+    void testNameIsDroppedOnceNoFileListsIt() {
+        index.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 3, List.of(), List.of(eggsLidl, milk)));
+        assertEquals(List.of("ouă mărimea M"), index.search("oua marimea m", 1));
+        assertTrue(index.search("lapte", 10).isEmpty());
+
+        index.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 4, List.of(milk), List.of(eggsProfi)));
+        assertEquals(List.of("lapte zuzu"), index.search("lapte", 10));
+        assertEquals(List.of("ouă mărimea L"), index.search("oua marimea", 10));
+    }
+
+    private static PriceEntry entry(String productName, String storeName) {
+        return new PriceEntry("P001", productName, "alimente", "Brand", 1, "buc", storeName,
+                LocalDate.of(2025, 5, 1), 10.0, "RON");
+    }
+}
@@ -0,0 +1,61 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SecondaryIndexTest {
+
+    private SecondaryIndex<String, PriceEntry> byBrand;
+    private PriceEntry lidlMilk;
+    private PriceEntry lidlBread;
+    private PriceEntry profiMilk;
+
+    @BeforeEach
+    void setUp() {
+        lidlMilk = entry("P001", "lapte", "Zuzu", "lidl");
+        lidlBread = entry("P002", "pâine", "Vel Pitar", "lidl");
+        profiMilk = entry("P001", "lapte", "Zuzu", "profi");
+
+        byBrand = new SecondaryIndex<>(PriceEntry::getBrand);
+        byBrand.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 1, List.of(profiMilk), List.of()));
+        byBrand.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 2, List.of(lidlMilk, lidlBread), List.of()));
+    }
+
+    @Test
+    void testFindReturnsPostingsInCatalogOrder() {
+        assertEquals(List.of(lidlMilk, profiMilk), byBrand.find("Zuzu"));
+        assertEquals(List.of(lidlBread), byBrand.find("Vel Pitar"));
+        assertTrue(byBrand.find("Napolact").isEmpty());
+        assertTrue(byBrand.find(null).isEmpty());
+        assertEquals(2, byBrand.size());
+    }
+
+    @Test
+    void testDeltaReplacesOnlyThePostingsOfItsFile() {
+        PriceEntry lidlMilkUpdated = entry("P001", "lapte", "Zuzu", "lidl");
+        byBrand.apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 3,
+                List.of(lidlMilkUpdated), List.of(lidlMilk, lidlBread)));
+
+        assertEquals(List.of(lidlMilkUpdated, profiMilk), byBrand.find("Zuzu"));
+        assertTrue(byBrand.find("Vel Pitar").isEmpty());
+        assertEquals(1, byBrand.size());
+    }
+
+    @Test
+    void testRetiredFileIsRemovedFromIndex() {
+        byBrand.apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 3, List.of(), List.of(profiMilk)));
+
+        assertEquals(List.of(lidlMilk), byBrand.find("Zuzu"));
+    }
+
+    private static PriceEntry entry(String productId, String productName, String brand, String storeName) {
+        return new PriceEntry(productId, productName, "lactate", brand, 1, "l", storeName,
+                LocalDate.of(2025, 5, 1), 9.9, "RON");
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SymbolTableTest {
+
+    @Test
+    void testEqualValuesShareOneInstance() {
+        SymbolTable symbols = new SymbolTable();
+
+        String first = symbols.intern(new String("lactate"));
+        String second = symbols.intern(new String("lactate"));
+
+        assertSame(first, second);
+        assertEquals(1, symbols.size());
+        assertNull(symbols.intern(null));
+    }
+
+    @Test
+    void testSharedValuesAreNotCountedAsSaved() {
+        SymbolTable symbols = new SymbolTable();
+        String dictionaryValue = "lactate";
+
+        assertSame(dictionaryValue, symbols.internShared(dictionaryValue));
+        assertSame(dictionaryValue, symbols.internShared(new String("lactate")));
+        assertEquals(0, symbols.getSavedBytes());
+
+        assertSame(dictionaryValue, symbols.intern(new String("lactate")));
+        assertEquals(48, symbols.getSavedBytes());
+    }
+
+    @Test
+    void testSavedBytesFollowTheStringEncoding() {
+        assertEquals(48, savedAfterTwoLookups("pâine"));
+        assertEquals(56, savedAfterTwoLookups("șuncă"));
+    }
+
+    @Test
+    void testSavedBytesCountRepeatedValues() {
+        SymbolTable symbols = new SymbolTable();
+
+        symbols.intern("kg");
+        assertEquals(0, symbols.getSavedBytes());
+        symbols.intern("kg");
+        symbols.intern("kg");
+
+        assertEquals(2 * 48, symbols.getSavedBytes());
+        assertTrue(symbols.report(3).contains("1 distinct symbols over 3 lookups"));
+    }
+
+    @Test
+    void testConcurrentInterningKeepsOneSymbolPerValue() {
+        SymbolTable symbols = new SymbolTable();
+        ConcurrentLinkedQueue<String> results = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 10_000).parallel()
+                .forEach(i -> results.add(symbols.intern(new String("brand" + (i % 100)))));
+
+        assertEquals(100, symbols.size());
+        for (int i = 0; i < 100; i++) {
+            String value = symbols.intern("brand" + i);
+            assertEquals(100, results.stream().filter(r -> r == value).count());
+        }
+        assertEquals(List.of(), results.stream().filter(r -> !r.startsWith("brand")).toList());
+    }
+
+    private static long savedAfterTwoLookups(String value) {
+        SymbolTable symbols = new SymbolTable();
+        symbols.intern(new String(value));
+        symbols.intern(new String(value));
+        return symbols.getSavedBytes();
+    }
+}
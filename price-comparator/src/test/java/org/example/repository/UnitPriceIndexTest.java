@@ -0,0 +1,77 @@
+package org.example.repository;
+
+import org.example.model.PriceEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitPriceIndexTest {
+
+    private SecondaryIndex<String, PriceEntry> byNameAndStore;
+    private LatestPriceIndex latestPrices;
+    private UnitPriceIndex index;
+    private PriceEntry cheeseLidl;
+    private PriceEntry cheeseProfi;
+    private PriceEntry telemeaKaufland;
+    private PriceEntry milkLidl;
+
+    @BeforeEach
+    void setUp() {
+        cheeseLidl = entry("cascaval", "lidl", "2025-05-01", 400, "g", 12.0);
+        cheeseProfi = entry("cascaval", "profi", "2025-05-01", 1, "kg", 28.0);
+        telemeaKaufland = entry("telemea", "kaufland", "2025-05-01", 500, "g", 16.0);
+        milkLidl = entry("lapte", "lidl", "2025-05-01", 1000, "ml", 7.0);
+
+        byNameAndStore = new SecondaryIndex<>(entry -> entry.getProductName() + "|" + entry.getStoreName());
+        latestPrices = new LatestPriceIndex((productName, storeName) -> byNameAndStore.find(productName + "|" + storeName));
+        index = new UnitPriceIndex(latestPrices::findLatest);
+
+        apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 1, List.of(cheeseLidl, milkLidl), List.of()));
+        apply(new CatalogDelta<>("/data/profi_2025-05-01.csv", 2, List.of(cheeseProfi), List.of()));
+        apply(new CatalogDelta<>("/data/kaufland_2025-05-01.csv", 3, List.of(telemeaKaufland), List.of()));
+    }
+
+    @Test
+    void testRanksByNormalizedUnitPrice() {
+        assertEquals(List.of(cheeseProfi, cheeseLidl, telemeaKaufland), index.findCheapest("lactate", "kg", 10));
+        assertEquals(List.of(cheeseProfi), index.findCheapest("lactate", "kg", 1));
+        assertEquals(List.of(milkLidl), index.findCheapest("lactate", "l", 10));
+        assertTrue(index.findCheapest("lactate", "buc", 10).isEmpty());
+    }
+
+    @Test
+    void testFindInRange() {
+        assertEquals(List.of(cheeseLidl, telemeaKaufland), index.findInRange("lactate", "kg", 30.0, 32.0));
+        assertEquals(List.of(cheeseProfi), index.findInRange("lactate", "kg", 0, 28.0));
+        assertTrue(index.findInRange("lactate", "kg", 33.0, 40.0).isEmpty());
+    }
+
+    @Test
+    void testNewerPriceMovesEntryAndRetiredFileRestoresIt() {
+        PriceEntry cheeseProfiNextWeek = entry("cascaval", "profi", "2025-05-08", 1, "kg", 35.0);
+        apply(new CatalogDelta<>("/data/profi_2025-05-08.csv", 4, List.of(cheeseProfiNextWeek), List.of()));
+
+        assertEquals(List.of(cheeseLidl, telemeaKaufland, cheeseProfiNextWeek), index.findCheapest("lactate", "kg", 10));
+
+        apply(new CatalogDelta<>("/data/profi_2025-05-08.csv", 5, List.of(), List.of(cheeseProfiNextWeek)));
+        apply(new CatalogDelta<>("/data/lidl_2025-05-01.csv", 6, List.of(), List.of(cheeseLidl, milkLidl)));
+
+        assertEquals(List.of(cheeseProfi, telemeaKaufland), index.findCheapest("lactate", "kg", 10));
+        assertTrue(index.findCheapest("lactate", "l", 10).isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    private void apply(CatalogDelta<PriceEntry> delta) {
+        byNameAndStore.apply(delta);
+        latestPrices.apply(delta);
+        index.apply(delta);
+    }
+
+    private static PriceEntry entry(String name, String store, String date, double quantity, String unit, double price) {
+        return new PriceEntry("P001", name, "lactate", "Brand", quantity, unit, store, LocalDate.parse(date), price, "RON");
+    }
+}
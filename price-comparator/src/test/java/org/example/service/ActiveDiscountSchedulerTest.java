@@ -0,0 +1,62 @@
+package org.example.service;
+
+import org.example.repository.DiscountRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ActiveDiscountSchedulerTest {
+
+    @Mock
+    private DiscountRepository discountRepository;
+
+    @Test
+    void testRollOverUsesTheDateOfTheClock() {
+        Clock clock = Clock.fixed(Instant.parse("2025-05-01T21:30:00Z"), ZoneId.of("Europe/Bucharest"));
+        ActiveDiscountScheduler scheduler = new ActiveDiscountScheduler(discountRepository, clock);
+
+        scheduler.rollOver();
+
+        verify(discountRepository).rollOverActiveDiscounts(LocalDate.of(2025, 5, 2));
+    }
+
+    @Test
+    void testNextRollOverIsAtMidnight() {
+        Clock clock = Clock.fixed(Instant.parse("2025-05-01T23:15:00Z"), ZoneOffset.UTC);
+        ActiveDiscountScheduler scheduler = new ActiveDiscountScheduler(discountRepository, clock);
+
+        assertEquals(Duration.ofMinutes(45), scheduler.untilNextMidnight());
+    }
+
+    @Test
+    void testNextRollOverFollowsDaylightSavingTime() {
+        // Clocks in Bucharest go forward from 03:00 to 04:00 on 2025-03-30, so that day lasts 23 hours.
+        Clock clock = Clock.fixed(Instant.parse("2025-03-29T22:00:00Z"), ZoneId.of("Europe/Bucharest"));
+        ActiveDiscountScheduler scheduler = new ActiveDiscountScheduler(discountRepository, clock);
+
+        assertEquals(Duration.ofHours(23), scheduler.untilNextMidnight());
+    }
+
+    @Test
+    void testStartDefersTheFirstRollOverToMidnight() {
+        Clock clock = Clock.fixed(Instant.parse("2025-05-01T12:00:00Z"), ZoneOffset.UTC);
+        ActiveDiscountScheduler scheduler = new ActiveDiscountScheduler(discountRepository, clock);
+
+        scheduler.start();
+        scheduler.stop();
+
+        verifyNoInteractions(discountRepository);
+    }
+}
@@ -1,10 +1,12 @@
 package org.example.service;
 
+import org.example.dto.BasketResultDTO;
 import org.example.dto.OptimizedBasketDTO;
 import org.example.model.BasketItem;
 import org.example.model.Discount;
 import org.example.model.PriceEntry;
-import org.example.repository.ItemRepository;
+import org.example.repository.CatalogDelta;
+import org.example.repository.DiscountRepository;
 import org.example.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,7 +19,9 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -29,7 +33,7 @@ public class BasketOptimizationServiceTest {
     private ProductRepository productRepository;
 
     @Mock
-    private ItemRepository<Discount> discountRepository;
+    private DiscountRepository discountRepository;
 
     @InjectMocks
     private BasketOptimizationService basketOptimizationService;
@@ -54,29 +58,17 @@ public class BasketOptimizationServiceTest {
 
         testDiscounts = Arrays.asList(
                 new Discount("P001", "Lapte", "Lidl", 1.0, "l", "Lactate",
-                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 10.0),
+                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 10.0, "Kaufland"),
                 new Discount("P002", "Paine", "Kaufland", 1.0, "kg", "Brutarie",
-                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 5.0)
+                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 5.0, "Kaufland")
         );
     }
 
     @Test
     void testOptimizeBasket_Success() {
         when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
-        when(productRepository.findByProductName("Lapte")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Lapte")).toList()
-        );
-        when(productRepository.findByProductName("Paine")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Paine")).toList()
-        );
-        when(productRepository.findByProductNameAndStore(anyString(), anyString())).thenAnswer(invocation ->
-                testPriceEntries.stream()
-                        .filter(p -> p.getProductName().equals(invocation.getArgument(0)) &&
-                                p.getStoreName().equals(invocation.getArgument(1)))
-                        .toList()
-        );
 
-        when(discountRepository.loadAllEntries()).thenReturn(testDiscounts);
+        stubActiveDiscounts(testDiscounts);
 
         OptimizedBasketDTO result = basketOptimizationService.optimizeBasket(testBasket);
 
@@ -97,20 +89,8 @@ public class BasketOptimizationServiceTest {
     @Test
     void testOptimizeBasketWithUnitPrice_Success() {
         when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
-        when(productRepository.findByProductName("Lapte")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Lapte")).toList()
-        );
-        when(productRepository.findByProductName("Paine")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Paine")).toList()
-        );
-        when(productRepository.findByProductNameAndStore(anyString(), anyString())).thenAnswer(invocation ->
-                testPriceEntries.stream()
-                        .filter(p -> p.getProductName().equals(invocation.getArgument(0)) &&
-                                p.getStoreName().equals(invocation.getArgument(1)))
-                        .toList()
-        );
 
-        when(discountRepository.loadAllEntries()).thenReturn(testDiscounts);
+        stubActiveDiscounts(testDiscounts);
 
         OptimizedBasketDTO result = basketOptimizationService.optimizeBasketWithUnitPrice(testBasket);
 
@@ -132,7 +112,6 @@ public class BasketOptimizationServiceTest {
     void testOptimizeBasket_EmptyBasket() {
         List<BasketItem> emptyBasket = Collections.emptyList();
         when(productRepository.loadAllEntries()).thenReturn(Collections.emptyList());
-        when(discountRepository.loadAllEntries()).thenReturn(Collections.emptyList());
 
         OptimizedBasketDTO result = basketOptimizationService.optimizeBasket(emptyBasket);
 
@@ -148,8 +127,6 @@ public class BasketOptimizationServiceTest {
         );
 
         when(productRepository.loadAllEntries()).thenReturn(Collections.emptyList());
-        when(productRepository.findByProductName("Noname")).thenReturn(Collections.emptyList());
-        when(discountRepository.loadAllEntries()).thenReturn(Collections.emptyList());
 
         OptimizedBasketDTO result = basketOptimizationService.optimizeBasket(basketWithUnknownProducts);
 
@@ -161,12 +138,6 @@ public class BasketOptimizationServiceTest {
     @Test
     void testCalculateOriginalCost() {
         when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
-        when(productRepository.findByProductNameAndStore(anyString(), anyString())).thenAnswer(invocation ->
-                testPriceEntries.stream()
-                        .filter(p -> p.getProductName().equals(invocation.getArgument(0)) &&
-                                p.getStoreName().equals(invocation.getArgument(1)))
-                        .toList()
-        );
 
         double originalCost = basketOptimizationService.calculateOriginalCost(testBasket);
 
@@ -177,26 +148,14 @@ public class BasketOptimizationServiceTest {
     void testOptimizeBasket_MultipleDiscounts() {
         List<Discount> multipleDiscounts = Arrays.asList(
                 new Discount("P001", "Lapte", "Zuzu", 1.0, "l", "lactate",
-                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 10.0),
+                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 10.0, "Kaufland"),
                 new Discount("P001", "Lapte", "Zuzu", 1.0, "l", "lactate",
-                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 15.0)
+                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 15.0, "Kaufland")
         );
 
         when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
-        when(productRepository.findByProductName("Lapte")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Lapte")).toList()
-        );
-        when(productRepository.findByProductName("Paine")).thenReturn(
-                testPriceEntries.stream().filter(p -> p.getProductName().equals("Paine")).toList()
-        );
-        when(productRepository.findByProductNameAndStore(anyString(), anyString())).thenAnswer(invocation ->
-                testPriceEntries.stream()
-                        .filter(p -> p.getProductName().equals(invocation.getArgument(0)) &&
-                                p.getStoreName().equals(invocation.getArgument(1)))
-                        .toList()
-        );
 
-        when(discountRepository.loadAllEntries()).thenReturn(multipleDiscounts);
+        stubActiveDiscounts(multipleDiscounts);
 
         OptimizedBasketDTO result = basketOptimizationService.optimizeBasket(testBasket);
 
@@ -209,4 +168,201 @@ public class BasketOptimizationServiceTest {
             }
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void testOptimizeBasket_DiscountOnlyAppliesToItsStore() {
+        List<Discount> lidlDiscount = List.of(
+                new Discount("P001", "Lapte", "Zuzu", 1.0, "l", "lactate",
+                        LocalDate.now().minusDays(1), LocalDate.now().plusDays(1), 20.0, "Lidl")
+        );
+
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(lidlDiscount);
+
+        OptimizedBasketDTO result = basketOptimizationService.optimizeBasket(
+                List.of(new BasketItem("P001", "Lapte", 2)));
+
+        assertEquals(1, result.getShoppingLists().size());
+        assertEquals("Lidl", result.getShoppingLists().get(0).getStoreName());
+        assertEquals(16.0, result.getShoppingLists().get(0).getItems().get(0).getPrice(), 0.001);
+    }
+
+    @Test
+    void testOptimizeBasketWithUnitPrice_ComparesNormalizedUnits() {
+        testPriceEntries = List.of(
+                new PriceEntry("P002", "Paine", "Brutarie", "panemar", 500, "g", "Lidl", LocalDate.now(), 4.5, "RON"),
+                new PriceEntry("P002", "Paine", "Brutarie", "panemar", 1.0, "kg", "Kaufland", LocalDate.now(), 8.0, "RON")
+        );
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(List.of());
+
+        OptimizedBasketDTO result = basketOptimizationService.optimizeBasketWithUnitPrice(
+                List.of(new BasketItem("P002", "Paine", 1)));
+
+        assertEquals(1, result.getShoppingLists().size());
+        assertEquals("Kaufland", result.getShoppingLists().get(0).getStoreName());
+        assertEquals(8.0, result.getShoppingLists().get(0).getItems().get(0).getUnitPrice(), 0.001);
+        assertEquals("per kg", result.getShoppingLists().get(0).getItems().get(0).getUnitPriceLabel());
+    }
+
+    @Test
+    void testPriceMatrixIsBuiltOncePerCatalogVersion() {
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        when(productRepository.getCatalogVersion()).thenReturn(1L, 1L, 2L);
+        stubActiveDiscounts(testDiscounts);
+
+        basketOptimizationService.optimizeBasket(testBasket);
+        basketOptimizationService.optimizeBasketWithUnitPrice(testBasket);
+        verify(productRepository, times(1)).loadAllEntries();
+
+        basketOptimizationService.optimizeBasket(testBasket);
+        verify(productRepository, times(2)).loadAllEntries();
+        verify(productRepository, never()).findByProductName(anyString());
+        verify(productRepository, never()).findLatestEntry(anyString(), anyString());
+    }
+
+    @Test
+    void testOptimizeBasketWithStoreLimit_TradesPricesAgainstVisits() {
+        testPriceEntries = List.of(
+                new PriceEntry("P001", "Lapte", "Lactate", "Zuzu", 1.0, "l", "Lidl", LocalDate.now(), 10.0, "RON"),
+                new PriceEntry("P001", "Lapte", "Lactate", "Zuzu", 1.0, "l", "Kaufland", LocalDate.now(), 9.0, "RON"),
+                new PriceEntry("P001", "Lapte", "Lactate", "Zuzu", 1.0, "l", "Mega", LocalDate.now(), 8.0, "RON"),
+                new PriceEntry("P002", "Paine", "Brutarie", "panemar", 1.0, "kg", "Lidl", LocalDate.now(), 5.0, "RON"),
+                new PriceEntry("P002", "Paine", "Brutarie", "panemar", 1.0, "kg", "Kaufland", LocalDate.now(), 4.5, "RON"),
+                new PriceEntry("P002", "Paine", "Brutarie", "panemar", 1.0, "kg", "Mega", LocalDate.now(), 6.0, "RON"),
+                new PriceEntry("P003", "Oua", "Oua", "Agricola", 10, "buc", "Lidl", LocalDate.now(), 3.0, "RON"),
+                new PriceEntry("P003", "Oua", "Oua", "Agricola", 10, "buc", "Mega", LocalDate.now(), 2.0, "RON")
+        );
+        List<BasketItem> basket = List.of(
+                new BasketItem("P001", "Lapte", 1),
+                new BasketItem("P002", "Paine", 1),
+                new BasketItem("P003", "Oua", 1)
+        );
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(List.of());
+
+        OptimizedBasketDTO oneStore = basketOptimizationService.optimizeBasketWithStoreLimit(basket, 1, 0.0, 100);
+        assertEquals(1, oneStore.getShoppingLists().size());
+        assertEquals("Mega", oneStore.getShoppingLists().get(0).getStoreName());
+        assertEquals(3, oneStore.getShoppingLists().get(0).getItems().size());
+        assertTrue(oneStore.isOptimal());
+
+        OptimizedBasketDTO cheapVisits = basketOptimizationService.optimizeBasketWithStoreLimit(basket, 2, 1.0, 100);
+        assertEquals(2, cheapVisits.getShoppingLists().size());
+        assertEquals(2.0, cheapVisits.getVisitCost(), 0.001);
+
+        OptimizedBasketDTO costlyVisits = basketOptimizationService.optimizeBasketWithStoreLimit(basket, 2, 2.0, 100);
+        assertEquals(1, costlyVisits.getShoppingLists().size());
+        assertEquals("Mega", costlyVisits.getShoppingLists().get(0).getStoreName());
+        assertEquals(2.0, costlyVisits.getVisitCost(), 0.001);
+    }
+
+    @Test
+    void testOptimizeBasketWithStoreLimit_RejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class,
+                () -> basketOptimizationService.optimizeBasketWithStoreLimit(testBasket, 2, 0.0, 0));
+
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(testDiscounts);
+        assertThrows(IllegalArgumentException.class,
+                () -> basketOptimizationService.optimizeBasketWithStoreLimit(testBasket, 0, 0.0, 100));
+        assertThrows(IllegalArgumentException.class,
+                () -> basketOptimizationService.optimizeBasketWithStoreLimit(testBasket, 2, -1.0, 100));
+    }
+
+    @Test
+    void testOptimizeBaskets_ReturnsResultsInOrderAndIsolatesErrors() {
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(testDiscounts);
+
+        List<List<BasketItem>> baskets = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            baskets.add(List.of(new BasketItem("P001", "Lapte", i + 1)));
+        }
+        baskets.add(7, Arrays.asList(new BasketItem("P002", "Paine", 1), null));
+        baskets.add(20, null);
+        baskets.add(30, List.of(new BasketItem("P002", "Paine", 0)));
+
+        List<BasketResultDTO> results = basketOptimizationService.optimizeBaskets(baskets);
+
+        assertEquals(53, results.size());
+        for (int i = 0; i < results.size(); i++) {
+            BasketResultDTO result = results.get(i);
+            assertEquals(i, result.getIndex());
+            if (i == 7 || i == 20 || i == 30) {
+                assertNotNull(result.getError());
+                assertNull(result.getOptimizedBasket());
+            } else {
+                assertNull(result.getError());
+                int quantity = result.getOptimizedBasket().getShoppingLists().get(0).getItems().get(0).getQuantity();
+                assertEquals(baskets.get(i).get(0).getQuantity(), quantity);
+            }
+        }
+        verify(productRepository, times(1)).loadAllEntries();
+    }
+
+    @Test
+    void testOptimizeBaskets_RejectsOversizedBatches() {
+        List<List<BasketItem>> tooManyBaskets = Collections.nCopies(
+                BasketOptimizationService.MAX_BATCH_BASKETS + 1, testBasket);
+        assertThrows(IllegalArgumentException.class, () -> basketOptimizationService.optimizeBaskets(tooManyBaskets));
+
+        List<BasketItem> largeBasket = Collections.nCopies(
+                BasketOptimizationService.MAX_BATCH_ITEMS / 2 + 1, new BasketItem("P001", "Lapte", 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> basketOptimizationService.optimizeBaskets(List.of(largeBasket, largeBasket)));
+        verify(productRepository, never()).loadAllEntries();
+    }
+
+    @Test
+    void testOptimizeBasket_ServesIdenticalBasketsFromCache() {
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        when(productRepository.getCatalogVersion()).thenReturn(1L, 1L, 1L, 2L);
+        stubActiveDiscounts(testDiscounts);
+
+        OptimizedBasketDTO first = basketOptimizationService.optimizeBasket(testBasket);
+        OptimizedBasketDTO reordered = basketOptimizationService.optimizeBasket(List.of(
+                new BasketItem("P002", "Paine", 1),
+                new BasketItem("P001", "Lapte", 1),
+                new BasketItem("P001", "Lapte", 1)));
+        OptimizedBasketDTO byUnitPrice = basketOptimizationService.optimizeBasketWithUnitPrice(testBasket);
+        OptimizedBasketDTO afterIngest = basketOptimizationService.optimizeBasket(testBasket);
+
+        assertNotSame(first, reordered);
+        assertEquals(first.getTotalCost(), reordered.getTotalCost(), 0.001);
+        assertEquals("P001", reordered.getShoppingLists().stream()
+                .flatMap(shoppingList -> shoppingList.getItems().stream())
+                .filter(item -> item.getProductName().equals("Lapte"))
+                .findFirst().orElseThrow().getProductId());
+        assertNotSame(first, byUnitPrice);
+        assertNotSame(first, afterIngest);
+        assertEquals(first.getTotalCost(), afterIngest.getTotalCost(), 0.001);
+        assertEquals(1, basketOptimizationService.getCacheStats().getHits());
+        assertEquals(3, basketOptimizationService.getCacheStats().getMisses());
+    }
+
+    @Test
+    void testOptimizeBasket_CacheIsClearedOnIngest() {
+        when(productRepository.loadAllEntries()).thenReturn(testPriceEntries);
+        stubActiveDiscounts(testDiscounts);
+
+        OptimizedBasketDTO first = basketOptimizationService.optimizeBasket(testBasket);
+        basketOptimizationService.onDiscountDelta(
+                new CatalogDelta<>("discounts.csv", 1L, List.of(), List.of()));
+
+        assertEquals(0, basketOptimizationService.getCacheStats().getSize());
+        assertNotSame(first, basketOptimizationService.optimizeBasket(testBasket));
+    }
+
+    private void stubActiveDiscounts(List<Discount> discounts) {
+        when(discountRepository.findActiveDiscount(anyString(), anyString(), any(LocalDate.class))).thenAnswer(invocation -> {
+            LocalDate date = invocation.getArgument(2);
+            return discounts.stream()
+                    .filter(d -> Objects.equals(d.getStoreName(), invocation.getArgument(0)) &&
+                            d.getProductId().equals(invocation.getArgument(1)))
+                    .filter(d -> !date.isBefore(d.getStartingDate()) && !date.isAfter(d.getEndingDate()))
+                    .max(Comparator.comparingDouble(Discount::getPercentageOfDiscount))
+                    .orElse(null);
+        });
+    }
+}
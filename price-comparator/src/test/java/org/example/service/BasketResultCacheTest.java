@@ -0,0 +1,192 @@
+package org.example.service;
+
+import org.example.dto.BasketCacheStatsDTO;
+import org.example.dto.BasketItemDTO;
+import org.example.dto.OptimizedBasketDTO;
+import org.example.dto.ShoppingListDTO;
+import org.example.model.BasketItem;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketResultCacheTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 5, 8);
+
+    @Test
+    void testCanonicalizeSortsItemsAndSumsQuantities() {
+        List<BasketResultCache.BasketItemKey> items = BasketResultCache.canonicalize(List.of(
+                new BasketItem("P002", "paine alba", 1),
+                new BasketItem("P001", "lapte zuzu", 1),
+                new BasketItem("P001", "lapte zuzu", 1)));
+
+        assertEquals(List.of(
+                new BasketResultCache.BasketItemKey("lapte zuzu", 2),
+                new BasketResultCache.BasketItemKey("paine alba", 1)), items);
+        assertEquals(items, BasketResultCache.canonicalize(List.of(
+                new BasketItem(null, "lapte zuzu", 2),
+                new BasketItem("P009", "paine alba", 1))));
+    }
+
+    @Test
+    void testKeysDifferByCatalogVersion() {
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofMinutes(1));
+        AtomicInteger computations = new AtomicInteger();
+        Function<BasketResultCache.Key, OptimizedBasketDTO> compute = key -> {
+            computations.incrementAndGet();
+            return new OptimizedBasketDTO();
+        };
+
+        cache.get(key("lapte", 1, 1), compute);
+        cache.get(key("lapte", 1, 1), compute);
+        cache.get(key("lapte", 2, 1), compute);
+        cache.get(key("lapte", 1, 2), compute);
+
+        assertEquals(3, computations.get());
+        BasketCacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(0.25, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void testResultsExpireAfterTtl() {
+        AtomicLong now = new AtomicLong();
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofSeconds(10), now::get);
+        cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO());
+
+        now.set(Duration.ofSeconds(9).toNanos());
+        cache.get(key("lapte", 1, 1), key -> fail("should be cached"));
+        now.set(Duration.ofSeconds(10).toNanos());
+        cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO());
+
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getExpirations());
+    }
+
+    @Test
+    void testLeastRecentlyUsedResultIsEvicted() {
+        BasketResultCache cache = new BasketResultCache(2, Duration.ofMinutes(1));
+        cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO());
+        cache.get(key("paine", 1, 1), key -> new OptimizedBasketDTO());
+        cache.get(key("lapte", 1, 1), key -> fail("should be cached"));
+        cache.get(key("oua", 1, 1), key -> new OptimizedBasketDTO());
+
+        assertEquals(1, cache.getStats().getEvictions());
+        cache.get(key("lapte", 1, 1), key -> fail("should be cached"));
+        cache.get(key("oua", 1, 1), key -> fail("should be cached"));
+        assertEquals(2, cache.getStats().getSize());
+        assertEquals(3, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testClearKeepsStatistics() {
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofMinutes(1));
+        cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO());
+        cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO());
+
+        cache.clear();
+
+        assertEquals(0, cache.getStats().getSize());
+        assertEquals(1, cache.getStats().getHits());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testEveryCallerGetsItsOwnCopy() {
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofMinutes(1));
+        BasketItemDTO item = new BasketItemDTO();
+        item.setProductName("lapte");
+        item.setQuantity(2);
+        item.setPrice(19.8);
+        ShoppingListDTO shoppingList = new ShoppingListDTO();
+        shoppingList.setStoreName("lidl");
+        shoppingList.addItem(item);
+        OptimizedBasketDTO computed = new OptimizedBasketDTO();
+        computed.addShoppingList(shoppingList);
+        computed.setOriginalCost(21.0);
+
+        OptimizedBasketDTO first = cache.get(key("lapte", 1, 1), key -> computed);
+        first.getShoppingLists().get(0).getItems().get(0).setQuantity(5);
+        first.getShoppingLists().clear();
+        first.setTotalCost(0);
+        OptimizedBasketDTO second = cache.get(key("lapte", 1, 1), key -> fail("should be cached"));
+
+        assertNotSame(computed, first);
+        assertEquals(1, second.getShoppingLists().size());
+        assertEquals(2, second.getShoppingLists().get(0).getItems().get(0).getQuantity());
+        assertEquals(39.6, second.getTotalCost(), 1e-9);
+        assertEquals(39.6, second.getShoppingLists().get(0).getTotalCost(), 1e-9);
+        assertEquals(21.0, second.getOriginalCost(), 1e-9);
+    }
+
+    @Test
+    void testConcurrentMissesComputeOnce() throws Exception {
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofMinutes(1));
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        Function<BasketResultCache.Key, OptimizedBasketDTO> compute = key -> {
+            computations.incrementAndGet();
+            computing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new OptimizedBasketDTO();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<OptimizedBasketDTO>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get(key("lapte", 1, 1), compute)));
+            assertTrue(computing.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> cache.get(key("lapte", 1, 1), compute)));
+            }
+            while (cache.getStats().getHits() < 3) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<OptimizedBasketDTO> result : results) {
+                assertNotNull(result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+        assertEquals(1, cache.getStats().getMisses());
+    }
+
+    @Test
+    void testFailedComputationIsNotCached() {
+        BasketResultCache cache = new BasketResultCache(10, Duration.ofMinutes(1));
+
+        assertThrows(IllegalStateException.class,
+                () -> cache.get(key("lapte", 1, 1), key -> { throw new IllegalStateException("no prices"); }));
+
+        assertEquals(0, cache.getStats().getSize());
+        assertNotNull(cache.get(key("lapte", 1, 1), key -> new OptimizedBasketDTO()));
+    }
+
+    private static BasketResultCache.Key key(String productName, long priceVersion, long discountVersion) {
+        return new BasketResultCache.Key(
+                BasketResultCache.canonicalize(List.of(new BasketItem(null, productName, 1))),
+                false, priceVersion, discountVersion, TODAY);
+    }
+}
@@ -0,0 +1,67 @@
+package org.example.service;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Command-line tool measuring the latency of the store-limited basket solver against basket size,
+ * on synthetic baskets where every store lacks some items and prices vary by up to 40% between
+ * stores. Run it after changing the solver to check that typical baskets are still solved to
+ * optimality well within the default time budget.
+ */
+public class BasketSolverBenchmark {
+    private static final int[] BASKET_SIZES = {5, 10, 20, 50, 100, 200};
+    private static final int BASKETS_PER_SIZE = 500;
+    private static final int WARMUP_BASKETS = 2000;
+
+    /**
+     * Prints the latency percentiles and the share of baskets solved to optimality per basket size.
+     *
+     * @param args Optional store count, store limit, visit cost and time budget in milliseconds;
+     *             12 stores, at most 3 visited, 5.0 per visit and 200 ms by default.
+     */
+    public static void main(String[] args) {
+        int stores = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        int maxStores = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        double visitCost = args.length > 2 ? Double.parseDouble(args[2]) : 5.0;
+        Duration budget = Duration.ofMillis(args.length > 3 ? Long.parseLong(args[3]) : 200);
+        Random random = new Random(1);
+
+        for (int i = 0; i < WARMUP_BASKETS; i++) {
+            BasketSolver.solve(basket(random, 20, stores), maxStores, visitCost, budget);
+        }
+
+        System.out.printf("%d stores, at most %d visited, %.2f per visit, %dms budget%n",
+                stores, maxStores, visitCost, budget.toMillis());
+        System.out.printf("%6s %10s %10s %10s %9s%n", "items", "p50 (us)", "p99 (us)", "max (us)", "optimal");
+        for (int size : BASKET_SIZES) {
+            long[] latencies = new long[BASKETS_PER_SIZE];
+            int optimal = 0;
+            for (int i = 0; i < BASKETS_PER_SIZE; i++) {
+                double[][] costs = basket(random, size, stores);
+                long start = System.nanoTime();
+                BasketSolver.Plan plan = BasketSolver.solve(costs, maxStores, visitCost, budget);
+                latencies[i] = System.nanoTime() - start;
+                if (plan.optimal()) optimal++;
+            }
+            Arrays.sort(latencies);
+            System.out.printf("%6d %10.1f %10.1f %10.1f %8.1f%%%n", size,
+                    latencies[BASKETS_PER_SIZE / 2] / 1000.0,
+                    latencies[BASKETS_PER_SIZE * 99 / 100] / 1000.0,
+                    latencies[BASKETS_PER_SIZE - 1] / 1000.0,
+                    100.0 * optimal / BASKETS_PER_SIZE);
+        }
+    }
+
+    private static double[][] basket(Random random, int items, int stores) {
+        double[][] costs = new double[items][stores];
+        for (double[] row : costs) {
+            double basePrice = 2 + random.nextInt(4000) / 100.0;
+            for (int store = 0; store < stores; store++) {
+                row[store] = random.nextInt(6) == 0 ? Double.NaN : basePrice * (1 + random.nextDouble() * 0.4);
+            }
+        }
+        return costs;
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BasketSolverTest {
+    private static final double NA = Double.NaN;
+    private static final Duration BUDGET = Duration.ofSeconds(5);
+
+    @Test
+    void testUnlimitedStoresBuysEveryItemAtItsCheapestStore() {
+        double[][] costs = {
+                {10.0, 9.0, 8.0},
+                {5.0, 4.5, 6.0},
+                {3.0, NA, 2.0}
+        };
+
+        BasketSolver.Plan plan = BasketSolver.solve(costs, 3, 0.0, BUDGET);
+
+        assertArrayEquals(new int[]{2, 1, 2}, plan.assignments());
+        assertEquals(14.5, plan.itemCost(), 1e-9);
+        assertEquals(2, plan.storeCount());
+        assertTrue(plan.optimal());
+    }
+
+    @Test
+    void testStoreLimitTooTightCoversMostItems() {
+        double[][] costs = {
+                {1.0, NA},
+                {NA, 1.0},
+                {NA, 5.0}
+        };
+
+        BasketSolver.Plan plan = BasketSolver.solve(costs, 1, 0.0, BUDGET);
+
+        assertArrayEquals(new int[]{-1, 1, 1}, plan.assignments());
+        assertEquals(6.0, plan.itemCost(), 1e-9);
+    }
+
+    @Test
+    void testItemsNoStoreSellsAreLeftOut() {
+        double[][] costs = {
+                {2.0, 3.0},
+                {NA, NA}
+        };
+
+        BasketSolver.Plan plan = BasketSolver.solve(costs, 2, 0.0, BUDGET);
+
+        assertArrayEquals(new int[]{0, -1}, plan.assignments());
+        assertEquals(1, plan.storeCount());
+    }
+
+    @Test
+    void testEmptyBasket() {
+        BasketSolver.Plan plan = BasketSolver.solve(new double[0][], 2, 1.0, BUDGET);
+
+        assertEquals(0, plan.assignments().length);
+        assertEquals(0, plan.storeCount());
+        assertTrue(plan.optimal());
+    }
+
+    @Test
+    void testMatchesExhaustiveSearchOnRandomBaskets() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int items = 1 + random.nextInt(12);
+            int stores = 1 + random.nextInt(8);
+            int maxStores = 1 + random.nextInt(4);
+            double visitCost = random.nextInt(4) * 2.5;
+            double[][] costs = new double[items][stores];
+            for (int item = 0; item < items; item++) {
+                for (int store = 0; store < stores; store++) {
+                    costs[item][store] = random.nextInt(5) == 0 ? NA : 1 + random.nextInt(50) / 2.0;
+                }
+            }
+
+            BasketSolver.Plan plan = BasketSolver.solve(costs, maxStores, visitCost, BUDGET);
+            double[] expected = exhaustive(costs, stores, maxStores, visitCost);
+
+            assertTrue(plan.optimal());
+            assertEquals(expected[0], missing(plan), "round " + round);
+            assertEquals(expected[1], plan.itemCost() + plan.visitCost(), 1e-9, "round " + round);
+            assertTrue(plan.storeCount() <= maxStores);
+        }
+    }
+
+    @Test
+    void testExpiredBudgetReturnsBestPlanFoundSoFar() {
+        Random random = new Random(7);
+        double[][] costs = new double[60][40];
+        for (double[] row : costs) {
+            for (int store = 0; store < row.length; store++) {
+                row[store] = 1 + random.nextInt(1000) / 100.0;
+            }
+        }
+
+        BasketSolver.Plan plan = BasketSolver.solve(costs, 12, 0.01, Duration.ofMillis(1));
+
+        assertFalse(plan.optimal());
+        for (int store : plan.assignments()) {
+            assertTrue(store >= 0);
+        }
+        assertTrue(plan.storeCount() <= 12);
+    }
+
+    @Test
+    void testRejectsInvalidLimits() {
+        double[][] costs = {{1.0}};
+        assertThrows(IllegalArgumentException.class, () -> BasketSolver.solve(costs, 0, 0.0, BUDGET));
+        assertThrows(IllegalArgumentException.class, () -> BasketSolver.solve(costs, 1, NA, BUDGET));
+        assertThrows(IllegalArgumentException.class, () -> BasketSolver.solve(costs, 1, 0.0, Duration.ZERO));
+    }
+
+    private static int missing(BasketSolver.Plan plan) {
+        int missing = 0;
+        for (int store : plan.assignments()) {
+            if (store < 0) missing++;
+        }
+        return missing;
+    }
+
+    /**
+     * Returns the fewest missing items and the lowest total cost among them over all store sets.
+     */
+    private static double[] exhaustive(double[][] costs, int stores, int maxStores, double visitCost) {
+        double bestMissing = costs.length;
+        double bestCost = 0.0;
+        for (int mask = 1; mask < 1 << stores; mask++) {
+            int size = Integer.bitCount(mask);
+            if (size > maxStores) continue;
+
+            int missing = 0;
+            double cost = visitCost * size;
+            for (double[] row : costs) {
+                double best = Double.POSITIVE_INFINITY;
+                for (int store = 0; store < stores; store++) {
+                    if ((mask & 1 << store) != 0 && !Double.isNaN(row[store])) {
+                        best = Math.min(best, row[store]);
+                    }
+                }
+                if (best == Double.POSITIVE_INFINITY) {
+                    missing++;
+                } else {
+                    cost += best;
+                }
+            }
+            if (missing < bestMissing || (missing == bestMissing && cost < bestCost - 1e-9)) {
+                bestMissing = missing;
+                bestCost = cost;
+            }
+        }
+        return new double[]{bestMissing, bestCost};
+    }
+}
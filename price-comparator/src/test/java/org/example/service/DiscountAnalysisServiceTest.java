@@ -2,34 +2,34 @@ package org.example.service;
 
 import org.example.dto.DiscountDTO;
 import org.example.model.Discount;
-import org.example.repository.ItemRepository;
+import org.example.repository.DiscountRepository;
 import org.junit.Before;
 import org.junit.Test;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 
+import static org.example.service.DiscountStubs.stubDiscounts;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 public class DiscountAnalysisServiceTest {
 
-    private ItemRepository<Discount> mockRepo;
+    private DiscountRepository mockRepo;
     private DiscountAnalysisService service;
     private LocalDate today;
 
     @Before
     public void setUp() {
-        mockRepo = mock(ItemRepository.class);
+        mockRepo = mock(DiscountRepository.class);
         service = new DiscountAnalysisService(mockRepo);
         today = LocalDate.now();
     }
     @Test
     public void testGetHighestDiscounts() {
-        ItemRepository<Discount> mockRepo = mock(ItemRepository.class);
+        DiscountRepository mockRepo = mock(DiscountRepository.class);
         DiscountAnalysisService service = new DiscountAnalysisService(mockRepo);
 
         LocalDate today = LocalDate.now();
@@ -37,7 +37,7 @@ public class DiscountAnalysisServiceTest {
                 today.minusDays(1), today.plusDays(1), 15.0);
         Discount d2 = new Discount("P002", "Lapte", "Zuzu", 1, "l", "Lactate", today.minusDays(2), today.plusDays(2), 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getHighestDiscounts(1);
 
@@ -47,7 +47,7 @@ public class DiscountAnalysisServiceTest {
 
     @Test
     public void testGetNewlyAddedDiscounts() {
-        ItemRepository<Discount> mockRepo = mock(ItemRepository.class);
+        DiscountRepository mockRepo = mock(DiscountRepository.class);
         DiscountAnalysisService service = new DiscountAnalysisService(mockRepo);
 
         LocalDate today = LocalDate.now();
@@ -57,7 +57,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Lapte", "Zuzu", 1, "l", "Lactate", yesterday, today.plusDays(5), 15.0);
         Discount d3 = new Discount("P003", "Lapte", "Zuzu", 1, "l", "Lactate", yesterday.minusDays(2), today.plusDays(5), 20.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2, d3));
+        stubDiscounts(mockRepo, d1, d2, d3);
 
         List<DiscountDTO> result = service.getNewlyAddedDiscounts();
 
@@ -67,7 +67,7 @@ public class DiscountAnalysisServiceTest {
 
     @Test
     public void testGetHighestDiscounts_EmptyRepository() {
-        when(mockRepo.loadAllEntries()).thenReturn(Collections.emptyList());
+        stubDiscounts(mockRepo);
 
         List<DiscountDTO> result = service.getHighestDiscounts(5);
 
@@ -82,7 +82,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Iaurt", "Danone", 1, "l", "Lactate",
                 today.minusDays(8), today.minusDays(2), 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getHighestDiscounts(3);
 
@@ -97,7 +97,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Iaurt", "Danone", 1, "l", "Lactate",
                 today.plusDays(2), today.plusDays(8), 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getHighestDiscounts(3);
 
@@ -112,7 +112,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Iaurt", "Danone", 1, "l", "Lactate",
                 today.minusDays(2), today.plusDays(2), 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getHighestDiscounts(5);
 
@@ -132,7 +132,7 @@ public class DiscountAnalysisServiceTest {
         Discount d4 = new Discount("P004", "Sana", "Covalact", 1, "l", "Lactate",
                 today.plusDays(1), today.plusDays(6), 30.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2, d3, d4));
+        stubDiscounts(mockRepo, d1, d2, d3, d4);
 
         List<DiscountDTO> result = service.getHighestDiscounts(3);
 
@@ -152,7 +152,7 @@ public class DiscountAnalysisServiceTest {
         Discount d4 = new Discount("P004", "Sana", "Covalact", 1, "l", "Lactate",
                 today.minusDays(3), today.plusDays(3), 10.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2, d3, d4));
+        stubDiscounts(mockRepo, d1, d2, d3, d4);
 
         List<DiscountDTO> result = service.getHighestDiscounts(4);
 
@@ -173,7 +173,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Iaurt", "Danone", 1, "l", "Lactate",
                 yesterday.minusDays(1), tomorrow, 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getNewlyAddedDiscounts();
 
@@ -192,7 +192,7 @@ public class DiscountAnalysisServiceTest {
         Discount d3 = new Discount("P003", "Branza", "Hochland", 1, "l", "Lactate",
                 yesterday, today.plusDays(5), 20.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2, d3));
+        stubDiscounts(mockRepo, d1, d2, d3);
 
         List<DiscountDTO> result = service.getNewlyAddedDiscounts();
 
@@ -203,7 +203,7 @@ public class DiscountAnalysisServiceTest {
 
     @Test
     public void testGetNewlyAddedDiscounts_EmptyRepository() {
-        when(mockRepo.loadAllEntries()).thenReturn(Collections.emptyList());
+        stubDiscounts(mockRepo);
 
         List<DiscountDTO> result = service.getNewlyAddedDiscounts();
 
@@ -218,7 +218,7 @@ public class DiscountAnalysisServiceTest {
         Discount d2 = new Discount("P002", "Iaurt", "Danone", 1, "l", "Lactate",
                 today.minusDays(2), today.plusDays(2), 20.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2));
+        stubDiscounts(mockRepo, d1, d2);
 
         List<DiscountDTO> result = service.getHighestDiscounts(2);
 
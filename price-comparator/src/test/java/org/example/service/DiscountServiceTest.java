@@ -2,12 +2,13 @@ package org.example.service;
 
 import org.example.dto.DiscountDTO;
 import org.example.model.Discount;
-import org.example.repository.ItemRepository;
+import org.example.repository.DiscountRepository;
 import org.junit.Test;
 
 import java.time.LocalDate;
 import java.util.List;
 
+import static org.example.service.DiscountStubs.stubDiscounts;
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.mockito.Mockito.mock;
@@ -17,7 +18,7 @@ public class DiscountServiceTest {
 
     @Test
     public void testLoadDiscounts() {
-        ItemRepository<Discount> mockRepo = mock(ItemRepository.class);
+        DiscountRepository mockRepo = mock(DiscountRepository.class);
         DiscountService service = new DiscountService(mockRepo);
 
         Discount discount = new Discount();
@@ -36,7 +37,7 @@ public class DiscountServiceTest {
 
     @Test
     public void testGetMaxDiscountPerProduct() {
-        ItemRepository<Discount> mockRepo = mock(ItemRepository.class);
+        DiscountRepository mockRepo = mock(DiscountRepository.class);
         DiscountService service = new DiscountService(mockRepo);
 
         LocalDate today = LocalDate.now();
@@ -50,7 +51,7 @@ public class DiscountServiceTest {
         Discount d3 = new Discount("P002", "Suc", "Fanta", 1, "l", "Sucuri",
                 today.minusDays(1), today.plusDays(1), 25.0);
 
-        when(mockRepo.loadAllEntries()).thenReturn(List.of(d1, d2, d3));
+        stubDiscounts(mockRepo, d1, d2, d3);
 
         List<DiscountDTO> result = service.getMaxDiscountPerProduct(10);
 
@@ -0,0 +1,33 @@
+package org.example.service;
+
+import org.example.model.Discount;
+import org.example.repository.CatalogDelta;
+import org.example.repository.DiscountRanking;
+import org.example.repository.DiscountRepository;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+/**
+ * Shared stubbing of a mocked DiscountRepository for the discount service tests.
+ */
+final class DiscountStubs {
+    private DiscountStubs() {
+    }
+
+    /**
+     * Stubs the repository with the given discounts, ranked by a real DiscountRanking.
+     */
+    static void stubDiscounts(DiscountRepository repo, Discount... discounts) {
+        DiscountRanking ranking = new DiscountRanking();
+        ranking.apply(new CatalogDelta<>("lidl_discounts_2025-05-01.csv", 1, List.of(discounts), List.of()));
+        when(repo.loadAllEntries()).thenReturn(List.of(discounts));
+        when(repo.findHighestActiveDiscounts(any(), anyInt()))
+                .thenAnswer(invocation -> ranking.findHighest(invocation.getArgument(0), invocation.getArgument(1)));
+        when(repo.findMaxActiveDiscountPerProduct(any(), anyInt()))
+                .thenAnswer(invocation -> ranking.findMaxPerProduct(invocation.getArgument(0), invocation.getArgument(1)));
+    }
+}
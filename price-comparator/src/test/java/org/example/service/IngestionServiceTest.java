@@ -0,0 +1,77 @@
+package org.example.service;
+
+import org.example.model.Discount;
+import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
+import org.example.repository.DiscountRepository;
+import org.example.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class IngestionServiceTest {
+
+    private ProductRepository productRepository;
+    private DiscountRepository discountRepository;
+    private List<CatalogDelta<PriceEntry>> receivedDeltas;
+    private IngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        discountRepository = mock(DiscountRepository.class);
+        receivedDeltas = new ArrayList<>();
+
+        IngestionListener listener = new IngestionListener() {
+            @Override
+            public void onPriceDelta(CatalogDelta<PriceEntry> delta) {
+                receivedDeltas.add(delta);
+            }
+        };
+        ingestionService = new IngestionService(productRepository, discountRepository, List.of(listener));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCatalogDeltasArePublishedToListeners() {
+        ArgumentCaptor<Consumer<CatalogDelta<PriceEntry>>> captor = ArgumentCaptor.forClass(Consumer.class);
+        verify(productRepository).addCatalogListener(captor.capture());
+        verify(discountRepository).addCatalogListener(any());
+
+        PriceEntry entry = new PriceEntry("P001", "lapte zuzu", "lactate", "Zuzu", 1, "l", "Lidl", LocalDate.now(), 9.9, "RON");
+        CatalogDelta<PriceEntry> delta = new CatalogDelta<>("lidl_2025-05-08.csv", 2, List.of(entry), List.of());
+        captor.getValue().accept(delta);
+
+        assertEquals(List.of(delta), receivedDeltas);
+    }
+
+    @Test
+    void testIngestHandsTheFileToBothCatalogs() {
+        Path file = Path.of("src/main/resources/data/lidl_discounts_2025-05-08.csv");
+        when(discountRepository.ingestFile(file.toString()))
+                .thenReturn(new CatalogDelta<Discount>(file.toString(), 3, List.of(), List.of()));
+
+        ingestionService.ingest(file);
+
+        verify(productRepository).ingestFile(file.toString());
+        verify(discountRepository).ingestFile(file.toString());
+    }
+
+    @Test
+    void testRescanChecksBothCatalogs() {
+        ingestionService.rescan();
+
+        verify(productRepository).rescanDirectory();
+        verify(discountRepository).rescanDirectory();
+    }
+}
@@ -3,6 +3,7 @@ package org.example.service;
 import org.example.dto.PriceAlertDTO;
 import org.example.model.PriceAlert;
 import org.example.model.PriceEntry;
+import org.example.repository.CatalogDelta;
 import org.example.repository.PriceAlertRepository;
 import org.example.repository.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,7 +40,7 @@ public class PriceAlertServiceTest {
         alert.setTargetPrice(10.0);
 
         when(alertRepository.save(any(PriceAlert.class))).thenReturn(alert);
-        when(productRepository.findByProductName("P001")).thenReturn(List.of());
+        when(productRepository.findCheapestCurrentEntry("P001")).thenReturn(null);
 
         PriceAlertDTO result = priceAlertService.createAlert("U1", "P001", 10.0);
 
@@ -58,7 +59,7 @@ public class PriceAlertServiceTest {
         alert.setActive(true);
 
         when(alertRepository.findByUserId("U1")).thenReturn(List.of(alert));
-        when(productRepository.findByProductName("P001")).thenReturn(List.of());
+        when(productRepository.findCheapestCurrentEntry("P001")).thenReturn(null);
 
         List<PriceAlertDTO> results = priceAlertService.getUserAlerts("U1");
         assertEquals(1, results.size());
@@ -80,7 +81,7 @@ public class PriceAlertServiceTest {
         alert.setTargetPrice(15.0);
 
         when(alertRepository.findById(1L)).thenReturn(alert);
-        when(productRepository.findByProductName("P001")).thenReturn(List.of());
+        when(productRepository.findCheapestCurrentEntry("P001")).thenReturn(null);
         when(alertRepository.save(any(PriceAlert.class))).thenReturn(alert);
 
         PriceAlertDTO result = priceAlertService.updateAlert(1L, 8.0);
@@ -101,7 +102,7 @@ public class PriceAlertServiceTest {
         alert.setTriggeredAt(LocalDateTime.now());
 
         when(alertRepository.findByUserId("U1")).thenReturn(List.of(alert));
-        when(productRepository.findByProductName("P001")).thenReturn(List.of());
+        when(productRepository.findCheapestCurrentEntry("P001")).thenReturn(null);
 
         List<PriceAlertDTO> results = priceAlertService.getTriggeredAlerts("U1");
 
@@ -121,11 +122,37 @@ public class PriceAlertServiceTest {
         PriceEntry priceEntry = new PriceEntry("P001", "Detergent", "Curatenie", "Ariel", 1, "kg", "Lidl", LocalDate.now(), 7.0, "RON");
 
         when(alertRepository.findAllActive()).thenReturn(List.of(alert));
-        when(productRepository.findByProductName("P001")).thenReturn(List.of(priceEntry));
+        when(productRepository.findCheapestCurrentEntry("P001")).thenReturn(priceEntry);
         when(alertRepository.save(any(PriceAlert.class))).thenReturn(alert);
 
         priceAlertService.checkPriceAlerts();
 
         verify(alertRepository).save(argThat(a -> !a.isActive() && a.getTriggeredAt() != null));
     }
+
+    @Test
+    public void testOnPriceDeltaChecksOnlyAffectedProducts() {
+        PriceAlert affected = new PriceAlert();
+        affected.setId(1L);
+        affected.setProductId("lapte zuzu");
+        affected.setTargetPrice(9.0);
+        affected.setActive(true);
+
+        PriceAlert unaffected = new PriceAlert();
+        unaffected.setId(2L);
+        unaffected.setProductId("paine alba");
+        unaffected.setTargetPrice(9.0);
+        unaffected.setActive(true);
+
+        PriceEntry priceEntry = new PriceEntry("P001", "lapte zuzu", "lactate", "Zuzu", 1, "l", "Lidl", LocalDate.now(), 7.0, "RON");
+        CatalogDelta<PriceEntry> delta = new CatalogDelta<>("lidl_2025-05-08.csv", 2, List.of(priceEntry), List.of());
+
+        when(alertRepository.findAllActive()).thenReturn(List.of(affected, unaffected));
+        when(productRepository.findCheapestCurrentEntry("lapte zuzu")).thenReturn(priceEntry);
+
+        priceAlertService.onPriceDelta(delta);
+
+        verify(alertRepository).save(argThat(a -> a.getId() == 1L && !a.isActive()));
+        verify(productRepository, never()).findCheapestCurrentEntry("paine alba");
+    }
 }
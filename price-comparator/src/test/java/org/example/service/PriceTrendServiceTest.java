@@ -1,6 +1,10 @@
 package org.example.service;
 
 import org.example.dto.PriceEntryDTO;
+import org.example.dto.PriceTrendPageDTO;
+import org.example.repository.Granularity;
+import org.example.repository.HistoryCursor;
+import org.example.repository.PriceRollup;
 import org.example.model.PriceEntry;
 import org.example.repository.ProductRepository;
 import org.junit.Before;
@@ -11,6 +15,7 @@ import java.util.Collections;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 
@@ -46,23 +51,24 @@ public class PriceTrendServiceTest {
                 sampleEntries.get(3),
                 sampleEntries.get(4)
         );
-        when(mockRepo.findByProductName("P001")).thenReturn(productEntries);
+        when(mockRepo.findPriceHistory("P001", null, null)).thenReturn(productEntries);
 
         List<PriceEntryDTO> result = service.getPriceTrendsForProduct("P001");
 
         assertEquals(5, result.size());
-        verify(mockRepo, times(1)).findByProductName("P001");
+        verify(mockRepo, times(1)).findPriceHistory("P001", null, null);
     }
 
     @Test
     public void testGetPriceTrendsForProductWithNoEntries() {
-        when(mockRepo.findByProductName("Noname")).thenReturn(Collections.emptyList());
+        when(mockRepo.findPriceHistory("Noname", null, null)).thenReturn(Collections.emptyList());
         List<PriceEntryDTO> result = service.getPriceTrendsForProduct("Noname");
         assertTrue(result.isEmpty());
-        verify(mockRepo, times(1)).findByProductName("Noname");
+        verify(mockRepo, times(1)).findPriceHistory("Noname", null, null);
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void testGetPriceTrendsByCategory() {
         List<PriceEntry> categoryEntries = List.of(
                 sampleEntries.get(0),
@@ -71,25 +77,27 @@ public class PriceTrendServiceTest {
                 sampleEntries.get(3),
                 sampleEntries.get(4)
         );
-        when(mockRepo.findByProductCategory("Curatare")).thenReturn(categoryEntries);
+        when(mockRepo.findPriceHistoryByCategory("Curatare", null, null)).thenReturn(categoryEntries);
 
         List<PriceEntryDTO> result = service.getPriceTrendsByCategory("Curatare");
         assertEquals(5, result.size());
 
-        verify(mockRepo, times(1)).findByProductCategory("Curatare");
+        verify(mockRepo, times(1)).findPriceHistoryByCategory("Curatare", null, null);
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void testGetPriceTrendsByCategoryWithNoEntries() {
-        when(mockRepo.findByProductCategory("Noname")).thenReturn(Collections.emptyList());
+        when(mockRepo.findPriceHistoryByCategory("Noname", null, null)).thenReturn(Collections.emptyList());
 
         List<PriceEntryDTO> result = service.getPriceTrendsByCategory("Noname");
 
         assertTrue(result.isEmpty());
-        verify(mockRepo, times(1)).findByProductCategory("Noname");
+        verify(mockRepo, times(1)).findPriceHistoryByCategory("Noname", null, null);
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void testGetPriceTrendsByBrand() {
         List<PriceEntry> brandEntries = List.of(
                 sampleEntries.get(0),
@@ -98,31 +106,33 @@ public class PriceTrendServiceTest {
                 sampleEntries.get(3),
                 sampleEntries.get(4)
         );
-        when(mockRepo.findByBrand("Ariel")).thenReturn(brandEntries);
+        when(mockRepo.findPriceHistoryByBrand("Ariel", null, null)).thenReturn(brandEntries);
 
         List<PriceEntryDTO> result = service.getPriceTrendsByBrand("Ariel");
         assertEquals(5, result.size());
 
-        verify(mockRepo, times(1)).findByBrand("Ariel");
+        verify(mockRepo, times(1)).findPriceHistoryByBrand("Ariel", null, null);
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void testGetPriceTrendsByBrandWithNoEntries() {
-        when(mockRepo.findByBrand("Noname")).thenReturn(Collections.emptyList());
+        when(mockRepo.findPriceHistoryByBrand("Noname", null, null)).thenReturn(Collections.emptyList());
 
         List<PriceEntryDTO> result = service.getPriceTrendsByBrand("Noname");
 
         assertTrue(result.isEmpty());
-        verify(mockRepo, times(1)).findByBrand("Noname");
+        verify(mockRepo, times(1)).findPriceHistoryByBrand("Noname", null, null);
     }
 
     @Test
+    @SuppressWarnings("deprecation")
     public void testMultipleBrandsInSameCategory() {
         List<PriceEntry> dairyEntries = List.of(
                 sampleEntries.get(7),
                 sampleEntries.get(8)
         );
-        when(mockRepo.findByProductCategory("Lactate")).thenReturn(dairyEntries);
+        when(mockRepo.findPriceHistoryByCategory("Lactate", null, null)).thenReturn(dairyEntries);
 
         List<PriceEntryDTO> result = service.getPriceTrendsByCategory("Lactate");
 
@@ -130,6 +140,66 @@ public class PriceTrendServiceTest {
         assertEquals(LocalDate.of(2023, 3, 15), result.get(0).getDate());
         assertEquals(LocalDate.of(2023, 3, 20), result.get(1).getDate());
 
-        verify(mockRepo, times(1)).findByProductCategory("Lactate");
+        verify(mockRepo, times(1)).findPriceHistoryByCategory("Lactate", null, null);
+    }
+
+    @Test
+    public void testGetPriceTrendsPageByCategory() {
+        when(mockRepo.findPriceHistoryPageByCategory("Curatare", null, null, null, 2))
+                .thenReturn(sampleEntries.subList(0, 2));
+        when(mockRepo.findPriceHistoryPageByCategory("Curatare", null, null, HistoryCursor.of(sampleEntries.get(1)), 2))
+                .thenReturn(sampleEntries.subList(2, 3));
+
+        PriceTrendPageDTO first = service.getPriceTrendsPageByCategory("Curatare", null, null, null, 2);
+        assertEquals(2, first.getEntries().size());
+
+        PriceTrendPageDTO second = service.getPriceTrendsPageByCategory("Curatare", null, null, first.getNextCursor(), 2);
+        assertEquals(1, second.getEntries().size());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void testGetPriceRollupsPageByBrand() {
+        PriceRollup lidl = new PriceRollup("P001", "Detergent", "Lidl", LocalDate.of(2023, 1, 1), 1.99, 2.49, 2.24, 1.99, 2.49, 2);
+        PriceRollup kaufland = new PriceRollup("P001", "Detergent", "Kaufland", LocalDate.of(2024, 1, 1), 3.10, 3.10, 3.10, 3.10, 3.10, 1);
+        when(mockRepo.findPriceRollupsPageByBrand("Ariel", Granularity.MONTH, null, null, null, 1))
+                .thenReturn(List.of(lidl));
+        when(mockRepo.findPriceRollupsPageByBrand("Ariel", Granularity.MONTH, null, null, HistoryCursor.of(lidl), 1))
+                .thenReturn(List.of(kaufland));
+
+        PriceTrendPageDTO first = service.getPriceRollupsPageByBrand("Ariel", Granularity.MONTH, null, null, null, 1);
+        assertTrue(first.getEntries().isEmpty());
+        assertEquals("Lidl", first.getRollups().get(0).getStoreName());
+
+        PriceTrendPageDTO second = service.getPriceRollupsPageByBrand("Ariel", Granularity.MONTH, null, null,
+                first.getNextCursor(), 1);
+        assertEquals(3.10, second.getRollups().get(0).getAvgPrice(), 0.001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRollupPageSizeIsValidated() {
+        service.getPriceRollupsPageByCategory("Curatare", Granularity.WEEK, null, null, null, -1);
+    }
+
+    @Test
+    public void testPageSizeIsCapped() {
+        when(mockRepo.findPriceHistoryPageByBrand("Ariel", null, null, null, PriceTrendService.MAX_PAGE_SIZE))
+                .thenReturn(Collections.emptyList());
+
+        PriceTrendPageDTO page = service.getPriceTrendsPageByBrand("Ariel", null, null, null, 1_000_000);
+
+        assertTrue(page.getEntries().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(mockRepo, times(1)).findPriceHistoryPageByBrand("Ariel", null, null, null, PriceTrendService.MAX_PAGE_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedCursorIsRejected() {
+        service.getPriceTrendsPageByBrand("Ariel", null, null, "%%%", 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositivePageSizeIsRejected() {
+        service.getPriceTrendsPageByBrand("Ariel", null, null, null, 0);
     }
 }
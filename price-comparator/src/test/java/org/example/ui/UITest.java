@@ -0,0 +1,85 @@
+package org.example.ui;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.controller.BasketOptimizationController;
+import org.example.controller.PriceTrendController;
+import org.example.dto.BasketItemDTO;
+import org.example.dto.OptimizedBasketDTO;
+import org.example.dto.PriceEntryDTO;
+import org.example.model.BasketItem;
+import org.example.model.PriceEntry;
+import org.example.repository.DiscountRepository;
+import org.example.repository.ProductRepository;
+import org.example.service.BasketOptimizationService;
+import org.example.service.ProductSearchService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UITest {
+
+    @Mock
+    private PriceTrendController priceTrendController;
+
+    @Mock
+    private ProductSearchService productSearchService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private DiscountRepository discountRepository;
+
+    private BasketOptimizationController basketOptimizationController;
+    private UI ui;
+
+    @BeforeEach
+    void setUp() {
+        basketOptimizationController = new BasketOptimizationController(
+                new BasketOptimizationService(productRepository, discountRepository), new ObjectMapper());
+        ui = new UI(priceTrendController, basketOptimizationController, null, null, null, null, null,
+                productSearchService);
+    }
+
+    @Test
+    void testFoldedNameResolvesToTheCatalogProductInTheShoppingList() {
+        LocalDate today = LocalDate.now();
+        when(priceTrendController.getPriceTrendsForProduct("oua marimea m", null, null)).thenReturn(List.of());
+        when(productSearchService.autocomplete("oua marimea m", 5)).thenReturn(List.of("Ouă mărimea M"));
+        when(priceTrendController.getPriceTrendsForProduct("Ouă mărimea M", null, null)).thenReturn(List.of(
+                new PriceEntryDTO("P010", "Ouă mărimea M", "Lidl", today, 12.5)));
+        when(productRepository.loadAllEntries()).thenReturn(List.of(
+                new PriceEntry("P010", "Ouă mărimea M", "Ouă", "Lidl", 10.0, "buc", "Lidl", today, 12.5, "RON")));
+
+        List<BasketItem> basket = ui.readBasket("oua marimea m:2");
+
+        assertEquals(1, basket.size());
+        assertEquals("Ouă mărimea M", basket.get(0).getProductName());
+        assertEquals("P010", basket.get(0).getProductId());
+
+        OptimizedBasketDTO optimized = basketOptimizationController.optimizeBasket(basket);
+        assertEquals(1, optimized.getShoppingLists().size());
+        assertEquals("Lidl", optimized.getShoppingLists().get(0).getStoreName());
+        BasketItemDTO item = optimized.getShoppingLists().get(0).getItems().get(0);
+        assertEquals("Ouă mărimea M", item.getProductName());
+        assertEquals(2, item.getQuantity());
+        assertEquals(25.0, item.getPrice(), 0.001);
+    }
+
+    @Test
+    void testUnknownNameIsLeftOutOfTheBasket() {
+        when(priceTrendController.getPriceTrendsForProduct("caviar", null, null)).thenReturn(List.of());
+        when(productSearchService.autocomplete("caviar", 5)).thenReturn(List.of());
+
+        assertTrue(ui.readBasket("caviar:1, lapte").isEmpty());
+    }
+}
@@ -0,0 +1,158 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CsvUtilTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testForEachRowSkipsHeaderAndSplitsFields() throws IOException {
+        Path file = tempDir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(file, "product_id;product_name;price\r\nP001;ouă mărimea M;13.20\r\n\nP002;;3.50", StandardCharsets.UTF_8);
+
+        List<List<String>> rows = new ArrayList<>();
+        CsvUtil.forEachRow(file.toString(), ';', row -> {
+            List<String> fields = new ArrayList<>();
+            for (int i = 0; i < row.getFieldCount(); i++) {
+                fields.add(row.getString(i));
+            }
+            rows.add(fields);
+        });
+
+        assertEquals(2, rows.size());
+        assertEquals(List.of("P001", "ouă mărimea M", "13.20"), rows.get(0));
+        assertEquals(List.of("P002", "", "3.50"), rows.get(1));
+    }
+
+    @Test
+    void testForEachRowParsesNumericFields() throws IOException {
+        Path file = tempDir.resolve("profi_2025-05-01.csv");
+        Files.writeString(file, "header\nP001;0.4;11.50\n");
+
+        List<Double> prices = new ArrayList<>();
+        CsvUtil.forEachRow(file.toString(), ';', row -> prices.add(row.getDouble(1) + row.getDouble(2)));
+
+        assertEquals(1, prices.size());
+        assertEquals(11.9, prices.get(0), 0.0001);
+    }
+
+    @Test
+    void testForEachRowParsesDatesAndFixedPointFields() throws IOException {
+        Path file = tempDir.resolve("lidl_discounts_2025-05-01.csv");
+        Files.writeString(file, "header\nP001;2025-05-01;2025-05-07;9.90\n");
+
+        List<Object> values = new ArrayList<>();
+        CsvUtil.forEachRow(file.toString(), ';', row -> {
+            values.add(row.getDate(1));
+            values.add(row.getEpochDay(2));
+            values.add(row.getFixedPoint(3, 2));
+        });
+
+        assertEquals(List.of(LocalDate.of(2025, 5, 1), LocalDate.of(2025, 5, 7).toEpochDay(), 990L), values);
+    }
+
+    @Test
+    void testForEachRowOnMissingFileReadsNothing() {
+        List<CsvUtil.CsvRow> rows = new ArrayList<>();
+        CsvUtil.forEachRow(tempDir.resolve("missing.csv").toString(), ';', rows::add);
+        assertTrue(rows.isEmpty());
+    }
+
+    @Test
+    void testForEachRowStreamsGzipFileAcrossChunks() throws IOException, NoSuchAlgorithmException {
+        StringBuilder content = new StringBuilder("product_id;product_name;price\n");
+        for (int i = 0; i < 500; i++) {
+            content.append("P").append(i).append(";ouă mărimea M ").append(i).append(";").append(i).append(".50\n");
+        }
+        content.append("P500;lapte;1.25");
+        Path file = tempDir.resolve("lidl_2025-05-01.csv.gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(content.toString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        List<String> names = new ArrayList<>();
+        List<Double> prices = new ArrayList<>();
+        CsvUtil.forEachRow(file.toString(), ';', 512, 16, row -> {
+            names.add(row.getString(1));
+            prices.add(row.getDouble(2));
+        });
+
+        assertEquals(501, names.size());
+        assertEquals("ouă mărimea M 0", names.get(0));
+        assertEquals("lapte", names.get(500));
+        assertEquals(499.5, prices.get(499), 0.0001);
+
+        CsvUtil.ReadStats stats = CsvUtil.takeLastReadStats();
+        assertEquals(FileNameUtil.Compression.GZIP, stats.compression());
+        assertEquals(Files.size(file), stats.sourceBytes());
+        assertEquals(content.toString().getBytes(StandardCharsets.UTF_8).length, stats.decodedBytes());
+        assertEquals(sha256(Files.readAllBytes(file)), stats.sourceHash());
+        assertNull(CsvUtil.takeLastReadStats());
+    }
+
+    @Test
+    void testReadStatsHashTheMappedFile() throws IOException, NoSuchAlgorithmException {
+        Path file = tempDir.resolve("lidl_2025-05-01.csv");
+        Files.writeString(file, "product_id;price\nP001;9.90\nP002;1.25");
+
+        CsvUtil.forEachRow(file.toString(), ';', row -> { });
+
+        CsvUtil.ReadStats stats = CsvUtil.takeLastReadStats();
+        assertEquals(Files.size(file), stats.sourceBytes());
+        assertEquals(sha256(Files.readAllBytes(file)), stats.sourceHash());
+    }
+
+    private static String sha256(byte[] content) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    @Test
+    void testFileNameUtilRecognizesCompressedFeeds() {
+        FileNameUtil.FileInfo priceInfo = FileNameUtil.parseFileName("lidl_2025-05-01.csv.gz");
+        assertEquals("lidl", priceInfo.getStoreName());
+        assertEquals(LocalDate.of(2025, 5, 1), priceInfo.getDate());
+        assertFalse(priceInfo.isDiscountFile());
+        assertEquals(FileNameUtil.Compression.GZIP, priceInfo.getCompression());
+
+        FileNameUtil.FileInfo discountInfo = FileNameUtil.parseFileName("kaufland_discounts_2025-05-08.csv.gz");
+        assertTrue(discountInfo.isDiscountFile());
+        assertEquals(FileNameUtil.Compression.GZIP, discountInfo.getCompression());
+
+        assertFalse(FileNameUtil.isCsvFile("kaufland_discounts_2025-05-08.csv.zst"));
+        assertEquals("unknown", FileNameUtil.parseFileName("kaufland_discounts_2025-05-08.csv.zst").getStoreName());
+
+        assertTrue(FileNameUtil.isCsvFile("profi_2025-05-01.CSV"));
+        assertFalse(FileNameUtil.isCsvFile("prices.snapshot"));
+    }
+
+    @Test
+    void testScanRowsStopsAtIncompleteRow() {
+        ByteBuffer buffer = ByteBuffer.wrap("a;b\nc;d\ne;".getBytes(StandardCharsets.UTF_8));
+
+        List<String> firstFields = new ArrayList<>();
+        int consumed = CsvUtil.scanRows(buffer, (byte) ';', false, false, new CsvUtil.CsvRow(),
+                row -> firstFields.add(row.getString(0)));
+
+        assertEquals(8, consumed);
+        assertEquals(List.of("a", "c"), firstFields);
+    }
+}
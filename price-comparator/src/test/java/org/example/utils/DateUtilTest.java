@@ -0,0 +1,47 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DateUtilTest {
+
+    @Test
+    void testParseEpochDayMatchesLocalDate() {
+        for (LocalDate date = LocalDate.of(1999, 12, 25); date.isBefore(LocalDate.of(2101, 3, 5)); date = date.plusDays(13)) {
+            String text = date.toString();
+            assertEquals(date.toEpochDay(), DateUtil.parseEpochDay(text, 0, text.length()), text);
+        }
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), DateUtil.parseEpochDay("2024-02-29", 0, 10));
+    }
+
+    @Test
+    void testParseEpochDayFromByteSlice() {
+        ByteBuffer buffer = ByteBuffer.wrap("P001;2025-05-01;2025-05-07".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(LocalDate.of(2025, 5, 7).toEpochDay(), DateUtil.parseEpochDay(buffer, 16, 10));
+    }
+
+    @Test
+    void testParseEpochDayRejectsInvalidDates() {
+        assertThrows(DateTimeParseException.class, () -> DateUtil.parseEpochDay("2025-13-01", 0, 10));
+        assertThrows(DateTimeParseException.class, () -> DateUtil.parseEpochDay("2025-02-29", 0, 10));
+        assertThrows(DateTimeParseException.class, () -> DateUtil.parseEpochDay("2025/05/01", 0, 10));
+        assertThrows(DateTimeParseException.class, () -> DateUtil.parseEpochDay("2025-5-1", 0, 8));
+    }
+
+    @Test
+    void testRecentDatesAreReused() {
+        LocalDate first = DateUtil.parseDate("2025-05-08");
+        LocalDate second = DateUtil.parseDate("2025-05-08");
+
+        assertEquals(LocalDate.of(2025, 5, 8), first);
+        assertSame(first, second);
+        assertThrows(DateTimeParseException.class, () -> DateUtil.parseDate("08.05.2025"));
+    }
+}
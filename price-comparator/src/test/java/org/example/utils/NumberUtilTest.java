@@ -0,0 +1,46 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NumberUtilTest {
+
+    @Test
+    void testParseFixedPoint() {
+        assertEquals(990, NumberUtil.parseFixedPoint("9.90", 0, 4, 2));
+        assertEquals(900, NumberUtil.parseFixedPoint("9", 0, 1, 2));
+        assertEquals(50, NumberUtil.parseFixedPoint(".5", 0, 2, 2));
+        assertEquals(-1250, NumberUtil.parseFixedPoint("-12.5", 0, 5, 2));
+        assertEquals(101, NumberUtil.parseFixedPoint("1.005", 0, 5, 2));
+        assertEquals(100, NumberUtil.parseFixedPoint("1.004", 0, 5, 2));
+    }
+
+    @Test
+    void testParseFixedPointFromByteSlice() {
+        ByteBuffer buffer = ByteBuffer.wrap("P001;13.20;RON".getBytes(StandardCharsets.US_ASCII));
+
+        assertEquals(1320, NumberUtil.parseFixedPoint(buffer, 5, 5, 2));
+    }
+
+    @Test
+    void testParseFixedPointRejectsInvalidInput() {
+        assertThrows(NumberFormatException.class, () -> NumberUtil.parseFixedPoint("9,90", 0, 4, 2));
+        assertThrows(NumberFormatException.class, () -> NumberUtil.parseFixedPoint("", 0, 0, 2));
+        assertThrows(NumberFormatException.class, () -> NumberUtil.parseFixedPoint("1.2.3", 0, 5, 2));
+    }
+
+    @Test
+    void testParseDoubleMatchesDoubleParseDouble() {
+        String[] values = {"9.90", "0.1", "0.3", "1", "-7.25", "123456.789", "0.000001", "1e3", "12345678901234567890"};
+        for (String value : values) {
+            assertEquals(Double.parseDouble(value), NumberUtil.parseDouble(value, 0, value.length()), value);
+            ByteBuffer buffer = ByteBuffer.wrap(value.getBytes(StandardCharsets.US_ASCII));
+            assertEquals(Double.parseDouble(value), NumberUtil.parseDouble(buffer, 0, value.length()), value);
+        }
+        assertThrows(NumberFormatException.class, () -> NumberUtil.parseDouble("abc", 0, 3));
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TextUtilTest {
+
+    @Test
+    void testFoldRemovesDiacriticsAndCase() {
+        assertEquals("oua marimea m", TextUtil.fold("Ouă  Mărimea M"));
+        assertEquals("sampon tuica", TextUtil.fold("Șampon țuică"));
+        assertEquals("sampon tuica", TextUtil.fold("Şampon ţuică"));
+    }
+
+    @Test
+    void testFoldTurnsPunctuationIntoSingleSpaces() {
+        assertEquals("lapte 3 5", TextUtil.fold(" lapte, 3.5% "));
+        assertEquals("", TextUtil.fold(null));
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UnitUtilTest {
+
+    @Test
+    void testCanonicalUnit() {
+        assertEquals("kg", UnitUtil.canonicalUnit("g"));
+        assertEquals("kg", UnitUtil.canonicalUnit("KG"));
+        assertEquals("l", UnitUtil.canonicalUnit("ml"));
+        assertEquals("buc", UnitUtil.canonicalUnit("buc"));
+        assertEquals("role", UnitUtil.canonicalUnit("role"));
+        assertNull(UnitUtil.canonicalUnit(null));
+    }
+
+    @Test
+    void testUnitPriceComparesPackagesOfDifferentUnits() {
+        assertEquals(9.0, UnitUtil.unitPrice(4.5, 500, "g"), 1e-9);
+        assertEquals(8.0, UnitUtil.unitPrice(8.0, 1, "kg"), 1e-9);
+        assertEquals(12.0, UnitUtil.unitPrice(3.0, 250, "ml"), 1e-9);
+        assertEquals(2.5, UnitUtil.unitPrice(2.5, 0, "buc"), 1e-9);
+    }
+}